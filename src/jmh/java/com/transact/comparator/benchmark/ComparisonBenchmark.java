@@ -0,0 +1,95 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.ParsedFileCache;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+
+/**
+ * End-to-end comparison of two synthetic uploads of {@code rows} transactions, where {@code matchRatio}
+ * of the second file are exact matches and half of the rest are potential matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ComparisonBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"0.1", "0.5", "0.9"})
+    private double matchRatio;
+
+    @Param({"blocking", "sweep-line"})
+    private String engine;
+
+    private ExecutorService parsingExecutor;
+    private ForkJoinPool chunkParsingPool;
+    private ForkJoinPool matchingPool;
+    private ComparisonService comparisonService;
+    private MockMultipartFile firstFile;
+    private MockMultipartFile secondFile;
+
+    @Setup
+    public void setUp() {
+        // every invocation compares the same uploads, the parsed file cache would skip the parsing
+        final ComparatorProperties comparatorProperties = properties(Map.of("comparator.matching.engine", engine,
+                "comparator.cache.enabled", "false"));
+        parsingExecutor = Executors.newFixedThreadPool(2);
+        chunkParsingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        matchingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        final ComparisonMetrics comparisonMetrics = new ComparisonMetrics(new SimpleMeterRegistry());
+        comparisonService = new ComparisonService(new CsvParsingService(comparatorProperties, chunkParsingPool,
+                        new ParsedFileCache(comparatorProperties, new SimpleMeterRegistry())),
+                comparatorProperties, parsingExecutor, new OutOfCoreComparisonEngine(comparatorProperties, comparisonMetrics),
+                comparisonMetrics, matchingPool);
+
+        final List<Transaction> firstTransactions = TransactionDataGenerator.transactions(rows, 1);
+        firstFile = TransactionDataGenerator.toFile("first.csv", firstTransactions);
+        secondFile = TransactionDataGenerator.toFile("second.csv",
+                TransactionDataGenerator.counterpart(firstTransactions, matchRatio, 2));
+    }
+
+    @TearDown
+    public void tearDown() {
+        parsingExecutor.shutdown();
+        chunkParsingPool.shutdown();
+        matchingPool.shutdown();
+    }
+
+    @Benchmark
+    public ComparisonResultDto compare() {
+        return comparisonService.compare(firstFile, secondFile);
+    }
+
+}
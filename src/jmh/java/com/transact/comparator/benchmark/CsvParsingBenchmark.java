@@ -0,0 +1,84 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.ParsedFileCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+
+/**
+ * Parses a synthetic upload of {@code rows} transactions, sequentially or in parallel chunks, with the
+ * transaction specific reader or the generic CSV mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvParsingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    @Param({"false", "true"})
+    private boolean fastPath;
+
+    private ForkJoinPool chunkParsingPool;
+    private CsvParsingService csvParsingService;
+    private MockMultipartFile file;
+
+    @Setup
+    public void setUp() {
+        chunkParsingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        final ComparatorProperties comparatorProperties = properties(Map.of(
+                "comparator.parsing.parallel", String.valueOf(parallel),
+                "comparator.parsing.parallel-threshold", "0B",
+                "comparator.parsing.chunk-size", "1MB",
+                "comparator.parsing.fast-path", String.valueOf(fastPath),
+                "comparator.cache.enabled", "false"));
+        csvParsingService = new CsvParsingService(comparatorProperties, chunkParsingPool,
+                new ParsedFileCache(comparatorProperties, new SimpleMeterRegistry()));
+        file = TransactionDataGenerator.toFile("transactions.csv", TransactionDataGenerator.transactions(rows, 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        chunkParsingPool.shutdown();
+    }
+
+    @Benchmark
+    public Set<Transaction> parseTransactions() {
+        return csvParsingService.parseTransactions(file);
+    }
+
+    @Benchmark
+    public TransactionTable parseTable() {
+        return csvParsingService.parseTable(file);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import com.transact.comparator.service.matching.BlockingIndex;
+import com.transact.comparator.service.matching.MatchRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Potential matching of {@code rows} transactions with random 16 digit processor ids, whose counterparts
+ * have their id truncated or with one digit changed and their date a day later, so only the id tolerance
+ * can match them. The id index keeps the cost per transaction nearly flat as the files grow, where a
+ * linear scan would grow with them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FuzzyIdMatchingBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"0", "1", "2"})
+    private int idTolerance;
+
+    private PotentialMatchCalculator calculator;
+    private TransactionTable firstTable;
+    private TransactionTable secondTable;
+    private int[] secondRows;
+
+    @Setup
+    public void setUp() {
+        calculator = PotentialMatchCalculator.compile(new MatchRules(null, null, null, null, idTolerance));
+        final List<Transaction> firstTransactions = TransactionDataGenerator.transactions(rows, 1);
+        final Random random = new Random(2);
+        final List<Transaction> secondTransactions = new ArrayList<>(rows);
+        for (final Transaction transaction : firstTransactions) {
+            final String id = String.format("%08d%08d", random.nextInt(100_000_000), random.nextInt(100_000_000));
+            transaction.setId(id);
+            final String reformattedId = random.nextBoolean()
+                    ? id.substring(0, id.length() - 1)
+                    : id.substring(0, 6) + (char) ('0' + random.nextInt(10)) + id.substring(7);
+            secondTransactions.add(Transaction.builder()
+                    .id(reformattedId)
+                    .date(transaction.getDate().plusDays(1))
+                    .amount(transaction.getAmount().negate())
+                    .type(transaction.getType())
+                    .walletReference(transaction.getWalletReference())
+                    .build());
+        }
+        firstTable = TransactionTable.of(firstTransactions);
+        secondTable = TransactionTable.of(secondTransactions);
+        secondRows = IntStream.range(0, rows).toArray();
+    }
+
+    @Benchmark
+    public int claimFirstMatches() {
+        final BlockingIndex index = new BlockingIndex(secondTable, secondRows, calculator);
+        int matches = 0;
+        for (int row = 0; row < rows; row++) {
+            if (index.claimFirstMatch(firstTable, row) >= 0) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+}
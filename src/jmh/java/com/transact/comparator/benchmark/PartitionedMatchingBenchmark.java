@@ -0,0 +1,85 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import com.transact.comparator.service.matching.MatchAssignment;
+import com.transact.comparator.service.matching.MatchingEngine;
+import com.transact.comparator.service.matching.PartitionedMatcher;
+import com.transact.comparator.service.matching.PotentialMatchFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Potential matching of {@code rows} unmatched transactions of each file, half of them potential matches, on a
+ * pool of {@code threads} threads, 0 standing for sequential matching without partitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedMatchingBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"first-fit", "best-score"})
+    private String assignment;
+
+    private MatchAssignment matchAssignment;
+    private TransactionTable firstTable;
+    private TransactionTable secondTable;
+    private int[] allRows;
+    private ForkJoinPool matchingPool;
+
+    @Setup
+    public void setUp() {
+        matchAssignment = MatchAssignment.valueOf(assignment.toUpperCase().replace('-', '_'));
+        final List<Transaction> firstTransactions = TransactionDataGenerator.transactions(rows, 1);
+        firstTable = TransactionTable.of(firstTransactions);
+        secondTable = TransactionTable.of(TransactionDataGenerator.counterpart(firstTransactions, 0, 2));
+        allRows = IntStream.range(0, rows).toArray();
+        matchingPool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    @TearDown
+    public void tearDown() {
+        matchingPool.shutdown();
+    }
+
+    @Benchmark
+    public int[] match() {
+        if (threads == 0) {
+            final PotentialMatchFinder index = MatchingEngine.BLOCKING.index(secondTable, allRows,
+                    PotentialMatchCalculator.DEFAULT);
+            final IntUnaryOperator potentialMatches = matchAssignment.assign(index, firstTable, allRows, 5);
+            return IntStream.of(allRows).map(potentialMatches).toArray();
+        }
+
+        return new PartitionedMatcher(MatchingEngine.BLOCKING, matchAssignment, 5, matchingPool)
+                .match(firstTable, allRows, secondTable, allRows, PotentialMatchCalculator.DEFAULT)
+                .potentialMatches();
+    }
+
+}
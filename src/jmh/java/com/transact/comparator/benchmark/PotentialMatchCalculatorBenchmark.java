@@ -0,0 +1,75 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores a batch of transaction pairs, the inner loop of potential matching. Results are per pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PotentialMatchCalculatorBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"0.1", "0.5", "0.9"})
+    private double matchRatio;
+
+    private List<Transaction> firstTransactions;
+    private List<Transaction> secondTransactions;
+    private TransactionTable firstTable;
+    private TransactionTable secondTable;
+
+    @Setup
+    public void setUp() {
+        firstTransactions = TransactionDataGenerator.transactions(PAIRS, 1);
+        secondTransactions = TransactionDataGenerator.counterpart(firstTransactions, matchRatio, 2);
+        firstTable = TransactionTable.of(firstTransactions);
+        secondTable = TransactionTable.of(secondTransactions);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int arePotentialMatchTransactions() {
+        int matches = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (PotentialMatchCalculator.DEFAULT.arePotentialMatch(firstTransactions.get(i), secondTransactions.get(i))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public int arePotentialMatchRows() {
+        int matches = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            if (PotentialMatchCalculator.DEFAULT.arePotentialMatch(firstTable, i, secondTable, i)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+}
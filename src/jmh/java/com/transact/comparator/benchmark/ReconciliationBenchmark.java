@@ -0,0 +1,111 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ReconciliationResultDto;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.ParsedFileCache;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import com.transact.comparator.service.reconciliation.ReconciliationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+
+/**
+ * Reconciliation of {@code files} synthetic uploads of {@code rows} transactions, each a counterpart of the
+ * first one, against the pairwise comparisons of every two files it replaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReconciliationBenchmark {
+
+    @Param({"3", "5"})
+    private int files;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private ExecutorService parsingExecutor;
+    private ForkJoinPool chunkParsingPool;
+    private ForkJoinPool matchingPool;
+    private ComparisonService comparisonService;
+    private ReconciliationService reconciliationService;
+    private List<MultipartFile> uploads;
+
+    @Setup
+    public void setUp() {
+        // every invocation parses the same uploads, the parsed file cache would skip the parsing
+        final ComparatorProperties comparatorProperties = properties(Map.of("comparator.cache.enabled", "false"));
+        parsingExecutor = Executors.newFixedThreadPool(4);
+        chunkParsingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        matchingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        final CsvParsingService csvParsingService = new CsvParsingService(comparatorProperties, chunkParsingPool,
+                new ParsedFileCache(comparatorProperties, new SimpleMeterRegistry()));
+        final ComparisonMetrics comparisonMetrics = new ComparisonMetrics(new SimpleMeterRegistry());
+        comparisonService = new ComparisonService(csvParsingService, comparatorProperties, parsingExecutor,
+                new OutOfCoreComparisonEngine(comparatorProperties, comparisonMetrics), comparisonMetrics,
+                matchingPool);
+        reconciliationService = new ReconciliationService(csvParsingService, comparatorProperties, parsingExecutor,
+                matchingPool);
+
+        final List<Transaction> transactions = TransactionDataGenerator.transactions(rows, 1);
+        uploads = new ArrayList<>();
+        uploads.add(TransactionDataGenerator.toFile("file0.csv", transactions));
+        for (int file = 1; file < files; file++) {
+            uploads.add(TransactionDataGenerator.toFile("file" + file + ".csv",
+                    TransactionDataGenerator.counterpart(transactions, 0.8, file + 1)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parsingExecutor.shutdown();
+        chunkParsingPool.shutdown();
+        matchingPool.shutdown();
+    }
+
+    @Benchmark
+    public ReconciliationResultDto reconcile() {
+        return reconciliationService.reconcile(uploads);
+    }
+
+    @Benchmark
+    public List<ComparisonResultDto> pairwise() {
+        final List<ComparisonResultDto> results = new ArrayList<>();
+        for (int first = 0; first < files; first++) {
+            for (int second = first + 1; second < files; second++) {
+                results.add(comparisonService.compare(uploads.get(first), uploads.get(second)));
+            }
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.SessionUpdateDto;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.ParsedFileCache;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import com.transact.comparator.service.session.ReconciliationSessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+
+/**
+ * Update of a reconciliation session holding {@code rows} transactions per side with {@code delta} new rows
+ * per side, against the comparison of the complete files it replaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReconciliationSessionBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    @Param({"1000"})
+    private int delta;
+
+    private ExecutorService parsingExecutor;
+    private ForkJoinPool chunkParsingPool;
+    private ComparisonService comparisonService;
+    private ReconciliationSessionService reconciliationSessionService;
+    private String sessionId;
+    private MockMultipartFile firstFile;
+    private MockMultipartFile secondFile;
+    private MockMultipartFile firstDelta;
+    private MockMultipartFile secondDelta;
+    private long seed = 1_000;
+
+    @Setup
+    public void setUp() {
+        // every invocation of compare parses the same uploads, the parsed file cache would skip the parsing
+        final ComparatorProperties comparatorProperties = properties(Map.of("comparator.cache.enabled", "false"));
+        parsingExecutor = Executors.newFixedThreadPool(2);
+        chunkParsingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        final CsvParsingService csvParsingService = new CsvParsingService(comparatorProperties, chunkParsingPool,
+                new ParsedFileCache(comparatorProperties, new SimpleMeterRegistry()));
+        final ComparisonMetrics comparisonMetrics = new ComparisonMetrics(new SimpleMeterRegistry());
+        comparisonService = new ComparisonService(csvParsingService, comparatorProperties, parsingExecutor,
+                new OutOfCoreComparisonEngine(comparatorProperties, comparisonMetrics), comparisonMetrics,
+                ForkJoinPool.commonPool());
+        reconciliationSessionService = new ReconciliationSessionService(csvParsingService, comparatorProperties);
+
+        final List<Transaction> firstTransactions = TransactionDataGenerator.transactions(rows, 1);
+        final List<Transaction> secondTransactions = TransactionDataGenerator.counterpart(firstTransactions, 0.8, 2);
+        sessionId = reconciliationSessionService.create().sessionId();
+        reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE,
+                TransactionDataGenerator.toFile("first.csv", firstTransactions));
+        reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE,
+                TransactionDataGenerator.toFile("second.csv", secondTransactions));
+
+        final List<Transaction> firstDeltaTransactions = TransactionDataGenerator.transactions(delta, 3);
+        firstFile = TransactionDataGenerator.toFile("first.csv", concat(firstTransactions, firstDeltaTransactions));
+        secondFile = TransactionDataGenerator.toFile("second.csv", concat(secondTransactions,
+                TransactionDataGenerator.counterpart(firstDeltaTransactions, 0.8, 4)));
+    }
+
+    @Setup(Level.Invocation)
+    public void nextDelta() {
+        // the session skips rows it already holds, so every update brings new rows
+        final List<Transaction> transactions = TransactionDataGenerator.transactions(delta, seed++);
+        firstDelta = TransactionDataGenerator.toFile("first.csv", transactions);
+        secondDelta = TransactionDataGenerator.toFile("second.csv",
+                TransactionDataGenerator.counterpart(transactions, 0.8, seed++));
+    }
+
+    @TearDown
+    public void tearDown() {
+        parsingExecutor.shutdown();
+        chunkParsingPool.shutdown();
+    }
+
+    @Benchmark
+    public SessionUpdateDto appendDelta() {
+        reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE, firstDelta);
+        return reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE, secondDelta);
+    }
+
+    @Benchmark
+    public ComparisonResultDto compareCompleteFiles() {
+        return comparisonService.compare(firstFile, secondFile);
+    }
+
+    private static List<Transaction> concat(final List<Transaction> first, final List<Transaction> second) {
+        final List<Transaction> transactions = new ArrayList<>(first);
+        transactions.addAll(second);
+        return transactions;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.ComparatorApplication;
+import com.transact.comparator.domain.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the application on a small servlet thread pool and sends a burst of comparison uploads of
+ * {@code rows} transactions alongside cheap health checks. Compares the default mode, where each comparison
+ * holds a servlet thread from parsing to response, with {@code comparator.requests.async}, where it runs on
+ * the bounded comparison pool. {@code SampleTime} reports the p99 latency of both request kinds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RequestExecutionBenchmark {
+
+    @Param({"false", "true"})
+    private boolean async;
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"8"})
+    private int servletThreads;
+
+    private ConfigurableApplicationContext context;
+    private RestClient restClient;
+    private MultiValueMap<String, ?> files;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(ComparatorApplication.class)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=" + servletThreads,
+                        "comparator.requests.async=" + async,
+                        "comparator.requests.workers=" + Runtime.getRuntime().availableProcessors(),
+                        "comparator.requests.queue-capacity=1024",
+                        // every request uploads the same files, the parsed file cache would skip the parsing
+                        "comparator.cache.enabled=false")
+                .run();
+        restClient = RestClient.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+        final List<Transaction> firstTransactions = TransactionDataGenerator.transactions(rows, 1);
+        final MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(TransactionDataGenerator.toFile("first.csv", firstTransactions).getBytes()))
+                .filename("first.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(TransactionDataGenerator.toFile("second.csv",
+                        TransactionDataGenerator.counterpart(firstTransactions, 0.5, 2)).getBytes()))
+                .filename("second.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        files = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(16)
+    public String compare() {
+        return restClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(files)
+                .retrieve()
+                .body(String.class);
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(4)
+    public String health() {
+        return restClient.get().uri("/actuator/health")
+                .retrieve()
+                .body(String.class);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.similarity.BigDecimalSimilarityCalculator;
+import com.transact.comparator.service.similarity.LocalDateTimeSimilarityCalculator;
+import com.transact.comparator.service.similarity.StringSimilarityCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores a batch of field pairs with every {@code SimilarityCalculator}, both on the boxed values and on
+ * the primitive columns of a {@link TransactionTable}. Results are per pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityCalculatorBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    private final StringSimilarityCalculator stringCalculator = new StringSimilarityCalculator();
+    private final LocalDateTimeSimilarityCalculator dateCalculator = new LocalDateTimeSimilarityCalculator();
+    private final BigDecimalSimilarityCalculator amountCalculator = new BigDecimalSimilarityCalculator();
+
+    @Param({"0.1", "0.5", "0.9"})
+    private double matchRatio;
+
+    private List<Transaction> firstTransactions;
+    private List<Transaction> secondTransactions;
+    private TransactionTable firstTable;
+    private TransactionTable secondTable;
+
+    @Setup
+    public void setUp() {
+        firstTransactions = TransactionDataGenerator.transactions(PAIRS, 1);
+        secondTransactions = TransactionDataGenerator.counterpart(firstTransactions, matchRatio, 2);
+        firstTable = TransactionTable.of(firstTransactions);
+        secondTable = TransactionTable.of(secondTransactions);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double stringSimilarity() {
+        double total = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            total += stringCalculator.calculateSimilarity(firstTransactions.get(i).getId(), secondTransactions.get(i).getId());
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double localDateTimeSimilarity() {
+        double total = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            total += dateCalculator.calculateSimilarity(firstTransactions.get(i).getDate(), secondTransactions.get(i).getDate());
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double epochSecondSimilarity() {
+        double total = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            total += dateCalculator.calculateSimilarity(firstTable.epochSecond(i), secondTable.epochSecond(i));
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double bigDecimalSimilarity() {
+        double total = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            total += amountCalculator.calculateSimilarity(firstTransactions.get(i).getAmount(), secondTransactions.get(i).getAmount());
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double minorUnitSimilarity() {
+        double total = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            total += amountCalculator.calculateSimilarity(firstTable.minorUnitAmount(i), secondTable.minorUnitAmount(i));
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.transact.comparator.benchmark;
+
+import com.transact.comparator.domain.Transaction;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic transaction files. A {@code matchRatio} share of the counterpart rows are exact
+ * copies of the original rows, half of the remaining rows are potential matches (new id, date shifted
+ * inside the tolerance, same amount) and the others are unrelated transactions.
+ */
+public final class TransactionDataGenerator {
+
+    private static final String HEADER = "ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,"
+            + "TransactionDescription,TransactionID,TransactionType,WalletReference\n";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+    private static final int SECONDS_PER_YEAR = 365 * 24 * 3600;
+
+    private static final String[] PROFILES = {"Card Campaign", "Savings Campaign", "Wallet Campaign"};
+    private static final String[] NARRATIVES = {"*MOLEPS ATM25", "CAPITAL BANK", "PAYMENT BY CARD", "REVERSAL"};
+    private static final String[] DESCRIPTIONS = {"DEDUCT", "REVERSAL", "TOP UP"};
+
+    private TransactionDataGenerator() {
+    }
+
+    public static List<Transaction> transactions(final int rows, final long seed) {
+        final Random random = new Random(seed);
+        final List<Transaction> transactions = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            transactions.add(randomTransaction(random, seed, row));
+        }
+        return transactions;
+    }
+
+    public static List<Transaction> counterpart(final List<Transaction> transactions, final double matchRatio,
+                                                final long seed) {
+        final Random random = new Random(seed);
+        final List<Transaction> counterpart = new ArrayList<>(transactions.size());
+        for (int row = 0; row < transactions.size(); row++) {
+            final Transaction original = transactions.get(row);
+            final double draw = random.nextDouble();
+            if (draw < matchRatio) {
+                counterpart.add(original);
+            } else if (draw < matchRatio + (1 - matchRatio) / 2) {
+                counterpart.add(Transaction.builder()
+                        .id("P" + original.getId())
+                        .profileName(original.getProfileName())
+                        .date(original.getDate().plusSeconds(random.nextInt(120)))
+                        .amount(original.getAmount())
+                        .narrative(original.getNarrative())
+                        .description(original.getDescription())
+                        .type(original.getType())
+                        .walletReference(original.getWalletReference())
+                        .build());
+            } else {
+                counterpart.add(randomTransaction(random, seed, row));
+            }
+        }
+        return counterpart;
+    }
+
+    public static String toCsv(final Collection<Transaction> transactions) {
+        final StringBuilder csv = new StringBuilder(HEADER.length() + transactions.size() * 110).append(HEADER);
+        for (final Transaction transaction : transactions) {
+            csv.append(transaction.getProfileName()).append(',')
+                    .append(DATE_FORMAT.format(transaction.getDate())).append(',')
+                    .append(transaction.getAmount().toPlainString()).append(',')
+                    .append(transaction.getNarrative()).append(',')
+                    .append(transaction.getDescription()).append(',')
+                    .append(transaction.getId()).append(',')
+                    .append(transaction.getType()).append(',')
+                    .append(transaction.getWalletReference()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    public static MockMultipartFile toFile(final String fileName, final Collection<Transaction> transactions) {
+        return new MockMultipartFile("file", fileName, "text/csv", toCsv(transactions).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Transaction randomTransaction(final Random random, final long seed, final int row) {
+        return Transaction.builder()
+                .id(String.format("%04d%012d", seed % 10_000, row * 7919L + random.nextInt(7919)))
+                .profileName(PROFILES[random.nextInt(PROFILES.length)])
+                .date(START.plusSeconds(random.nextInt(SECONDS_PER_YEAR)))
+                .amount(BigDecimal.valueOf(-random.nextInt(10_000_000), 2))
+                .narrative(NARRATIVES[random.nextInt(NARRATIVES.length)])
+                .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+                .type(1 + random.nextInt(2))
+                .walletReference("P_" + Integer.toHexString(random.nextInt()).toUpperCase())
+                .build();
+    }
+
+}
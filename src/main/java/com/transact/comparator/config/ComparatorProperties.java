@@ -0,0 +1,84 @@
+package com.transact.comparator.config;
+
+import com.transact.comparator.service.matching.MatchAssignment;
+import com.transact.comparator.service.matching.MatchRules;
+import com.transact.comparator.service.matching.MatchingEngine;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "comparator")
+public record ComparatorProperties(@DefaultValue Matching matching,
+                                   @DefaultValue Ingestion ingestion,
+                                   @DefaultValue Parsing parsing,
+                                   @DefaultValue Jobs jobs,
+                                   @DefaultValue LocalFiles localFiles,
+                                   @DefaultValue OutOfCore outOfCore,
+                                   @DefaultValue Cache cache,
+                                   @DefaultValue References references,
+                                   @DefaultValue Requests requests,
+                                   @DefaultValue Reconciliation reconciliation,
+                                   @DefaultValue Sessions sessions) {
+
+    /**
+     * @param parallel          whether comparisons of at least {@code parallelThreshold} unmatched rows are potential
+     *                          matched in partitions on the matching pool, off by default: every row is then decided
+     *                          before the first unmatched transaction is streamed
+     * @param parallelThreshold number of unmatched rows of both files from which matching runs in partitions
+     */
+    public record Matching(@DefaultValue("blocking") MatchingEngine engine,
+                           @DefaultValue("first-fit") MatchAssignment assignment,
+                           @DefaultValue("5") int topK,
+                           @DefaultValue MatchRules rules,
+                           @DefaultValue("false") boolean parallel,
+                           @DefaultValue("10000") int parallelThreshold) {
+    }
+
+    public record Ingestion(@DefaultValue("true") boolean concurrent,
+                            @DefaultValue("4") int threads,
+                            @DefaultValue("16") int queueCapacity) {
+    }
+
+    public record Parsing(@DefaultValue("true") boolean parallel,
+                          @DefaultValue("64MB") DataSize parallelThreshold,
+                          @DefaultValue("8MB") DataSize chunkSize,
+                          @DefaultValue("true") boolean fastPath) {
+    }
+
+    public record Jobs(@DefaultValue("2") int workers,
+                       @DefaultValue("8") int queueCapacity,
+                       @DefaultValue("30m") Duration resultTtl) {
+    }
+
+    public record LocalFiles(@DefaultValue List<Path> baseDirectories) {
+    }
+
+    public record OutOfCore(@DefaultValue("false") boolean enabled,
+                            @DefaultValue("1GB") DataSize threshold,
+                            @DefaultValue("200000") int runSize,
+                            Path directory) {
+    }
+
+    public record Cache(@DefaultValue("true") boolean enabled,
+                        @DefaultValue("256MB") DataSize maxSize) {
+    }
+
+    public record References(@DefaultValue("references") Path directory) {
+    }
+
+    public record Requests(@DefaultValue("false") boolean async,
+                           @DefaultValue("4") int workers,
+                           @DefaultValue("32") int queueCapacity) {
+    }
+
+    public record Reconciliation(@DefaultValue("16") int maxFiles) {
+    }
+
+    public record Sessions(@DefaultValue("30m") Duration idleTtl) {
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.transact.comparator.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfiguration {
+
+    public static final String PARSING_EXECUTOR = "parsingExecutor";
+    public static final String CHUNK_PARSING_POOL = "chunkParsingPool";
+    public static final String COMPARISON_JOB_EXECUTOR = "comparisonJobExecutor";
+    public static final String COMPARISON_REQUEST_EXECUTOR = "comparisonRequestExecutor";
+    public static final String MATCHING_POOL = "matchingPool";
+
+    @Bean(PARSING_EXECUTOR)
+    public ThreadPoolTaskExecutor parsingExecutor(final ComparatorProperties comparatorProperties) {
+        final ComparatorProperties.Ingestion ingestion = comparatorProperties.ingestion();
+
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ingestion.threads());
+        executor.setMaxPoolSize(ingestion.threads());
+        executor.setQueueCapacity(ingestion.queueCapacity());
+        executor.setThreadNamePrefix("csv-parser-");
+        // a saturated pool degrades to parsing on the request thread instead of rejecting the comparison
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean(COMPARISON_JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor comparisonJobExecutor(final ComparatorProperties comparatorProperties) {
+        final ComparatorProperties.Jobs jobs = comparatorProperties.jobs();
+
+        // no caller runs policy here: a full queue rejects the submission instead of blocking the request
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jobs.workers());
+        executor.setMaxPoolSize(jobs.workers());
+        executor.setQueueCapacity(jobs.queueCapacity());
+        executor.setThreadNamePrefix("comparison-job-");
+        return executor;
+    }
+
+    @Bean(COMPARISON_REQUEST_EXECUTOR)
+    public ThreadPoolTaskExecutor comparisonRequestExecutor(final ComparatorProperties comparatorProperties) {
+        final ComparatorProperties.Requests requests = comparatorProperties.requests();
+
+        // bounds the CPU heavy comparisons of async requests, whatever the number of servlet threads
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(requests.workers());
+        executor.setMaxPoolSize(requests.workers());
+        executor.setQueueCapacity(requests.queueCapacity());
+        executor.setThreadNamePrefix("comparison-request-");
+        return executor;
+    }
+
+    @Bean(name = CHUNK_PARSING_POOL, destroyMethod = "shutdown")
+    public ForkJoinPool chunkParsingPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean(name = MATCHING_POOL, destroyMethod = "shutdown")
+    public ForkJoinPool matchingPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+}
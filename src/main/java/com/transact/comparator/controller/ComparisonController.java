@@ -1,18 +1,45 @@
 package com.transact.comparator.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.config.ExecutorConfiguration;
 import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.LocalComparisonRequestDto;
+import com.transact.comparator.dto.ReconciliationResultDto;
+import com.transact.comparator.exception.ComparisonRejectedException;
+import com.transact.comparator.service.ComparisonProgress;
 import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.LocalFileResolver;
+import com.transact.comparator.service.PreparedComparison;
+import com.transact.comparator.service.matching.MatchRules;
+import com.transact.comparator.service.reconciliation.ReconciliationService;
+import com.transact.comparator.service.reference.ReferenceDataset;
+import com.transact.comparator.service.reference.ReferenceDatasetService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -21,16 +48,145 @@ import org.springframework.web.multipart.MultipartFile;
 public class ComparisonController {
 
     private final ComparisonService comparisonService;
+    private final LocalFileResolver localFileResolver;
+    private final ReferenceDatasetService referenceDatasetService;
+    private final ReconciliationService reconciliationService;
+    private final ObjectMapper objectMapper;
+    private final ComparatorProperties comparatorProperties;
+    @Qualifier(ExecutorConfiguration.COMPARISON_REQUEST_EXECUTOR)
+    private final AsyncTaskExecutor comparisonRequestExecutor;
 
     @PostMapping(value = "/compare", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ComparisonResultDto compareTransactionFiles(@RequestParam("firstFile") @NotNull MultipartFile firstFile,
-                                                       @RequestParam("secondFile") @NotNull MultipartFile secondFile) {
+    public CompletableFuture<ComparisonResultDto> compareTransactionFiles(@RequestParam("firstFile") @NotNull MultipartFile firstFile,
+                                                                          @RequestParam("secondFile") @NotNull MultipartFile secondFile,
+                                                                          @RequestPart(value = "rules", required = false) MatchRules rules) {
         log.info("Comparing files: {} and {}", firstFile.getOriginalFilename(), secondFile.getOriginalFilename());
-        final ComparisonResultDto resultDto = comparisonService.compare(firstFile, secondFile);
+        return execute(() -> {
+            final ComparisonResultDto resultDto = comparisonService.compare(firstFile, secondFile, rules,
+                    new ComparisonProgress());
+
+            log.info("Successfully compared files: {} and {}", firstFile.getOriginalFilename(), secondFile.getOriginalFilename());
+            return resultDto;
+        });
+    }
+
+    @PostMapping(value = "/compare", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamTransactionFilesComparison(@RequestParam("firstFile") @NotNull MultipartFile firstFile,
+                                                               @RequestParam("secondFile") @NotNull MultipartFile secondFile,
+                                                               @RequestPart(value = "rules", required = false) MatchRules rules,
+                                                               HttpServletResponse response) {
+        log.info("Streaming comparison of files: {} and {}", firstFile.getOriginalFilename(), secondFile.getOriginalFilename());
+        // parsing errors are still reported with their status, only potential matching runs while streaming
+        return stream(() -> comparisonService.prepare(firstFile, secondFile, rules, new ComparisonProgress()),
+                firstFile.getOriginalFilename(), secondFile.getOriginalFilename(), response);
+    }
+
+    @PostMapping(value = "/compare/local", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ComparisonResultDto> compareLocalTransactionFiles(@RequestBody LocalComparisonRequestDto request) {
+        final Path firstFile = localFileResolver.resolve(request.firstFile());
+        final Path secondFile = localFileResolver.resolve(request.secondFile());
+        log.info("Comparing local files: {} and {}", firstFile, secondFile);
+        return execute(() -> {
+            final ComparisonResultDto resultDto = comparisonService.compare(firstFile, secondFile);
+
+            log.info("Successfully compared local files: {} and {}", firstFile, secondFile);
+            return resultDto;
+        });
+    }
+
+    @PostMapping(value = "/compare/local", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamLocalTransactionFilesComparison(@RequestBody LocalComparisonRequestDto request,
+                                                                    HttpServletResponse response) {
+        final Path firstFile = localFileResolver.resolve(request.firstFile());
+        final Path secondFile = localFileResolver.resolve(request.secondFile());
+        log.info("Streaming comparison of local files: {} and {}", firstFile, secondFile);
+        return stream(() -> comparisonService.prepare(firstFile, secondFile, new ComparisonProgress()),
+                firstFile.toString(), secondFile.toString(), response);
+    }
+
+    @PostMapping(value = "/compare/reference/{name}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ComparisonResultDto> compareWithReferenceDataset(@PathVariable String name,
+                                                                              @RequestParam("secondFile") @NotNull MultipartFile secondFile) {
+        final ReferenceDataset reference = referenceDatasetService.get(name);
+        log.info("Comparing file {} with reference dataset {}", secondFile.getOriginalFilename(), name);
+        return execute(() -> {
+            final ComparisonResultDto resultDto = comparisonService.compare(reference, secondFile);
+
+            log.info("Successfully compared file {} with reference dataset {}", secondFile.getOriginalFilename(), name);
+            return resultDto;
+        });
+    }
+
+    @PostMapping(value = "/compare/reference/{name}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamComparisonWithReferenceDataset(@PathVariable String name,
+                                                                   @RequestParam("secondFile") @NotNull MultipartFile secondFile,
+                                                                   HttpServletResponse response) {
+        final ReferenceDataset reference = referenceDatasetService.get(name);
+        log.info("Streaming comparison of file {} with reference dataset {}", secondFile.getOriginalFilename(), name);
+        return stream(() -> comparisonService.prepare(reference, secondFile, new ComparisonProgress()),
+                name, secondFile.getOriginalFilename(), response);
+    }
+
+    @PostMapping(value = "/reconcile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ReconciliationResultDto> reconcileTransactionFiles(@RequestParam("files") @NotNull List<MultipartFile> files) {
+        final List<String> fileNames = files.stream().map(MultipartFile::getOriginalFilename).toList();
+        log.info("Reconciling files: {}", fileNames);
+        return execute(() -> {
+            final ReconciliationResultDto resultDto = reconciliationService.reconcile(files);
+
+            log.info("Successfully reconciled files: {}", fileNames);
+            return resultDto;
+        });
+    }
+
+    /**
+     * Runs the comparison on the request thread, or with {@code comparator.requests.async} on the bounded
+     * comparison pool, so the servlet thread is released while the files are parsed and matched.
+     */
+    private <T> CompletableFuture<T> execute(final Supplier<T> comparison) {
+        if (!comparatorProperties.requests().async()) {
+            return CompletableFuture.completedFuture(comparison.get());
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(comparison, comparisonRequestExecutor);
+        } catch (RejectedExecutionException exception) {
+            log.warn("Rejected comparison request, the comparison pool is saturated");
+            throw new ComparisonRejectedException("Too many comparisons are pending, retry later");
+        }
+    }
+
+    /**
+     * Streams the comparison as newline delimited JSON from an async task. By default the comparison is
+     * prepared on the request thread and emitted on the async executor of Spring MVC; with
+     * {@code comparator.requests.async} both run in a single task of the bounded comparison pool, which
+     * answers {@code 503} once saturated.
+     */
+    private WebAsyncTask<Void> stream(final Supplier<PreparedComparison> comparison, final String firstFile,
+                                      final String secondFile, final HttpServletResponse response) {
+        if (!comparatorProperties.requests().async()) {
+            final PreparedComparison preparedComparison = comparison.get();
+            return new WebAsyncTask<>(() -> write(preparedComparison, firstFile, secondFile, response));
+        }
+        return new WebAsyncTask<>(null, comparisonRequestExecutor,
+                () -> write(comparison.get(), firstFile, secondFile, response));
+    }
 
-        log.info("Successfully compared files: {} and {}", firstFile.getOriginalFilename(), secondFile.getOriginalFilename());
-        return resultDto;
+    private Void write(final PreparedComparison comparison, final String firstFile, final String secondFile,
+                       final HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (NdjsonComparisonWriter writer = new NdjsonComparisonWriter(objectMapper, response.getOutputStream())) {
+            comparison.emit(writer);
+        }
+        log.info("Successfully streamed comparison of files: {} and {}", firstFile, secondFile);
+        return null;
     }
 
 }
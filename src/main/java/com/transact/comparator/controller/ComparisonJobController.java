@@ -0,0 +1,51 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonJobDto;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.service.job.ComparisonJobService;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Validated
+@RequestMapping("/api/v1/transactions/compare/jobs")
+public class ComparisonJobController {
+
+    private final ComparisonJobService comparisonJobService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ComparisonJobDto> submitComparisonJob(@RequestParam("firstFile") @NotNull MultipartFile firstFile,
+                                                                @RequestParam("secondFile") @NotNull MultipartFile secondFile) {
+        log.info("Submitting comparison job for files: {} and {}", firstFile.getOriginalFilename(), secondFile.getOriginalFilename());
+        final ComparisonJobDto jobDto = comparisonJobService.submit(firstFile, secondFile);
+
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}").buildAndExpand(jobDto.jobId()).toUri())
+                .body(jobDto);
+    }
+
+    @GetMapping(value = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ComparisonJobDto getComparisonJob(@PathVariable String jobId) {
+        return comparisonJobService.getStatus(jobId);
+    }
+
+    @GetMapping(value = "/{jobId}/result", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ComparisonResultDto getComparisonJobResult(@PathVariable String jobId) {
+        return comparisonJobService.getResult(jobId);
+    }
+
+}
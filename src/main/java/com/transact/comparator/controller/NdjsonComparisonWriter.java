@@ -0,0 +1,76 @@
+package com.transact.comparator.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ComparisonSummaryDto;
+import com.transact.comparator.dto.UnmatchedTransactionDto;
+import com.transact.comparator.service.ComparisonResultListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes a comparison as newline delimited JSON: the summary line, then one line per unmatched
+ * transaction. Output is flushed after the summary and then every {@link #FLUSH_INTERVAL} lines so the
+ * client receives results while potential matching is still running.
+ */
+class NdjsonComparisonWriter implements ComparisonResultListener, AutoCloseable {
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final OutputStream outputStream;
+    private final SequenceWriter sequenceWriter;
+    private int pendingLines;
+
+    NdjsonComparisonWriter(final ObjectMapper objectMapper, final OutputStream outputStream) throws IOException {
+        this.outputStream = outputStream;
+        this.sequenceWriter = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(outputStream);
+    }
+
+    @Override
+    public void onSummary(final ComparisonSummaryDto summary) {
+        write(summary);
+        flush();
+    }
+
+    @Override
+    public void onUnmatchedTransaction(final ComparisonFile file, final ComparisonResultDto.TransactionDto transaction) {
+        write(new UnmatchedTransactionDto(file, transaction));
+        if (++pendingLines == FLUSH_INTERVAL) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sequenceWriter.close();
+        // the separator only goes between values, the last line still needs its line feed
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    private void write(final Object value) {
+        try {
+            sequenceWriter.write(value);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void flush() {
+        try {
+            sequenceWriter.flush();
+            pendingLines = 0;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+}
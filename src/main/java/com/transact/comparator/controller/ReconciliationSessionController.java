@@ -0,0 +1,68 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ReconciliationSessionDto;
+import com.transact.comparator.dto.SessionUpdateDto;
+import com.transact.comparator.service.session.ReconciliationSessionService;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Validated
+@RequestMapping("/api/v1/transactions/sessions")
+public class ReconciliationSessionController {
+
+    private final ReconciliationSessionService reconciliationSessionService;
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReconciliationSessionDto> createSession() {
+        final ReconciliationSessionDto sessionDto = reconciliationSessionService.create();
+
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest().path("/{sessionId}")
+                        .buildAndExpand(sessionDto.sessionId()).toUri())
+                .body(sessionDto);
+    }
+
+    @GetMapping(value = "/{sessionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ReconciliationSessionDto getSession(@PathVariable String sessionId) {
+        return reconciliationSessionService.get(sessionId);
+    }
+
+    @PostMapping(value = "/{sessionId}/firstFile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public SessionUpdateDto appendFirstFile(@PathVariable String sessionId,
+                                            @RequestParam("file") @NotNull MultipartFile file) {
+        log.info("Appending file {} to the first file of session {}", file.getOriginalFilename(), sessionId);
+        return reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE, file);
+    }
+
+    @PostMapping(value = "/{sessionId}/secondFile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public SessionUpdateDto appendSecondFile(@PathVariable String sessionId,
+                                             @RequestParam("file") @NotNull MultipartFile file) {
+        log.info("Appending file {} to the second file of session {}", file.getOriginalFilename(), sessionId);
+        return reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE, file);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> deleteSession(@PathVariable String sessionId) {
+        reconciliationSessionService.delete(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ReferenceDatasetDto;
+import com.transact.comparator.service.reference.ReferenceDatasetService;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Validated
+@RequestMapping("/api/v1/references")
+public class ReferenceDatasetController {
+
+    private final ReferenceDatasetService referenceDatasetService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReferenceDatasetDto> registerReferenceDataset(@RequestParam("name") @NotNull String name,
+                                                                        @RequestParam("file") @NotNull MultipartFile file) {
+        log.info("Registering reference dataset {} from file {}", name, file.getOriginalFilename());
+        final ReferenceDatasetDto datasetDto = referenceDatasetService.register(name, file);
+
+        return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest().path("/{name}")
+                        .buildAndExpand(datasetDto.name()).toUri())
+                .body(datasetDto);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<ReferenceDatasetDto> listReferenceDatasets() {
+        return referenceDatasetService.list();
+    }
+
+    @GetMapping(value = "/{name}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ReferenceDatasetDto getReferenceDataset(@PathVariable String name) {
+        return referenceDatasetService.get(name).toDto();
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> deleteReferenceDataset(@PathVariable String name) {
+        referenceDatasetService.delete(name);
+        return ResponseEntity.noContent().build();
+    }
+
+}
@@ -1,9 +1,18 @@
 package com.transact.comparator.controller;
 
 import com.transact.comparator.dto.ErrorResponse;
+import com.transact.comparator.exception.ComparisonRejectedException;
 import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.JobNotCompletedException;
+import com.transact.comparator.exception.JobNotFoundException;
+import com.transact.comparator.exception.JobRejectedException;
+import com.transact.comparator.exception.LocalFileAccessException;
+import com.transact.comparator.exception.ReconciliationSessionNotFoundException;
+import com.transact.comparator.exception.ReferenceDatasetNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -27,6 +36,70 @@ public class RestExceptionHandler {
         return new ErrorResponse(exception.getMessage(), HttpStatus.BAD_REQUEST.value());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleException(final HttpMessageNotReadableException exception) {
+        log.error("Http message not readable exception occurred: ", exception);
+        return new ErrorResponse(exception.getMostSpecificCause().getMessage(), HttpStatus.BAD_REQUEST.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleException(final JobNotFoundException exception) {
+        log.warn("Job not found exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.NOT_FOUND.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleException(final ReferenceDatasetNotFoundException exception) {
+        log.warn("Reference dataset not found exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.NOT_FOUND.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleException(final ReconciliationSessionNotFoundException exception) {
+        log.warn("Reconciliation session not found exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.NOT_FOUND.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleException(final JobNotCompletedException exception) {
+        log.warn("Job not completed exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.CONFLICT.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleException(final JobRejectedException exception) {
+        log.warn("Job rejected exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleException(final ComparisonRejectedException exception) {
+        log.warn("Comparison rejected exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleException(final TaskRejectedException exception) {
+        // a streamed comparison whose body could not be queued on the saturated comparison pool
+        log.warn("Task rejected exception occurred: {}", exception.getMessage());
+        return new ErrorResponse("Too many comparisons are pending, retry later", HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    public ErrorResponse handleException(final LocalFileAccessException exception) {
+        log.warn("Local file access exception occurred: {}", exception.getMessage());
+        return new ErrorResponse(exception.getMessage(), HttpStatus.FORBIDDEN.value());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleException(final Exception exception) {
@@ -0,0 +1,86 @@
+package com.transact.comparator.domain;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from 64-bit row fingerprints to row numbers with linear probing. Distinct rows may
+ * share a fingerprint, so a key can be present several times and lookups walk all slots of a key with
+ * {@link #find(long)} and {@link #findNext(long, int)}; the caller verifies the rows against the fields.
+ */
+final class FingerprintIndex {
+
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] rows;
+    private int size;
+
+    FingerprintIndex(final int expectedSize) {
+        final int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.rows = new int[capacity];
+        Arrays.fill(rows, EMPTY);
+    }
+
+    void put(final long fingerprint, final int row) {
+        if ((size + 1) * 2 > rows.length) {
+            resize();
+        }
+        place(fingerprint, row);
+        size++;
+    }
+
+    int find(final long fingerprint) {
+        return probe(fingerprint, slot(fingerprint));
+    }
+
+    int findNext(final long fingerprint, final int slot) {
+        return probe(fingerprint, (slot + 1) & (rows.length - 1));
+    }
+
+    int row(final int slot) {
+        return rows[slot];
+    }
+
+    long estimatedBytes() {
+        return (long) keys.length * Long.BYTES + (long) rows.length * Integer.BYTES;
+    }
+
+    private int probe(final long fingerprint, final int from) {
+        final int mask = rows.length - 1;
+        for (int slot = from; rows[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == fingerprint) {
+                return slot;
+            }
+        }
+        return EMPTY;
+    }
+
+    private int slot(final long fingerprint) {
+        return (int) (fingerprint ^ fingerprint >>> 32) & (rows.length - 1);
+    }
+
+    private void place(final long fingerprint, final int row) {
+        final int mask = rows.length - 1;
+        int slot = slot(fingerprint);
+        while (rows[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = fingerprint;
+        rows[slot] = row;
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final int[] oldRows = rows;
+        keys = new long[oldKeys.length << 1];
+        rows = new int[oldRows.length << 1];
+        Arrays.fill(rows, EMPTY);
+        for (int slot = 0; slot < oldRows.length; slot++) {
+            if (oldRows[slot] != EMPTY) {
+                place(oldKeys[slot], oldRows[slot]);
+            }
+        }
+    }
+
+}
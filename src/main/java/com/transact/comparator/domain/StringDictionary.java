@@ -0,0 +1,63 @@
+package com.transact.comparator.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codes of the distinct values of the repetitive string columns of a {@link TransactionTable}. Rows of
+ * the same table compare codes instead of characters.
+ */
+public class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    // rough heap cost of a string besides its characters, and of a map entry with its boxed code
+    static final int STRING_OVERHEAD = 56;
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(final String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+
+        final Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        values.add(value);
+        codes.put(value, values.size() - 1);
+        return values.size() - 1;
+    }
+
+    public String decode(final int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (final String value : values) {
+            bytes += STRING_OVERHEAD + ENTRY_OVERHEAD + value.length();
+        }
+        return bytes;
+    }
+
+    // polynomial hash of the characters, the one row fingerprints are computed from
+    static long hash(final String value) {
+        long hash = value.length() + 1L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = hash * 0x100000001B3L + value.charAt(i);
+        }
+        return hash;
+    }
+
+}
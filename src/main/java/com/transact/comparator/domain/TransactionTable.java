@@ -0,0 +1,483 @@
+package com.transact.comparator.domain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Columnar store of the transactions of one file. Dates are kept as epoch seconds, amounts as minor units
+ * of {@link #AMOUNT_SCALE} together with their original scale, and the repetitive string columns are
+ * dictionary encoded. Values that do not fit the primitive columns (sub-second dates, sub-minor-unit
+ * amounts) are kept in sparse side maps, so {@link #toTransaction(int)} always restores the parsed value.
+ * <p>
+ * The dictionary belongs to the table: rows of the same table compare string columns by code, while rows
+ * of two tables, such as the two files of a comparison, compare the values themselves. Tables are shared read-only by the parsed file cache and reference datasets across
+ * concurrent comparisons, which a dictionary shared between tables would have to lock.
+ * <p>
+ * Rows are deduplicated with the same semantics as {@link Transaction#equals(Object)}, which makes the
+ * table a drop-in replacement for the {@code Set<Transaction>} of a parsed file.
+ */
+public class TransactionTable {
+
+    public static final int AMOUNT_SCALE = 2;
+
+    private static final long NULL_VALUE = Long.MIN_VALUE;
+    private static final long IRREGULAR_AMOUNT = Long.MAX_VALUE;
+    private static final long MAX_MINOR_AMOUNT = 1L << 62;
+    private static final int DEFAULT_CAPACITY = 16;
+    // bytes per row of the id reference and the primitive columns
+    private static final int ROW_BYTES = 4 + 5 * Integer.BYTES + 3 * Long.BYTES + 1;
+    private static final int SIDE_ENTRY_BYTES = 64;
+
+    private final StringDictionary dictionary;
+    private final Map<Integer, Integer> dateNanos = new HashMap<>();
+    private final Map<Integer, BigDecimal> irregularAmounts = new HashMap<>();
+
+    private String[] ids;
+    private int[] profileNames;
+    private int[] narratives;
+    private int[] descriptions;
+    private int[] walletReferences;
+    private int[] types;
+    private long[] dates;
+    private long[] amounts;
+    private byte[] amountScales;
+    private long[] fingerprints;
+    private final FingerprintIndex index;
+    private int size;
+
+    public TransactionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TransactionTable(final int initialCapacity) {
+        this.dictionary = new StringDictionary();
+        this.ids = new String[Math.max(initialCapacity, 1)];
+        this.profileNames = new int[ids.length];
+        this.narratives = new int[ids.length];
+        this.descriptions = new int[ids.length];
+        this.walletReferences = new int[ids.length];
+        this.types = new int[ids.length];
+        this.dates = new long[ids.length];
+        this.amounts = new long[ids.length];
+        this.amountScales = new byte[ids.length];
+        this.fingerprints = new long[ids.length];
+        this.index = new FingerprintIndex(ids.length);
+    }
+
+    public static TransactionTable of(final Collection<Transaction> transactions) {
+        final TransactionTable table = new TransactionTable(transactions.size());
+        transactions.forEach(table::add);
+        return table;
+    }
+
+    public boolean add(final Transaction transaction) {
+        ensureCapacity(size + 1);
+
+        final int row = size;
+        ids[row] = transaction.getId();
+        profileNames[row] = dictionary.encode(transaction.getProfileName());
+        narratives[row] = dictionary.encode(transaction.getNarrative());
+        descriptions[row] = dictionary.encode(transaction.getDescription());
+        walletReferences[row] = dictionary.encode(transaction.getWalletReference());
+        types[row] = transaction.getType();
+        setDate(row, transaction.getDate());
+        setAmount(row, transaction.getAmount());
+        fingerprints[row] = computeFingerprint(row);
+
+        if (indexOf(this, row) >= 0) {
+            dateNanos.remove(row);
+            irregularAmounts.remove(row);
+            return false;
+        }
+
+        size++;
+        index.put(fingerprints[row], row);
+        return true;
+    }
+
+    public boolean add(final TransactionTable other, final int otherRow) {
+        if (indexOf(other, otherRow) >= 0) {
+            return false;
+        }
+
+        ensureCapacity(size + 1);
+
+        final int row = size;
+        ids[row] = other.ids[otherRow];
+        profileNames[row] = dictionary.encode(other.profileName(otherRow));
+        narratives[row] = dictionary.encode(other.narrative(otherRow));
+        descriptions[row] = dictionary.encode(other.description(otherRow));
+        walletReferences[row] = dictionary.encode(other.walletReference(otherRow));
+        types[row] = other.types[otherRow];
+        dates[row] = other.dates[otherRow];
+        amounts[row] = other.amounts[otherRow];
+        amountScales[row] = other.amountScales[otherRow];
+        // the fingerprint only depends on the decoded values, so it is valid across tables
+        fingerprints[row] = other.fingerprints[otherRow];
+        if (other.nanos(otherRow) != 0) {
+            dateNanos.put(row, other.nanos(otherRow));
+        }
+        if (amounts[row] == IRREGULAR_AMOUNT) {
+            irregularAmounts.put(row, other.irregularAmounts.get(otherRow));
+        }
+
+        size++;
+        index.put(fingerprints[row], row);
+        return true;
+    }
+
+    public void addAll(final TransactionTable other) {
+        for (int row = 0; row < other.size; row++) {
+            add(other, row);
+        }
+    }
+
+    /**
+     * Returns the row holding a transaction equal to the given row of another table, or {@code -1}. This is
+     * the probe side of the exact matching hash join: one fingerprint lookup, with the fields only compared
+     * for rows sharing the fingerprint.
+     */
+    public int indexOf(final TransactionTable other, final int otherRow) {
+        final long fingerprint = other.fingerprints[otherRow];
+        for (int slot = index.find(fingerprint); slot >= 0; slot = index.findNext(fingerprint, slot)) {
+            final int row = index.row(slot);
+            if (sameTransaction(row, other, otherRow)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a rough estimate of the heap retained by the table, its columns, dictionary and index.
+     */
+    public long estimatedBytes() {
+        long bytes = (long) ids.length * ROW_BYTES + dictionary.estimatedBytes() + index.estimatedBytes()
+                + (long) (dateNanos.size() + irregularAmounts.size()) * SIDE_ENTRY_BYTES;
+        for (int row = 0; row < size; row++) {
+            bytes += ids[row] == null ? 0 : StringDictionary.STRING_OVERHEAD + ids[row].length();
+        }
+        return bytes;
+    }
+
+    public long fingerprint(final int row) {
+        return fingerprints[row];
+    }
+
+    public String id(final int row) {
+        return ids[row];
+    }
+
+    public String profileName(final int row) {
+        return dictionary.decode(profileNames[row]);
+    }
+
+    public String narrative(final int row) {
+        return dictionary.decode(narratives[row]);
+    }
+
+    public String description(final int row) {
+        return dictionary.decode(descriptions[row]);
+    }
+
+    public String walletReference(final int row) {
+        return dictionary.decode(walletReferences[row]);
+    }
+
+    public int type(final int row) {
+        return types[row];
+    }
+
+    public boolean sameProfileName(final int row, final TransactionTable other, final int otherRow) {
+        return sameText(profileNames, row, other, other.profileNames, otherRow);
+    }
+
+    public boolean sameNarrative(final int row, final TransactionTable other, final int otherRow) {
+        return sameText(narratives, row, other, other.narratives, otherRow);
+    }
+
+    public boolean sameDescription(final int row, final TransactionTable other, final int otherRow) {
+        return sameText(descriptions, row, other, other.descriptions, otherRow);
+    }
+
+    public boolean sameWalletReference(final int row, final TransactionTable other, final int otherRow) {
+        return sameText(walletReferences, row, other, other.walletReferences, otherRow);
+    }
+
+    public boolean hasDate(final int row) {
+        return dates[row] != NULL_VALUE;
+    }
+
+    public boolean hasWholeSecondDate(final int row) {
+        return dates[row] != NULL_VALUE && nanos(row) == 0;
+    }
+
+    public long epochSecond(final int row) {
+        return dates[row];
+    }
+
+    public LocalDateTime date(final int row) {
+        return dates[row] == NULL_VALUE ? null : LocalDateTime.ofEpochSecond(dates[row], nanos(row), ZoneOffset.UTC);
+    }
+
+    public boolean hasMinorUnitAmount(final int row) {
+        return amounts[row] != NULL_VALUE && amounts[row] != IRREGULAR_AMOUNT;
+    }
+
+    public long minorUnitAmount(final int row) {
+        return amounts[row];
+    }
+
+    public BigDecimal amount(final int row) {
+        if (amounts[row] == NULL_VALUE) {
+            return null;
+        }
+        if (amounts[row] == IRREGULAR_AMOUNT) {
+            return irregularAmounts.get(row);
+        }
+        return BigDecimal.valueOf(amounts[row], AMOUNT_SCALE).setScale(amountScales[row], RoundingMode.UNNECESSARY);
+    }
+
+    public Transaction toTransaction(final int row) {
+        return Transaction.builder()
+                .id(id(row))
+                .profileName(profileName(row))
+                .date(date(row))
+                .amount(amount(row))
+                .narrative(narrative(row))
+                .description(description(row))
+                .type(type(row))
+                .walletReference(walletReference(row))
+                .build();
+    }
+
+    /**
+     * Writes the columns, dictionary and fingerprints of the table, so that {@link #readFrom(DataInput)}
+     * restores it without parsing nor fingerprinting the rows again.
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        output.writeInt(size);
+        output.writeInt(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            writeString(output, dictionary.decode(code));
+        }
+        for (int row = 0; row < size; row++) {
+            writeString(output, ids[row]);
+            output.writeInt(profileNames[row]);
+            output.writeInt(narratives[row]);
+            output.writeInt(descriptions[row]);
+            output.writeInt(walletReferences[row]);
+            output.writeInt(types[row]);
+            output.writeLong(dates[row]);
+            output.writeLong(amounts[row]);
+            output.writeByte(amountScales[row]);
+            output.writeLong(fingerprints[row]);
+        }
+        output.writeInt(dateNanos.size());
+        for (final Map.Entry<Integer, Integer> entry : dateNanos.entrySet()) {
+            output.writeInt(entry.getKey());
+            output.writeInt(entry.getValue());
+        }
+        output.writeInt(irregularAmounts.size());
+        for (final Map.Entry<Integer, BigDecimal> entry : irregularAmounts.entrySet()) {
+            output.writeInt(entry.getKey());
+            writeString(output, entry.getValue().toString());
+        }
+    }
+
+    public static TransactionTable readFrom(final DataInput input) throws IOException {
+        final int size = input.readInt();
+        final TransactionTable table = new TransactionTable(size);
+        final int dictionarySize = input.readInt();
+        for (int code = 0; code < dictionarySize; code++) {
+            table.dictionary.encode(readString(input));
+        }
+        for (int row = 0; row < size; row++) {
+            table.ids[row] = readString(input);
+            table.profileNames[row] = input.readInt();
+            table.narratives[row] = input.readInt();
+            table.descriptions[row] = input.readInt();
+            table.walletReferences[row] = input.readInt();
+            table.types[row] = input.readInt();
+            table.dates[row] = input.readLong();
+            table.amounts[row] = input.readLong();
+            table.amountScales[row] = input.readByte();
+            table.fingerprints[row] = input.readLong();
+            table.index.put(table.fingerprints[row], row);
+        }
+        for (int entries = input.readInt(); entries > 0; entries--) {
+            table.dateNanos.put(input.readInt(), input.readInt());
+        }
+        for (int entries = input.readInt(); entries > 0; entries--) {
+            table.irregularAmounts.put(input.readInt(), new BigDecimal(readString(input)));
+        }
+        table.size = size;
+        return table;
+    }
+
+    public Set<Transaction> toTransactions() {
+        final Set<Transaction> transactions = new HashSet<>();
+        for (int row = 0; row < size; row++) {
+            transactions.add(toTransaction(row));
+        }
+        return transactions;
+    }
+
+    private boolean sameTransaction(final int row, final TransactionTable other, final int otherRow) {
+        return types[row] == other.types[otherRow]
+                && dates[row] == other.dates[otherRow]
+                && nanos(row) == other.nanos(otherRow)
+                && sameAmount(row, other, otherRow)
+                && Objects.equals(ids[row], other.ids[otherRow])
+                && sameWalletReference(row, other, otherRow);
+    }
+
+    private boolean sameText(final int[] codes, final int row, final TransactionTable other, final int[] otherCodes,
+                             final int otherRow) {
+        // codes are only comparable within a dictionary
+        return dictionary == other.dictionary
+                ? codes[row] == otherCodes[otherRow]
+                : Objects.equals(dictionary.decode(codes[row]), other.dictionary.decode(otherCodes[otherRow]));
+    }
+
+    private boolean sameAmount(final int row, final TransactionTable other, final int otherRow) {
+        if (amounts[row] != other.amounts[otherRow]) {
+            return false;
+        }
+        if (amounts[row] == IRREGULAR_AMOUNT) {
+            return irregularAmounts.get(row).equals(other.irregularAmounts.get(otherRow));
+        }
+        return amountScales[row] == other.amountScales[otherRow];
+    }
+
+    // 64-bit fingerprint of the fields of Transaction#equals, equal transactions always share it
+    private long computeFingerprint(final int row) {
+        long fingerprint = mix(0, ids[row]);
+        fingerprint = mix(fingerprint, dates[row]);
+        fingerprint = mix(fingerprint, nanos(row));
+        fingerprint = amounts[row] == IRREGULAR_AMOUNT
+                ? mix(mix(fingerprint, IRREGULAR_AMOUNT), irregularAmounts.get(row).hashCode())
+                : mix(mix(fingerprint, amounts[row]), amountScales[row]);
+        fingerprint = mix(fingerprint, types[row]);
+        fingerprint = mix(fingerprint, walletReference(row));
+        return avalanche(fingerprint);
+    }
+
+    private static long mix(final long fingerprint, final String value) {
+        return mix(fingerprint, value == null ? 0L : StringDictionary.hash(value));
+    }
+
+    private static long mix(final long fingerprint, final long value) {
+        return Long.rotateLeft((fingerprint ^ avalanche(value)) * 0x9E3779B97F4A7C15L, 27);
+    }
+
+    private static long avalanche(final long value) {
+        long hash = value;
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static void writeString(final DataOutput output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final DataInput input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int nanos(final int row) {
+        return dateNanos.isEmpty() ? 0 : dateNanos.getOrDefault(row, 0);
+    }
+
+    private void setDate(final int row, final LocalDateTime date) {
+        if (date == null) {
+            dates[row] = NULL_VALUE;
+            return;
+        }
+
+        dates[row] = date.toEpochSecond(ZoneOffset.UTC);
+        if (date.getNano() != 0) {
+            dateNanos.put(row, date.getNano());
+        }
+    }
+
+    private void setAmount(final int row, final BigDecimal amount) {
+        amountScales[row] = 0;
+        if (amount == null) {
+            amounts[row] = NULL_VALUE;
+            return;
+        }
+
+        final long minorUnits = toMinorUnits(amount);
+        if (minorUnits == IRREGULAR_AMOUNT || amount.scale() != (byte) amount.scale()) {
+            amounts[row] = IRREGULAR_AMOUNT;
+            irregularAmounts.put(row, amount);
+            return;
+        }
+
+        amounts[row] = minorUnits;
+        amountScales[row] = (byte) amount.scale();
+    }
+
+    private static long toMinorUnits(final BigDecimal amount) {
+        try {
+            final long minorUnits = amount.movePointRight(AMOUNT_SCALE).longValueExact();
+            return Math.abs(minorUnits) < MAX_MINOR_AMOUNT ? minorUnits : IRREGULAR_AMOUNT;
+        } catch (ArithmeticException exception) {
+            return IRREGULAR_AMOUNT;
+        }
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+
+        final int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        profileNames = Arrays.copyOf(profileNames, newCapacity);
+        narratives = Arrays.copyOf(narratives, newCapacity);
+        descriptions = Arrays.copyOf(descriptions, newCapacity);
+        walletReferences = Arrays.copyOf(walletReferences, newCapacity);
+        types = Arrays.copyOf(types, newCapacity);
+        dates = Arrays.copyOf(dates, newCapacity);
+        amounts = Arrays.copyOf(amounts, newCapacity);
+        amountScales = Arrays.copyOf(amountScales, newCapacity);
+        fingerprints = Arrays.copyOf(fingerprints, newCapacity);
+    }
+
+}
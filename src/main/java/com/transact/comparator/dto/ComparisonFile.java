@@ -0,0 +1,12 @@
+package com.transact.comparator.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum ComparisonFile {
+
+    @JsonProperty("firstFile")
+    FIRST_FILE,
+    @JsonProperty("secondFile")
+    SECOND_FILE
+
+}
@@ -0,0 +1,18 @@
+package com.transact.comparator.dto;
+
+import com.transact.comparator.service.ComparisonPhase;
+import com.transact.comparator.service.job.JobStatus;
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record ComparisonJobDto(String jobId,
+                               JobStatus status,
+                               ComparisonPhase phase,
+                               long parsedRows,
+                               long scoredCandidates,
+                               Instant submittedAt,
+                               Instant finishedAt,
+                               String error) {
+}
@@ -10,8 +10,8 @@ import java.util.List;
 public record ComparisonResultDto(FileResult firstFileResult, FileResult secondFileResult) {
 
     @Builder
-    public record FileResult(String fileName, int totalRecords, int matchedRecords, int unmatchedRecords,
-                             List<TransactionDto> unmatchedTransactions) {
+    public record FileResult(String fileName, long parseTimeMillis, int totalRecords, int matchedRecords,
+                             int unmatchedRecords, List<TransactionDto> unmatchedTransactions) {
     }
 
     @Builder
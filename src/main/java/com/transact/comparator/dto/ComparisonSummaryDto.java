@@ -0,0 +1,13 @@
+package com.transact.comparator.dto;
+
+import lombok.Builder;
+
+@Builder
+public record ComparisonSummaryDto(FileSummary firstFileResult, FileSummary secondFileResult) {
+
+    @Builder
+    public record FileSummary(String fileName, long parseTimeMillis, int totalRecords, int matchedRecords,
+                              int unmatchedRecords) {
+    }
+
+}
@@ -0,0 +1,4 @@
+package com.transact.comparator.dto;
+
+public record LocalComparisonRequestDto(String firstFile, String secondFile) {
+}
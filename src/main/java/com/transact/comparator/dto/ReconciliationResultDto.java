@@ -0,0 +1,44 @@
+package com.transact.comparator.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Builder
+public record ReconciliationResultDto(List<FileResult> fileResults) {
+
+    /**
+     * Result of one file: reconciled records are exactly matched in every other file, the others are listed
+     * with the files they are matched in.
+     */
+    @Builder
+    public record FileResult(String fileName, long parseTimeMillis, int totalRecords, int reconciledRecords,
+                             int unreconciledRecords, List<TransactionDto> unreconciledTransactions) {
+    }
+
+    @Builder
+    public record TransactionDto(String id, LocalDateTime date, String reference, BigDecimal amount,
+                                 List<MatchDto> matches) {
+    }
+
+    /**
+     * Match of a record in another file, given by its position in the request; files without a match are
+     * left out.
+     */
+    @Builder
+    public record MatchDto(int file, String fileName, MatchType type, String id) {
+    }
+
+    public enum MatchType {
+
+        @JsonProperty("exact")
+        EXACT,
+        @JsonProperty("potential")
+        POTENTIAL
+
+    }
+
+}
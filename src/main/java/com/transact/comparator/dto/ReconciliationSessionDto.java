@@ -0,0 +1,16 @@
+package com.transact.comparator.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record ReconciliationSessionDto(String sessionId, Instant createdAt, Instant lastAccessedAt,
+                                       FileSummary firstFileResult, FileSummary secondFileResult) {
+
+    @Builder
+    public record FileSummary(int totalRecords, int matchedRecords, int potentialMatchedRecords,
+                              int unmatchedRecords) {
+    }
+
+}
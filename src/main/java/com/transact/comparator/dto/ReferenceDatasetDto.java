@@ -0,0 +1,12 @@
+package com.transact.comparator.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record ReferenceDatasetDto(String name,
+                                  String fileName,
+                                  int totalRecords,
+                                  Instant registeredAt) {
+}
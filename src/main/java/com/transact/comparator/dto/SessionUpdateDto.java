@@ -0,0 +1,22 @@
+package com.transact.comparator.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Changes made to a reconciliation session by one upload: the new pairs of exactly or potentially matched
+ * transactions, the potential matches released because one side found its exact match, and the
+ * transactions left unmatched. Transactions already in the session are skipped.
+ */
+@Builder
+public record SessionUpdateDto(String sessionId, ComparisonFile file, String fileName, int appendedRecords,
+                               int skippedRecords, List<TransactionPair> matched, List<TransactionPair> potentialMatched,
+                               List<TransactionPair> releasedPotentialMatches, List<UnmatchedTransactionDto> unmatched,
+                               ReconciliationSessionDto session) {
+
+    public record TransactionPair(ComparisonResultDto.TransactionDto firstFileTransaction,
+                                  ComparisonResultDto.TransactionDto secondFileTransaction) {
+    }
+
+}
@@ -0,0 +1,4 @@
+package com.transact.comparator.dto;
+
+public record UnmatchedTransactionDto(ComparisonFile file, ComparisonResultDto.TransactionDto transaction) {
+}
@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class ComparisonRejectedException extends ComparatorServiceException {
+    public ComparisonRejectedException(String message) {
+        super(message);
+    }
+}
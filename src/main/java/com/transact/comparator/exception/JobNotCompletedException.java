@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class JobNotCompletedException extends ComparatorServiceException {
+    public JobNotCompletedException(String message) {
+        super(message);
+    }
+}
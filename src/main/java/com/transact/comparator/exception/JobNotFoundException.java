@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class JobNotFoundException extends ComparatorServiceException {
+    public JobNotFoundException(String message) {
+        super(message);
+    }
+}
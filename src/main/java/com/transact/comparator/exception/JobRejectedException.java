@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class JobRejectedException extends ComparatorServiceException {
+    public JobRejectedException(String message) {
+        super(message);
+    }
+}
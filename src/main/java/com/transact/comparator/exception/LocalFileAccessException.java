@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class LocalFileAccessException extends ComparatorServiceException {
+    public LocalFileAccessException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class ReconciliationSessionNotFoundException extends ComparatorServiceException {
+    public ReconciliationSessionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.transact.comparator.exception;
+
+public class ReferenceDatasetNotFoundException extends ComparatorServiceException {
+    public ReferenceDatasetNotFoundException(String message) {
+        super(message);
+    }
+}
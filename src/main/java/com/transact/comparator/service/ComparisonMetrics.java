@@ -0,0 +1,132 @@
+package com.transact.comparator.service;
+
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ComparisonSummaryDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the comparison phases. Everything is recorded once per file or per comparison, never per
+ * scored candidate, so the matching loops keep their plain counters and only publish totals.
+ */
+@Component
+public class ComparisonMetrics {
+
+    private static final String FILE_TAG = "file";
+
+    private final Map<ComparisonFile, Timer> parseTimers = new EnumMap<>(ComparisonFile.class);
+    private final Map<ComparisonFile, Counter> parsedRows = new EnumMap<>(ComparisonFile.class);
+    private final Map<ComparisonFile, DistributionSummary> matchRates = new EnumMap<>(ComparisonFile.class);
+    private final Timer exactMatching;
+    private final Timer potentialMatching;
+    private final Counter scoredCandidates;
+    private final Counter potentialMatches;
+    private final DistributionSummary responseTransactions;
+
+    public ComparisonMetrics(final MeterRegistry registry) {
+        for (final ComparisonFile file : ComparisonFile.values()) {
+            final String tag = tag(file);
+            parseTimers.put(file, Timer.builder("comparator.parse")
+                    .description("Time spent parsing one file of a comparison")
+                    .tag(FILE_TAG, tag)
+                    .register(registry));
+            parsedRows.put(file, Counter.builder("comparator.parse.rows")
+                    .description("Rows parsed from the files of the comparisons")
+                    .tag(FILE_TAG, tag)
+                    .register(registry));
+            matchRates.put(file, DistributionSummary.builder("comparator.match.rate")
+                    .description("Share of the rows of a file exactly matched by the other file")
+                    .tag(FILE_TAG, tag)
+                    .register(registry));
+        }
+        exactMatching = Timer.builder("comparator.exact.matching")
+                .description("Time spent exact matching the rows of both files")
+                .register(registry);
+        potentialMatching = Timer.builder("comparator.potential.matching")
+                .description("Time spent finding potential matches and emitting the unmatched rows, including writing "
+                        + "them to streamed responses")
+                .register(registry);
+        scoredCandidates = Counter.builder("comparator.candidates.scored")
+                .description("Candidate pairs scored by the potential matching")
+                .register(registry);
+        potentialMatches = Counter.builder("comparator.potential.matches")
+                .description("Unmatched first file rows given a potential match")
+                .register(registry);
+        responseTransactions = DistributionSummary.builder("comparator.response.transactions")
+                .description("Unmatched transactions returned by a comparison")
+                .baseUnit("transactions")
+                .register(registry);
+    }
+
+    public void recordParse(final ComparisonFile file, final long nanos, final long rows) {
+        parseTimers.get(file).record(nanos, TimeUnit.NANOSECONDS);
+        parsedRows.get(file).increment(rows);
+    }
+
+    public void recordExactMatching(final long nanos) {
+        exactMatching.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wraps the comparison so that its emission is timed, and the summary, unmatched transactions and scored
+     * candidates it ends up with are measured.
+     */
+    public PreparedComparison instrument(final PreparedComparison comparison, final ComparisonProgress progress) {
+        return listener -> {
+            final MeasuringListener measuringListener = new MeasuringListener(listener);
+            final long start = System.nanoTime();
+            comparison.emit(measuringListener);
+            potentialMatching.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            responseTransactions.record(measuringListener.transactions);
+            potentialMatches.increment(measuringListener.potentialMatches);
+            scoredCandidates.increment(progress.getScoredCandidates());
+        };
+    }
+
+    private void recordMatchRate(final ComparisonFile file, final ComparisonSummaryDto.FileSummary summary) {
+        if (summary.totalRecords() > 0) {
+            matchRates.get(file).record((double) summary.matchedRecords() / summary.totalRecords());
+        }
+    }
+
+    private static String tag(final ComparisonFile file) {
+        return file == ComparisonFile.FIRST_FILE ? "first" : "second";
+    }
+
+    private final class MeasuringListener implements ComparisonResultListener {
+
+        private final ComparisonResultListener delegate;
+        private long transactions;
+        private long potentialMatches;
+
+        private MeasuringListener(final ComparisonResultListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onSummary(final ComparisonSummaryDto summary) {
+            recordMatchRate(ComparisonFile.FIRST_FILE, summary.firstFileResult());
+            recordMatchRate(ComparisonFile.SECOND_FILE, summary.secondFileResult());
+            delegate.onSummary(summary);
+        }
+
+        @Override
+        public void onUnmatchedTransaction(final ComparisonFile file, final ComparisonResultDto.TransactionDto transaction) {
+            transactions++;
+            if (file == ComparisonFile.FIRST_FILE && transaction.potentialMatchId() != null) {
+                potentialMatches++;
+            }
+            delegate.onUnmatchedTransaction(file, transaction);
+        }
+
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.transact.comparator.service;
+
+public enum ComparisonPhase {
+
+    PARSING,
+    EXACT_MATCHING,
+    POTENTIAL_MATCHING
+
+}
@@ -0,0 +1,39 @@
+package com.transact.comparator.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live progress of one comparison. It is written by the comparison and parsing threads and read
+ * concurrently by status polling, hence the counters are only eventually consistent.
+ */
+public class ComparisonProgress {
+
+    private final LongAdder parsedRows = new LongAdder();
+    private volatile ComparisonPhase phase;
+    private volatile long scoredCandidates;
+
+    public ComparisonPhase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(final ComparisonPhase phase) {
+        this.phase = phase;
+    }
+
+    public LongAdder getParsedRowsCounter() {
+        return parsedRows;
+    }
+
+    public long getParsedRows() {
+        return parsedRows.sum();
+    }
+
+    public long getScoredCandidates() {
+        return scoredCandidates;
+    }
+
+    public void setScoredCandidates(final long scoredCandidates) {
+        this.scoredCandidates = scoredCandidates;
+    }
+
+}
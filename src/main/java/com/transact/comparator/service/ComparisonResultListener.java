@@ -0,0 +1,17 @@
+package com.transact.comparator.service;
+
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ComparisonSummaryDto;
+
+/**
+ * Receives the outcome of a comparison as it is decided: the summary first, then every unmatched
+ * transaction of both files in the order of the materialised {@link ComparisonResultDto} lists.
+ */
+public interface ComparisonResultListener {
+
+    void onSummary(ComparisonSummaryDto summary);
+
+    void onUnmatchedTransaction(ComparisonFile file, ComparisonResultDto.TransactionDto transaction);
+
+}
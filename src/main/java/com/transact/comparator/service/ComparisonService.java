@@ -1,19 +1,43 @@
 package com.transact.comparator.service;
 
-import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.config.ExecutorConfiguration;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonFile;
 import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ComparisonSummaryDto;
+import com.transact.comparator.exception.ComparatorServiceException;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import com.transact.comparator.service.external.TransactionStream;
+import com.transact.comparator.service.matching.MatchRules;
+import com.transact.comparator.service.matching.PartitionedMatcher;
+import com.transact.comparator.service.matching.PotentialMatchFinder;
+import com.transact.comparator.service.reference.ReferenceDataset;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -21,104 +45,337 @@ import java.util.Set;
 public class ComparisonService {
 
     private final CsvParsingService csvParsingService;
+    private final ComparatorProperties comparatorProperties;
+    @Qualifier(ExecutorConfiguration.PARSING_EXECUTOR)
+    private final Executor parsingExecutor;
+    private final OutOfCoreComparisonEngine outOfCoreComparisonEngine;
+    private final ComparisonMetrics comparisonMetrics;
+    @Qualifier(ExecutorConfiguration.MATCHING_POOL)
+    private final ForkJoinPool matchingPool;
 
     public ComparisonResultDto compare(final MultipartFile firstFile, final MultipartFile secondFile) {
-        final Set<Transaction> firstFileTransactions = csvParsingService.parseTransactions(firstFile);
-        final Set<Transaction> secondFileTransactions = csvParsingService.parseTransactions(secondFile);
+        return compare(firstFile, secondFile, new ComparisonProgress());
+    }
 
-        if (CollectionUtils.isEmpty(firstFileTransactions) && CollectionUtils.isEmpty(secondFileTransactions)) {
-            return getEmptyResponse(firstFile, secondFile);
-        }
+    public ComparisonResultDto compare(final MultipartFile firstFile, final MultipartFile secondFile,
+                                       final ComparisonProgress progress) {
+        return collect(prepare(firstFile, secondFile, progress));
+    }
 
-        final int firstFileTotalRecords = firstFileTransactions.size();
-        final int secondFileTotalRecords = secondFileTransactions.size();
+    /**
+     * Same as {@link #compare(MultipartFile, MultipartFile, ComparisonProgress)} with the given match rules
+     * instead of the configured ones, when not null.
+     */
+    public ComparisonResultDto compare(final MultipartFile firstFile, final MultipartFile secondFile,
+                                       final MatchRules rules, final ComparisonProgress progress) {
+        return collect(prepare(firstFile, secondFile, rules, progress));
+    }
 
-        final Set<Transaction> copyOfFirstFileTransactions = new HashSet<>(firstFileTransactions);
+    /**
+     * Parses and exact matches both files right away, so invalid input fails here; potential matching only
+     * runs once the returned comparison is emitted, each unmatched transaction being passed on as soon as
+     * it is decided.
+     */
+    public PreparedComparison prepare(final MultipartFile firstFile, final MultipartFile secondFile,
+                                      final ComparisonProgress progress) {
+        return prepare(firstFile, secondFile, comparatorProperties.matching().rules(), progress);
+    }
+
+    /**
+     * Same as {@link #prepare(MultipartFile, MultipartFile, ComparisonProgress)} with the given match rules
+     * instead of the configured ones, when not null.
+     */
+    public PreparedComparison prepare(final MultipartFile firstFile, final MultipartFile secondFile,
+                                      final MatchRules rules, final ComparisonProgress progress) {
+        return prepare(new SourceFile(firstFile.getOriginalFilename(), firstFile.getSize(),
+                        parsedRows -> csvParsingService.parseTable(firstFile, parsedRows),
+                        (parsedRows, consumer) -> csvParsingService.forEachTransaction(firstFile, parsedRows, consumer)),
+                new SourceFile(secondFile.getOriginalFilename(), secondFile.getSize(),
+                        parsedRows -> csvParsingService.parseTable(secondFile, parsedRows),
+                        (parsedRows, consumer) -> csvParsingService.forEachTransaction(secondFile, parsedRows, consumer)),
+                Objects.requireNonNullElse(rules, comparatorProperties.matching().rules()), progress);
+    }
+
+    public ComparisonResultDto compare(final Path firstFile, final Path secondFile) {
+        return collect(prepare(firstFile, secondFile, new ComparisonProgress()));
+    }
+
+    /**
+     * Same as {@link #prepare(MultipartFile, MultipartFile, ComparisonProgress)} for files of the local file
+     * system, which are parsed from memory mapped buffers without going through an upload.
+     */
+    public PreparedComparison prepare(final Path firstFile, final Path secondFile, final ComparisonProgress progress) {
+        return prepare(new SourceFile(String.valueOf(firstFile.getFileName()), size(firstFile),
+                        parsedRows -> csvParsingService.parseTable(firstFile, parsedRows),
+                        (parsedRows, consumer) -> csvParsingService.forEachTransaction(firstFile, parsedRows, consumer)),
+                new SourceFile(String.valueOf(secondFile.getFileName()), size(secondFile),
+                        parsedRows -> csvParsingService.parseTable(secondFile, parsedRows),
+                        (parsedRows, consumer) -> csvParsingService.forEachTransaction(secondFile, parsedRows, consumer)),
+                comparatorProperties.matching().rules(), progress);
+    }
+
+    public ComparisonResultDto compare(final ReferenceDataset reference, final MultipartFile secondFile) {
+        return collect(prepare(reference, secondFile, new ComparisonProgress()));
+    }
+
+    /**
+     * Compares an upload against a registered reference dataset, which stands for the first file: only the
+     * upload is parsed, the reference transactions and their fingerprint index are reused as they are.
+     */
+    public PreparedComparison prepare(final ReferenceDataset reference, final MultipartFile secondFile,
+                                      final ComparisonProgress progress) {
+        final TransactionTable referenceTransactions = reference.transactions();
+        return prepare(new SourceFile(reference.fileName(), referenceTransactions.estimatedBytes(),
+                        parsedRows -> referenceTransactions,
+                        (parsedRows, consumer) -> IntStream.range(0, referenceTransactions.size())
+                                .forEach(row -> consumer.accept(referenceTransactions.toTransaction(row)))),
+                new SourceFile(secondFile.getOriginalFilename(), secondFile.getSize(),
+                        parsedRows -> csvParsingService.parseTable(secondFile, parsedRows),
+                        (parsedRows, consumer) -> csvParsingService.forEachTransaction(secondFile, parsedRows, consumer)),
+                comparatorProperties.matching().rules(), progress);
+    }
+
+    private PreparedComparison prepare(final SourceFile firstFile, final SourceFile secondFile, final MatchRules rules,
+                                       final ComparisonProgress progress) {
+        final PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(rules);
+        final ComparatorProperties.OutOfCore outOfCore = comparatorProperties.outOfCore();
+        if (outOfCore.enabled() && firstFile.size() + secondFile.size() >= outOfCore.threshold().toBytes()) {
+            log.info("Comparing files {} and {} out of core", firstFile.fileName(), secondFile.fileName());
+            return comparisonMetrics.instrument(outOfCoreComparisonEngine.prepare(firstFile.fileName(),
+                    firstFile.stream(), secondFile.fileName(), secondFile.stream(), calculator, progress), progress);
+        }
 
-        copyOfFirstFileTransactions.retainAll(secondFileTransactions);
+        return comparisonMetrics.instrument(prepareInMemory(firstFile, secondFile, calculator, progress), progress);
+    }
 
-        firstFileTransactions.removeAll(copyOfFirstFileTransactions);
-        secondFileTransactions.removeAll(copyOfFirstFileTransactions);
+    private PreparedComparison prepareInMemory(final SourceFile firstFile, final SourceFile secondFile,
+                                               final PotentialMatchCalculator calculator,
+                                               final ComparisonProgress progress) {
+        progress.setPhase(ComparisonPhase.PARSING);
+        final ParsedFiles parsedFiles = parseFiles(firstFile, secondFile, progress);
+        final TransactionTable firstFileTransactions = parsedFiles.firstFile().transactions();
+        final TransactionTable secondFileTransactions = parsedFiles.secondFile().transactions();
 
-        final UnmatchedTransactionsResult unmatchedTransactionsResult = processUnmatchedResults(firstFileTransactions, secondFileTransactions);
+        progress.setPhase(ComparisonPhase.EXACT_MATCHING);
+        final long exactMatchingStart = System.nanoTime();
+        final ExactMatchResult exactMatchResult = findExactMatches(firstFileTransactions, secondFileTransactions);
+        comparisonMetrics.recordExactMatching(System.nanoTime() - exactMatchingStart);
 
-        return ComparisonResultDto.builder()
-                .firstFileResult(ComparisonResultDto.FileResult.builder()
-                        .fileName(firstFile.getOriginalFilename())
-                        .totalRecords(firstFileTotalRecords)
-                        .matchedRecords(copyOfFirstFileTransactions.size())
-                        .unmatchedRecords(unmatchedTransactionsResult.firstFileUnmatchedTransactions.size())
-                        .unmatchedTransactions(unmatchedTransactionsResult.firstFileUnmatchedTransactions).build())
-                .secondFileResult(ComparisonResultDto.FileResult.builder()
-                        .fileName(secondFile.getOriginalFilename())
-                        .totalRecords(secondFileTotalRecords)
-                        .matchedRecords(copyOfFirstFileTransactions.size())
-                        .unmatchedRecords(unmatchedTransactionsResult.secondFileUnmatchedTransactions.size())
-                        .unmatchedTransactions(unmatchedTransactionsResult.secondFileUnmatchedTransactions).build())
+        final ComparisonSummaryDto summary = ComparisonSummaryDto.builder()
+                .firstFileResult(ComparisonSummaryDto.FileSummary.builder()
+                        .fileName(firstFile.fileName())
+                        .parseTimeMillis(parsedFiles.firstFile().parseTimeMillis())
+                        .totalRecords(firstFileTransactions.size())
+                        .matchedRecords(exactMatchResult.matchedRecords())
+                        .unmatchedRecords(exactMatchResult.firstUnmatchedRows().length).build())
+                .secondFileResult(ComparisonSummaryDto.FileSummary.builder()
+                        .fileName(secondFile.fileName())
+                        .parseTimeMillis(parsedFiles.secondFile().parseTimeMillis())
+                        .totalRecords(secondFileTransactions.size())
+                        .matchedRecords(exactMatchResult.matchedRecords())
+                        .unmatchedRecords(exactMatchResult.secondUnmatchedRows().length).build())
                 .build();
+
+        return listener -> {
+            listener.onSummary(summary);
+            progress.setPhase(ComparisonPhase.POTENTIAL_MATCHING);
+            emitUnmatchedTransactions(firstFileTransactions, exactMatchResult.firstUnmatchedRows(),
+                    secondFileTransactions, exactMatchResult.secondUnmatchedRows(), calculator, progress, listener);
+        };
     }
 
-    private UnmatchedTransactionsResult processUnmatchedResults(final Set<Transaction> firstTransactions,
-                                                                final Set<Transaction> secondTransactions) {
-        final List<ComparisonResultDto.TransactionDto> firstUnmatchedTransactions = new ArrayList<>();
-        final List<ComparisonResultDto.TransactionDto> secondUnmatchedTransactions = new ArrayList<>();
+    private static long size(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not read file: " + file.getFileName(), exception);
+        }
+    }
 
-        for (final Transaction transaction : firstTransactions) {
-            Transaction potentialMatch = secondTransactions.stream()
-                    .filter(secondTransaction -> PotentialMatchCalculator.arePotentialMatch(transaction, secondTransaction))
-                    .findFirst()
-                    .orElse(null);
+    private static ComparisonResultDto collect(final PreparedComparison comparison) {
+        final ResultCollector resultCollector = new ResultCollector();
+        comparison.emit(resultCollector);
+        return resultCollector.toResultDto();
+    }
 
-            if (potentialMatch != null) {
-                secondTransactions.remove(potentialMatch);
-                firstUnmatchedTransactions.add(toTransactionDto(transaction, potentialMatch.getId()));
-                secondUnmatchedTransactions.add(toTransactionDto(potentialMatch, transaction.getId()));
-            } else {
-                firstUnmatchedTransactions.add(toTransactionDto(transaction, null));
+    private ParsedFiles parseFiles(final SourceFile firstFile, final SourceFile secondFile,
+                                   final ComparisonProgress progress) {
+        if (!comparatorProperties.ingestion().concurrent()) {
+            return new ParsedFiles(parseFile(firstFile, ComparisonFile.FIRST_FILE, progress),
+                    parseFile(secondFile, ComparisonFile.SECOND_FILE, progress));
+        }
+
+        final CompletableFuture<ParsedFile> firstParsing = CompletableFuture.supplyAsync(() -> parseFile(firstFile, ComparisonFile.FIRST_FILE, progress), parsingExecutor);
+        final CompletableFuture<ParsedFile> secondParsing = CompletableFuture.supplyAsync(() -> parseFile(secondFile, ComparisonFile.SECOND_FILE, progress), parsingExecutor);
+
+        // wait for both parses so that no upload is still being read once the request fails
+        CompletableFuture.allOf(firstParsing, secondParsing).exceptionally(throwable -> null).join();
+
+        return new ParsedFiles(getParsedFile(firstParsing), getParsedFile(secondParsing));
+    }
+
+    private ParsedFile parseFile(final SourceFile file, final ComparisonFile comparisonFile,
+                                 final ComparisonProgress progress) {
+        final long start = System.nanoTime();
+        final TransactionTable transactions = file.parser().apply(progress.getParsedRowsCounter());
+        final long parseTimeNanos = System.nanoTime() - start;
+        final long parseTimeMillis = TimeUnit.NANOSECONDS.toMillis(parseTimeNanos);
+        comparisonMetrics.recordParse(comparisonFile, parseTimeNanos, transactions.size());
+
+        log.info("Parsed {} transactions from file {} in {} ms", transactions.size(),
+                file.fileName(), parseTimeMillis);
+        return new ParsedFile(transactions, parseTimeMillis);
+    }
+
+    private static ParsedFile getParsedFile(final CompletableFuture<ParsedFile> parsing) {
+        try {
+            return parsing.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            throw new ComparatorServiceException(exception.getCause());
         }
+    }
 
-        secondUnmatchedTransactions.addAll(toTransactionsDto(secondTransactions));
+    private static ExactMatchResult findExactMatches(final TransactionTable firstTransactions,
+                                                     final TransactionTable secondTransactions) {
+        final BitSet firstMatched = new BitSet(firstTransactions.size());
+        final BitSet secondMatched = new BitSet(secondTransactions.size());
 
-        return new UnmatchedTransactionsResult(firstUnmatchedTransactions, secondUnmatchedTransactions);
+        for (int row = 0; row < firstTransactions.size(); row++) {
+            final int secondRow = secondTransactions.indexOf(firstTransactions, row);
+            if (secondRow >= 0) {
+                firstMatched.set(row);
+                secondMatched.set(secondRow);
+            }
+        }
+
+        return new ExactMatchResult(firstMatched.cardinality(),
+                unmatchedRows(firstMatched, firstTransactions.size()),
+                unmatchedRows(secondMatched, secondTransactions.size()));
     }
 
-    private Collection<ComparisonResultDto.TransactionDto> toTransactionsDto(Set<Transaction> secondTransactions) {
-        return secondTransactions.stream()
-                .map(transaction -> toTransactionDto(transaction, null))
-                .sorted(Comparator.comparing(ComparisonResultDto.TransactionDto::date))
-                .toList();
+    private static int[] unmatchedRows(final BitSet matched, final int size) {
+        return IntStream.range(0, size).filter(row -> !matched.get(row)).toArray();
     }
 
-    private static ComparisonResultDto getEmptyResponse(MultipartFile firstFile, MultipartFile secondFile) {
-        return ComparisonResultDto.builder()
-                .firstFileResult(ComparisonResultDto.FileResult.builder()
-                        .fileName(firstFile.getOriginalFilename())
-                        .totalRecords(0)
-                        .matchedRecords(0)
-                        .unmatchedRecords(0)
-                        .unmatchedTransactions(List.of()).build())
-                .secondFileResult(ComparisonResultDto.FileResult.builder()
-                        .fileName(secondFile.getOriginalFilename())
-                        .totalRecords(0)
-                        .matchedRecords(0)
-                        .unmatchedRecords(0)
-                        .unmatchedTransactions(List.of()).build())
-                .build();
+    private void emitUnmatchedTransactions(final TransactionTable firstTransactions, final int[] firstRows,
+                                           final TransactionTable secondTransactions, final int[] secondRows,
+                                           final PotentialMatchCalculator calculator, final ComparisonProgress progress,
+                                           final ComparisonResultListener listener) {
+        final ComparatorProperties.Matching matching = comparatorProperties.matching();
+        if (matching.parallel() && firstRows.length + secondRows.length >= matching.parallelThreshold()) {
+            // every row is decided before the first one is emitted, the partitions completing in any order
+            final PartitionedMatcher.Result result = new PartitionedMatcher(matching.engine(), matching.assignment(),
+                    matching.topK(), matchingPool)
+                    .match(firstTransactions, firstRows, secondTransactions, secondRows, calculator);
+            log.debug("Potential matched {} partitions in parallel", result.partitions());
+            progress.setScoredCandidates(result.scoredCandidates());
+
+            for (int position = 0; position < firstRows.length; position++) {
+                emitFirstFileTransaction(firstTransactions, firstRows[position], secondTransactions,
+                        result.potentialMatches()[position], listener);
+            }
+            emitUnclaimedTransactions(secondTransactions, result.unclaimed(), listener);
+            return;
+        }
+
+        final PotentialMatchFinder secondTransactionsIndex = matching.engine().index(secondTransactions, secondRows, calculator);
+        final IntUnaryOperator potentialMatches = matching.assignment()
+                .assign(secondTransactionsIndex, firstTransactions, firstRows, matching.topK());
+
+        for (final int row : firstRows) {
+            final int potentialMatch = potentialMatches.applyAsInt(row);
+            progress.setScoredCandidates(secondTransactionsIndex.scoredCandidates());
+            emitFirstFileTransaction(firstTransactions, row, secondTransactions, potentialMatch, listener);
+        }
+        emitUnclaimedTransactions(secondTransactions, secondTransactionsIndex.unclaimed(), listener);
     }
 
-    private static ComparisonResultDto.TransactionDto toTransactionDto(Transaction transaction, String potentialMapTransactionId) {
+    private static void emitFirstFileTransaction(final TransactionTable firstTransactions, final int row,
+                                                 final TransactionTable secondTransactions, final int potentialMatch,
+                                                 final ComparisonResultListener listener) {
+        if (potentialMatch >= 0) {
+            listener.onUnmatchedTransaction(ComparisonFile.FIRST_FILE,
+                    toTransactionDto(firstTransactions, row, secondTransactions.id(potentialMatch)));
+            listener.onUnmatchedTransaction(ComparisonFile.SECOND_FILE,
+                    toTransactionDto(secondTransactions, potentialMatch, firstTransactions.id(row)));
+        } else {
+            listener.onUnmatchedTransaction(ComparisonFile.FIRST_FILE, toTransactionDto(firstTransactions, row, null));
+        }
+    }
+
+    private static void emitUnclaimedTransactions(final TransactionTable secondTransactions, final int[] unclaimed,
+                                                  final ComparisonResultListener listener) {
+        Arrays.stream(unclaimed)
+                .boxed()
+                .sorted(Comparator.comparing(secondTransactions::date))
+                .forEach(row -> listener.onUnmatchedTransaction(ComparisonFile.SECOND_FILE,
+                        toTransactionDto(secondTransactions, row, null)));
+    }
+
+    private static ComparisonResultDto.TransactionDto toTransactionDto(TransactionTable transactions, int row,
+                                                                       String potentialMapTransactionId) {
         return ComparisonResultDto.TransactionDto.builder()
-                .id(transaction.getId())
-                .amount(transaction.getAmount())
-                .date(transaction.getDate())
-                .reference(transaction.getWalletReference())
+                .id(transactions.id(row))
+                .amount(transactions.amount(row))
+                .date(transactions.date(row))
+                .reference(transactions.walletReference(row))
                 .potentialMatchId(potentialMapTransactionId)
                 .build();
     }
 
-    private record UnmatchedTransactionsResult(List<ComparisonResultDto.TransactionDto> firstFileUnmatchedTransactions,
-                                               List<ComparisonResultDto.TransactionDto> secondFileUnmatchedTransactions) {
+    private record SourceFile(String fileName, long size, Function<LongAdder, TransactionTable> parser,
+                              TransactionStream stream) {
+    }
+
+    private record ParsedFile(TransactionTable transactions, long parseTimeMillis) {
+    }
+
+    private record ParsedFiles(ParsedFile firstFile, ParsedFile secondFile) {
+    }
+
+    private record ExactMatchResult(int matchedRecords, int[] firstUnmatchedRows, int[] secondUnmatchedRows) {
+    }
+
+    private static class ResultCollector implements ComparisonResultListener {
+
+        private final List<ComparisonResultDto.TransactionDto> firstFileUnmatchedTransactions = new ArrayList<>();
+        private final List<ComparisonResultDto.TransactionDto> secondFileUnmatchedTransactions = new ArrayList<>();
+        private ComparisonSummaryDto summary;
+
+        @Override
+        public void onSummary(final ComparisonSummaryDto summary) {
+            this.summary = summary;
+        }
+
+        @Override
+        public void onUnmatchedTransaction(final ComparisonFile file, final ComparisonResultDto.TransactionDto transaction) {
+            if (file == ComparisonFile.FIRST_FILE) {
+                firstFileUnmatchedTransactions.add(transaction);
+            } else {
+                secondFileUnmatchedTransactions.add(transaction);
+            }
+        }
+
+        private ComparisonResultDto toResultDto() {
+            return ComparisonResultDto.builder()
+                    .firstFileResult(toFileResult(summary.firstFileResult(), firstFileUnmatchedTransactions))
+                    .secondFileResult(toFileResult(summary.secondFileResult(), secondFileUnmatchedTransactions))
+                    .build();
+        }
+
+        private static ComparisonResultDto.FileResult toFileResult(final ComparisonSummaryDto.FileSummary fileSummary,
+                                                                   final List<ComparisonResultDto.TransactionDto> unmatchedTransactions) {
+            return ComparisonResultDto.FileResult.builder()
+                    .fileName(fileSummary.fileName())
+                    .parseTimeMillis(fileSummary.parseTimeMillis())
+                    .totalRecords(fileSummary.totalRecords())
+                    .matchedRecords(fileSummary.matchedRecords())
+                    .unmatchedRecords(fileSummary.unmatchedRecords())
+                    .unmatchedTransactions(unmatchedTransactions).build();
+        }
     }
 
 }
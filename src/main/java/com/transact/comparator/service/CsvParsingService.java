@@ -2,59 +2,361 @@ package com.transact.comparator.service;
 
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvReadException;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.config.ExecutorConfiguration;
 import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.exception.ComparatorServiceException;
 import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.parsing.Compression;
+import com.transact.comparator.service.parsing.ContentHash;
+import com.transact.comparator.service.parsing.CsvChunks;
+import com.transact.comparator.service.parsing.TransactionCsvReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashSet;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
+@Slf4j
 @Service
 public class CsvParsingService {
 
+    private static final Pattern LINE_LOCATION = Pattern.compile("line: (\\d+)");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final CsvMapper csvMapper;
+    private final ComparatorProperties.Parsing parsing;
+    private final ForkJoinPool chunkParsingPool;
+    private final ParsedFileCache parsedFileCache;
 
-    public CsvParsingService() {
+    public CsvParsingService(final ComparatorProperties comparatorProperties,
+                             @Qualifier(ExecutorConfiguration.CHUNK_PARSING_POOL) final ForkJoinPool chunkParsingPool,
+                             final ParsedFileCache parsedFileCache) {
         this.csvMapper = new CsvMapper().configure(CsvParser.Feature.FAIL_ON_MISSING_HEADER_COLUMNS, true);
         this.csvMapper.registerModule(new JavaTimeModule());
+        this.parsing = comparatorProperties.parsing();
+        this.chunkParsingPool = chunkParsingPool;
+        this.parsedFileCache = parsedFileCache;
     }
 
     public Set<Transaction> parseTransactions(final MultipartFile file) {
+        return parseTable(file).toTransactions();
+    }
+
+    public TransactionTable parseTable(final MultipartFile file) {
+        return parseTable(file, new LongAdder());
+    }
+
+    /**
+     * Parses an upload, or returns the table cached for the same content by the {@link ParsedFileCache}.
+     */
+    public TransactionTable parseTable(final MultipartFile file, final LongAdder parsedRows) {
         if (file == null || file.isEmpty()) {
-            return new HashSet<>();
+            return new TransactionTable();
+        }
+        if (parsedFileCache.isEnabled()) {
+            return parsedFileCache.get(fingerprint(file), () -> contentHash(file), parsedRows,
+                    () -> parseHashedUpload(file, parsedRows));
         }
+        try (InputStream input = file.getInputStream()) {
+            return parseUpload(file, input, parsedRows);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + file.getOriginalFilename(), exception);
+        }
+    }
 
-        final Set<Transaction> transactions = new HashSet<>();
-        final CsvSchema csvSchema = csvMapper.schemaWithHeader();
+    /**
+     * Parses a file of the local file system. Files up to 2 GB are memory mapped and parsed straight from
+     * the mapped buffer, in parallel chunks when they reach the parallel threshold.
+     */
+    public TransactionTable parseTable(final Path file, final LongAdder parsedRows) {
+        final String fileName = String.valueOf(file.getFileName());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size == 0) {
+                return new TransactionTable();
+            }
+            if (size > Integer.MAX_VALUE) {
+                return parseSequentially(Files.newInputStream(file), fileName, parsedRows);
+            }
 
-        try (InputStream inputStream = file.getInputStream()) {
-            MappingIterator<Transaction> iterator = csvMapper
-                    .readerFor(Transaction.class)
-                    .with(csvSchema)
-                    .readValues(inputStream);
-
-            while (iterator.hasNext()) {
-                Transaction transaction = iterator.next();
-                if (transaction != null && transaction.isValid()) {
-                    transactions.add(transaction);
-                }
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (parsedFileCache.isEnabled()) {
+                return parsedFileCache.get(ContentHash.fingerprint(buffer), () -> ContentHash.of(buffer), parsedRows,
+                        () -> new ParsedFileCache.Parsed(ContentHash.of(buffer), parseBuffer(buffer, fileName, parsedRows)));
             }
-        } catch (CsvReadException exception) {
-            throw new InvalidDataException("Failed to parse CSV file: " + exception.getMessage(), exception);
-        } catch (RuntimeJsonMappingException runtimeJsonMappingException) {
-            throw new InvalidDataException("Invalid data format in CSV file: " + runtimeJsonMappingException.getMessage(), runtimeJsonMappingException);
-        } catch (Exception exception) {
+            return parseBuffer(buffer, fileName, parsedRows);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + fileName, exception);
+        }
+    }
+
+    /**
+     * Streams the valid transactions of an upload to the consumer without keeping them, duplicates
+     * included, for callers that cannot hold the whole file in memory.
+     */
+    public void forEachTransaction(final MultipartFile file, final LongAdder parsedRows,
+                                   final Consumer<Transaction> consumer) {
+        if (file == null || file.isEmpty()) {
+            return;
+        }
+        try {
+            readSequentially(file.getInputStream(), file.getOriginalFilename(), parsedRows, consumer);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + file.getOriginalFilename(), exception);
+        }
+    }
+
+    public void forEachTransaction(final Path file, final LongAdder parsedRows, final Consumer<Transaction> consumer) {
+        final String fileName = String.valueOf(file.getFileName());
+        try {
+            readSequentially(Files.newInputStream(file), fileName, parsedRows, consumer);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + fileName, exception);
+        }
+    }
+
+    private static String contentHash(final MultipartFile file) {
+        try (InputStream input = file.getInputStream()) {
+            return ContentHash.of(input);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + file.getOriginalFilename(), exception);
+        }
+    }
+
+    private static String fingerprint(final MultipartFile file) {
+        try (InputStream input = file.getInputStream()) {
+            return ContentHash.fingerprint(input, file.getSize());
+        } catch (IOException exception) {
             throw new InvalidDataException("Could not parse CSV file: " + file.getOriginalFilename(), exception);
         }
+    }
+
+    /**
+     * Parses an upload in a single pass that also hashes it, the parse reading the upload once.
+     */
+    private ParsedFileCache.Parsed parseHashedUpload(final MultipartFile file, final LongAdder parsedRows) {
+        try (InputStream upload = file.getInputStream()) {
+            final ContentHash.HashingInputStream input = new ContentHash.HashingInputStream(upload);
+            final TransactionTable table = parseUpload(file, input, parsedRows);
+            return new ParsedFileCache.Parsed(input.hash(), table);
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + file.getOriginalFilename(), exception);
+        }
+    }
+
+    private TransactionTable parseUpload(final MultipartFile file, final InputStream upload, final LongAdder parsedRows)
+            throws IOException {
+        // a single mapped buffer is limited to 2 GB, larger files are streamed sequentially, and so are
+        // compressed files, which are only split into chunks once decompressed
+        final InputStream input = new BufferedInputStream(upload, BUFFER_SIZE);
+        if (parsing.parallel() && file.getSize() >= parsing.parallelThreshold().toBytes()
+                && file.getSize() <= Integer.MAX_VALUE && !Compression.of(input).isCompressed()) {
+            return parseInChunks(input, file.getOriginalFilename(), parsedRows);
+        }
+        return parseSequentially(input, file.getOriginalFilename(), parsedRows);
+    }
+
+    private TransactionTable parseBuffer(final ByteBuffer buffer, final String fileName, final LongAdder parsedRows) {
+        if (parsing.parallel() && buffer.limit() >= parsing.parallelThreshold().toBytes()
+                && !Compression.of(buffer).isCompressed()) {
+            return parseInChunks(buffer, fileName, parsedRows);
+        }
+        return parseSequentially(new ByteBufferBackedInputStream(buffer), fileName, parsedRows);
+    }
+
+    private TransactionTable parseSequentially(final InputStream input, final String fileName,
+                                               final LongAdder parsedRows) {
+        final TransactionTable table = new TransactionTable();
+        readSequentially(input, fileName, parsedRows, table::add);
+        return table;
+    }
+
+    private void readSequentially(final InputStream input, final String fileName, final LongAdder parsedRows,
+                                  final Consumer<Transaction> consumer) {
+        try (input; InputStream inputStream = Compression.decompressing(input)) {
+            readTransactions(inputStream, consumer, parsedRows);
+        } catch (ComparatorServiceException exception) {
+            // raised by the consumer, not a parsing error
+            throw exception;
+        } catch (Exception exception) {
+            throw toInvalidDataException(exception, fileName, UnaryOperator.identity());
+        }
+    }
+
+    private TransactionTable parseInChunks(final InputStream input, final String fileName, final LongAdder parsedRows) {
+        Path copy = null;
+        try {
+            copy = Files.createTempFile("comparator-", ".csv");
+            Files.copy(input, copy, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.READ)) {
+                return parseInChunks(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), fileName, parsedRows);
+            }
+        } catch (IOException exception) {
+            throw new InvalidDataException("Could not parse CSV file: " + fileName, exception);
+        } finally {
+            deleteCopy(copy);
+        }
+    }
+
+    private TransactionTable parseInChunks(final ByteBuffer buffer, final String fileName, final LongAdder parsedRows) {
+        // every chunk is parsed behind the header of the file, so it is validated against the same schema
+        final int headerEnd = CsvChunks.headerEnd(buffer);
+        final byte[] header = new byte[headerEnd];
+        buffer.get(0, header);
+
+        final int chunkSize = (int) Math.min(Integer.MAX_VALUE, Math.max(1, parsing.chunkSize().toBytes()));
+        final List<ChunkResult> chunks = chunkParsingPool.submit(() -> {
+            final int[] boundaries = CsvChunks.split(buffer, headerEnd, chunkSize);
+            return IntStream.range(0, boundaries.length - 1)
+                    .parallel()
+                    .mapToObj(chunk -> parseChunk(header, buffer, boundaries[chunk], boundaries[chunk + 1], parsedRows))
+                    .toList();
+        }).join();
+
+        log.debug("Parsed file {} in {} chunks", fileName, chunks.size());
+
+        final TransactionTable table = new TransactionTable(chunks.stream()
+                .mapToInt(chunk -> chunk.transactions() == null ? 0 : chunk.transactions().size())
+                .sum());
+        for (final ChunkResult chunk : chunks) {
+            if (chunk.failure() != null) {
+                // chunks are checked in file order, so this is the error a sequential parse stops at
+                final int lineOffset = CsvChunks.countLines(buffer, headerEnd, chunk.start());
+                throw toInvalidDataException(chunk.failure(), fileName, message -> shiftLines(message, lineOffset));
+            }
+            table.addAll(chunk.transactions());
+        }
+        return table;
+    }
+
+    private ChunkResult parseChunk(final byte[] header, final ByteBuffer buffer, final int start, final int end,
+                                   final LongAdder parsedRows) {
+        final TransactionTable table = new TransactionTable();
+        try (InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream(header),
+                new ByteBufferBackedInputStream(buffer.slice(start, end - start)))) {
+            readTransactions(inputStream, table::add, parsedRows);
+            return new ChunkResult(start, table, null);
+        } catch (Exception exception) {
+            return new ChunkResult(start, null, exception);
+        }
+    }
+
+    private void readTransactions(final InputStream inputStream, final Consumer<Transaction> consumer,
+                                  final LongAdder parsedRows) throws IOException {
+        if (!parsing.fastPath()) {
+            readMappedTransactions(inputStream, consumer, parsedRows);
+            return;
+        }
+
+        TransactionCsvReader.read(inputStream, consumer, parsedRows, (remaining, lineOffset) -> {
+            try {
+                readMappedTransactions(remaining, consumer, parsedRows);
+            } catch (IOException | RuntimeJsonMappingException exception) {
+                throw new FallbackFailure(exception, lineOffset);
+            }
+        });
+    }
+
+    /**
+     * Reads any layout through the CSV mapper, the reference behaviour of the {@link TransactionCsvReader}.
+     */
+    private void readMappedTransactions(final InputStream inputStream, final Consumer<Transaction> consumer,
+                                        final LongAdder parsedRows) throws IOException {
+        final CsvSchema csvSchema = csvMapper.schemaWithHeader();
+        final MappingIterator<Transaction> iterator = csvMapper
+                .readerFor(Transaction.class)
+                .with(csvSchema)
+                .readValues(inputStream);
+
+        while (iterator.hasNext()) {
+            Transaction transaction = iterator.next();
+            parsedRows.increment();
+            if (transaction != null && transaction.isValid()) {
+                consumer.accept(transaction);
+            }
+        }
+    }
+
+    private static InvalidDataException toInvalidDataException(final Exception exception, final String fileName,
+                                                               final UnaryOperator<String> messageMapper) {
+        if (exception instanceof FallbackFailure failure) {
+            return toInvalidDataException(failure.getCause(), fileName,
+                    message -> messageMapper.apply(shiftLines(message, failure.lineOffset)));
+        }
+        if (exception instanceof CsvReadException) {
+            return new InvalidDataException("Failed to parse CSV file: " + messageMapper.apply(exception.getMessage()), exception);
+        }
+        if (exception instanceof RuntimeJsonMappingException) {
+            return new InvalidDataException("Invalid data format in CSV file: " + messageMapper.apply(exception.getMessage()), exception);
+        }
+        return new InvalidDataException("Could not parse CSV file: " + fileName, exception);
+    }
+
+    private static String shiftLines(final String message, final int lineOffset) {
+        return message == null ? null : LINE_LOCATION.matcher(message)
+                .replaceAll(location -> "line: " + (Integer.parseInt(location.group(1)) + lineOffset));
+    }
+
+    private static void deleteCopy(final Path copy) {
+        if (copy == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(copy);
+        } catch (IOException exception) {
+            log.warn("Could not delete temporary file {}", copy, exception);
+            copy.toFile().deleteOnExit();
+        }
+    }
+
+    private record ChunkResult(int start, TransactionTable transactions, Exception failure) {
+    }
+
+    /**
+     * Error of the CSV mapper reading the end of a file the {@link TransactionCsvReader} handed over, its
+     * line numbers being {@code lineOffset} lines before the ones of the file.
+     */
+    private static final class FallbackFailure extends RuntimeException {
+
+        private final int lineOffset;
+
+        private FallbackFailure(final Exception cause, final int lineOffset) {
+            super(cause);
+            this.lineOffset = lineOffset;
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
 
-        return transactions;
     }
 
 }
@@ -0,0 +1,79 @@
+package com.transact.comparator.service;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.LocalFileAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Resolves the paths of server-local files and only lets through regular files inside one of the
+ * configured base directories. Relative paths are resolved against the first base directory and symbolic
+ * links are followed before the check, so a link cannot point outside the base directories.
+ */
+@Component
+public class LocalFileResolver {
+
+    private final List<Path> baseDirectories;
+
+    public LocalFileResolver(final ComparatorProperties comparatorProperties) {
+        this.baseDirectories = comparatorProperties.localFiles().baseDirectories().stream()
+                .map(directory -> directory.toAbsolutePath().normalize())
+                .toList();
+    }
+
+    public Path resolve(final String location) {
+        if (baseDirectories.isEmpty()) {
+            throw new LocalFileAccessException("Comparing local files is disabled, no base directory is configured");
+        }
+        if (location == null || location.isBlank()) {
+            throw new InvalidDataException("Local file path is required");
+        }
+
+        final Path path = toPath(location);
+        if (!isAllowed(path)) {
+            throw new LocalFileAccessException("Local file is outside of the allowed directories: " + location);
+        }
+
+        final Path realPath;
+        try {
+            realPath = path.toRealPath();
+        } catch (IOException exception) {
+            throw new InvalidDataException("Local file not found: " + location, exception);
+        }
+        if (!isAllowed(realPath)) {
+            throw new LocalFileAccessException("Local file is outside of the allowed directories: " + location);
+        }
+        if (!Files.isRegularFile(realPath)) {
+            throw new InvalidDataException("Local file is not a regular file: " + location);
+        }
+        return realPath;
+    }
+
+    private Path toPath(final String location) {
+        try {
+            return baseDirectories.get(0).resolve(location).normalize();
+        } catch (InvalidPathException exception) {
+            throw new InvalidDataException("Invalid local file path: " + location, exception);
+        }
+    }
+
+    private boolean isAllowed(final Path path) {
+        return baseDirectories.stream().anyMatch(directory -> path.startsWith(directory) || startsWithRealPath(path, directory));
+    }
+
+    // the base directory itself may be reached through a symbolic link
+    private static boolean startsWithRealPath(final Path path, final Path directory) {
+        try {
+            return path.startsWith(directory.toRealPath());
+        } catch (IOException exception) {
+            return false;
+        }
+    }
+
+}
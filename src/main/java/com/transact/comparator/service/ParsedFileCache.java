@@ -0,0 +1,191 @@
+package com.transact.comparator.service;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.TransactionTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Parsed files by content hash, so that a file compared again, such as a reference file compared against
+ * every daily file, is neither parsed nor indexed twice. Entries are evicted least recently used first once
+ * their estimated heap size exceeds the configured maximum; a file estimated larger than the whole cache is
+ * not kept. Concurrent lookups of a content being parsed wait for that parse instead of parsing it again.
+ * <p>
+ * A content is first looked up by a fingerprint read from its ends, and only hashed whole when that
+ * fingerprint is known: a content seen for the first time is hashed by the pass that parses it, and read
+ * once.
+ * <p>
+ * Cached tables are shared by every comparison and must not be modified.
+ */
+@Slf4j
+@Component
+public class ParsedFileCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> contentHashes = new HashMap<>();
+    private final Map<String, CompletableFuture<Parsed>> loading = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long bytes;
+
+    public ParsedFileCache(final ComparatorProperties comparatorProperties, final MeterRegistry registry) {
+        final ComparatorProperties.Cache cache = comparatorProperties.cache();
+        this.enabled = cache.enabled() && cache.maxSize().toBytes() > 0;
+        this.maxBytes = cache.maxSize().toBytes();
+        this.hits = Counter.builder("comparator.cache.gets")
+                .description("Parsed file cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder("comparator.cache.gets")
+                .description("Parsed file cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        this.evictions = Counter.builder("comparator.cache.evictions")
+                .description("Parsed files evicted from the cache")
+                .register(registry);
+        Gauge.builder("comparator.cache.size", this, ParsedFileCache::size)
+                .description("Parsed files in the cache")
+                .register(registry);
+        Gauge.builder("comparator.cache.weight", this, ParsedFileCache::bytes)
+                .description("Estimated heap size of the parsed files in the cache")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the table cached for the content of the fingerprint, once confirmed by its content hash, or
+     * parses and caches it. The parser returns the table with the hash of the content it read. A table
+     * served without being parsed adds its rows to {@code parsedRows}, as if it had been parsed.
+     */
+    public TransactionTable get(final String fingerprint, final Supplier<String> contentHash,
+                                final LongAdder parsedRows, final Supplier<Parsed> parser) {
+        final Supplier<String> hash = memoized(contentHash);
+        final TransactionTable cached = lookup(fingerprint, hash);
+        if (cached != null) {
+            log.debug("Parsed file cache hit for content {}", hash.get());
+            return hit(cached, parsedRows);
+        }
+
+        final CompletableFuture<Parsed> load = new CompletableFuture<>();
+        final CompletableFuture<Parsed> inFlight = loading.putIfAbsent(fingerprint, load);
+        if (inFlight != null) {
+            log.debug("Parsed file cache waiting for the parse of fingerprint {}", fingerprint);
+            final Parsed parsed = inFlight.handle((result, failure) -> result).join();
+            if (parsed != null && parsed.contentHash().equals(hash.get())) {
+                return hit(parsed.table(), parsedRows);
+            }
+            // another content of the same fingerprint, or a parse failing before the content was hashed whole
+            return parse(fingerprint, parser);
+        }
+
+        try {
+            // a parse completed since the lookup has already cached the table
+            final TransactionTable completed = lookup(fingerprint, hash);
+            if (completed != null) {
+                load.complete(new Parsed(hash.get(), completed));
+                return hit(completed, parsedRows);
+            }
+
+            misses.increment();
+            final Parsed parsed = parser.get();
+            put(fingerprint, parsed);
+            load.complete(parsed);
+            return parsed.table();
+        } catch (RuntimeException exception) {
+            load.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            loading.remove(fingerprint, load);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    private TransactionTable hit(final TransactionTable table, final LongAdder parsedRows) {
+        hits.increment();
+        parsedRows.add(table.size());
+        return table;
+    }
+
+    private TransactionTable parse(final String fingerprint, final Supplier<Parsed> parser) {
+        misses.increment();
+        final Parsed parsed = parser.get();
+        put(fingerprint, parsed);
+        return parsed.table();
+    }
+
+    private TransactionTable lookup(final String fingerprint, final Supplier<String> contentHash) {
+        // the content is only hashed whole when a content of the same fingerprint was cached
+        return knows(fingerprint) ? lookup(contentHash.get()) : null;
+    }
+
+    private synchronized boolean knows(final String fingerprint) {
+        return contentHashes.containsKey(fingerprint);
+    }
+
+    private synchronized TransactionTable lookup(final String contentHash) {
+        final Entry entry = entries.get(contentHash);
+        return entry == null ? null : entry.table();
+    }
+
+    private synchronized void put(final String fingerprint, final Parsed parsed) {
+        final long weight = parsed.table().estimatedBytes();
+        if (weight > maxBytes) {
+            log.debug("Parsed file of content {} is too large to be cached: {} bytes", parsed.contentHash(), weight);
+            return;
+        }
+
+        final Entry previous = entries.put(parsed.contentHash(), new Entry(parsed.table(), weight, fingerprint));
+        bytes += weight - (previous == null ? 0 : previous.bytes());
+        contentHashes.put(fingerprint, parsed.contentHash());
+
+        final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            final Map.Entry<String, Entry> evicted = eldest.next();
+            bytes -= evicted.getValue().bytes();
+            contentHashes.remove(evicted.getValue().fingerprint(), evicted.getKey());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static Supplier<String> memoized(final Supplier<String> supplier) {
+        final String[] value = new String[1];
+        return () -> value[0] == null ? (value[0] = supplier.get()) : value[0];
+    }
+
+    /**
+     * A parsed table with the hash of the content it was parsed from.
+     */
+    public record Parsed(String contentHash, TransactionTable table) {
+    }
+
+    private record Entry(TransactionTable table, long bytes, String fingerprint) {
+    }
+
+}
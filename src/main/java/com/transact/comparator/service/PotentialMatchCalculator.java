@@ -1,54 +1,292 @@
 package com.transact.comparator.service;
 
 import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.matching.MatchField;
+import com.transact.comparator.service.matching.MatchRules;
 import com.transact.comparator.service.similarity.BigDecimalSimilarityCalculator;
+import com.transact.comparator.service.similarity.EditDistanceSimilarityCalculator;
 import com.transact.comparator.service.similarity.LocalDateTimeSimilarityCalculator;
-import com.transact.comparator.service.similarity.SimilarityCalculator;
 import com.transact.comparator.service.similarity.StringSimilarityCalculator;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.function.Function;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Potential match decision compiled from {@link MatchRules}. Every field similarity is binary, so the
+ * rules reduce to the set of similar fields reaching the threshold: the outcome of every such set and
+ * the weighted score are computed once, and a lookup only evaluates the weighted fields in descending
+ * weight order, through final calculators holding their tolerance as primitives, until the outcome can
+ * no longer change.
+ */
 @Slf4j
-public class PotentialMatchCalculator {
+public final class PotentialMatchCalculator {
 
-    private static final double MATCH_THRESHOLD = 0.5;
+    public static final PotentialMatchCalculator DEFAULT = compile(MatchRules.DEFAULT);
 
-    private static final List<FieldMatchCalculator<?>> fieldCalculators = List.of(
-            new FieldMatchCalculator<>(Transaction::getId, new StringSimilarityCalculator(), 0.5),
-            new FieldMatchCalculator<>(Transaction::getDate, new LocalDateTimeSimilarityCalculator(), 0.3),
-            new FieldMatchCalculator<>(Transaction::getAmount, new BigDecimalSimilarityCalculator(), 0.2)
-    );
+    private static final StringSimilarityCalculator STRING_CALCULATOR = new StringSimilarityCalculator();
 
-    public static boolean arePotentialMatch(final Transaction firstTransaction, final Transaction secondTransaction) {
+    private static final byte UNDECIDED = 0;
+    private static final byte MATCH = 1;
+    private static final byte NO_MATCH = 2;
+
+    private final MatchRules rules;
+    private final EditDistanceSimilarityCalculator idCalculator;
+    private final LocalDateTimeSimilarityCalculator dateCalculator;
+    private final BigDecimalSimilarityCalculator amountCalculator;
+    private final long dateWindowSeconds;
+    private final long amountWindowMinorUnits;
+    // weighted fields by descending weight, so the most decisive similarities are computed first
+    private final MatchField[] scoringOrder;
+    // scores[mask]: weighted similarity when mask holds the similar fields of scoringOrder
+    private final double[] scores;
+    // decisions[k][mask]: outcome once the first k fields of scoringOrder are known, mask holding the similar ones
+    private final byte[][] decisions;
+
+    private PotentialMatchCalculator(final MatchRules rules) {
+        this.rules = rules;
+        this.idCalculator = new EditDistanceSimilarityCalculator(rules.idTolerance());
+        this.dateCalculator = new LocalDateTimeSimilarityCalculator(rules.dateTolerance().toMinutes());
+        this.amountCalculator = new BigDecimalSimilarityCalculator(rules.amountTolerance());
+        // Duration.toMinutes() truncates, so anything strictly below (tolerance + 1) minutes is similar
+        this.dateWindowSeconds = (rules.dateTolerance().toMinutes() + 1) * 60;
+        this.amountWindowMinorUnits = Math.max(1, rules.amountTolerance()
+                .movePointRight(TransactionTable.AMOUNT_SCALE)
+                .setScale(0, RoundingMode.CEILING)
+                .min(BigDecimal.valueOf(Long.MAX_VALUE / 2))
+                .longValueExact());
+        this.scoringOrder = rules.weights().entrySet().stream()
+                .filter(weight -> weight.getValue() > 0)
+                .sorted(Map.Entry.<MatchField, Double>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .toArray(MatchField[]::new);
+        this.scores = computeScores();
+        this.decisions = computeDecisions();
+    }
+
+    /**
+     * Compiles the rules, meant to be done once per comparison and not per scored pair.
+     */
+    public static PotentialMatchCalculator compile(final MatchRules rules) {
+        return new PotentialMatchCalculator(rules);
+    }
+
+    public boolean arePotentialMatch(final Transaction firstTransaction, final Transaction secondTransaction) {
         if (firstTransaction == null || secondTransaction == null) {
             log.warn("One or both transactions are null: firstTransaction={}, secondTransaction={}", firstTransaction, secondTransaction);
             return false;
         }
 
-        final double matchScore = fieldCalculators.stream()
-                .map(fieldMatchCalculator -> fieldMatchCalculator.calculateMatchScore(firstTransaction, secondTransaction))
-                .map(BigDecimal::valueOf)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+        if (log.isDebugEnabled()) {
+            log.debug("Match score for transaction {} and transaction {} is {}", firstTransaction.getId(), secondTransaction.getId(),
+                    matchScore(firstTransaction, secondTransaction));
+        }
+
+        int similarFields = 0;
+        for (int position = 0; position < scoringOrder.length; position++) {
+            if (isSimilar(scoringOrder[position], firstTransaction, secondTransaction)) {
+                similarFields |= 1 << position;
+            }
+            if (decisions[position + 1][similarFields] != UNDECIDED) {
+                return decisions[position + 1][similarFields] == MATCH;
+            }
+        }
+        return decisions[scoringOrder.length][similarFields] == MATCH;
+    }
+
+    public boolean arePotentialMatch(final TransactionTable firstTable, final int firstRow,
+                                     final TransactionTable secondTable, final int secondRow) {
+        if (log.isDebugEnabled()) {
+            log.debug("Match score for transaction {} and transaction {} is {}", firstTable.id(firstRow), secondTable.id(secondRow),
+                    matchScore(firstTable, firstRow, secondTable, secondRow));
+        }
+
+        int similarFields = 0;
+        for (int position = 0; position < scoringOrder.length; position++) {
+            if (isSimilar(scoringOrder[position], firstTable, firstRow, secondTable, secondRow)) {
+                similarFields |= 1 << position;
+            }
+            if (decisions[position + 1][similarFields] != UNDECIDED) {
+                return decisions[position + 1][similarFields] == MATCH;
+            }
+        }
+        return decisions[scoringOrder.length][similarFields] == MATCH;
+    }
+
+    /**
+     * Returns the weighted similarity of two rows, the score compared to the threshold by
+     * {@link #arePotentialMatch(TransactionTable, int, TransactionTable, int)}.
+     */
+    public double matchScore(final TransactionTable firstTable, final int firstRow,
+                             final TransactionTable secondTable, final int secondRow) {
+        int similarFields = 0;
+        for (int position = 0; position < scoringOrder.length; position++) {
+            if (isSimilar(scoringOrder[position], firstTable, firstRow, secondTable, secondRow)) {
+                similarFields |= 1 << position;
+            }
+        }
+        return scores[similarFields];
+    }
+
+    /**
+     * Returns whether transactions whose similar fields are exactly the given ones are a potential match.
+     */
+    public boolean isMatch(final Set<MatchField> similarFields) {
+        return decisions[scoringOrder.length][maskOf(similarFields)] == MATCH;
+    }
+
+    /**
+     * Returns whether every potential match has all the fields of at least one of the given sets similar, which
+     * tells the finders whether looking up candidates by those fields only is enough.
+     */
+    @SafeVarargs
+    public final boolean everyMatchIncludes(final Set<MatchField>... alternatives) {
+        // fields without a weight are never counted as similar, so no match includes a set holding one
+        final int[] masks = Arrays.stream(alternatives)
+                .filter(alternative -> Arrays.asList(scoringOrder).containsAll(alternative))
+                .mapToInt(this::maskOf)
+                .toArray();
+        for (int similarFields = 0; similarFields < 1 << scoringOrder.length; similarFields++) {
+            if (decisions[scoringOrder.length][similarFields] == MATCH && !includesAny(similarFields, masks)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        log.debug("Match score for transaction {} and transaction {} is {}", firstTransaction.getId(), secondTransaction.getId(), matchScore);
+    /**
+     * Returns the window of epoch seconds holding every similar date: dates whose whole second distance is
+     * at most the window apart.
+     */
+    public long dateWindowSeconds() {
+        return dateWindowSeconds;
+    }
 
-        return matchScore >= MATCH_THRESHOLD;
+    /**
+     * Returns the number of edits similar ids may be apart, 0 when only equal ids are similar.
+     */
+    public int idTolerance() {
+        return rules.idTolerance();
     }
 
-    private record FieldMatchCalculator<T>(Function<Transaction, T> valueSupplier,
-                                           SimilarityCalculator<T> calculator,
-                                           double weight) {
+    /**
+     * Returns a positive window of minor units holding every similar amount, at least the amount tolerance.
+     */
+    public long amountWindowMinorUnits() {
+        return amountWindowMinorUnits;
+    }
+
+    private boolean isSimilar(final MatchField field, final Transaction firstTransaction,
+                              final Transaction secondTransaction) {
+        return switch (field) {
+            case ID -> idCalculator.calculateSimilarity(firstTransaction.getId(), secondTransaction.getId()) == 1.0;
+            case DATE -> dateCalculator.calculateSimilarity(firstTransaction.getDate(), secondTransaction.getDate()) == 1.0;
+            case AMOUNT -> amountCalculator.calculateSimilarity(firstTransaction.getAmount(), secondTransaction.getAmount()) == 1.0;
+            case WALLET_REFERENCE -> STRING_CALCULATOR.calculateSimilarity(firstTransaction.getWalletReference(),
+                    secondTransaction.getWalletReference()) == 1.0;
+            case TYPE -> firstTransaction.getType() == secondTransaction.getType();
+            case PROFILE_NAME -> STRING_CALCULATOR.calculateSimilarity(firstTransaction.getProfileName(),
+                    secondTransaction.getProfileName()) == 1.0;
+            case NARRATIVE -> STRING_CALCULATOR.calculateSimilarity(firstTransaction.getNarrative(),
+                    secondTransaction.getNarrative()) == 1.0;
+            case DESCRIPTION -> STRING_CALCULATOR.calculateSimilarity(firstTransaction.getDescription(),
+                    secondTransaction.getDescription()) == 1.0;
+        };
+    }
+
+    private boolean isSimilar(final MatchField field, final TransactionTable firstTable, final int firstRow,
+                              final TransactionTable secondTable, final int secondRow) {
+        return switch (field) {
+            case ID -> idCalculator.calculateSimilarity(firstTable.id(firstRow), secondTable.id(secondRow)) == 1.0;
+            case DATE -> isSimilarDate(firstTable, firstRow, secondTable, secondRow);
+            case AMOUNT -> isSimilarAmount(firstTable, firstRow, secondTable, secondRow);
+            case WALLET_REFERENCE -> firstTable.sameWalletReference(firstRow, secondTable, secondRow);
+            case TYPE -> firstTable.type(firstRow) == secondTable.type(secondRow);
+            case PROFILE_NAME -> firstTable.sameProfileName(firstRow, secondTable, secondRow);
+            case NARRATIVE -> firstTable.sameNarrative(firstRow, secondTable, secondRow);
+            case DESCRIPTION -> firstTable.sameDescription(firstRow, secondTable, secondRow);
+        };
+    }
+
+    private boolean isSimilarDate(final TransactionTable firstTable, final int firstRow,
+                                  final TransactionTable secondTable, final int secondRow) {
+        if (firstTable.hasWholeSecondDate(firstRow) && secondTable.hasWholeSecondDate(secondRow)) {
+            return dateCalculator.calculateSimilarity(firstTable.epochSecond(firstRow), secondTable.epochSecond(secondRow)) == 1.0;
+        }
+        return dateCalculator.calculateSimilarity(firstTable.date(firstRow), secondTable.date(secondRow)) == 1.0;
+    }
+
+    private boolean isSimilarAmount(final TransactionTable firstTable, final int firstRow,
+                                    final TransactionTable secondTable, final int secondRow) {
+        if (firstTable.hasMinorUnitAmount(firstRow) && secondTable.hasMinorUnitAmount(secondRow)) {
+            return amountCalculator.calculateSimilarity(firstTable.minorUnitAmount(firstRow), secondTable.minorUnitAmount(secondRow)) == 1.0;
+        }
+        return amountCalculator.calculateSimilarity(firstTable.amount(firstRow), secondTable.amount(secondRow)) == 1.0;
+    }
+
+    private double matchScore(final Transaction firstTransaction, final Transaction secondTransaction) {
+        int similarFields = 0;
+        for (int position = 0; position < scoringOrder.length; position++) {
+            if (isSimilar(scoringOrder[position], firstTransaction, secondTransaction)) {
+                similarFields |= 1 << position;
+            }
+        }
+        return scores[similarFields];
+    }
+
+    private double[] computeScores() {
+        final double[] result = new double[1 << scoringOrder.length];
+        for (int similarFields = 0; similarFields < result.length; similarFields++) {
+            BigDecimal score = BigDecimal.ZERO;
+            for (int position = 0; position < scoringOrder.length; position++) {
+                if ((similarFields & 1 << position) != 0) {
+                    score = score.add(BigDecimal.valueOf(rules.weights().get(scoringOrder[position])));
+                }
+            }
+            result[similarFields] = score.doubleValue();
+        }
+        return result;
+    }
+
+    private byte[][] computeDecisions() {
+        final int fields = scoringOrder.length;
+        final byte[][] result = new byte[fields + 1][1 << fields];
+        for (int known = 0; known <= fields; known++) {
+            for (int similarFields = 0; similarFields < 1 << known; similarFields++) {
+                boolean anyMatch = false;
+                boolean anyMiss = false;
+                for (int unknown = 0; unknown < 1 << (fields - known); unknown++) {
+                    final boolean outcome = scores[similarFields | unknown << known] >= rules.threshold();
+                    anyMatch |= outcome;
+                    anyMiss |= !outcome;
+                }
+                result[known][similarFields] = anyMatch && anyMiss ? UNDECIDED : anyMatch ? MATCH : NO_MATCH;
+            }
+        }
+        return result;
+    }
+
+    private int maskOf(final Set<MatchField> fields) {
+        int mask = 0;
+        for (int position = 0; position < scoringOrder.length; position++) {
+            if (fields.contains(scoringOrder[position])) {
+                mask |= 1 << position;
+            }
+        }
+        return mask;
+    }
 
-        public double calculateMatchScore(Transaction t1, Transaction t2) {
-            T value1 = valueSupplier.apply(t1);
-            T value2 = valueSupplier.apply(t2);
-            double similarity = calculator.calculateSimilarity(value1, value2);
-            return similarity * weight;
+    private static boolean includesAny(final int similarFields, final int[] masks) {
+        for (final int mask : masks) {
+            if ((similarFields & mask) == mask) {
+                return true;
+            }
         }
+        return false;
     }
 
 }
@@ -0,0 +1,12 @@
+package com.transact.comparator.service;
+
+/**
+ * Comparison whose files are parsed and exact matched; potential matching runs while the results are
+ * emitted to the listener.
+ */
+@FunctionalInterface
+public interface PreparedComparison {
+
+    void emit(ComparisonResultListener listener);
+
+}
@@ -0,0 +1,228 @@
+package com.transact.comparator.service.external;
+
+import com.transact.comparator.exception.ComparatorServiceException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more records than fit in memory: records are buffered up to the run size, each full buffer is
+ * sorted and spilled to a run file, and {@link #sorted()} k-way merges the runs. Memory use is bounded by
+ * the run size plus one buffered reader per run, whatever the number of records.
+ */
+@Slf4j
+final class ExternalSorter<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final Comparator<T> comparator;
+    private final RecordCodec<T> codec;
+    private final int runSize;
+    private final List<Run> runs = new ArrayList<>();
+    private List<T> buffer = new ArrayList<>();
+    private long size;
+
+    ExternalSorter(final Path directory, final Comparator<T> comparator, final RecordCodec<T> codec,
+                   final int runSize) {
+        this.directory = directory;
+        this.comparator = comparator;
+        this.codec = codec;
+        this.runSize = Math.max(runSize, 1);
+    }
+
+    void add(final T record) {
+        buffer.add(record);
+        size++;
+        if (buffer.size() >= runSize) {
+            spill();
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns the records in sorted order, ties keeping their insertion order. The sorter accepts no more
+     * records once it is read.
+     */
+    SortedRecords<T> sorted() {
+        if (runs.isEmpty()) {
+            final List<T> records = buffer;
+            buffer = List.of();
+            records.sort(comparator);
+            return SortedRecords.of(records.iterator());
+        }
+
+        spill();
+        return new Merge();
+    }
+
+    /**
+     * Releases the records and their run files, whatever is left is deleted with the directory.
+     */
+    @Override
+    public void close() {
+        for (final Run run : runs) {
+            try {
+                Files.deleteIfExists(run.path());
+            } catch (IOException exception) {
+                log.warn("Could not delete sorted run {}", run.path(), exception);
+            }
+        }
+        runs.clear();
+        buffer = List.of();
+    }
+
+    private void spill() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+
+        buffer.sort(comparator);
+        try {
+            final Path path = Files.createTempFile(directory, "run-", ".bin");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+                for (final T record : buffer) {
+                    codec.write(output, record);
+                }
+            }
+            runs.add(new Run(path, buffer.size()));
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not write sorted run", exception);
+        }
+        buffer = new ArrayList<>();
+    }
+
+    /**
+     * Iterator over sorted records that releases its files once closed.
+     */
+    interface SortedRecords<T> extends Iterator<T>, Closeable {
+
+        @Override
+        void close();
+
+        static <T> SortedRecords<T> of(final Iterator<T> iterator) {
+            return new SortedRecords<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return iterator.next();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+    }
+
+    private record Run(Path path, long size) {
+    }
+
+    private final class Merge implements SortedRecords<T> {
+
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> queue = new PriorityQueue<>((first, second) -> {
+            final int comparison = comparator.compare(first.head, second.head);
+            // runs are spilled in insertion order, so the run index keeps the merge stable
+            return comparison != 0 ? comparison : Integer.compare(first.index, second.index);
+        });
+
+        private Merge() {
+            try {
+                for (int index = 0; index < runs.size(); index++) {
+                    final RunReader reader = new RunReader(runs.get(index), index);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                }
+            } catch (IOException exception) {
+                close();
+                throw new ComparatorServiceException("Could not read sorted runs", exception);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            final RunReader reader = queue.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+
+            final T record = reader.head;
+            try {
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            } catch (IOException exception) {
+                throw new ComparatorServiceException("Could not read sorted runs", exception);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() {
+            for (final RunReader reader : readers) {
+                try {
+                    reader.input.close();
+                } catch (IOException exception) {
+                    log.warn("Could not close sorted run reader", exception);
+                }
+            }
+            queue.clear();
+        }
+
+        private final class RunReader {
+
+            private final DataInputStream input;
+            private final int index;
+            private long remaining;
+            private T head;
+
+            private RunReader(final Run run, final int index) throws IOException {
+                this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.path()), BUFFER_SIZE));
+                this.index = index;
+                this.remaining = run.size();
+            }
+
+            private boolean advance() throws IOException {
+                if (remaining == 0) {
+                    head = null;
+                    return false;
+                }
+                remaining--;
+                head = codec.read(input);
+                return true;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,492 @@
+package com.transact.comparator.service.external;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonSummaryDto;
+import com.transact.comparator.exception.ComparatorServiceException;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonPhase;
+import com.transact.comparator.service.ComparisonProgress;
+import com.transact.comparator.service.ComparisonResultListener;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import com.transact.comparator.service.PreparedComparison;
+import com.transact.comparator.service.matching.MatchField;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Comparison of files larger than the heap. Parsed transactions are spilled to sorted runs on local disk
+ * and every step is a merge over sorted runs:
+ * <ul>
+ *     <li>exact matching merge joins both files ordered by fingerprint, which also drops duplicates</li>
+ *     <li>potential matches sharing an id are paired by a merge join ordered by id</li>
+ *     <li>the remaining transactions are swept in date order, only the second file transactions inside the
+ *     date tolerance window of the current transaction being kept in memory</li>
+ * </ul>
+ * Memory use is bounded by the run size, except for that date window: it holds every unclaimed second file
+ * transaction within the date tolerance of the current one, all undated ones together, and is scanned
+ * linearly for each first file transaction. Dense dates or a wide tolerance grow it past the run size, which
+ * is logged, and make the sweep quadratic in the transactions of the window.
+ * Each transaction is paired with the lowest ordinal candidate of each pass, so the result equals the one of
+ * the in-memory engines unless a transaction has several competing candidates, id matches being preferred.
+ * The id pass only runs when an equal id reaches the match threshold on its own, and match rules where a
+ * potential match may be found outside of both passes are rejected, as are ids similar within some edits
+ * reaching the threshold without a similar date, which a merge join by id cannot pair.
+ */
+@Slf4j
+@Component
+public class OutOfCoreComparisonEngine {
+
+    private final ComparatorProperties.OutOfCore outOfCore;
+    private final ComparisonMetrics comparisonMetrics;
+
+    public OutOfCoreComparisonEngine(final ComparatorProperties comparatorProperties,
+                                     final ComparisonMetrics comparisonMetrics) {
+        this.outOfCore = comparatorProperties.outOfCore();
+        this.comparisonMetrics = comparisonMetrics;
+    }
+
+    /**
+     * Spills and exact matches both files right away, potential matching and the sorting of the results
+     * run once the returned comparison is emitted. The spilled runs are deleted once it is emitted.
+     */
+    public PreparedComparison prepare(final String firstFileName, final TransactionStream firstFile,
+                                      final String secondFileName, final TransactionStream secondFile,
+                                      final PotentialMatchCalculator calculator, final ComparisonProgress progress) {
+        final boolean pairById = calculator.isMatch(EnumSet.of(MatchField.ID));
+        if (!(pairById && calculator.idTolerance() == 0
+                ? calculator.everyMatchIncludes(EnumSet.of(MatchField.ID), EnumSet.of(MatchField.DATE))
+                : calculator.everyMatchIncludes(EnumSet.of(MatchField.DATE)))) {
+            throw new InvalidDataException("Out of core comparisons only support match rules where every potential "
+                    + "match has a similar date or an equal id reaching the threshold on its own, without id "
+                    + "tolerance");
+        }
+
+        final Workspace workspace = new Workspace(createDirectory());
+        try {
+            progress.setPhase(ComparisonPhase.PARSING);
+            final SpilledFile first = spill(firstFileName, firstFile, ComparisonFile.FIRST_FILE, workspace, progress);
+            final SpilledFile second = spill(secondFileName, secondFile, ComparisonFile.SECOND_FILE, workspace, progress);
+
+            progress.setPhase(ComparisonPhase.EXACT_MATCHING);
+            final long exactMatchingStart = System.nanoTime();
+            final ExactMatchResult exactMatchResult = findExactMatches(first.transactions(), second.transactions(), workspace);
+            comparisonMetrics.recordExactMatching(System.nanoTime() - exactMatchingStart);
+
+            final ComparisonSummaryDto summary = ComparisonSummaryDto.builder()
+                    .firstFileResult(fileSummary(firstFileName, first.parseTimeMillis(), exactMatchResult.firstTotal(),
+                            exactMatchResult.matchedRecords(), exactMatchResult.firstUnmatched().size()))
+                    .secondFileResult(fileSummary(secondFileName, second.parseTimeMillis(), exactMatchResult.secondTotal(),
+                            exactMatchResult.matchedRecords(), exactMatchResult.secondUnmatched().size()))
+                    .build();
+
+            return listener -> {
+                try (workspace) {
+                    listener.onSummary(summary);
+                    progress.setPhase(ComparisonPhase.POTENTIAL_MATCHING);
+                    emitUnmatchedTransactions(exactMatchResult, workspace, calculator, pairById, progress, listener);
+                }
+            };
+        } catch (RuntimeException exception) {
+            workspace.close();
+            throw exception;
+        }
+    }
+
+    private Path createDirectory() {
+        try {
+            return outOfCore.directory() == null
+                    ? Files.createTempDirectory("comparator-")
+                    : Files.createTempDirectory(Files.createDirectories(outOfCore.directory()), "comparator-");
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not create the directory of the sorted runs", exception);
+        }
+    }
+
+    private SpilledFile spill(final String fileName, final TransactionStream file, final ComparisonFile comparisonFile,
+                              final Workspace workspace, final ComparisonProgress progress) {
+        final long start = System.nanoTime();
+        final ExternalSorter<SpilledTransaction> transactions = workspace.sorter(SpilledTransaction.BY_FINGERPRINT);
+        final RunWriter runWriter = new RunWriter(transactions);
+        file.forEach(progress.getParsedRowsCounter(), runWriter);
+        runWriter.flush();
+        final long parseTimeNanos = System.nanoTime() - start;
+        final long parseTimeMillis = TimeUnit.NANOSECONDS.toMillis(parseTimeNanos);
+        comparisonMetrics.recordParse(comparisonFile, parseTimeNanos, transactions.size());
+
+        log.info("Spilled {} transactions from file {} in {} ms", transactions.size(), fileName, parseTimeMillis);
+        return new SpilledFile(transactions, parseTimeMillis);
+    }
+
+    private ExactMatchResult findExactMatches(final ExternalSorter<SpilledTransaction> firstTransactions,
+                                              final ExternalSorter<SpilledTransaction> secondTransactions,
+                                              final Workspace workspace) {
+        final ExternalSorter<SpilledTransaction> firstUnmatched = workspace.sorter(SpilledTransaction.BY_ID);
+        final ExternalSorter<SpilledTransaction> secondUnmatched = workspace.sorter(SpilledTransaction.BY_ID);
+        int firstTotal = 0;
+        int secondTotal = 0;
+        int matchedRecords = 0;
+
+        try (firstTransactions; secondTransactions;
+             ExternalSorter.SortedRecords<SpilledTransaction> firstSorted = firstTransactions.sorted();
+             ExternalSorter.SortedRecords<SpilledTransaction> secondSorted = secondTransactions.sorted()) {
+            final FingerprintGroups firstGroups = new FingerprintGroups(firstSorted);
+            final FingerprintGroups secondGroups = new FingerprintGroups(secondSorted);
+            List<SpilledTransaction> firstGroup = firstGroups.next();
+            List<SpilledTransaction> secondGroup = secondGroups.next();
+
+            while (firstGroup != null || secondGroup != null) {
+                final int comparison = firstGroup == null ? 1 : secondGroup == null ? -1
+                        : Long.compare(firstGroup.get(0).fingerprint(), secondGroup.get(0).fingerprint());
+                if (comparison < 0) {
+                    firstTotal += firstGroup.size();
+                    firstGroup.forEach(firstUnmatched::add);
+                    firstGroup = firstGroups.next();
+                } else if (comparison > 0) {
+                    secondTotal += secondGroup.size();
+                    secondGroup.forEach(secondUnmatched::add);
+                    secondGroup = secondGroups.next();
+                } else {
+                    firstTotal += firstGroup.size();
+                    secondTotal += secondGroup.size();
+                    matchedRecords += joinGroups(firstGroup, secondGroup, firstUnmatched, secondUnmatched);
+                    firstGroup = firstGroups.next();
+                    secondGroup = secondGroups.next();
+                }
+            }
+        }
+
+        return new ExactMatchResult(firstTotal, secondTotal, matchedRecords, firstUnmatched, secondUnmatched);
+    }
+
+    // groups are duplicate free, so a transaction equals at most one transaction of the other group
+    private static int joinGroups(final List<SpilledTransaction> firstGroup, final List<SpilledTransaction> secondGroup,
+                                  final ExternalSorter<SpilledTransaction> firstUnmatched,
+                                  final ExternalSorter<SpilledTransaction> secondUnmatched) {
+        final List<SpilledTransaction> remaining = new ArrayList<>(secondGroup);
+        int matchedRecords = 0;
+        for (final SpilledTransaction transaction : firstGroup) {
+            if (remaining.removeIf(transaction::sameTransaction)) {
+                matchedRecords++;
+            } else {
+                firstUnmatched.add(transaction);
+            }
+        }
+        remaining.forEach(secondUnmatched::add);
+        return matchedRecords;
+    }
+
+    private void emitUnmatchedTransactions(final ExactMatchResult exactMatchResult, final Workspace workspace,
+                                           final PotentialMatchCalculator calculator, final boolean pairById,
+                                           final ComparisonProgress progress, final ComparisonResultListener listener) {
+        final PotentialMatches potentialMatches = new PotentialMatches(workspace);
+        final ExternalSorter<SpilledTransaction> firstByDate = workspace.sorter(SpilledTransaction.BY_DATE);
+        final ExternalSorter<SpilledTransaction> secondByDate = workspace.sorter(SpilledTransaction.BY_DATE);
+
+        matchById(exactMatchResult.firstUnmatched(), exactMatchResult.secondUnmatched(), firstByDate, secondByDate,
+                pairById, potentialMatches);
+        matchByDate(firstByDate, secondByDate, calculator, potentialMatches, progress);
+
+        try (ExternalSorter.SortedRecords<SpilledTransaction> firstResults = potentialMatches.firstResults.sorted();
+             ExternalSorter.SortedRecords<SpilledTransaction> secondMatches = potentialMatches.secondMatches.sorted()) {
+            while (firstResults.hasNext()) {
+                final SpilledTransaction transaction = firstResults.next();
+                listener.onUnmatchedTransaction(ComparisonFile.FIRST_FILE, transaction.toTransactionDto());
+                if (transaction.potentialMatchId() != null) {
+                    // both are ordered by the ordinal of the first file transaction
+                    listener.onUnmatchedTransaction(ComparisonFile.SECOND_FILE, secondMatches.next().toTransactionDto());
+                }
+            }
+        }
+
+        try (ExternalSorter.SortedRecords<SpilledTransaction> secondUnclaimed = potentialMatches.secondUnclaimed.sorted()) {
+            secondUnclaimed.forEachRemaining(transaction ->
+                    listener.onUnmatchedTransaction(ComparisonFile.SECOND_FILE, transaction.toTransactionDto()));
+        }
+    }
+
+    private static void matchById(final ExternalSorter<SpilledTransaction> firstTransactions,
+                                  final ExternalSorter<SpilledTransaction> secondTransactions,
+                                  final ExternalSorter<SpilledTransaction> firstUnpaired,
+                                  final ExternalSorter<SpilledTransaction> secondUnpaired, final boolean pairById,
+                                  final PotentialMatches potentialMatches) {
+        try (firstTransactions; secondTransactions;
+             ExternalSorter.SortedRecords<SpilledTransaction> firstSorted = firstTransactions.sorted();
+             ExternalSorter.SortedRecords<SpilledTransaction> secondSorted = secondTransactions.sorted()) {
+            SpilledTransaction first = next(firstSorted);
+            SpilledTransaction second = next(secondSorted);
+
+            while (first != null && second != null) {
+                final int comparison = first.id().compareTo(second.id());
+                if (comparison < 0) {
+                    firstUnpaired.add(first);
+                    first = next(firstSorted);
+                } else if (comparison > 0) {
+                    secondUnpaired.add(second);
+                    second = next(secondSorted);
+                } else {
+                    if (pairById) {
+                        // within an id the n-th transactions of both files are paired, as the first fit does
+                        potentialMatches.pair(first, second);
+                    } else {
+                        firstUnpaired.add(first);
+                        secondUnpaired.add(second);
+                    }
+                    first = next(firstSorted);
+                    second = next(secondSorted);
+                }
+            }
+
+            for (; first != null; first = next(firstSorted)) {
+                firstUnpaired.add(first);
+            }
+            for (; second != null; second = next(secondSorted)) {
+                secondUnpaired.add(second);
+            }
+        }
+    }
+
+    private void matchByDate(final ExternalSorter<SpilledTransaction> firstTransactions,
+                             final ExternalSorter<SpilledTransaction> secondTransactions,
+                             final PotentialMatchCalculator calculator, final PotentialMatches potentialMatches,
+                             final ComparisonProgress progress) {
+        // same inclusive window on epoch seconds as the sweep-line matcher, the calculator decides the match
+        final long windowSeconds = calculator.dateWindowSeconds();
+        // unclaimed candidates of the window by ordinal, converted once for scoring, and the same candidates in
+        // date order for eviction
+        final TreeMap<Long, WindowCandidate> window = new TreeMap<>();
+        final ArrayDeque<SpilledTransaction> windowByDate = new ArrayDeque<>();
+        long scoredCandidates = 0;
+        boolean windowLogged = false;
+
+        try (firstTransactions; secondTransactions;
+             ExternalSorter.SortedRecords<SpilledTransaction> firstSorted = firstTransactions.sorted();
+             ExternalSorter.SortedRecords<SpilledTransaction> secondSorted = secondTransactions.sorted()) {
+            SpilledTransaction candidate = next(secondSorted);
+
+            while (firstSorted.hasNext()) {
+                final SpilledTransaction first = firstSorted.next();
+                for (; candidate != null && !isAfterWindow(candidate, first, windowSeconds); candidate = next(secondSorted)) {
+                    window.put(candidate.ordinal(), new WindowCandidate(candidate, candidate.toTransaction()));
+                    windowByDate.addLast(candidate);
+                }
+                while (!windowByDate.isEmpty() && isBeforeWindow(windowByDate.peekFirst(), first, windowSeconds)) {
+                    final SpilledTransaction expired = windowByDate.pollFirst();
+                    if (window.remove(expired.ordinal()) != null) {
+                        potentialMatches.secondUnclaimed.add(expired);
+                    }
+                }
+                if (!windowLogged && window.size() > outOfCore.runSize()) {
+                    log.warn("Date tolerance window of {} transactions exceeds the run size of {}, it is kept in memory "
+                            + "and scanned for each transaction", window.size(), outOfCore.runSize());
+                    windowLogged = true;
+                }
+
+                final Transaction transaction = first.toTransaction();
+                SpilledTransaction match = null;
+                for (final WindowCandidate second : window.values()) {
+                    scoredCandidates++;
+                    if (calculator.arePotentialMatch(transaction, second.transaction())) {
+                        match = second.spilled();
+                        break;
+                    }
+                }
+
+                if (match != null) {
+                    window.remove(match.ordinal());
+                    potentialMatches.pair(first, match);
+                } else {
+                    potentialMatches.firstResults.add(first);
+                }
+                progress.setScoredCandidates(scoredCandidates);
+            }
+
+            window.values().forEach(unclaimed -> potentialMatches.secondUnclaimed.add(unclaimed.spilled()));
+            for (; candidate != null; candidate = next(secondSorted)) {
+                potentialMatches.secondUnclaimed.add(candidate);
+            }
+        }
+    }
+
+    // undated transactions sort first and are only compared with each other by date
+    private static boolean isAfterWindow(final SpilledTransaction candidate, final SpilledTransaction transaction,
+                                         final long windowSeconds) {
+        if (transaction.date() == null) {
+            return candidate.date() != null;
+        }
+        return candidate.date() != null && epochSecond(candidate) > epochSecond(transaction) + windowSeconds;
+    }
+
+    private static boolean isBeforeWindow(final SpilledTransaction candidate, final SpilledTransaction transaction,
+                                          final long windowSeconds) {
+        if (transaction.date() == null) {
+            return false;
+        }
+        return candidate.date() == null || epochSecond(candidate) < epochSecond(transaction) - windowSeconds;
+    }
+
+    private static long epochSecond(final SpilledTransaction transaction) {
+        return transaction.date().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static SpilledTransaction next(final Iterator<SpilledTransaction> transactions) {
+        return transactions.hasNext() ? transactions.next() : null;
+    }
+
+    private static ComparisonSummaryDto.FileSummary fileSummary(final String fileName, final long parseTimeMillis,
+                                                                final int totalRecords, final int matchedRecords,
+                                                                final long unmatchedRecords) {
+        return ComparisonSummaryDto.FileSummary.builder()
+                .fileName(fileName)
+                .parseTimeMillis(parseTimeMillis)
+                .totalRecords(totalRecords)
+                .matchedRecords(matchedRecords)
+                .unmatchedRecords(Math.toIntExact(unmatchedRecords)).build();
+    }
+
+    private record SpilledFile(ExternalSorter<SpilledTransaction> transactions, long parseTimeMillis) {
+    }
+
+    private record ExactMatchResult(int firstTotal, int secondTotal, int matchedRecords,
+                                    ExternalSorter<SpilledTransaction> firstUnmatched,
+                                    ExternalSorter<SpilledTransaction> secondUnmatched) {
+    }
+
+    private record WindowCandidate(SpilledTransaction spilled, Transaction transaction) {
+    }
+
+    /**
+     * Spills the transactions of a file by batches of the run size. A batch deduplicates its transactions
+     * and computes their fingerprints, duplicates across batches are dropped by the fingerprint merge.
+     */
+    private final class RunWriter implements Consumer<Transaction> {
+
+        private final ExternalSorter<SpilledTransaction> transactions;
+        private TransactionTable batch = new TransactionTable();
+        private long nextOrdinal;
+
+        private RunWriter(final ExternalSorter<SpilledTransaction> transactions) {
+            this.transactions = transactions;
+        }
+
+        @Override
+        public void accept(final Transaction transaction) {
+            if (batch.add(transaction) && batch.size() >= outOfCore.runSize()) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            for (int row = 0; row < batch.size(); row++) {
+                transactions.add(SpilledTransaction.of(batch, row, nextOrdinal++));
+            }
+            batch = new TransactionTable();
+        }
+
+    }
+
+    /**
+     * Groups the transactions sharing a fingerprint, keeping the first of equal transactions.
+     */
+    private static final class FingerprintGroups {
+
+        private final Iterator<SpilledTransaction> transactions;
+        private SpilledTransaction pending;
+
+        private FingerprintGroups(final Iterator<SpilledTransaction> transactions) {
+            this.transactions = transactions;
+            this.pending = OutOfCoreComparisonEngine.next(transactions);
+        }
+
+        private List<SpilledTransaction> next() {
+            if (pending == null) {
+                return null;
+            }
+
+            final List<SpilledTransaction> group = new ArrayList<>();
+            group.add(pending);
+            final long fingerprint = pending.fingerprint();
+            pending = null;
+            while (transactions.hasNext()) {
+                final SpilledTransaction transaction = transactions.next();
+                if (transaction.fingerprint() != fingerprint) {
+                    pending = transaction;
+                    break;
+                }
+                if (group.stream().noneMatch(transaction::sameTransaction)) {
+                    group.add(transaction);
+                }
+            }
+            return group;
+        }
+
+    }
+
+    /**
+     * Results of potential matching: the first file transactions by ordinal, the claimed second file
+     * transactions by the ordinal of their counterpart, and the unclaimed ones by date.
+     */
+    private final class PotentialMatches {
+
+        private final ExternalSorter<SpilledTransaction> firstResults;
+        private final ExternalSorter<SpilledTransaction> secondMatches;
+        private final ExternalSorter<SpilledTransaction> secondUnclaimed;
+
+        private PotentialMatches(final Workspace workspace) {
+            this.firstResults = workspace.sorter(SpilledTransaction.BY_ORDINAL);
+            this.secondMatches = workspace.sorter(SpilledTransaction.BY_MATCH_ORDINAL);
+            this.secondUnclaimed = workspace.sorter(SpilledTransaction.BY_DATE);
+        }
+
+        private void pair(final SpilledTransaction first, final SpilledTransaction second) {
+            firstResults.add(first.withPotentialMatch(second.id(), first.ordinal()));
+            secondMatches.add(second.withPotentialMatch(first.id(), first.ordinal()));
+        }
+
+    }
+
+    /**
+     * Directory of the sorted runs of one comparison, deleted with everything in it once closed.
+     */
+    private final class Workspace implements AutoCloseable {
+
+        private final Path directory;
+
+        private Workspace(final Path directory) {
+            this.directory = directory;
+        }
+
+        private ExternalSorter<SpilledTransaction> sorter(final Comparator<SpilledTransaction> comparator) {
+            return new ExternalSorter<>(directory, comparator, SpilledTransaction.CODEC, outOfCore.runSize());
+        }
+
+        @Override
+        public void close() {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            } catch (IOException exception) {
+                log.warn("Could not delete the sorted runs in {}", directory, exception);
+            }
+        }
+
+    }
+
+}
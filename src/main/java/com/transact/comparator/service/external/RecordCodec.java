@@ -0,0 +1,16 @@
+package com.transact.comparator.service.external;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary format of the records spilled to disk by an {@link ExternalSorter}.
+ */
+interface RecordCodec<T> {
+
+    void write(DataOutput output, T record) throws IOException;
+
+    T read(DataInput input) throws IOException;
+
+}
@@ -0,0 +1,150 @@
+package com.transact.comparator.service.external;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonResultDto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * The fields of a transaction used by the comparison, as spilled to the sorted runs. The ordinal is the
+ * position of the transaction in its file, the fingerprint the one of {@link TransactionTable}, and a
+ * potential match carries the id of its counterpart and the ordinal of the first file transaction.
+ */
+record SpilledTransaction(long ordinal, long fingerprint, String id, LocalDateTime date, BigDecimal amount,
+                          int type, String walletReference, String potentialMatchId, long matchOrdinal) {
+
+    static final Comparator<SpilledTransaction> BY_FINGERPRINT = Comparator
+            .comparingLong(SpilledTransaction::fingerprint)
+            .thenComparingLong(SpilledTransaction::ordinal);
+    static final Comparator<SpilledTransaction> BY_ID = Comparator
+            .comparing(SpilledTransaction::id)
+            .thenComparingLong(SpilledTransaction::ordinal);
+    static final Comparator<SpilledTransaction> BY_DATE = Comparator
+            .comparing(SpilledTransaction::date, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(SpilledTransaction::ordinal);
+    static final Comparator<SpilledTransaction> BY_ORDINAL = Comparator.comparingLong(SpilledTransaction::ordinal);
+    static final Comparator<SpilledTransaction> BY_MATCH_ORDINAL = Comparator.comparingLong(SpilledTransaction::matchOrdinal);
+
+    static final RecordCodec<SpilledTransaction> CODEC = new RecordCodec<>() {
+        @Override
+        public void write(final DataOutput output, final SpilledTransaction transaction) throws IOException {
+            output.writeLong(transaction.ordinal());
+            output.writeLong(transaction.fingerprint());
+            writeString(output, transaction.id());
+            writeDate(output, transaction.date());
+            writeAmount(output, transaction.amount());
+            output.writeInt(transaction.type());
+            writeString(output, transaction.walletReference());
+            writeString(output, transaction.potentialMatchId());
+            output.writeLong(transaction.matchOrdinal());
+        }
+
+        @Override
+        public SpilledTransaction read(final DataInput input) throws IOException {
+            return new SpilledTransaction(input.readLong(), input.readLong(), readString(input), readDate(input),
+                    readAmount(input), input.readInt(), readString(input), readString(input), input.readLong());
+        }
+    };
+
+    private static final long NO_MATCH = -1;
+
+    static SpilledTransaction of(final TransactionTable table, final int row, final long ordinal) {
+        return new SpilledTransaction(ordinal, table.fingerprint(row), table.id(row), table.date(row), table.amount(row),
+                table.type(row), table.walletReference(row), null, NO_MATCH);
+    }
+
+    SpilledTransaction withPotentialMatch(final String potentialMatchId, final long matchOrdinal) {
+        return new SpilledTransaction(ordinal, fingerprint, id, date, amount, type, walletReference, potentialMatchId,
+                matchOrdinal);
+    }
+
+    boolean sameTransaction(final SpilledTransaction other) {
+        return fingerprint == other.fingerprint && type == other.type && Objects.equals(id, other.id)
+                && Objects.equals(date, other.date) && Objects.equals(amount, other.amount)
+                && Objects.equals(walletReference, other.walletReference);
+    }
+
+    Transaction toTransaction() {
+        return Transaction.builder()
+                .id(id)
+                .date(date)
+                .amount(amount)
+                .type(type)
+                .walletReference(walletReference)
+                .build();
+    }
+
+    ComparisonResultDto.TransactionDto toTransactionDto() {
+        return ComparisonResultDto.TransactionDto.builder()
+                .id(id)
+                .amount(amount)
+                .date(date)
+                .reference(walletReference)
+                .potentialMatchId(potentialMatchId)
+                .build();
+    }
+
+    private static void writeString(final DataOutput output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final DataInput input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(final DataOutput output, final LocalDateTime date) throws IOException {
+        output.writeBoolean(date != null);
+        if (date != null) {
+            output.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            output.writeInt(date.getNano());
+        }
+    }
+
+    private static LocalDateTime readDate(final DataInput input) throws IOException {
+        return input.readBoolean() ? LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC) : null;
+    }
+
+    private static void writeAmount(final DataOutput output, final BigDecimal amount) throws IOException {
+        if (amount == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] unscaled = amount.unscaledValue().toByteArray();
+        output.writeInt(unscaled.length);
+        output.write(unscaled);
+        output.writeInt(amount.scale());
+    }
+
+    private static BigDecimal readAmount(final DataInput input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] unscaled = new byte[length];
+        input.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), input.readInt());
+    }
+
+}
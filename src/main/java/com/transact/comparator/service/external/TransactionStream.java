@@ -0,0 +1,16 @@
+package com.transact.comparator.service.external;
+
+import com.transact.comparator.domain.Transaction;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Source of the transactions of one file, read once and in file order without being kept in memory.
+ */
+@FunctionalInterface
+public interface TransactionStream {
+
+    void forEach(LongAdder parsedRows, Consumer<Transaction> consumer);
+
+}
@@ -0,0 +1,42 @@
+package com.transact.comparator.service.job;
+
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.service.ComparisonProgress;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * State of a submitted comparison. The worker thread moves it forward while status requests read it, so
+ * every mutable field is volatile and the result or failure is published before the final status.
+ */
+@Getter
+@RequiredArgsConstructor
+class ComparisonJob {
+
+    private final String id;
+    private final Instant submittedAt;
+    private final ComparisonProgress progress = new ComparisonProgress();
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile ComparisonResultDto result;
+    private volatile RuntimeException failure;
+    private volatile Instant finishedAt;
+
+    void start() {
+        status = JobStatus.RUNNING;
+    }
+
+    void complete(final ComparisonResultDto result) {
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.status = JobStatus.COMPLETED;
+    }
+
+    void fail(final RuntimeException failure) {
+        this.failure = failure;
+        this.finishedAt = Instant.now();
+        this.status = JobStatus.FAILED;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.transact.comparator.service.job;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.config.ExecutorConfiguration;
+import com.transact.comparator.dto.ComparisonJobDto;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.exception.ComparatorServiceException;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.JobNotCompletedException;
+import com.transact.comparator.exception.JobNotFoundException;
+import com.transact.comparator.exception.JobRejectedException;
+import com.transact.comparator.service.ComparisonService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class ComparisonJobService {
+
+    private final ComparisonService comparisonService;
+    private final Executor comparisonJobExecutor;
+    private final Duration resultTtl;
+    private final Map<String, ComparisonJob> jobs = new ConcurrentHashMap<>();
+
+    public ComparisonJobService(final ComparisonService comparisonService,
+                                final ComparatorProperties comparatorProperties,
+                                @Qualifier(ExecutorConfiguration.COMPARISON_JOB_EXECUTOR) final Executor comparisonJobExecutor) {
+        this.comparisonService = comparisonService;
+        this.comparisonJobExecutor = comparisonJobExecutor;
+        this.resultTtl = comparatorProperties.jobs().resultTtl();
+    }
+
+    public ComparisonJobDto submit(final MultipartFile firstFile, final MultipartFile secondFile) {
+        final StoredMultipartFile storedFirstFile = store(firstFile);
+        final StoredMultipartFile storedSecondFile;
+        try {
+            storedSecondFile = store(secondFile);
+        } catch (RuntimeException exception) {
+            storedFirstFile.delete();
+            throw exception;
+        }
+
+        final ComparisonJob job = new ComparisonJob(UUID.randomUUID().toString(), Instant.now());
+        jobs.put(job.getId(), job);
+        try {
+            comparisonJobExecutor.execute(() -> run(job, storedFirstFile, storedSecondFile));
+        } catch (RejectedExecutionException exception) {
+            jobs.remove(job.getId());
+            storedFirstFile.delete();
+            storedSecondFile.delete();
+            throw new JobRejectedException("Too many comparison jobs are pending, retry later");
+        }
+
+        log.info("Submitted comparison job {} for files {} and {}", job.getId(),
+                firstFile.getOriginalFilename(), secondFile.getOriginalFilename());
+        return toJobDto(job);
+    }
+
+    public ComparisonJobDto getStatus(final String jobId) {
+        return toJobDto(getJob(jobId));
+    }
+
+    public ComparisonResultDto getResult(final String jobId) {
+        final ComparisonJob job = getJob(jobId);
+        return switch (job.getStatus()) {
+            case COMPLETED -> job.getResult();
+            case FAILED -> throw job.getFailure();
+            default -> throw new JobNotCompletedException("Comparison job " + jobId + " is " + job.getStatus());
+        };
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictExpiredJobs() {
+        final Instant expiry = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && !job.getFinishedAt().isAfter(expiry));
+    }
+
+    private void run(final ComparisonJob job, final StoredMultipartFile firstFile, final StoredMultipartFile secondFile) {
+        job.start();
+        try {
+            job.complete(comparisonService.compare(firstFile, secondFile, job.getProgress()));
+            log.info("Comparison job {} completed", job.getId());
+        } catch (RuntimeException exception) {
+            log.error("Comparison job {} failed: ", job.getId(), exception);
+            job.fail(exception);
+        } finally {
+            firstFile.delete();
+            secondFile.delete();
+        }
+    }
+
+    private ComparisonJob getJob(final String jobId) {
+        final ComparisonJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException("Comparison job " + jobId + " does not exist or has expired");
+        }
+        return job;
+    }
+
+    private static StoredMultipartFile store(final MultipartFile file) {
+        try {
+            return StoredMultipartFile.store(file);
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not store uploaded file: " + file.getOriginalFilename(), exception);
+        }
+    }
+
+    // like the REST exception handler, only invalid input is described to the client
+    private static String errorMessage(final RuntimeException failure) {
+        if (failure == null) {
+            return null;
+        }
+        return failure instanceof InvalidDataException ? failure.getMessage() : "Internal server error occurred";
+    }
+
+    private static ComparisonJobDto toJobDto(final ComparisonJob job) {
+        return ComparisonJobDto.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .phase(job.getProgress().getPhase())
+                .parsedRows(job.getProgress().getParsedRows())
+                .scoredCandidates(job.getProgress().getScoredCandidates())
+                .submittedAt(job.getSubmittedAt())
+                .finishedAt(job.getFinishedAt())
+                .error(errorMessage(job.getFailure()))
+                .build();
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.transact.comparator.service.job;
+
+public enum JobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+
+}
@@ -0,0 +1,93 @@
+package com.transact.comparator.service.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Upload copied to a temporary file, so that a job can still read it after the submitting request
+ * completed and the container cleaned up its multipart storage.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class StoredMultipartFile implements MultipartFile {
+
+    private final String name;
+    private final String originalFilename;
+    private final String contentType;
+    private final Path path;
+    private final long size;
+
+    static StoredMultipartFile store(final MultipartFile file) throws IOException {
+        final Path path = Files.createTempFile("comparator-job-", ".csv");
+        try {
+            file.transferTo(path);
+        } catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(path);
+            throw exception;
+        }
+        return new StoredMultipartFile(file.getName(), file.getOriginalFilename(), file.getContentType(), path,
+                Files.size(path));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(final File destination) throws IOException {
+        transferTo(destination.toPath());
+    }
+
+    @Override
+    public void transferTo(final Path destination) throws IOException {
+        Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException exception) {
+            log.warn("Could not delete stored upload {}", path, exception);
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Shared bookkeeping of the indexed finders: the indexed rows keep their original order as ordinals,
+ * claimed ordinals are tracked in a bit set and the lowest matching ordinal always wins, so every finder
+ * returns the same results as a linear first-fit scan.
+ */
+public abstract class AbstractPotentialMatchFinder implements PotentialMatchFinder {
+
+    protected static final int NO_MATCH = Integer.MAX_VALUE;
+
+    protected final TransactionTable table;
+    protected final int[] rows;
+    protected final PotentialMatchCalculator calculator;
+    protected final BitSet claimed;
+    private final Map<String, List<Integer>> idBlocks = new HashMap<>();
+    private final SimilarIdIndex similarIds;
+    private final boolean sortedRows;
+    private Map<Integer, Integer> ordinalsByRow;
+    private long scoredCandidates;
+
+    protected AbstractPotentialMatchFinder(final TransactionTable table, final int[] rows,
+                                           final PotentialMatchCalculator calculator) {
+        this.table = table;
+        this.rows = rows;
+        this.calculator = calculator;
+        this.claimed = new BitSet(rows.length);
+        this.similarIds = new SimilarIdIndex(calculator.idTolerance());
+
+        for (int ordinal = 0; ordinal < rows.length; ordinal++) {
+            idBlocks.computeIfAbsent(table.id(rows[ordinal]), id -> new ArrayList<>()).add(ordinal);
+            similarIds.add(table.id(rows[ordinal]));
+        }
+        this.sortedRows = IntStream.range(1, rows.length).allMatch(ordinal -> rows[ordinal - 1] < rows[ordinal]);
+    }
+
+    @Override
+    public int claimFirstMatch(final TransactionTable queryTable, final int queryRow) {
+        final int ordinal = findFirstMatch(queryTable, queryRow);
+        if (ordinal == NO_MATCH) {
+            return -1;
+        }
+
+        claimed.set(ordinal);
+        onClaimed(ordinal);
+        return rows[ordinal];
+    }
+
+    @Override
+    public void forEachMatch(final TransactionTable queryTable, final int queryRow, final IntConsumer matchedRows) {
+        forEachCandidate(queryTable, queryRow, ordinal -> {
+            if (isMatch(ordinal, queryTable, queryRow)) {
+                matchedRows.accept(rows[ordinal]);
+            }
+        });
+    }
+
+    @Override
+    public void claim(final int row) {
+        final int ordinal = ordinalOf(row);
+        if (ordinal < 0 || claimed.get(ordinal)) {
+            throw new IllegalArgumentException("Row " + row + " is not an unclaimed indexed row");
+        }
+
+        claimed.set(ordinal);
+        onClaimed(ordinal);
+    }
+
+    @Override
+    public int[] unclaimed() {
+        final int[] result = new int[rows.length - claimed.cardinality()];
+        int index = 0;
+        for (int ordinal = claimed.nextClearBit(0); ordinal < rows.length; ordinal = claimed.nextClearBit(ordinal + 1)) {
+            result[index++] = rows[ordinal];
+        }
+        return result;
+    }
+
+    @Override
+    public TransactionTable table() {
+        return table;
+    }
+
+    @Override
+    public PotentialMatchCalculator calculator() {
+        return calculator;
+    }
+
+    @Override
+    public long scoredCandidates() {
+        return scoredCandidates;
+    }
+
+    protected abstract int findFirstMatch(TransactionTable queryTable, int queryRow);
+
+    /**
+     * Passes the ordinals of every indexed row that may be a potential match of the query row, a superset of
+     * the rows {@link #findFirstMatch(TransactionTable, int)} picks from.
+     */
+    protected abstract void forEachCandidate(TransactionTable queryTable, int queryRow, IntConsumer ordinals);
+
+    protected void onClaimed(final int ordinal) {
+    }
+
+    /**
+     * Returns the lowest ordinal below the best one matching the query row among the rows of the ids similar
+     * to the query id, or the best one when there is none.
+     */
+    protected int firstIdMatch(final TransactionTable queryTable, final int queryRow, final int best) {
+        int result = best;
+        for (final String id : similarIds.similarIds(queryTable.id(queryRow))) {
+            result = firstMatchIn(idBlocks.get(id), queryTable, queryRow, result);
+        }
+        return result;
+    }
+
+    protected void forEachIdCandidate(final TransactionTable queryTable, final int queryRow, final IntConsumer ordinals) {
+        for (final String id : similarIds.similarIds(queryTable.id(queryRow))) {
+            forEachIn(idBlocks.get(id), ordinals);
+        }
+    }
+
+    protected static void forEachIn(final List<Integer> block, final IntConsumer ordinals) {
+        if (block != null) {
+            block.forEach(ordinals::accept);
+        }
+    }
+
+    protected void forEachUnclaimed(final IntConsumer ordinals) {
+        for (int ordinal = claimed.nextClearBit(0); ordinal < rows.length; ordinal = claimed.nextClearBit(ordinal + 1)) {
+            ordinals.accept(ordinal);
+        }
+    }
+
+    protected int firstMatchIn(final List<Integer> block, final TransactionTable queryTable, final int queryRow,
+                               final int best) {
+        if (block == null) {
+            return best;
+        }
+
+        for (final int ordinal : block) {
+            if (ordinal >= best) {
+                return best;
+            }
+            if (isMatch(ordinal, queryTable, queryRow)) {
+                return ordinal;
+            }
+        }
+        return best;
+    }
+
+    protected int scanAll(final TransactionTable queryTable, final int queryRow) {
+        for (int ordinal = claimed.nextClearBit(0); ordinal < rows.length; ordinal = claimed.nextClearBit(ordinal + 1)) {
+            scoredCandidates++;
+            if (calculator.arePotentialMatch(queryTable, queryRow, table, rows[ordinal])) {
+                return ordinal;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    protected boolean isMatch(final int ordinal, final TransactionTable queryTable, final int queryRow) {
+        if (claimed.get(ordinal)) {
+            return false;
+        }
+        scoredCandidates++;
+        return calculator.arePotentialMatch(queryTable, queryRow, table, rows[ordinal]);
+    }
+
+    private int ordinalOf(final int row) {
+        if (sortedRows) {
+            return Arrays.binarySearch(rows, row);
+        }
+        if (ordinalsByRow == null) {
+            ordinalsByRow = new HashMap<>();
+            for (int ordinal = 0; ordinal < rows.length; ordinal++) {
+                ordinalsByRow.put(rows[ordinal], ordinal);
+            }
+        }
+        return ordinalsByRow.getOrDefault(row, -1);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Assigns potential matches by best score instead of by position. Candidates come from the index, each row
+ * keeps only its {@code topK} best in a bounded heap, and all kept pairs are then assigned greedily by
+ * descending score, each row of both files at most once. Memory grows with the number of rows times
+ * {@code topK}, never with the product of both files. Rows whose kept candidates were all taken fall back to
+ * the first-fit match among the rows left.
+ */
+final class BestScoreAssignment {
+
+    // best first: higher score, then closer date, then earlier rows of both files
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingDouble(Candidate::score).reversed()
+            .thenComparingLong(Candidate::dateDistance)
+            .thenComparingInt(Candidate::position)
+            .thenComparingInt(Candidate::matchedRow);
+
+    private final Map<Integer, Integer> matches = new HashMap<>();
+
+    BestScoreAssignment(final PotentialMatchFinder index, final TransactionTable queryTable, final int[] rows,
+                        final int topK) {
+        final List<Candidate> candidates = new ArrayList<>();
+        for (int position = 0; position < rows.length; position++) {
+            candidates.addAll(topCandidates(index, queryTable, rows[position], position, Math.max(topK, 1)));
+        }
+        candidates.sort(BEST_FIRST);
+
+        final BitSet assignedPositions = new BitSet(rows.length);
+        final BitSet assignedRows = new BitSet();
+        for (final Candidate candidate : candidates) {
+            if (!assignedPositions.get(candidate.position()) && !assignedRows.get(candidate.matchedRow())) {
+                assignedPositions.set(candidate.position());
+                assignedRows.set(candidate.matchedRow());
+                index.claim(candidate.matchedRow());
+                matches.put(rows[candidate.position()], candidate.matchedRow());
+            }
+        }
+
+        for (int position = assignedPositions.nextClearBit(0); position < rows.length;
+             position = assignedPositions.nextClearBit(position + 1)) {
+            matches.put(rows[position], index.claimFirstMatch(queryTable, rows[position]));
+        }
+    }
+
+    int matchOf(final int row) {
+        return matches.getOrDefault(row, -1);
+    }
+
+    private static List<Candidate> topCandidates(final PotentialMatchFinder index, final TransactionTable table,
+                                                 final int row, final int position, final int topK) {
+        // worst first, so the head is the candidate to evict
+        final PriorityQueue<Candidate> heap = new PriorityQueue<>(topK + 1, BEST_FIRST.reversed());
+        final TransactionTable indexedTable = index.table();
+        final PotentialMatchCalculator calculator = index.calculator();
+        index.forEachMatch(table, row, matchedRow -> {
+            if (heap.stream().anyMatch(candidate -> candidate.matchedRow() == matchedRow)) {
+                return;
+            }
+            heap.add(new Candidate(position, matchedRow,
+                    calculator.matchScore(table, row, indexedTable, matchedRow),
+                    dateDistance(table, row, indexedTable, matchedRow)));
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        });
+        return new ArrayList<>(heap);
+    }
+
+    private static long dateDistance(final TransactionTable firstTable, final int firstRow,
+                                     final TransactionTable secondTable, final int secondRow) {
+        if (!firstTable.hasDate(firstRow) || !secondTable.hasDate(secondRow)) {
+            return Long.MAX_VALUE;
+        }
+        return Math.abs(firstTable.epochSecond(firstRow) - secondTable.epochSecond(secondRow));
+    }
+
+    private record Candidate(int position, int matchedRow, double score, long dateDistance) {
+    }
+
+}
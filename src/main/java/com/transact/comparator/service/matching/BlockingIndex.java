@@ -0,0 +1,116 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Candidate generation for potential matching. Rows are bucketed by their id and by a (date, amount)
+ * block whose widths cover the tolerances of the match rules, so a lookup only scores the members of the
+ * buckets that can possibly reach the match threshold, the id buckets being those of the ids within the id
+ * tolerance. Rules that match without a similar id or both a similar date and amount cannot be blocked,
+ * every row is then scored.
+ */
+public class BlockingIndex extends AbstractPotentialMatchFinder {
+
+    private static final BigDecimal MAX_AMOUNT_BLOCK = BigDecimal.valueOf(Long.MAX_VALUE / 2);
+
+    private final Map<BlockKey, List<Integer>> dateAmountBlocks = new HashMap<>();
+    private final List<Integer> unblocked = new ArrayList<>();
+    private final boolean blocked;
+
+    public BlockingIndex(final TransactionTable table, final int[] rows, final PotentialMatchCalculator calculator) {
+        super(table, rows, calculator);
+        this.blocked = isBlockable(calculator);
+        if (!blocked) {
+            return;
+        }
+
+        for (int ordinal = 0; ordinal < rows.length; ordinal++) {
+            final BlockKey blockKey = blockKey(table, rows[ordinal], calculator);
+            if (blockKey == null) {
+                unblocked.add(ordinal);
+            } else {
+                dateAmountBlocks.computeIfAbsent(blockKey, key -> new ArrayList<>()).add(ordinal);
+            }
+        }
+    }
+
+    @Override
+    protected int findFirstMatch(final TransactionTable queryTable, final int queryRow) {
+        final BlockKey blockKey = blocked ? blockKey(queryTable, queryRow, calculator) : null;
+        if (blockKey == null) {
+            return scanAll(queryTable, queryRow);
+        }
+
+        int best = firstIdMatch(queryTable, queryRow, NO_MATCH);
+        for (long dateBlock = blockKey.dateBlock() - 1; dateBlock <= blockKey.dateBlock() + 1; dateBlock++) {
+            for (long amountBlock = blockKey.amountBlock() - 1; amountBlock <= blockKey.amountBlock() + 1; amountBlock++) {
+                best = firstMatchIn(dateAmountBlocks.get(new BlockKey(dateBlock, amountBlock)), queryTable, queryRow, best);
+            }
+        }
+        return firstMatchIn(unblocked, queryTable, queryRow, best);
+    }
+
+    @Override
+    protected void forEachCandidate(final TransactionTable queryTable, final int queryRow, final IntConsumer ordinals) {
+        final BlockKey blockKey = blocked ? blockKey(queryTable, queryRow, calculator) : null;
+        if (blockKey == null) {
+            forEachUnclaimed(ordinals);
+            return;
+        }
+
+        forEachIdCandidate(queryTable, queryRow, ordinals);
+        for (long dateBlock = blockKey.dateBlock() - 1; dateBlock <= blockKey.dateBlock() + 1; dateBlock++) {
+            for (long amountBlock = blockKey.amountBlock() - 1; amountBlock <= blockKey.amountBlock() + 1; amountBlock++) {
+                forEachIn(dateAmountBlocks.get(new BlockKey(dateBlock, amountBlock)), ordinals);
+            }
+        }
+        forEachIn(unblocked, ordinals);
+    }
+
+    /**
+     * Returns whether every potential match of the rules is found among the rows of a similar id or of the
+     * neighbouring (date, amount) blocks.
+     */
+    static boolean isBlockable(final PotentialMatchCalculator calculator) {
+        return calculator.everyMatchIncludes(EnumSet.of(MatchField.ID), EnumSet.of(MatchField.DATE, MatchField.AMOUNT));
+    }
+
+    static BlockKey blockKey(final TransactionTable table, final int row, final PotentialMatchCalculator calculator) {
+        if (!table.hasDate(row)) {
+            return null;
+        }
+
+        final long dateBlock = Math.floorDiv(table.epochSecond(row), calculator.dateWindowSeconds());
+        if (table.hasMinorUnitAmount(row)) {
+            return new BlockKey(dateBlock, Math.floorDiv(table.minorUnitAmount(row), calculator.amountWindowMinorUnits()));
+        }
+
+        final BigDecimal amount = table.amount(row);
+        if (amount == null) {
+            return null;
+        }
+
+        // same blocks as the minor units, which the irregular amounts are compared with
+        final BigDecimal amountBlock = amount.divide(
+                BigDecimal.valueOf(calculator.amountWindowMinorUnits(), TransactionTable.AMOUNT_SCALE), 0, RoundingMode.FLOOR);
+        if (amountBlock.abs().compareTo(MAX_AMOUNT_BLOCK) > 0) {
+            return null;
+        }
+
+        return new BlockKey(dateBlock, amountBlock.longValue());
+    }
+
+    record BlockKey(long dateBlock, long amountBlock) {
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * How the potential matches of the first file rows are chosen among the indexed rows of the second file.
+ */
+public enum MatchAssignment {
+
+    /**
+     * Each first file row, in file order, claims the lowest unclaimed indexed row it matches.
+     */
+    FIRST_FIT {
+        @Override
+        public IntUnaryOperator assign(final PotentialMatchFinder index, final TransactionTable table, final int[] rows,
+                                       final int topK) {
+            return row -> index.claimFirstMatch(table, row);
+        }
+    },
+
+    /**
+     * Each first file row keeps its best scoring candidates, the pairs of all rows are then assigned greedily
+     * by descending score.
+     */
+    BEST_SCORE {
+        @Override
+        public IntUnaryOperator assign(final PotentialMatchFinder index, final TransactionTable table, final int[] rows,
+                                       final int topK) {
+            return new BestScoreAssignment(index, table, rows, topK)::matchOf;
+        }
+    };
+
+    /**
+     * Returns the indexed row claimed for each of the given rows, or -1 when a row has no potential match. The
+     * operator is meant to be applied once per row, in the order of the rows.
+     */
+    public abstract IntUnaryOperator assign(PotentialMatchFinder index, TransactionTable table, int[] rows, int topK);
+
+}
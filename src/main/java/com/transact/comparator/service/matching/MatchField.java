@@ -0,0 +1,28 @@
+package com.transact.comparator.service.matching;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Transaction fields a potential match can be scored on. Dates and amounts are similar within their
+ * tolerance, every other field only when both values are equal.
+ */
+public enum MatchField {
+
+    @JsonProperty("id")
+    ID,
+    @JsonProperty("date")
+    DATE,
+    @JsonProperty("amount")
+    AMOUNT,
+    @JsonProperty("walletReference")
+    WALLET_REFERENCE,
+    @JsonProperty("type")
+    TYPE,
+    @JsonProperty("profileName")
+    PROFILE_NAME,
+    @JsonProperty("narrative")
+    NARRATIVE,
+    @JsonProperty("description")
+    DESCRIPTION
+
+}
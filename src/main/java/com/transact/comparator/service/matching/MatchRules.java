@@ -0,0 +1,77 @@
+package com.transact.comparator.service.matching;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Rules of potential matching: two transactions are a potential match when the weights of their similar
+ * fields add up to the threshold. Dates are similar when they are at most {@code dateTolerance} apart in
+ * whole minutes, amounts when they differ by at most {@code amountTolerance}, and ids when they are at most
+ * {@code idTolerance} edits (insertions, deletions or substitutions) apart. Fields without a weight are
+ * ignored, and missing members take the default rules, the weights being replaced as a whole.
+ */
+public record MatchRules(Double threshold,
+                         Map<MatchField, Double> weights,
+                         Duration dateTolerance,
+                         BigDecimal amountTolerance,
+                         Integer idTolerance) {
+
+    private static final double DEFAULT_THRESHOLD = 0.5;
+    private static final Map<MatchField, Double> DEFAULT_WEIGHTS = Collections.unmodifiableMap(new EnumMap<>(Map.of(
+            MatchField.ID, 0.5,
+            MatchField.DATE, 0.3,
+            MatchField.AMOUNT, 0.2)));
+    private static final Duration DEFAULT_DATE_TOLERANCE = Duration.ofMinutes(2);
+    private static final BigDecimal DEFAULT_AMOUNT_TOLERANCE = new BigDecimal("0.01");
+    private static final int DEFAULT_ID_TOLERANCE = 0;
+
+    public static final MatchRules DEFAULT = new MatchRules(null, null, null, null, null);
+
+    public MatchRules {
+        threshold = threshold == null ? DEFAULT_THRESHOLD : threshold;
+        weights = weights == null ? DEFAULT_WEIGHTS : copyOf(weights);
+        dateTolerance = dateTolerance == null ? DEFAULT_DATE_TOLERANCE : dateTolerance;
+        amountTolerance = amountTolerance == null ? DEFAULT_AMOUNT_TOLERANCE : amountTolerance;
+        idTolerance = idTolerance == null ? DEFAULT_ID_TOLERANCE : idTolerance;
+
+        if (!Double.isFinite(threshold) || threshold <= 0) {
+            throw new IllegalArgumentException("Match threshold must be positive, got " + threshold);
+        }
+        if (weights.values().stream().noneMatch(weight -> weight > 0)) {
+            throw new IllegalArgumentException("At least one match field must have a positive weight");
+        }
+        final double totalWeight = weights.values().stream()
+                .map(BigDecimal::valueOf)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .doubleValue();
+        if (threshold > totalWeight) {
+            throw new IllegalArgumentException("Match threshold " + threshold + " is above the total weight "
+                    + totalWeight + " of the match fields");
+        }
+        if (dateTolerance.isNegative()) {
+            throw new IllegalArgumentException("Date tolerance must not be negative, got " + dateTolerance);
+        }
+        if (amountTolerance.signum() < 0) {
+            throw new IllegalArgumentException("Amount tolerance must not be negative, got " + amountTolerance);
+        }
+        if (idTolerance < 0) {
+            throw new IllegalArgumentException("Id tolerance must not be negative, got " + idTolerance);
+        }
+    }
+
+    private static Map<MatchField, Double> copyOf(final Map<MatchField, Double> weights) {
+        final Map<MatchField, Double> copy = new EnumMap<>(MatchField.class);
+        weights.forEach((field, weight) -> {
+            if (field == null || weight == null || !Double.isFinite(weight) || weight < 0) {
+                throw new IllegalArgumentException("Weight of match field " + field + " must not be negative, got "
+                        + weight);
+            }
+            copy.put(field, weight);
+        });
+        return Collections.unmodifiableMap(copy);
+    }
+
+}
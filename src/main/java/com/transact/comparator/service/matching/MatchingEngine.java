@@ -0,0 +1,29 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+public enum MatchingEngine {
+
+    BLOCKING(BlockingIndex::new),
+    SWEEP_LINE(SweepLineMatcher::new);
+
+    private final Factory factory;
+
+    MatchingEngine(final Factory factory) {
+        this.factory = factory;
+    }
+
+    public PotentialMatchFinder index(final TransactionTable table, final int[] rows,
+                                      final PotentialMatchCalculator calculator) {
+        return factory.create(table, rows, calculator);
+    }
+
+    @FunctionalInterface
+    private interface Factory {
+
+        PotentialMatchFinder create(TransactionTable table, int[] rows, PotentialMatchCalculator calculator);
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Potential match candidates among the open rows of a table that keeps growing. Unlike the finders built
+ * over a fixed set of rows, rows are added and removed one at a time, so keeping the index up to date costs
+ * in proportion to the changed rows only. Rows are bucketed like {@link BlockingIndex}, by their id, looked
+ * up within the id tolerance, and by their (date, amount) block, and the lowest open row that is a potential match wins. Rules that
+ * cannot be blocked score every open row.
+ */
+public final class OpenRowIndex {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final TransactionTable table;
+    private final boolean firstFile;
+    private final PotentialMatchCalculator calculator;
+    private final boolean blocked;
+    private final Map<String, Set<Integer>> idBlocks = new HashMap<>();
+    private final SimilarIdIndex similarIds;
+    private final Map<BlockingIndex.BlockKey, Set<Integer>> dateAmountBlocks = new HashMap<>();
+    private final Set<Integer> unblocked = new LinkedHashSet<>();
+    private int size;
+
+    /**
+     * @param firstFile whether the indexed table stands for the first file when rows are scored, queries
+     *                  then being rows of the second file
+     */
+    public OpenRowIndex(final TransactionTable table, final boolean firstFile,
+                        final PotentialMatchCalculator calculator) {
+        this.table = table;
+        this.firstFile = firstFile;
+        this.calculator = calculator;
+        this.blocked = BlockingIndex.isBlockable(calculator);
+        this.similarIds = new SimilarIdIndex(calculator.idTolerance());
+    }
+
+    public void add(final int row) {
+        idBlocks.computeIfAbsent(table.id(row), id -> new LinkedHashSet<>()).add(row);
+        // ids stay indexed once their rows are all removed, their empty blocks being skipped
+        similarIds.add(table.id(row));
+        final BlockingIndex.BlockKey blockKey = BlockingIndex.blockKey(table, row, calculator);
+        if (blockKey == null) {
+            unblocked.add(row);
+        } else {
+            dateAmountBlocks.computeIfAbsent(blockKey, key -> new LinkedHashSet<>()).add(row);
+        }
+        size++;
+    }
+
+    public void remove(final int row) {
+        removeFrom(idBlocks, table.id(row), row);
+        final BlockingIndex.BlockKey blockKey = BlockingIndex.blockKey(table, row, calculator);
+        if (blockKey == null) {
+            unblocked.remove(row);
+        } else {
+            removeFrom(dateAmountBlocks, blockKey, row);
+        }
+        size--;
+    }
+
+    /**
+     * Removes and returns the lowest open row that is a potential match of the query row, or -1 when there is
+     * none.
+     */
+    public int claimFirstMatch(final TransactionTable queryTable, final int queryRow) {
+        int best = NO_MATCH;
+        for (final String id : similarIds.similarIds(queryTable.id(queryRow))) {
+            best = firstMatchIn(idBlocks.get(id), queryTable, queryRow, best);
+        }
+
+        final BlockingIndex.BlockKey blockKey = blocked ? BlockingIndex.blockKey(queryTable, queryRow, calculator) : null;
+        if (blockKey == null) {
+            for (final Set<Integer> block : dateAmountBlocks.values()) {
+                best = firstMatchIn(block, queryTable, queryRow, best);
+            }
+        } else {
+            for (long dateBlock = blockKey.dateBlock() - 1; dateBlock <= blockKey.dateBlock() + 1; dateBlock++) {
+                for (long amountBlock = blockKey.amountBlock() - 1; amountBlock <= blockKey.amountBlock() + 1; amountBlock++) {
+                    best = firstMatchIn(dateAmountBlocks.get(new BlockingIndex.BlockKey(dateBlock, amountBlock)),
+                            queryTable, queryRow, best);
+                }
+            }
+        }
+        best = firstMatchIn(unblocked, queryTable, queryRow, best);
+
+        if (best == NO_MATCH) {
+            return -1;
+        }
+        remove(best);
+        return best;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int firstMatchIn(final Set<Integer> block, final TransactionTable queryTable, final int queryRow,
+                             final int best) {
+        if (block == null) {
+            return best;
+        }
+
+        // buckets keep insertion order, not row order, so every member below the best row is scored
+        int result = best;
+        for (final int row : block) {
+            if (row < result && isMatch(row, queryTable, queryRow)) {
+                result = row;
+            }
+        }
+        return result;
+    }
+
+    private boolean isMatch(final int row, final TransactionTable queryTable, final int queryRow) {
+        return firstFile
+                ? calculator.arePotentialMatch(table, row, queryTable, queryRow)
+                : calculator.arePotentialMatch(queryTable, queryRow, table, row);
+    }
+
+    private static <K> void removeFrom(final Map<K, Set<Integer>> blocks, final K key, final int row) {
+        final Set<Integer> block = blocks.get(key);
+        if (block != null && block.remove(row) && block.isEmpty()) {
+            blocks.remove(key);
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Potential matching split in partitions that are matched in parallel. The rows of both files are grouped by
+ * the fields every potential match has similar: rows of similar ids, and rows whose dates follow each other
+ * within the date tolerance, undated rows being grouped together. No potential match crosses two groups, so
+ * matching the groups apart, each in the order of the rows, claims the same rows as matching all of them at
+ * once, whatever the number of partitions or threads. The groups are packed in partitions of about the same
+ * number of rows, a partition holding all rows when some match has neither a similar id nor a similar date.
+ */
+public final class PartitionedMatcher {
+
+    // several partitions per thread, so that the pool balances groups of uneven sizes
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final MatchingEngine engine;
+    private final MatchAssignment assignment;
+    private final int topK;
+    private final ForkJoinPool pool;
+
+    public PartitionedMatcher(final MatchingEngine engine, final MatchAssignment assignment, final int topK,
+                              final ForkJoinPool pool) {
+        this.engine = engine;
+        this.assignment = assignment;
+        this.topK = topK;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the potential match of each of the first rows, the same as {@link MatchAssignment#assign} gives
+     * them through the index of all second rows.
+     */
+    public Result match(final TransactionTable firstTable, final int[] firstRows, final TransactionTable secondTable,
+                        final int[] secondRows, final PotentialMatchCalculator calculator) {
+        final Rows rows = new Rows(firstTable, firstRows, secondTable, secondRows);
+        final List<Partition> partitions = partition(rows, groups(rows, calculator));
+
+        final List<PartitionMatches> partitionMatches = partitions.size() == 1
+                ? List.of(match(rows, partitions.get(0), calculator))
+                : pool.submit(() -> partitions.parallelStream()
+                        .map(partition -> match(rows, partition, calculator))
+                        .toList()).join();
+
+        final int[] potentialMatches = new int[firstRows.length];
+        final BitSet claimed = new BitSet(secondTable.size());
+        long scoredCandidates = 0;
+        for (int index = 0; index < partitions.size(); index++) {
+            final int[] positions = partitions.get(index).firstPositions();
+            final int[] matches = partitionMatches.get(index).potentialMatches();
+            for (int position = 0; position < positions.length; position++) {
+                potentialMatches[positions[position]] = matches[position];
+                if (matches[position] >= 0) {
+                    claimed.set(matches[position]);
+                }
+            }
+            scoredCandidates += partitionMatches.get(index).scoredCandidates();
+        }
+
+        final int[] unclaimed = Arrays.stream(secondRows).filter(row -> !claimed.get(row)).toArray();
+        return new Result(potentialMatches, unclaimed, partitions.size(), scoredCandidates);
+    }
+
+    private PartitionMatches match(final Rows rows, final Partition partition, final PotentialMatchCalculator calculator) {
+        final int[] firstRows = Arrays.stream(partition.firstPositions()).map(position -> rows.firstRows()[position]).toArray();
+        final int[] secondRows = Arrays.stream(partition.secondPositions()).map(position -> rows.secondRows()[position]).toArray();
+
+        final PotentialMatchFinder index = engine.index(rows.secondTable(), secondRows, calculator);
+        final IntUnaryOperator potentialMatches = assignment.assign(index, rows.firstTable(), firstRows, topK);
+        final int[] matches = new int[firstRows.length];
+        for (int position = 0; position < firstRows.length; position++) {
+            matches[position] = potentialMatches.applyAsInt(firstRows[position]);
+        }
+        return new PartitionMatches(matches, index.scoredCandidates());
+    }
+
+    /**
+     * Returns the group of every row, the rows of both files being numbered one after the other.
+     */
+    private static int[] groups(final Rows rows, final PotentialMatchCalculator calculator) {
+        final int[] parents = IntStream.range(0, rows.size()).toArray();
+        if (!calculator.everyMatchIncludes(EnumSet.of(MatchField.ID), EnumSet.of(MatchField.DATE))) {
+            Arrays.fill(parents, 0);
+            return parents;
+        }
+
+        if (!calculator.everyMatchIncludes(EnumSet.of(MatchField.DATE))) {
+            joinSimilarIds(rows, calculator.idTolerance(), parents);
+        }
+        if (!calculator.everyMatchIncludes(EnumSet.of(MatchField.ID))) {
+            joinCloseDates(rows, calculator.dateWindowSeconds(), parents);
+        }
+        for (int node = 0; node < parents.length; node++) {
+            parents[node] = root(parents, node);
+        }
+        return parents;
+    }
+
+    private static void joinSimilarIds(final Rows rows, final int idTolerance, final int[] parents) {
+        final Map<String, Integer> nodesById = new HashMap<>();
+        for (int node = 0; node < rows.size(); node++) {
+            final Integer sameId = nodesById.putIfAbsent(rows.id(node), node);
+            if (sameId != null) {
+                join(parents, sameId, node);
+            }
+        }
+
+        if (idTolerance == 0) {
+            return;
+        }
+        final SimilarIdIndex similarIds = new SimilarIdIndex(idTolerance);
+        nodesById.keySet().forEach(similarIds::add);
+        nodesById.forEach((id, node) -> similarIds.similarIds(id)
+                .forEach(similarId -> join(parents, node, nodesById.get(similarId))));
+    }
+
+    private static void joinCloseDates(final Rows rows, final long windowSeconds, final int[] parents) {
+        final int[] datedNodes = byDate(rows);
+        for (int index = 1; index < datedNodes.length; index++) {
+            if (rows.epochSecond(datedNodes[index]) - rows.epochSecond(datedNodes[index - 1]) <= windowSeconds) {
+                join(parents, datedNodes[index - 1], datedNodes[index]);
+            }
+        }
+
+        int undatedNode = -1;
+        for (int node = 0; node < rows.size(); node++) {
+            if (!rows.hasDate(node)) {
+                if (undatedNode >= 0) {
+                    join(parents, undatedNode, node);
+                }
+                undatedNode = node;
+            }
+        }
+    }
+
+    /**
+     * Returns the rows with a date sorted by date, through a primitive sort of the seconds elapsed since the
+     * earliest date packed with the row number when they fit in the upper half of a long.
+     */
+    private static int[] byDate(final Rows rows) {
+        final int[] datedNodes = IntStream.range(0, rows.size()).filter(rows::hasDate).toArray();
+        final long earliest = Arrays.stream(datedNodes).mapToLong(rows::epochSecond).min().orElse(0);
+        final long latest = Arrays.stream(datedNodes).mapToLong(rows::epochSecond).max().orElse(0);
+        if (latest - earliest > Integer.MAX_VALUE) {
+            return Arrays.stream(datedNodes)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(rows::epochSecond))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        final long[] keys = new long[datedNodes.length];
+        for (int index = 0; index < datedNodes.length; index++) {
+            keys[index] = (rows.epochSecond(datedNodes[index]) - earliest) << Integer.SIZE | datedNodes[index];
+        }
+        Arrays.sort(keys);
+        for (int index = 0; index < keys.length; index++) {
+            datedNodes[index] = (int) keys[index];
+        }
+        return datedNodes;
+    }
+
+    private static void join(final int[] parents, final int first, final int second) {
+        final int firstRoot = root(parents, first);
+        final int secondRoot = root(parents, second);
+        parents[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+    }
+
+    private static int root(final int[] parents, final int node) {
+        int current = node;
+        while (parents[current] != current) {
+            parents[current] = parents[parents[current]];
+            current = parents[current];
+        }
+        return current;
+    }
+
+    /**
+     * Packs the groups in partitions in the order of their first row, each partition keeping its rows of both
+     * files in their original order.
+     */
+    private List<Partition> partition(final Rows rows, final int[] groups) {
+        final int[] groupSizes = new int[groups.length];
+        for (final int group : groups) {
+            groupSizes[group]++;
+        }
+
+        final int targetSize = Math.max(1, rows.size() / (pool.getParallelism() * PARTITIONS_PER_THREAD));
+        final int[] partitionOfGroup = new int[groups.length];
+        int partitions = 0;
+        int partitionSize = 0;
+        for (int node = 0; node < groups.length; node++) {
+            // a group is numbered by its first row
+            if (groups[node] == node) {
+                if (partitionSize > 0 && partitionSize + groupSizes[node] > targetSize) {
+                    partitions++;
+                    partitionSize = 0;
+                }
+                partitionOfGroup[node] = partitions;
+                partitionSize += groupSizes[node];
+            }
+        }
+
+        final int[] firstCounts = new int[partitions + 1];
+        final int[] secondCounts = new int[partitions + 1];
+        for (int node = 0; node < groups.length; node++) {
+            (node < rows.firstRows().length ? firstCounts : secondCounts)[partitionOfGroup[groups[node]]]++;
+        }
+        final int[][] firstPositions = new int[partitions + 1][];
+        final int[][] secondPositions = new int[partitions + 1][];
+        for (int partition = 0; partition <= partitions; partition++) {
+            firstPositions[partition] = new int[firstCounts[partition]];
+            secondPositions[partition] = new int[secondCounts[partition]];
+        }
+        Arrays.fill(firstCounts, 0);
+        Arrays.fill(secondCounts, 0);
+        for (int node = 0; node < groups.length; node++) {
+            final int partition = partitionOfGroup[groups[node]];
+            if (node < rows.firstRows().length) {
+                firstPositions[partition][firstCounts[partition]++] = node;
+            } else {
+                secondPositions[partition][secondCounts[partition]++] = node - rows.firstRows().length;
+            }
+        }
+        return IntStream.rangeClosed(0, partitions)
+                .mapToObj(partition -> new Partition(firstPositions[partition], secondPositions[partition]))
+                .toList();
+    }
+
+    /**
+     * Potential matches of the first rows in their order, -1 for rows without one, the second rows left
+     * unclaimed in their order, the number of partitions matched apart and the candidates scored in all of
+     * them.
+     */
+    public record Result(int[] potentialMatches, int[] unclaimed, int partitions, long scoredCandidates) {
+    }
+
+    private record Partition(int[] firstPositions, int[] secondPositions) {
+    }
+
+    private record PartitionMatches(int[] potentialMatches, long scoredCandidates) {
+    }
+
+    /**
+     * The rows of both files numbered one after the other, the first file rows first.
+     */
+    private record Rows(TransactionTable firstTable, int[] firstRows, TransactionTable secondTable, int[] secondRows) {
+
+        private int size() {
+            return firstRows.length + secondRows.length;
+        }
+
+        private String id(final int node) {
+            return node < firstRows.length ? firstTable.id(firstRows[node])
+                    : secondTable.id(secondRows[node - firstRows.length]);
+        }
+
+        private boolean hasDate(final int node) {
+            return node < firstRows.length ? firstTable.hasDate(firstRows[node])
+                    : secondTable.hasDate(secondRows[node - firstRows.length]);
+        }
+
+        private long epochSecond(final int node) {
+            return node < firstRows.length ? firstTable.epochSecond(firstRows[node])
+                    : secondTable.epochSecond(secondRows[node - firstRows.length]);
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.util.function.IntConsumer;
+
+public interface PotentialMatchFinder {
+
+    int claimFirstMatch(TransactionTable table, int row);
+
+    /**
+     * Passes every unclaimed indexed row that is a potential match of the given row to the consumer, in no
+     * particular order and possibly more than once.
+     */
+    void forEachMatch(TransactionTable table, int row, IntConsumer matchedRows);
+
+    void claim(int row);
+
+    int[] unclaimed();
+
+    TransactionTable table();
+
+    PotentialMatchCalculator calculator();
+
+    long scoredCandidates();
+
+}
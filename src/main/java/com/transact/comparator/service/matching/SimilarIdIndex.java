@@ -0,0 +1,167 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.service.similarity.EditDistanceSimilarityCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup of the distinct ids within the id tolerance of a query id, so the finders only score the rows of
+ * those ids. Ids are grouped by length, only the lengths at most {@code maxEdits} apart from the query
+ * being read, and every id of one length is split into {@code maxEdits + 1} segments indexed by position.
+ * At most {@code maxEdits} edits leave one segment of a similar id untouched, shifted by at most
+ * {@code maxEdits} characters in the query: only the query substrings at those positions are looked up,
+ * and every candidate is checked with the bounded edit distance. Ids too short to split are all checked.
+ * <p>
+ * Segments shared by most ids, such as a zero padded prefix, make every id a candidate and the lookup a
+ * scan of the ids of that length. Without a tolerance the query id is its only similar id and nothing is
+ * indexed. Not thread safe.
+ */
+final class SimilarIdIndex {
+
+    private final int maxEdits;
+    private final Set<String> indexed = new HashSet<>();
+    private final Map<Integer, SameLengthIds> lengths = new HashMap<>();
+
+    SimilarIdIndex(final int maxEdits) {
+        this.maxEdits = maxEdits;
+    }
+
+    /**
+     * Indexes the id, ids already indexed and null ids being ignored.
+     */
+    void add(final String id) {
+        if (maxEdits == 0 || id == null || !indexed.add(id)) {
+            return;
+        }
+
+        lengths.computeIfAbsent(id.length(), SameLengthIds::new).add(id);
+    }
+
+    /**
+     * Returns the indexed ids within the tolerance of the id, or the id itself when there is no tolerance.
+     * A null id is only similar to itself.
+     */
+    List<String> similarIds(final String id) {
+        if (maxEdits == 0 || id == null) {
+            return Collections.singletonList(id);
+        }
+
+        final List<String> result = new ArrayList<>();
+        for (int length = Math.max(0, id.length() - maxEdits); length <= id.length() + maxEdits; length++) {
+            final SameLengthIds sameLength = lengths.get(length);
+            if (sameLength != null) {
+                sameLength.addSimilar(id, result);
+            }
+        }
+        return result;
+    }
+
+    private final class SameLengthIds {
+
+        // segment i spans [starts[i], starts[i + 1]), the last segments one character longer than the first
+        private final int[] starts;
+        private final List<String> ids = new ArrayList<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+        // query in which each id was last checked, so ids found by several segments are checked once
+        private int[] checkedBy = new int[16];
+        private int queries;
+
+        private SameLengthIds(final int length) {
+            final int segments = maxEdits + 1;
+            if (length < segments) {
+                starts = null;
+                return;
+            }
+            starts = new int[segments + 1];
+            final int shorterSegments = segments - length % segments;
+            for (int segment = 0; segment < segments; segment++) {
+                starts[segment + 1] = starts[segment] + length / segments + (segment < shorterSegments ? 0 : 1);
+            }
+        }
+
+        private void add(final String id) {
+            final int number = ids.size();
+            ids.add(id);
+            if (number == checkedBy.length) {
+                checkedBy = Arrays.copyOf(checkedBy, number * 2);
+            }
+            if (starts == null) {
+                return;
+            }
+
+            for (int segment = 0; segment + 1 < starts.length; segment++) {
+                postings.computeIfAbsent(key(id, segment, starts[segment]), key -> new Postings()).add(number);
+            }
+        }
+
+        private void addSimilar(final String query, final List<String> result) {
+            queries++;
+            if (starts == null) {
+                for (int number = 0; number < ids.size(); number++) {
+                    addIfSimilar(query, number, result);
+                }
+                return;
+            }
+
+            for (int segment = 0; segment + 1 < starts.length; segment++) {
+                final int segmentLength = starts[segment + 1] - starts[segment];
+                final int first = Math.max(0, starts[segment] - maxEdits);
+                final int last = Math.min(query.length() - segmentLength, starts[segment] + maxEdits);
+                for (int start = first; start <= last; start++) {
+                    final Postings segmentPostings = postings.get(key(query, segment, start));
+                    if (segmentPostings != null) {
+                        for (int index = 0; index < segmentPostings.size; index++) {
+                            addIfSimilar(query, segmentPostings.numbers[index], result);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void addIfSimilar(final String query, final int number, final List<String> result) {
+            if (checkedBy[number] == queries) {
+                return;
+            }
+            checkedBy[number] = queries;
+            final String id = ids.get(number);
+            if (EditDistanceSimilarityCalculator.distance(query, id, maxEdits) <= maxEdits) {
+                result.add(id);
+            }
+        }
+
+        /**
+         * Returns the hash of the segment of the given number read from the value at the start. Distinct
+         * segments may share a hash, which only adds candidates that the edit distance then rejects.
+         */
+        private long key(final String value, final int segment, final int start) {
+            long key = segment;
+            for (int index = start; index < start + starts[segment + 1] - starts[segment]; index++) {
+                key = key * 65_537 + value.charAt(index);
+            }
+            return key;
+        }
+
+    }
+
+    private static final class Postings {
+
+        private int[] numbers = new int[2];
+        private int size;
+
+        private void add(final int number) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = number;
+        }
+
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Candidate generation for potential matching based on the date tolerance window. Dated rows are sorted
+ * by date and a lookup only scores the neighbours inside the window of the date tolerance, while matches
+ * that ignore the date go through the blocks of the similar ids. Rules that match without a similar id or
+ * a similar date cannot be swept, every row is then scored.
+ */
+public class SweepLineMatcher extends AbstractPotentialMatchFinder {
+
+    private final boolean swept;
+    // epoch seconds drop the nanos, hence the window bounds are inclusive
+    private final long windowSeconds;
+    private final int[] sortedOrdinals;
+    private final long[] sortedSeconds;
+    private final int[] positions;
+    private final int[] nextUnclaimed;
+    private final List<Integer> undated = new ArrayList<>();
+
+    public SweepLineMatcher(final TransactionTable table, final int[] rows, final PotentialMatchCalculator calculator) {
+        super(table, rows, calculator);
+        this.swept = calculator.everyMatchIncludes(EnumSet.of(MatchField.ID), EnumSet.of(MatchField.DATE));
+        this.windowSeconds = calculator.dateWindowSeconds();
+
+        this.sortedOrdinals = IntStream.range(0, rows.length)
+                .filter(ordinal -> table.hasDate(rows[ordinal]))
+                .boxed()
+                .sorted(Comparator.comparingLong(ordinal -> table.epochSecond(rows[ordinal])))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.sortedSeconds = new long[sortedOrdinals.length];
+        this.positions = new int[rows.length];
+        this.nextUnclaimed = IntStream.rangeClosed(0, sortedOrdinals.length).toArray();
+
+        Arrays.fill(positions, -1);
+        for (int position = 0; position < sortedOrdinals.length; position++) {
+            sortedSeconds[position] = table.epochSecond(rows[sortedOrdinals[position]]);
+            positions[sortedOrdinals[position]] = position;
+        }
+        for (int ordinal = 0; ordinal < rows.length; ordinal++) {
+            if (positions[ordinal] < 0) {
+                undated.add(ordinal);
+            }
+        }
+    }
+
+    @Override
+    protected int findFirstMatch(final TransactionTable queryTable, final int queryRow) {
+        if (!swept) {
+            return scanAll(queryTable, queryRow);
+        }
+
+        final int best = firstIdMatch(queryTable, queryRow, NO_MATCH);
+
+        if (!queryTable.hasDate(queryRow)) {
+            return firstMatchIn(undated, queryTable, queryRow, best);
+        }
+
+        final long second = queryTable.epochSecond(queryRow);
+        return firstMatchInWindow(queryTable, queryRow, second - windowSeconds, second + windowSeconds, best);
+    }
+
+    @Override
+    protected void forEachCandidate(final TransactionTable queryTable, final int queryRow, final IntConsumer ordinals) {
+        if (!swept) {
+            forEachUnclaimed(ordinals);
+            return;
+        }
+
+        forEachIdCandidate(queryTable, queryRow, ordinals);
+
+        if (!queryTable.hasDate(queryRow)) {
+            forEachIn(undated, ordinals);
+            return;
+        }
+
+        final long second = queryTable.epochSecond(queryRow);
+        int position = findNextUnclaimed(firstAtOrAfter(second - windowSeconds));
+        while (position < sortedSeconds.length && sortedSeconds[position] <= second + windowSeconds) {
+            ordinals.accept(sortedOrdinals[position]);
+            position = findNextUnclaimed(position + 1);
+        }
+    }
+
+    @Override
+    protected void onClaimed(final int ordinal) {
+        final int position = positions[ordinal];
+        if (position >= 0) {
+            nextUnclaimed[position] = position + 1;
+        }
+    }
+
+    private int firstMatchInWindow(final TransactionTable queryTable, final int queryRow, final long from,
+                                   final long to, final int best) {
+        int result = best;
+        int position = findNextUnclaimed(firstAtOrAfter(from));
+        while (position < sortedSeconds.length && sortedSeconds[position] <= to) {
+            final int ordinal = sortedOrdinals[position];
+            if (ordinal < result && isMatch(ordinal, queryTable, queryRow)) {
+                result = ordinal;
+            }
+            position = findNextUnclaimed(position + 1);
+        }
+        return result;
+    }
+
+    private int firstAtOrAfter(final long second) {
+        int low = 0;
+        int high = sortedSeconds.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sortedSeconds[middle] >= second) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private int findNextUnclaimed(final int position) {
+        int root = position;
+        while (nextUnclaimed[root] != root) {
+            root = nextUnclaimed[root];
+        }
+
+        int current = position;
+        while (nextUnclaimed[current] != root) {
+            final int next = nextUnclaimed[current];
+            nextUnclaimed[current] = root;
+            current = next;
+        }
+        return root;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.transact.comparator.service.parsing;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compression of an uploaded file, recognised by its magic bytes whatever its name. Compressed files are
+ * decompressed while they are read, without a decompressed copy on disk or in memory.
+ */
+public enum Compression {
+
+    NONE(new byte[0]),
+    GZIP(new byte[]{0x1f, (byte) 0x8b}),
+    ZSTD(new byte[]{0x28, (byte) 0xb5, 0x2f, (byte) 0xfd});
+
+    private static final int MAGIC_LENGTH = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final byte[] magic;
+
+    Compression(final byte[] magic) {
+        this.magic = magic;
+    }
+
+    /**
+     * Reads the magic bytes at the start of an input supporting marks, leaving them to be read again.
+     */
+    public static Compression of(final InputStream input) throws IOException {
+        input.mark(MAGIC_LENGTH);
+        final byte[] head = input.readNBytes(MAGIC_LENGTH);
+        input.reset();
+        return of(head);
+    }
+
+    public static Compression of(final ByteBuffer buffer) {
+        final byte[] head = new byte[Math.min(MAGIC_LENGTH, buffer.limit())];
+        buffer.get(0, head);
+        return of(head);
+    }
+
+    /**
+     * Returns the plain content of the input, decompressing it on the fly when it starts with the magic
+     * bytes of a supported compression.
+     */
+    public static InputStream decompressing(final InputStream input) throws IOException {
+        final InputStream buffered = new BufferedInputStream(input, BUFFER_SIZE);
+        return of(buffered).decompress(buffered);
+    }
+
+    public boolean isCompressed() {
+        return this != NONE;
+    }
+
+    private InputStream decompress(final InputStream input) throws IOException {
+        return switch (this) {
+            case NONE -> input;
+            case GZIP -> new GZIPInputStream(input, BUFFER_SIZE);
+            case ZSTD -> new ZstdInputStream(input);
+        };
+    }
+
+    private static Compression of(final byte[] head) {
+        for (final Compression compression : values()) {
+            if (compression.isCompressed() && startsWith(head, compression.magic)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean startsWith(final byte[] head, final byte[] magic) {
+        if (head.length < magic.length) {
+            return false;
+        }
+        for (int index = 0; index < magic.length; index++) {
+            if (head[index] != magic[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.transact.comparator.service.parsing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of the raw bytes of a file, read in a single streaming pass, used to recognise the same
+ * content whatever its file name. A fingerprint of the size and of both ends of the file tells cheaply
+ * whether a content may have been seen before, before reading it whole.
+ */
+public final class ContentHash {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SAMPLE_SIZE = 64 * 1024;
+
+    private ContentHash() {
+    }
+
+    public static String of(final InputStream input) throws IOException {
+        final MessageDigest digest = sha256();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String of(final ByteBuffer buffer) {
+        final MessageDigest digest = sha256();
+        digest.update(buffer.duplicate());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Hashes the size of a content with its first and last 64 KB, skipping the bytes in between.
+     */
+    public static String fingerprint(final InputStream input, final long size) throws IOException {
+        final MessageDigest digest = sha256();
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, size));
+        digest.update(input.readNBytes(SAMPLE_SIZE));
+        if (size > 2L * SAMPLE_SIZE) {
+            input.skipNBytes(size - 2L * SAMPLE_SIZE);
+        }
+        digest.update(input.readNBytes(SAMPLE_SIZE));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String fingerprint(final ByteBuffer buffer) {
+        final MessageDigest digest = sha256();
+        final int size = buffer.limit();
+        final int head = Math.min(SAMPLE_SIZE, size);
+        final int tail = Math.max(head, size - SAMPLE_SIZE);
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, size));
+        digest.update(buffer.slice(0, head));
+        digest.update(buffer.slice(tail, size - tail));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    /**
+     * Input hashing the bytes read through it, so that a file is hashed by the pass that parses it. Closing
+     * it leaves the underlying input open, for {@link #hash()} to read whatever the parser left.
+     */
+    public static final class HashingInputStream extends DigestInputStream {
+
+        public HashingInputStream(final InputStream input) {
+            super(input, sha256());
+        }
+
+        /**
+         * Reads the bytes left, then returns the hash of all the bytes of the input.
+         */
+        public String hash() throws IOException {
+            transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(getMessageDigest().digest());
+        }
+
+        @Override
+        public long skip(final long count) throws IOException {
+            // skipped bytes are read, so that they are hashed
+            final byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(0, count))];
+            long skipped = 0;
+            while (skipped < count) {
+                final int read = read(buffer, 0, (int) Math.min(buffer.length, count - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // the underlying input belongs to the caller
+        }
+
+    }
+
+}
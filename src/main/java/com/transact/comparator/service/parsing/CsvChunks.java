@@ -0,0 +1,102 @@
+package com.transact.comparator.service.parsing;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a CSV buffer into byte ranges that end on record boundaries. A line feed only ends a record
+ * when it is outside a quoted value; since escaped quotes are doubled, the quoting state at any offset
+ * is the parity of the quotes before it. The quotes of each segment are counted in parallel and every
+ * segment then moves its start forward to the next record boundary.
+ */
+public final class CsvChunks {
+
+    private static final byte QUOTE = '"';
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private CsvChunks() {
+    }
+
+    public static int headerEnd(final ByteBuffer buffer) {
+        return recordEnd(buffer, 0, false);
+    }
+
+    /**
+     * Returns the chunk boundaries of {@code [from, buffer.limit())}: chunk {@code i} spans
+     * {@code [boundaries[i], boundaries[i + 1])}. Parallel streams run in the calling fork join pool.
+     */
+    public static int[] split(final ByteBuffer buffer, final int from, final int chunkSize) {
+        final int limit = buffer.limit();
+        final int segments = (int) Math.max(1, ((long) limit - from + chunkSize - 1) / chunkSize);
+
+        final int[] quotes = IntStream.range(0, segments)
+                .parallel()
+                .map(segment -> countQuotes(buffer, segmentStart(from, chunkSize, segment, limit),
+                        segmentStart(from, chunkSize, segment + 1, limit)))
+                .toArray();
+
+        final boolean[] quotedAtStart = new boolean[segments];
+        int parity = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            quotedAtStart[segment] = parity == 1;
+            parity = (parity + quotes[segment]) & 1;
+        }
+
+        // record boundaries are monotonic, a long quoted value only makes consecutive starts coincide
+        return IntStream.concat(
+                        IntStream.range(0, segments)
+                                .parallel()
+                                .map(segment -> segment == 0
+                                        ? from
+                                        : recordEnd(buffer, segmentStart(from, chunkSize, segment, limit), quotedAtStart[segment])),
+                        IntStream.of(limit))
+                .sequential()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Counts the line breaks in {@code [from, to)} the way the CSV parser does, so a line reported for a
+     * chunk can be translated into a line of the whole file.
+     */
+    public static int countLines(final ByteBuffer buffer, final int from, final int to) {
+        int lines = 0;
+        for (int position = from; position < to; position++) {
+            final byte value = buffer.get(position);
+            if (value == LINE_FEED
+                    || value == CARRIAGE_RETURN && (position + 1 >= buffer.limit() || buffer.get(position + 1) != LINE_FEED)) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static int segmentStart(final int from, final int chunkSize, final int segment, final int limit) {
+        return (int) Math.min(limit, from + (long) chunkSize * segment);
+    }
+
+    private static int countQuotes(final ByteBuffer buffer, final int from, final int to) {
+        int quotes = 0;
+        for (int position = from; position < to; position++) {
+            if (buffer.get(position) == QUOTE) {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    private static int recordEnd(final ByteBuffer buffer, final int from, final boolean quotedAtStart) {
+        boolean quoted = quotedAtStart;
+        for (int position = from; position < buffer.limit(); position++) {
+            final byte value = buffer.get(position);
+            if (value == QUOTE) {
+                quoted = !quoted;
+            } else if (value == LINE_FEED && !quoted) {
+                return position + 1;
+            }
+        }
+        return buffer.limit();
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.transact.comparator.service.parsing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Strings of the short ASCII values read so far, looked up by their bytes. A value repeated on many rows
+ * is decoded once and then shared, instead of allocating a new string for every row. The pool is bounded
+ * in entries and value length, values beyond are decoded every time.
+ */
+final class TextPool {
+
+    static final int MAX_LENGTH = 64;
+    static final int MAX_ENTRIES = 8192;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[][] keys = new byte[INITIAL_CAPACITY][];
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the string of the ASCII bytes {@code [start, start + length)}, at most {@link #MAX_LENGTH}.
+     */
+    String get(final byte[] buffer, final int start, final int length) {
+        int hash = length;
+        for (int index = start; index < start + length; index++) {
+            hash = 31 * hash + buffer[index];
+        }
+
+        int slot = slot(hash, keys.length);
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && Arrays.equals(keys[slot], 0, keys[slot].length, buffer, start, start + length)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+
+        final String value = new String(buffer, start, length, StandardCharsets.ISO_8859_1);
+        if (size < MAX_ENTRIES) {
+            keys[slot] = Arrays.copyOfRange(buffer, start, start + length);
+            values[slot] = value;
+            hashes[slot] = hash;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+        return value;
+    }
+
+    private void grow() {
+        final byte[][] oldKeys = keys;
+        final String[] oldValues = values;
+        final int[] oldHashes = hashes;
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[keys.length];
+        hashes = new int[keys.length];
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldKeys[oldSlot] != null) {
+                int slot = slot(oldHashes[oldSlot], keys.length);
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[oldSlot];
+                values[slot] = oldValues[oldSlot];
+                hashes[slot] = oldHashes[oldSlot];
+            }
+        }
+    }
+
+    private static int slot(final int hash, final int capacity) {
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+
+}
@@ -0,0 +1,438 @@
+package com.transact.comparator.service.parsing;
+
+import com.transact.comparator.domain.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Reads files with the eight {@link Transaction} columns straight from their bytes: values are tokenised
+ * in place, dates and amounts are parsed from the digits without going through a String, and only the
+ * text columns are decoded. Anything this reader is not certain to read like the generic CSV mapper, an
+ * unknown header, a malformed value, a missing column or an unusual line break, hands the rest of the
+ * file, from the start of the offending record, over to the {@link Fallback}, which keeps its error
+ * messages and the way it reads edge cases.
+ */
+public final class TransactionCsvReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_INT_DIGITS = 9;
+    private static final int DATE_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+
+    private static final int ID = 0;
+    private static final int PROFILE_NAME = 1;
+    private static final int DATE = 2;
+    private static final int AMOUNT = 3;
+    private static final int NARRATIVE = 4;
+    private static final int DESCRIPTION = 5;
+    private static final int TYPE = 6;
+    private static final int WALLET_REFERENCE = 7;
+    private static final List<String> COLUMNS = List.of("TransactionID", "ProfileName", "TransactionDate",
+            "TransactionAmount", "TransactionNarrative", "TransactionDescription", "TransactionType", "WalletReference");
+
+    /**
+     * Reads the remaining records of a file, {@code remaining} starting with the header line, the line
+     * numbers it reports being {@code lineOffset} lines before the ones of the file.
+     */
+    @FunctionalInterface
+    public interface Fallback {
+
+        void read(InputStream remaining, int lineOffset) throws IOException;
+
+    }
+
+    private final InputStream input;
+    private final Consumer<Transaction> consumer;
+    private final LongAdder parsedRows;
+    private final int[] fieldStarts = new int[COLUMNS.size()];
+    private final int[] fieldEnds = new int[COLUMNS.size()];
+    private final boolean[] fieldEscaped = new boolean[COLUMNS.size()];
+    private final int[] columns = new int[COLUMNS.size()];
+    private final TextPool textPool = new TextPool();
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int limit;
+    private boolean endOfInput;
+    // the record being read starts at recordStart, field offsets are relative to it
+    private int recordStart;
+    private int fieldCount;
+    private int line = 1;
+
+    private TransactionCsvReader(final InputStream input, final Consumer<Transaction> consumer,
+                                 final LongAdder parsedRows) {
+        this.input = input;
+        this.consumer = consumer;
+        this.parsedRows = parsedRows;
+    }
+
+    public static void read(final InputStream input, final Consumer<Transaction> consumer, final LongAdder parsedRows,
+                            final Fallback fallback) throws IOException {
+        new TransactionCsvReader(input, consumer, parsedRows).read(fallback);
+    }
+
+    private void read(final Fallback fallback) throws IOException {
+        final int headerEnd = readRecord();
+        if (headerEnd == 0) {
+            return;
+        }
+        if (headerEnd < 0 || !readHeader()) {
+            fallback.read(remaining(new byte[0]), 0);
+            return;
+        }
+
+        final byte[] header = Arrays.copyOfRange(buffer, recordStart, recordStart + headerEnd);
+        recordStart += headerEnd;
+        while (true) {
+            final int recordLine = line;
+            final int recordEnd = readRecord();
+            if (recordEnd == 0) {
+                return;
+            }
+            final Transaction transaction = recordEnd < 0 ? null : toTransaction();
+            if (transaction == null) {
+                // the fallback sees the header on its first line and this record on its second one
+                fallback.read(remaining(header), recordLine - 2);
+                return;
+            }
+            parsedRows.increment();
+            if (transaction.isValid()) {
+                consumer.accept(transaction);
+            }
+            recordStart += recordEnd;
+        }
+    }
+
+    private InputStream remaining(final byte[] header) {
+        return new SequenceInputStream(Collections.enumeration(List.of(new ByteArrayInputStream(header),
+                new ByteArrayInputStream(buffer, recordStart, limit - recordStart), input)));
+    }
+
+    /**
+     * Tokenises the record at {@link #recordStart} and returns its length, line break included, {@code 0}
+     * at the end of the input, or {@code -1} when the record is to be read by the fallback.
+     */
+    private int readRecord() throws IOException {
+        fieldCount = 0;
+        int offset = 0;
+        if (!available(offset)) {
+            return 0;
+        }
+
+        while (true) {
+            if (fieldCount == fieldStarts.length) {
+                return -1;
+            }
+
+            final int field = fieldCount++;
+            fieldEscaped[field] = false;
+            if (available(offset) && byteAt(offset) == QUOTE) {
+                offset++;
+                fieldStarts[field] = offset;
+                while (true) {
+                    if (!available(offset)) {
+                        return -1;
+                    }
+                    final byte value = byteAt(offset);
+                    if (value == QUOTE) {
+                        if (available(offset + 1) && byteAt(offset + 1) == QUOTE) {
+                            fieldEscaped[field] = true;
+                            offset += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    if (value == CARRIAGE_RETURN) {
+                        return -1;
+                    }
+                    if (value == LINE_FEED) {
+                        line++;
+                    }
+                    offset++;
+                }
+                fieldEnds[field] = offset++;
+            } else {
+                fieldStarts[field] = offset;
+                while (available(offset)) {
+                    final byte value = byteAt(offset);
+                    if (value == SEPARATOR || value == LINE_FEED || value == CARRIAGE_RETURN) {
+                        break;
+                    }
+                    if (value == QUOTE) {
+                        return -1;
+                    }
+                    offset++;
+                }
+                fieldEnds[field] = offset;
+            }
+
+            if (!available(offset)) {
+                return offset;
+            }
+            final byte separator = byteAt(offset);
+            if (separator == SEPARATOR) {
+                offset++;
+                continue;
+            }
+            if (separator == CARRIAGE_RETURN) {
+                if (!available(offset + 1) || byteAt(offset + 1) != LINE_FEED) {
+                    return -1;
+                }
+                offset++;
+            }
+            if (byteAt(offset) != LINE_FEED) {
+                return -1;
+            }
+            // blank lines are left to the fallback
+            if (fieldCount == 1 && fieldEnds[0] == 0) {
+                return -1;
+            }
+            line++;
+            return offset + 1;
+        }
+    }
+
+    private boolean readHeader() {
+        if (fieldCount != columns.length) {
+            return false;
+        }
+        final boolean[] seen = new boolean[columns.length];
+        for (int field = 0; field < fieldCount; field++) {
+            final int column = COLUMNS.indexOf(text(field));
+            if (column < 0 || seen[column]) {
+                return false;
+            }
+            seen[column] = true;
+            columns[field] = column;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the transaction of the tokenised record, or {@code null} when a value is left to the fallback.
+     */
+    private Transaction toTransaction() {
+        if (fieldCount != columns.length) {
+            return null;
+        }
+
+        final Transaction transaction = new Transaction();
+        for (int field = 0; field < fieldCount; field++) {
+            switch (columns[field]) {
+                case ID -> transaction.setId(text(field));
+                case PROFILE_NAME -> transaction.setProfileName(pooledText(field));
+                case NARRATIVE -> transaction.setNarrative(pooledText(field));
+                case DESCRIPTION -> transaction.setDescription(pooledText(field));
+                case WALLET_REFERENCE -> transaction.setWalletReference(text(field));
+                case DATE -> transaction.setDate(date(field));
+                case AMOUNT -> transaction.setAmount(amount(field));
+                case TYPE -> {
+                    final long type = integer(field);
+                    if (type == Long.MIN_VALUE) {
+                        return null;
+                    }
+                    transaction.setType((int) type);
+                }
+                default -> throw new IllegalStateException("Unknown column " + columns[field]);
+            }
+        }
+        return transaction.getDate() == null || transaction.getAmount() == null || hasUndecodedText(transaction)
+                ? null : transaction;
+    }
+
+    private static boolean hasUndecodedText(final Transaction transaction) {
+        return transaction.getId() == null || transaction.getProfileName() == null || transaction.getNarrative() == null
+                || transaction.getDescription() == null || transaction.getWalletReference() == null;
+    }
+
+    /**
+     * Decodes a text value, or returns {@code null} for bytes that are not valid UTF-8.
+     */
+    private String text(final int field) {
+        final int start = recordStart + fieldStarts[field];
+        final int length = fieldEnds[field] - fieldStarts[field];
+        final String value = isAscii(start, length)
+                ? new String(buffer, start, length, StandardCharsets.ISO_8859_1)
+                : decodeUtf8(start, length);
+        return value != null && fieldEscaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * Decodes a value of the repetitive columns, short ASCII values being shared through the {@link TextPool}.
+     */
+    private String pooledText(final int field) {
+        final int start = recordStart + fieldStarts[field];
+        final int length = fieldEnds[field] - fieldStarts[field];
+        return !fieldEscaped[field] && length <= TextPool.MAX_LENGTH && isAscii(start, length)
+                ? textPool.get(buffer, start, length)
+                : text(field);
+    }
+
+    private boolean isAscii(final int start, final int length) {
+        for (int index = start; index < start + length; index++) {
+            if (buffer[index] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decodeUtf8(final int start, final int length) {
+        try {
+            final CharBuffer decoded = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(buffer, start, length));
+            return decoded.toString();
+        } catch (CharacterCodingException exception) {
+            return null;
+        }
+    }
+
+    // yyyy-MM-dd HH:mm:ss
+    private LocalDateTime date(final int field) {
+        if (fieldEscaped[field] || fieldEnds[field] - fieldStarts[field] != DATE_LENGTH) {
+            return null;
+        }
+        final int start = recordStart + fieldStarts[field];
+        if (buffer[start + 4] != '-' || buffer[start + 7] != '-' || buffer[start + 10] != ' '
+                || buffer[start + 13] != ':' || buffer[start + 16] != ':') {
+            return null;
+        }
+        final int year = digits(start, 4);
+        final int month = digits(start + 5, 2);
+        final int day = digits(start + 8, 2);
+        final int hour = digits(start + 11, 2);
+        final int minute = digits(start + 14, 2);
+        final int second = digits(start + 17, 2);
+        // year zero and out of range fields are resolved leniently by the date formatter
+        if (year < 1 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException exception) {
+            return null;
+        }
+    }
+
+    private int digits(final int start, final int length) {
+        int value = 0;
+        for (int index = start; index < start + length; index++) {
+            final int digit = buffer[index] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // -?digits(.digits)?, the unscaled value fitting a long
+    private BigDecimal amount(final int field) {
+        if (fieldEscaped[field]) {
+            return null;
+        }
+        int index = recordStart + fieldStarts[field];
+        final int end = recordStart + fieldEnds[field];
+        final boolean negative = index < end && buffer[index] == '-';
+        if (negative) {
+            index++;
+        }
+
+        long unscaled = 0;
+        int digitCount = 0;
+        int scale = -1;
+        for (; index < end; index++) {
+            final byte value = buffer[index];
+            if (value == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            final int digit = value - '0';
+            if (digit < 0 || digit > 9 || ++digitCount > MAX_LONG_DIGITS) {
+                return null;
+            }
+            unscaled = unscaled * 10 + digit;
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digitCount == 0 || scale == 0 || (scale > 0 && digitCount == scale)) {
+            return null;
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    // -?digits, or Long.MIN_VALUE when left to the fallback
+    private long integer(final int field) {
+        int index = recordStart + fieldStarts[field];
+        final int end = recordStart + fieldEnds[field];
+        final boolean negative = index < end && buffer[index] == '-';
+        if (negative) {
+            index++;
+        }
+        if (fieldEscaped[field] || index == end || end - index > MAX_INT_DIGITS) {
+            return Long.MIN_VALUE;
+        }
+        final int value = digits(index, end - index);
+        if (value < 0) {
+            return Long.MIN_VALUE;
+        }
+        return negative ? -value : value;
+    }
+
+    private byte byteAt(final int offset) {
+        return buffer[recordStart + offset];
+    }
+
+    /**
+     * Makes the byte at {@code offset} of the current record available, reading more input when needed.
+     */
+    private boolean available(final int offset) throws IOException {
+        while (recordStart + offset >= limit) {
+            if (endOfInput) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() throws IOException {
+        if (recordStart > 0) {
+            System.arraycopy(buffer, recordStart, buffer, 0, limit - recordStart);
+            limit -= recordStart;
+            recordStart = 0;
+        }
+        if (limit == buffer.length) {
+            // a record longer than the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        final int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            limit += read;
+        }
+    }
+
+}
@@ -0,0 +1,286 @@
+package com.transact.comparator.service.reconciliation;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.config.ExecutorConfiguration;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ReconciliationResultDto;
+import com.transact.comparator.exception.ComparatorServiceException;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import com.transact.comparator.service.matching.PotentialMatchFinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Reconciles more than two files at once. Each file is parsed once, and all rows are exact matched through
+ * one table of the distinct transactions of every file, which tells for each row the files it is present
+ * in. Potential matching then runs for every pair of files in parallel, between the rows missing from the
+ * other file of the pair, the earlier file of the pair claiming rows of the later one like the first file of
+ * a comparison.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReconciliationService {
+
+    private final CsvParsingService csvParsingService;
+    private final ComparatorProperties comparatorProperties;
+    @Qualifier(ExecutorConfiguration.PARSING_EXECUTOR)
+    private final Executor parsingExecutor;
+    @Qualifier(ExecutorConfiguration.MATCHING_POOL)
+    private final Executor matchingPool;
+
+    public ReconciliationResultDto reconcile(final List<MultipartFile> files) {
+        final int maxFiles = Math.min(comparatorProperties.reconciliation().maxFiles(), Long.SIZE);
+        if (files.size() < 2) {
+            throw new InvalidDataException("At least two files are required to reconcile");
+        }
+        if (files.size() > maxFiles) {
+            throw new InvalidDataException("At most " + maxFiles + " files can be reconciled at once");
+        }
+
+        final PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(
+                comparatorProperties.matching().rules());
+        final List<ParsedFile> parsedFiles = parseFiles(files);
+        final List<TransactionTable> tables = parsedFiles.stream().map(ParsedFile::transactions).toList();
+
+        final long exactMatchingStart = System.nanoTime();
+        final ExactMatches exactMatches = findExactMatches(tables);
+        log.info("Exact matched {} distinct transactions of {} files in {} ms", exactMatches.files().length,
+                tables.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - exactMatchingStart));
+
+        final long potentialMatchingStart = System.nanoTime();
+        final PotentialMatches[][] potentialMatches = findPotentialMatches(tables, exactMatches, calculator);
+        log.info("Potential matched {} file pairs in {} ms", tables.size() * (tables.size() - 1) / 2,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - potentialMatchingStart));
+
+        return ReconciliationResultDto.builder()
+                .fileResults(IntStream.range(0, tables.size())
+                        .mapToObj(file -> toFileResult(file, parsedFiles, exactMatches, potentialMatches))
+                        .toList())
+                .build();
+    }
+
+    private List<ParsedFile> parseFiles(final List<MultipartFile> files) {
+        final List<CompletableFuture<ParsedFile>> parsings = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> parseFile(file), parsingExecutor))
+                .toList();
+
+        // wait for every parse so that no upload is still being read once the request fails
+        CompletableFuture.allOf(parsings.toArray(CompletableFuture[]::new)).exceptionally(throwable -> null).join();
+
+        return parsings.stream().map(ReconciliationService::join).toList();
+    }
+
+    private ParsedFile parseFile(final MultipartFile file) {
+        final long start = System.nanoTime();
+        final TransactionTable transactions = csvParsingService.parseTable(file, new LongAdder());
+        final long parseTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        log.info("Parsed {} transactions from file {} in {} ms", transactions.size(), file.getOriginalFilename(),
+                parseTimeMillis);
+        return new ParsedFile(file.getOriginalFilename(), transactions, parseTimeMillis);
+    }
+
+    private static ExactMatches findExactMatches(final List<TransactionTable> tables) {
+        final TransactionTable distinct = new TransactionTable();
+        final int[][] distinctRows = new int[tables.size()][];
+        for (int file = 0; file < tables.size(); file++) {
+            final TransactionTable table = tables.get(file);
+            distinctRows[file] = new int[table.size()];
+            for (int row = 0; row < table.size(); row++) {
+                distinctRows[file][row] = distinct.add(table, row) ? distinct.size() - 1 : distinct.indexOf(table, row);
+            }
+        }
+
+        final long[] files = new long[distinct.size()];
+        for (int file = 0; file < tables.size(); file++) {
+            for (final int distinctRow : distinctRows[file]) {
+                files[distinctRow] |= 1L << file;
+            }
+        }
+        return new ExactMatches(distinctRows, files);
+    }
+
+    private PotentialMatches[][] findPotentialMatches(final List<TransactionTable> tables,
+                                                      final ExactMatches exactMatches,
+                                                      final PotentialMatchCalculator calculator) {
+        final List<CompletableFuture<PairMatches>> pairs = new ArrayList<>();
+        for (int first = 0; first < tables.size(); first++) {
+            for (int second = first + 1; second < tables.size(); second++) {
+                final int firstFile = first;
+                final int secondFile = second;
+                pairs.add(CompletableFuture.supplyAsync(
+                        () -> matchPair(tables, exactMatches, calculator, firstFile, secondFile), matchingPool));
+            }
+        }
+
+        final PotentialMatches[][] potentialMatches = new PotentialMatches[tables.size()][tables.size()];
+        for (final CompletableFuture<PairMatches> pair : pairs) {
+            final PairMatches matches = join(pair);
+            potentialMatches[matches.firstFile()][matches.secondFile()] =
+                    PotentialMatches.of(matches.firstRows(), matches.secondRows());
+            potentialMatches[matches.secondFile()][matches.firstFile()] =
+                    PotentialMatches.of(matches.secondRows(), matches.firstRows());
+        }
+        return potentialMatches;
+    }
+
+    private PairMatches matchPair(final List<TransactionTable> tables, final ExactMatches exactMatches,
+                                  final PotentialMatchCalculator calculator, final int firstFile,
+                                  final int secondFile) {
+        final TransactionTable firstTransactions = tables.get(firstFile);
+        final TransactionTable secondTransactions = tables.get(secondFile);
+        final int[] firstRows = exactMatches.rowsMissingFrom(firstFile, secondFile);
+        final int[] secondRows = exactMatches.rowsMissingFrom(secondFile, firstFile);
+
+        final ComparatorProperties.Matching matching = comparatorProperties.matching();
+        final PotentialMatchFinder secondTransactionsIndex = matching.engine().index(secondTransactions, secondRows, calculator);
+        final IntUnaryOperator potentialMatches = matching.assignment()
+                .assign(secondTransactionsIndex, firstTransactions, firstRows, matching.topK());
+
+        final int[] matchedFirstRows = new int[Math.min(firstRows.length, secondRows.length)];
+        final int[] matchedSecondRows = new int[matchedFirstRows.length];
+        int matched = 0;
+        for (final int row : firstRows) {
+            final int potentialMatch = potentialMatches.applyAsInt(row);
+            if (potentialMatch >= 0) {
+                matchedFirstRows[matched] = row;
+                matchedSecondRows[matched++] = potentialMatch;
+            }
+        }
+        return new PairMatches(firstFile, secondFile, Arrays.copyOf(matchedFirstRows, matched),
+                Arrays.copyOf(matchedSecondRows, matched));
+    }
+
+    private static ReconciliationResultDto.FileResult toFileResult(final int file, final List<ParsedFile> parsedFiles,
+                                                                   final ExactMatches exactMatches,
+                                                                   final PotentialMatches[][] potentialMatches) {
+        final ParsedFile parsedFile = parsedFiles.get(file);
+        final TransactionTable transactions = parsedFile.transactions();
+        final long everyFile = -1L >>> (Long.SIZE - parsedFiles.size());
+
+        final List<ReconciliationResultDto.TransactionDto> unreconciledTransactions = new ArrayList<>();
+        for (int row = 0; row < transactions.size(); row++) {
+            final long files = exactMatches.filesOf(file, row);
+            if (files == everyFile) {
+                continue;
+            }
+
+            final List<ReconciliationResultDto.MatchDto> matches = new ArrayList<>();
+            for (int otherFile = 0; otherFile < parsedFiles.size(); otherFile++) {
+                if (otherFile == file) {
+                    continue;
+                }
+                final TransactionTable otherTransactions = parsedFiles.get(otherFile).transactions();
+                if ((files & 1L << otherFile) != 0) {
+                    matches.add(toMatchDto(otherFile, parsedFiles, ReconciliationResultDto.MatchType.EXACT,
+                            transactions.id(row)));
+                } else {
+                    final int potentialMatch = potentialMatches[file][otherFile].matchOf(row);
+                    if (potentialMatch >= 0) {
+                        matches.add(toMatchDto(otherFile, parsedFiles, ReconciliationResultDto.MatchType.POTENTIAL,
+                                otherTransactions.id(potentialMatch)));
+                    }
+                }
+            }
+            unreconciledTransactions.add(ReconciliationResultDto.TransactionDto.builder()
+                    .id(transactions.id(row))
+                    .amount(transactions.amount(row))
+                    .date(transactions.date(row))
+                    .reference(transactions.walletReference(row))
+                    .matches(matches)
+                    .build());
+        }
+
+        return ReconciliationResultDto.FileResult.builder()
+                .fileName(parsedFile.fileName())
+                .parseTimeMillis(parsedFile.parseTimeMillis())
+                .totalRecords(transactions.size())
+                .reconciledRecords(transactions.size() - unreconciledTransactions.size())
+                .unreconciledRecords(unreconciledTransactions.size())
+                .unreconciledTransactions(unreconciledTransactions)
+                .build();
+    }
+
+    private static ReconciliationResultDto.MatchDto toMatchDto(final int file, final List<ParsedFile> parsedFiles,
+                                                               final ReconciliationResultDto.MatchType type,
+                                                               final String id) {
+        return ReconciliationResultDto.MatchDto.builder()
+                .file(file)
+                .fileName(parsedFiles.get(file).fileName())
+                .type(type)
+                .id(id)
+                .build();
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ComparatorServiceException(exception.getCause());
+        }
+    }
+
+    private record ParsedFile(String fileName, TransactionTable transactions, long parseTimeMillis) {
+    }
+
+    /**
+     * Row of the distinct transactions table of each file row, and the files each distinct transaction is
+     * present in as a bit mask.
+     */
+    private record ExactMatches(int[][] distinctRows, long[] files) {
+
+        long filesOf(final int file, final int row) {
+            return files[distinctRows[file][row]];
+        }
+
+        int[] rowsMissingFrom(final int file, final int otherFile) {
+            return IntStream.range(0, distinctRows[file].length)
+                    .filter(row -> (filesOf(file, row) & 1L << otherFile) == 0)
+                    .toArray();
+        }
+
+    }
+
+    private record PairMatches(int firstFile, int secondFile, int[] firstRows, int[] secondRows) {
+    }
+
+    /**
+     * Potential matches of the rows of one file in another, sorted by row.
+     */
+    private record PotentialMatches(int[] rows, int[] matches) {
+
+        static PotentialMatches of(final int[] rows, final int[] matches) {
+            final Integer[] order = IntStream.range(0, rows.length).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, (first, second) -> Integer.compare(rows[first], rows[second]));
+            return new PotentialMatches(Arrays.stream(order).mapToInt(index -> rows[index]).toArray(),
+                    Arrays.stream(order).mapToInt(index -> matches[index]).toArray());
+        }
+
+        int matchOf(final int row) {
+            final int index = Arrays.binarySearch(rows, row);
+            return index >= 0 ? matches[index] : -1;
+        }
+
+    }
+
+}
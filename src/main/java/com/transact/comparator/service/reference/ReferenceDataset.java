@@ -0,0 +1,23 @@
+package com.transact.comparator.service.reference;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ReferenceDatasetDto;
+
+import java.time.Instant;
+
+/**
+ * A transaction file registered once under a name and compared against many later uploads. The table is
+ * shared by every comparison and must not be modified.
+ */
+public record ReferenceDataset(String name, String fileName, Instant registeredAt, TransactionTable transactions) {
+
+    public ReferenceDatasetDto toDto() {
+        return ReferenceDatasetDto.builder()
+                .name(name)
+                .fileName(fileName)
+                .totalRecords(transactions.size())
+                .registeredAt(registeredAt)
+                .build();
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.transact.comparator.service.reference;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ReferenceDatasetDto;
+import com.transact.comparator.exception.ComparatorServiceException;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.ReferenceDatasetNotFoundException;
+import com.transact.comparator.service.CsvParsingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Registers reference datasets: the file is parsed and indexed once, then written to the reference
+ * directory as a snapshot of its columns and fingerprints, which is read back without parsing on first use
+ * after a restart. Loaded datasets stay in memory.
+ * <p>
+ * Registering, loading and deleting a dataset happen within a compute of its map entry, so that the map and
+ * the stored file of a name change together: a lookup cannot load a file being deleted, nor two
+ * registrations leave the file of one and the dataset of the other.
+ */
+@Slf4j
+@Service
+public class ReferenceDatasetService {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,63}");
+    private static final String EXTENSION = ".reference";
+    private static final int MAGIC = 0x52454644;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CsvParsingService csvParsingService;
+    private final Path directory;
+    private final Map<String, ReferenceDataset> datasets = new ConcurrentHashMap<>();
+
+    public ReferenceDatasetService(final CsvParsingService csvParsingService,
+                                   final ComparatorProperties comparatorProperties) {
+        this.csvParsingService = csvParsingService;
+        this.directory = comparatorProperties.references().directory();
+    }
+
+    public ReferenceDatasetDto register(final String name, final MultipartFile file) {
+        validateName(name);
+        final ReferenceDataset dataset = new ReferenceDataset(name, file.getOriginalFilename(),
+                Instant.now().truncatedTo(ChronoUnit.MILLIS), csvParsingService.parseTable(file));
+        datasets.compute(name, (key, previous) -> {
+            write(dataset);
+            return dataset;
+        });
+
+        log.info("Registered reference dataset {} from file {} with {} transactions", name,
+                dataset.fileName(), dataset.transactions().size());
+        return dataset.toDto();
+    }
+
+    public ReferenceDataset get(final String name) {
+        validateName(name);
+        return datasets.computeIfAbsent(name, this::read);
+    }
+
+    public List<ReferenceDatasetDto> list() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        final List<ReferenceDatasetDto> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (final Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final String name = fileName.substring(0, fileName.length() - EXTENSION.length());
+                final ReferenceDataset loaded = datasets.get(name);
+                result.add(loaded != null ? loaded.toDto() : readDescription(name));
+            }
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not list reference datasets", exception);
+        }
+        result.sort(Comparator.comparing(ReferenceDatasetDto::name));
+        return result;
+    }
+
+    public void delete(final String name) {
+        validateName(name);
+        datasets.compute(name, (key, loaded) -> {
+            if (!deleteFile(key) && loaded == null) {
+                throw notFound(key);
+            }
+            return null;
+        });
+        log.info("Deleted reference dataset {}", name);
+    }
+
+    private boolean deleteFile(final String name) {
+        try {
+            return Files.deleteIfExists(path(name));
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not delete reference dataset " + name, exception);
+        }
+    }
+
+    private void write(final ReferenceDataset dataset) {
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, dataset.name() + "-", ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(dataset.fileName() == null ? "" : dataset.fileName());
+                output.writeLong(dataset.registeredAt().toEpochMilli());
+                dataset.transactions().writeTo(output);
+            }
+            // readers never see a partially written dataset, a registration replaces the previous one at once
+            Files.move(temporary, path(dataset.name()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            deleteQuietly(temporary);
+            throw new ComparatorServiceException("Could not store reference dataset " + dataset.name(), exception);
+        }
+    }
+
+    private ReferenceDataset read(final String name) {
+        try (DataInputStream input = open(name)) {
+            final String fileName = input.readUTF();
+            final Instant registeredAt = Instant.ofEpochMilli(input.readLong());
+            final TransactionTable transactions = TransactionTable.readFrom(input);
+
+            log.info("Loaded reference dataset {} with {} transactions", name, transactions.size());
+            return new ReferenceDataset(name, fileName, registeredAt, transactions);
+        } catch (NoSuchFileException exception) {
+            throw notFound(name);
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not read reference dataset " + name, exception);
+        }
+    }
+
+    // the description is read from the header, without loading the transactions
+    private ReferenceDatasetDto readDescription(final String name) {
+        try (DataInputStream input = open(name)) {
+            return ReferenceDatasetDto.builder()
+                    .name(name)
+                    .fileName(input.readUTF())
+                    .registeredAt(Instant.ofEpochMilli(input.readLong()))
+                    .totalRecords(input.readInt())
+                    .build();
+        } catch (NoSuchFileException exception) {
+            throw notFound(name);
+        } catch (IOException exception) {
+            throw new ComparatorServiceException("Could not read reference dataset " + name, exception);
+        }
+    }
+
+    private DataInputStream open(final String name) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path(name)), BUFFER_SIZE));
+        if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+            input.close();
+            throw new ComparatorServiceException("Unsupported reference dataset format: " + name);
+        }
+        return input;
+    }
+
+    private Path path(final String name) {
+        return directory.resolve(name + EXTENSION);
+    }
+
+    private static void validateName(final String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new InvalidDataException("Invalid reference dataset name: " + name
+                    + ", expected up to 64 letters, digits, '.', '_' or '-'");
+        }
+    }
+
+    private static ReferenceDatasetNotFoundException notFound(final String name) {
+        return new ReferenceDatasetNotFoundException("Reference dataset not found: " + name);
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            log.warn("Could not delete temporary file {}", file, exception);
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.transact.comparator.service.session;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ReconciliationSessionDto;
+import com.transact.comparator.dto.SessionUpdateDto;
+import com.transact.comparator.dto.UnmatchedTransactionDto;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import com.transact.comparator.service.matching.OpenRowIndex;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matching state of two files that keep growing. Each side keeps all its distinct transactions, the state
+ * and counterpart of every row, and an index of its open (unmatched) rows. An upload only looks up its new
+ * rows: the exact match in the other side, or else the first potential match among the open rows of the
+ * other side, so its cost depends on the new rows and not on the size of the session.
+ * <p>
+ * A new row whose exact match was potentially matched takes the exact match over, and the released row is
+ * matched again against the open rows. Potential matches are otherwise kept once made, so they follow the
+ * order the rows arrived in and may differ from a comparison of the complete files. Updates of one session
+ * are serialized.
+ */
+class ReconciliationSession {
+
+    private static final byte OPEN = 0;
+    private static final byte MATCHED = 1;
+    private static final byte POTENTIAL_MATCHED = 2;
+
+    @Getter
+    private final String id;
+    private final Instant createdAt;
+    private final Side firstFile;
+    private final Side secondFile;
+    @Getter
+    private volatile Instant lastAccessedAt;
+
+    ReconciliationSession(final String id, final Instant createdAt, final PotentialMatchCalculator calculator) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.firstFile = new Side(true, calculator);
+        this.secondFile = new Side(false, calculator);
+        this.lastAccessedAt = createdAt;
+    }
+
+    void touch() {
+        lastAccessedAt = Instant.now();
+    }
+
+    synchronized SessionUpdateDto append(final ComparisonFile file, final String fileName,
+                                         final TransactionTable transactions) {
+        touch();
+        final Side side = side(file);
+        final Side otherSide = side(file == ComparisonFile.FIRST_FILE ? ComparisonFile.SECOND_FILE : ComparisonFile.FIRST_FILE);
+        final Changes changes = new Changes();
+
+        int appendedRecords = 0;
+        for (int deltaRow = 0; deltaRow < transactions.size(); deltaRow++) {
+            if (!side.table.add(transactions, deltaRow)) {
+                continue;
+            }
+            appendedRecords++;
+            final int row = side.table.size() - 1;
+            side.ensureCapacity(row + 1);
+
+            final int otherRow = otherSide.table.indexOf(side.table, row);
+            if (otherRow < 0) {
+                matchOpen(side, row, otherSide, changes);
+                continue;
+            }
+
+            int releasedRow = -1;
+            if (otherSide.states[otherRow] == POTENTIAL_MATCHED) {
+                releasedRow = otherSide.counterparts[otherRow];
+                changes.releasedPotentialMatches.add(pair(side, releasedRow, otherSide, otherRow));
+                side.potentialMatched--;
+                otherSide.potentialMatched--;
+            } else {
+                otherSide.open.remove(otherRow);
+            }
+            link(side, row, otherSide, otherRow, MATCHED);
+            changes.matched.add(pair(side, row, otherSide, otherRow));
+
+            if (releasedRow >= 0) {
+                matchOpen(side, releasedRow, otherSide, changes);
+            }
+        }
+
+        return SessionUpdateDto.builder()
+                .sessionId(id)
+                .file(file)
+                .fileName(fileName)
+                .appendedRecords(appendedRecords)
+                .skippedRecords(transactions.size() - appendedRecords)
+                .matched(changes.matched)
+                .potentialMatched(changes.potentialMatched)
+                .releasedPotentialMatches(changes.releasedPotentialMatches)
+                .unmatched(changes.unmatched)
+                .session(toSessionDto())
+                .build();
+    }
+
+    synchronized ReconciliationSessionDto toSessionDto() {
+        return ReconciliationSessionDto.builder()
+                .sessionId(id)
+                .createdAt(createdAt)
+                .lastAccessedAt(lastAccessedAt)
+                .firstFileResult(firstFile.toFileSummary())
+                .secondFileResult(secondFile.toFileSummary())
+                .build();
+    }
+
+    private Side side(final ComparisonFile file) {
+        return file == ComparisonFile.FIRST_FILE ? firstFile : secondFile;
+    }
+
+    private static void matchOpen(final Side side, final int row, final Side otherSide, final Changes changes) {
+        final int otherRow = otherSide.open.claimFirstMatch(side.table, row);
+        if (otherRow >= 0) {
+            link(side, row, otherSide, otherRow, POTENTIAL_MATCHED);
+            changes.potentialMatched.add(pair(side, row, otherSide, otherRow));
+        } else {
+            side.states[row] = OPEN;
+            side.open.add(row);
+            changes.unmatched.add(new UnmatchedTransactionDto(side.file(), side.toTransactionDto(row, null)));
+        }
+    }
+
+    private static void link(final Side side, final int row, final Side otherSide, final int otherRow, final byte state) {
+        side.states[row] = state;
+        side.counterparts[row] = otherRow;
+        otherSide.states[otherRow] = state;
+        otherSide.counterparts[otherRow] = row;
+        if (state == MATCHED) {
+            side.matched++;
+            otherSide.matched++;
+        } else {
+            side.potentialMatched++;
+            otherSide.potentialMatched++;
+        }
+    }
+
+    private static SessionUpdateDto.TransactionPair pair(final Side side, final int row, final Side otherSide,
+                                                         final int otherRow) {
+        final boolean potential = side.states[row] == POTENTIAL_MATCHED;
+        final ComparisonResultDto.TransactionDto transaction = side.toTransactionDto(row,
+                potential ? otherSide.table.id(otherRow) : null);
+        final ComparisonResultDto.TransactionDto otherTransaction = otherSide.toTransactionDto(otherRow,
+                potential ? side.table.id(row) : null);
+        return side.firstFile
+                ? new SessionUpdateDto.TransactionPair(transaction, otherTransaction)
+                : new SessionUpdateDto.TransactionPair(otherTransaction, transaction);
+    }
+
+    private static final class Side {
+
+        private final boolean firstFile;
+        private final TransactionTable table = new TransactionTable();
+        private final OpenRowIndex open;
+        private byte[] states = new byte[16];
+        private int[] counterparts = new int[16];
+        private int matched;
+        private int potentialMatched;
+
+        private Side(final boolean firstFile, final PotentialMatchCalculator calculator) {
+            this.firstFile = firstFile;
+            this.open = new OpenRowIndex(table, firstFile, calculator);
+        }
+
+        private ComparisonFile file() {
+            return firstFile ? ComparisonFile.FIRST_FILE : ComparisonFile.SECOND_FILE;
+        }
+
+        private void ensureCapacity(final int rows) {
+            if (rows > states.length) {
+                final int capacity = Math.max(rows, states.length * 2);
+                states = Arrays.copyOf(states, capacity);
+                counterparts = Arrays.copyOf(counterparts, capacity);
+            }
+        }
+
+        private ComparisonResultDto.TransactionDto toTransactionDto(final int row, final String potentialMatchId) {
+            return ComparisonResultDto.TransactionDto.builder()
+                    .id(table.id(row))
+                    .amount(table.amount(row))
+                    .date(table.date(row))
+                    .reference(table.walletReference(row))
+                    .potentialMatchId(potentialMatchId)
+                    .build();
+        }
+
+        private ReconciliationSessionDto.FileSummary toFileSummary() {
+            return ReconciliationSessionDto.FileSummary.builder()
+                    .totalRecords(table.size())
+                    .matchedRecords(matched)
+                    .potentialMatchedRecords(potentialMatched)
+                    .unmatchedRecords(open.size())
+                    .build();
+        }
+
+    }
+
+    private static final class Changes {
+
+        private final List<SessionUpdateDto.TransactionPair> matched = new ArrayList<>();
+        private final List<SessionUpdateDto.TransactionPair> potentialMatched = new ArrayList<>();
+        private final List<SessionUpdateDto.TransactionPair> releasedPotentialMatches = new ArrayList<>();
+        private final List<UnmatchedTransactionDto> unmatched = new ArrayList<>();
+
+    }
+
+}
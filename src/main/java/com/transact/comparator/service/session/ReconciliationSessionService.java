@@ -0,0 +1,102 @@
+package com.transact.comparator.service.session;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ReconciliationSessionDto;
+import com.transact.comparator.dto.SessionUpdateDto;
+import com.transact.comparator.exception.ReconciliationSessionNotFoundException;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the reconciliation sessions in memory until they are deleted or left idle for
+ * {@code comparator.sessions.idle-ttl}.
+ */
+@Slf4j
+@Service
+public class ReconciliationSessionService {
+
+    private final CsvParsingService csvParsingService;
+    private final PotentialMatchCalculator calculator;
+    private final Duration idleTtl;
+    private final Map<String, ReconciliationSession> sessions = new ConcurrentHashMap<>();
+
+    public ReconciliationSessionService(final CsvParsingService csvParsingService,
+                                        final ComparatorProperties comparatorProperties) {
+        this.csvParsingService = csvParsingService;
+        this.calculator = PotentialMatchCalculator.compile(comparatorProperties.matching().rules());
+        this.idleTtl = comparatorProperties.sessions().idleTtl();
+    }
+
+    public ReconciliationSessionDto create() {
+        final ReconciliationSession session = new ReconciliationSession(UUID.randomUUID().toString(), Instant.now(),
+                calculator);
+        sessions.put(session.getId(), session);
+
+        log.info("Opened reconciliation session {}", session.getId());
+        return session.toSessionDto();
+    }
+
+    public ReconciliationSessionDto get(final String sessionId) {
+        final ReconciliationSession session = getSession(sessionId);
+        session.touch();
+        return session.toSessionDto();
+    }
+
+    /**
+     * Parses the upload and appends its transactions to one side of the session, only the transactions the
+     * side does not hold yet being matched.
+     */
+    public SessionUpdateDto append(final String sessionId, final ComparisonFile file, final MultipartFile upload) {
+        final ReconciliationSession session = getSession(sessionId);
+        // parsing runs outside of the session lock, only the matching of the new rows is serialized
+        final TransactionTable transactions = csvParsingService.parseTable(upload, new LongAdder());
+
+        final long start = System.nanoTime();
+        final SessionUpdateDto update = session.append(file, upload.getOriginalFilename(), transactions);
+        log.info("Appended {} of {} transactions of file {} to session {} in {} ms", update.appendedRecords(),
+                transactions.size(), upload.getOriginalFilename(), sessionId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return update;
+    }
+
+    public void delete(final String sessionId) {
+        if (sessions.remove(sessionId) == null) {
+            throw notFound(sessionId);
+        }
+        log.info("Closed reconciliation session {}", sessionId);
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleSessions() {
+        final Instant expiry = Instant.now().minus(idleTtl);
+        sessions.values().removeIf(session -> !session.getLastAccessedAt().isAfter(expiry));
+    }
+
+    private ReconciliationSession getSession(final String sessionId) {
+        final ReconciliationSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw notFound(sessionId);
+        }
+        return session;
+    }
+
+    private static ReconciliationSessionNotFoundException notFound(final String sessionId) {
+        return new ReconciliationSessionNotFoundException("Reconciliation session " + sessionId
+                + " does not exist or has expired");
+    }
+
+}
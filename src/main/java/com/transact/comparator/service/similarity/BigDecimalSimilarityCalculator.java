@@ -1,10 +1,33 @@
 package com.transact.comparator.service.similarity;
 
+import com.transact.comparator.domain.TransactionTable;
+
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 public class BigDecimalSimilarityCalculator implements SimilarityCalculator<BigDecimal> {
 
-    private static final double AMOUNT_TOLERANCE = 0.01;
+    public static final double AMOUNT_TOLERANCE = 0.01;
+    public static final long AMOUNT_TOLERANCE_MINOR_UNITS = BigDecimal.valueOf(AMOUNT_TOLERANCE)
+            .movePointRight(TransactionTable.AMOUNT_SCALE).longValueExact();
+
+    private static final BigDecimal MAX_TOLERANCE_MINOR_UNITS = BigDecimal.valueOf(Long.MAX_VALUE / 2);
+
+    private final BigDecimal tolerance;
+    private final long toleranceMinorUnits;
+
+    public BigDecimalSimilarityCalculator() {
+        this(BigDecimal.valueOf(AMOUNT_TOLERANCE));
+    }
+
+    public BigDecimalSimilarityCalculator(BigDecimal tolerance) {
+        this.tolerance = tolerance;
+        // minor unit amounts are whole numbers, so a fractional tolerance is rounded down
+        this.toleranceMinorUnits = tolerance.movePointRight(TransactionTable.AMOUNT_SCALE)
+                .setScale(0, RoundingMode.FLOOR)
+                .min(MAX_TOLERANCE_MINOR_UNITS)
+                .longValueExact();
+    }
 
     @Override
     public double calculateSimilarity(BigDecimal firstValue, BigDecimal secondValue) {
@@ -21,11 +44,15 @@ public class BigDecimalSimilarityCalculator implements SimilarityCalculator<BigD
         }
 
         BigDecimal difference = firstValue.subtract(secondValue).abs();
-        if (difference.compareTo(BigDecimal.valueOf(AMOUNT_TOLERANCE)) <= 0) {
+        if (difference.compareTo(tolerance) <= 0) {
             return 1.0;
         }
 
         return 0.0;
     }
 
+    public double calculateSimilarity(long firstMinorUnits, long secondMinorUnits) {
+        return Math.abs(firstMinorUnits - secondMinorUnits) <= toleranceMinorUnits ? 1.0 : 0.0;
+    }
+
 }
@@ -0,0 +1,92 @@
+package com.transact.comparator.service.similarity;
+
+import java.util.Objects;
+
+/**
+ * Similarity of identifiers that may be truncated or reformatted: two values are similar when their
+ * Levenshtein distance (insertions, deletions and substitutions) is at most the tolerance.
+ */
+public class EditDistanceSimilarityCalculator implements SimilarityCalculator<String> {
+
+    private final int maxEdits;
+
+    public EditDistanceSimilarityCalculator(int maxEdits) {
+        this.maxEdits = maxEdits;
+    }
+
+    @Override
+    public double calculateSimilarity(String firstValue, String secondValue) {
+        if (firstValue == null || secondValue == null || maxEdits == 0) {
+            return Objects.equals(firstValue, secondValue) ? 1.0 : 0.0;
+        }
+
+        return distance(firstValue, secondValue, maxEdits) <= maxEdits ? 1.0 : 0.0;
+    }
+
+    /**
+     * Returns the edit distance of two values, or {@code maxEdits + 1} as soon as it is known to be above
+     * {@code maxEdits}. Only the diagonal band of width {@code 2 * maxEdits + 1} of the distance matrix is
+     * computed, and the computation stops at the first row whose cells are all above the bound.
+     */
+    public static int distance(String firstValue, String secondValue, int maxEdits) {
+        String shorter = firstValue.length() <= secondValue.length() ? firstValue : secondValue;
+        String longer = shorter == firstValue ? secondValue : firstValue;
+        int above = maxEdits + 1;
+        if (longer.length() - shorter.length() > maxEdits) {
+            return above;
+        }
+
+        // the common prefix and suffix never add edits
+        int start = 0;
+        while (start < shorter.length() && shorter.charAt(start) == longer.charAt(start)) {
+            start++;
+        }
+        int shorterEnd = shorter.length();
+        int longerEnd = longer.length();
+        while (shorterEnd > start && shorter.charAt(shorterEnd - 1) == longer.charAt(longerEnd - 1)) {
+            shorterEnd--;
+            longerEnd--;
+        }
+        int columns = shorterEnd - start;
+        int rows = longerEnd - start;
+        if (columns == 0) {
+            return Math.min(rows, above);
+        }
+
+        // previous[column]: distance between the first column chars of shorter and the first row - 1 chars of longer
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int column = 0; column <= columns; column++) {
+            previous[column] = Math.min(column, above);
+        }
+
+        for (int row = 1; row <= rows; row++) {
+            int first = Math.max(1, row - maxEdits);
+            int last = Math.min(columns, row + maxEdits);
+            current[first - 1] = first == 1 ? Math.min(row, above) : above;
+            int rowMinimum = current[first - 1];
+            char longerChar = longer.charAt(start + row - 1);
+            for (int column = first; column <= last; column++) {
+                int substitution = previous[column - 1] + (shorter.charAt(start + column - 1) == longerChar ? 0 : 1);
+                int deletion = previous[column] + 1;
+                int insertion = current[column - 1] + 1;
+                int cell = Math.min(Math.min(substitution, deletion), Math.min(insertion, above));
+                current[column] = cell;
+                rowMinimum = Math.min(rowMinimum, cell);
+            }
+            if (last < columns) {
+                // outside of the band of the next row
+                current[last + 1] = above;
+            }
+            if (rowMinimum >= above) {
+                return above;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[columns];
+    }
+
+}
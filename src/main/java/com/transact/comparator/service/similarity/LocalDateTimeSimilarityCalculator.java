@@ -5,7 +5,17 @@ import java.time.LocalDateTime;
 
 public class LocalDateTimeSimilarityCalculator implements SimilarityCalculator<LocalDateTime> {
 
-    private static final long TIME_TOLERANCE_MINUTES = 2;
+    public static final long TIME_TOLERANCE_MINUTES = 2;
+
+    private final long toleranceMinutes;
+
+    public LocalDateTimeSimilarityCalculator() {
+        this(TIME_TOLERANCE_MINUTES);
+    }
+
+    public LocalDateTimeSimilarityCalculator(long toleranceMinutes) {
+        this.toleranceMinutes = toleranceMinutes;
+    }
 
     @Override
     public double calculateSimilarity(LocalDateTime firstValue, LocalDateTime secondValue) {
@@ -19,10 +29,16 @@ public class LocalDateTimeSimilarityCalculator implements SimilarityCalculator<L
         Duration difference = Duration.between(firstValue, secondValue).abs();
         long differenceInMinutes = difference.toMinutes();
 
-        if (differenceInMinutes <= TIME_TOLERANCE_MINUTES) {
+        if (differenceInMinutes <= toleranceMinutes) {
             return 1.0;
         }
 
         return 0.0;
     }
+
+    public double calculateSimilarity(long firstEpochSecond, long secondEpochSecond) {
+        long differenceInMinutes = Math.abs(firstEpochSecond - secondEpochSecond) / 60;
+
+        return differenceInMinutes <= toleranceMinutes ? 1.0 : 0.0;
+    }
 }
@@ -0,0 +1,109 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonResultDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "comparator.requests.async=true")
+public class AsyncComparisonControllerITest {
+
+    private static final String FIRST_FILE_CONTENT = """
+            ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+            Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+            Card Campaign,2014-01-11 22:45:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2
+            """;
+    private static final String SECOND_FILE_CONTENT = """
+            ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+            Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+            Card Campaign,2014-01-13 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN005,1,P_WALLET_REF2
+            Card Campaign,2014-01-11 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN004,1,P_WALLET_REF2
+            """;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void compareTransactionFiles_ValidData_ExpectedResponse() {
+        // Given
+        MultipartBodyBuilder builder = files(FIRST_FILE_CONTENT, SECOND_FILE_CONTENT);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isOk()
+                .expectBody(ComparisonResultDto.class)
+                .value(result -> {
+                    assertThat(result.firstFileResult().matchedRecords()).isEqualTo(1);
+                    assertThat(result.firstFileResult().unmatchedTransactions())
+                            .extracting(ComparisonResultDto.TransactionDto::potentialMatchId)
+                            .containsExactly("TXN004");
+                    assertThat(result.secondFileResult().unmatchedRecords()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    public void compareTransactionFiles_InvalidDatePattern_InvalidDataStatus() {
+        // Given
+        final String invalidContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,11-01-2015T22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN123,1,P_WALLET_REF
+                """;
+        MultipartBodyBuilder builder = files(invalidContent, SECOND_FILE_CONTENT);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    public void streamTransactionFilesComparison_ValidData_SummaryThenUnmatchedTransactionLines() {
+        // Given
+        MultipartBodyBuilder builder = files(FIRST_FILE_CONTENT, SECOND_FILE_CONTENT);
+
+        // When
+        final String body = webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        // Then
+        assertThat(body.lines()).hasSize(4);
+    }
+
+    private static MultipartBodyBuilder files(final String firstFileContent, final String secondFileContent) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(firstFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(secondFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        return builder;
+    }
+
+}
@@ -1,6 +1,10 @@
 package com.transact.comparator.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.LocalComparisonRequestDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,6 +15,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -21,6 +26,9 @@ public class ComparisonControllerITest {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     public void compareTransactionFiles_OneFileIsMissing_InvalidDataStatus() {
         // Given
@@ -193,5 +201,230 @@ public class ComparisonControllerITest {
                 .expectStatus().is4xxClientError();
     }
 
+    @Test
+    public void compareTransactionFiles_WalletReferenceRules_PotentialMatchBySameWalletReference() {
+        // Given
+        final String firstFileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                """;
+        final String secondFileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-12 08:00:00,-500,*MOLEPS ATM25,DEDUCT,TXN999,1,P_WALLET_REF
+                """;
+        final String rules = """
+                {"threshold": 0.6, "weights": {"walletReference": 0.6, "type": 0.4}}
+                """;
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(firstFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(secondFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("rules", rules, MediaType.APPLICATION_JSON);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isOk()
+                .expectBody(ComparisonResultDto.class)
+                .value(response -> {
+                    assertThat(response.firstFileResult().unmatchedTransactions()).singleElement()
+                            .satisfies(transaction -> assertThat(transaction.potentialMatchId()).isEqualTo("TXN999"));
+                    assertThat(response.secondFileResult().unmatchedTransactions()).singleElement()
+                            .satisfies(transaction -> assertThat(transaction.potentialMatchId()).isEqualTo("TXN001"));
+                });
+    }
+
+    @Test
+    public void compareTransactionFiles_ThresholdAboveTotalWeight_InvalidDataStatus() {
+        // Given
+        final String fileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                """;
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(fileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(fileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("rules", "{\"threshold\": 2, \"weights\": {\"id\": 1}}", MediaType.APPLICATION_JSON);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isBadRequest()
+                .expectBody(String.class)
+                .value(body -> assertThat(body).contains("Match threshold 2.0 is above the total weight 1.0 of the match fields"));
+    }
+
+    @Test
+    public void streamTransactionFilesComparison_ValidData_SummaryThenUnmatchedTransactionLines() throws Exception {
+        // Given
+        final String firstFileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                Card Campaign,2014-01-11 22:45:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2
+                """;
+        final String secondFileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                Card Campaign,2014-01-13 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN005,1,P_WALLET_REF2
+                Card Campaign,2014-01-11 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN004,1,P_WALLET_REF2
+                """;
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(firstFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(secondFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        final String body = webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        // Then
+        assertThat(body).endsWith("\n");
+        final List<JsonNode> lines = body.lines().map(this::readTree).toList();
+        assertThat(lines).hasSize(4);
+
+        assertThat(lines.get(0).at("/firstFileResult/totalRecords").asInt()).isEqualTo(2);
+        assertThat(lines.get(0).at("/firstFileResult/matchedRecords").asInt()).isEqualTo(1);
+        assertThat(lines.get(0).at("/firstFileResult/unmatchedRecords").asInt()).isEqualTo(1);
+        assertThat(lines.get(0).at("/secondFileResult/unmatchedRecords").asInt()).isEqualTo(2);
+
+        assertThat(lines.subList(1, 4))
+                .extracting(line -> line.get("file").asText() + ":" + line.at("/transaction/id").asText()
+                        + ":" + line.at("/transaction/potentialMatchId").asText())
+                .containsExactly("firstFile:TXN002:TXN004", "secondFile:TXN004:TXN002", "secondFile:TXN005:null");
+    }
+
+    @Test
+    public void streamTransactionFilesComparison_InvalidDatePattern_InvalidDataStatus() {
+        // Given
+        final String fileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,11-01-2015T22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN123,1,P_WALLET_REF
+                """;
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(fileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(fileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    public void compareLocalTransactionFiles_NoBaseDirectoryConfigured_ForbiddenStatus() {
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare/local")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LocalComparisonRequestDto("/etc/passwd", "transactions2.csv"))
+                .exchange()
+                // Then
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(403);
+    }
+
+    @Test
+    public void reconcileTransactionFiles_ThreeFiles_MatchesReportedPerFile() {
+        // Given
+        final String header = "ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,"
+                + "TransactionDescription,TransactionID,TransactionType,WalletReference\n";
+        final String everywhere = "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_1\n";
+        final String ledgerAndBank = "Card Campaign,2014-01-12 10:00:00,-500,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_2\n";
+        final String processorOnly = "Card Campaign,2015-06-01 10:00:00,-7,*MOLEPS ATM25,DEDUCT,ZZZ999,1,P_WALLET_3\n";
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("files", new ByteArrayResource((header + everywhere + ledgerAndBank).getBytes(StandardCharsets.UTF_8)))
+                .filename("ledger.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("files", new ByteArrayResource((header + ledgerAndBank + everywhere).getBytes(StandardCharsets.UTF_8)))
+                .filename("bank.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("files", new ByteArrayResource((header + everywhere + processorOnly).getBytes(StandardCharsets.UTF_8)))
+                .filename("processor.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/reconcile")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.fileResults.length()").isEqualTo(3)
+                .jsonPath("$.fileResults[0].fileName").isEqualTo("ledger.csv")
+                .jsonPath("$.fileResults[0].reconciledRecords").isEqualTo(1)
+                .jsonPath("$.fileResults[0].unreconciledTransactions[0].id").isEqualTo("TXN002")
+                .jsonPath("$.fileResults[0].unreconciledTransactions[0].matches.length()").isEqualTo(1)
+                .jsonPath("$.fileResults[0].unreconciledTransactions[0].matches[0].fileName").isEqualTo("bank.csv")
+                .jsonPath("$.fileResults[0].unreconciledTransactions[0].matches[0].type").isEqualTo("exact")
+                .jsonPath("$.fileResults[2].fileName").isEqualTo("processor.csv")
+                .jsonPath("$.fileResults[2].unreconciledTransactions[0].id").isEqualTo("ZZZ999")
+                .jsonPath("$.fileResults[2].unreconciledTransactions[0].matches").isEmpty();
+    }
+
+    @Test
+    public void reconcileTransactionFiles_SingleFile_InvalidDataStatus() {
+        // Given
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("files", new ByteArrayResource(new byte[0]))
+                .filename("ledger.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/reconcile")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                // Then
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("At least two files are required to reconcile");
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
 
 }
@@ -0,0 +1,92 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonJobDto;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.service.job.JobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ComparisonJobControllerITest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void submitComparisonJob_ValidData_ResultAvailableOnceCompleted() throws InterruptedException {
+        // Given
+        final String firstFileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                Card Campaign,2014-01-11 22:45:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2
+                """;
+        final String secondFileContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                Card Campaign,2014-01-11 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN004,1,P_WALLET_REF2
+                """;
+
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(firstFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(secondFileContent.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        ComparisonJobDto submitted = webTestClient.post().uri("/api/v1/transactions/compare/jobs")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().exists("Location")
+                .expectBody(ComparisonJobDto.class)
+                .returnResult().getResponseBody();
+
+        ComparisonJobDto status = submitted;
+        for (int attempt = 0; attempt < 100 && status.status() != JobStatus.COMPLETED; attempt++) {
+            Thread.sleep(50);
+            status = webTestClient.get().uri("/api/v1/transactions/compare/jobs/{jobId}", submitted.jobId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(ComparisonJobDto.class)
+                    .returnResult().getResponseBody();
+        }
+
+        // Then
+        assertThat(status.status()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(status.parsedRows()).isEqualTo(4);
+        assertThat(status.scoredCandidates()).isEqualTo(1);
+        webTestClient.get().uri("/api/v1/transactions/compare/jobs/{jobId}/result", submitted.jobId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ComparisonResultDto.class)
+                .value(result -> {
+                    assertThat(result.firstFileResult().matchedRecords()).isEqualTo(1);
+                    assertThat(result.firstFileResult().unmatchedTransactions())
+                            .extracting(ComparisonResultDto.TransactionDto::potentialMatchId)
+                            .containsExactly("TXN004");
+                });
+    }
+
+    @Test
+    public void getComparisonJob_UnknownJob_NotFound() {
+        // When
+        webTestClient.get().uri("/api/v1/transactions/compare/jobs/{jobId}", "unknown")
+                .exchange()
+                // Then
+                .expectStatus().isNotFound();
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.LocalComparisonRequestDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LocalComparisonControllerITest {
+
+    @TempDir
+    private static Path baseDirectory;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void localFilesProperties(DynamicPropertyRegistry registry) {
+        registry.add("comparator.local-files.base-directories", () -> baseDirectory.toString());
+    }
+
+    @BeforeAll
+    static void writeFiles() throws IOException {
+        Files.writeString(baseDirectory.resolve("transactions1.csv"), """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                Card Campaign,2014-01-11 22:45:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2
+                """);
+        Files.writeString(baseDirectory.resolve("transactions2.csv"), """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+                Card Campaign,2014-01-11 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN004,1,P_WALLET_REF2
+                """);
+    }
+
+    @Test
+    public void compareLocalTransactionFiles_FilesInBaseDirectory_ExpectedResponse() {
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare/local")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LocalComparisonRequestDto("transactions1.csv", baseDirectory.resolve("transactions2.csv").toString()))
+                .exchange()
+                // Then
+                .expectStatus().isOk()
+                .expectBody(ComparisonResultDto.class)
+                .value(result -> {
+                    assertThat(result.firstFileResult().fileName()).isEqualTo("transactions1.csv");
+                    assertThat(result.firstFileResult().totalRecords()).isEqualTo(2);
+                    assertThat(result.firstFileResult().matchedRecords()).isEqualTo(1);
+                    assertThat(result.firstFileResult().unmatchedTransactions())
+                            .extracting(ComparisonResultDto.TransactionDto::potentialMatchId)
+                            .containsExactly("TXN004");
+                    assertThat(result.secondFileResult().fileName()).isEqualTo("transactions2.csv");
+                    assertThat(result.secondFileResult().unmatchedRecords()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    public void streamLocalTransactionFilesComparison_FilesInBaseDirectory_SummaryThenUnmatchedTransactionLines() {
+        // When
+        final String body = webTestClient.post().uri("/api/v1/transactions/compare/local")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new LocalComparisonRequestDto("transactions1.csv", "transactions2.csv"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        // Then
+        assertThat(body.lines()).hasSize(3);
+        assertThat(body.lines().skip(1))
+                .allMatch(line -> line.contains("\"potentialMatchId\""));
+    }
+
+    @Test
+    public void compareLocalTransactionFiles_FileOutsideBaseDirectory_ForbiddenStatus() {
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare/local")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LocalComparisonRequestDto("../transactions1.csv", "transactions2.csv"))
+                .exchange()
+                // Then
+                .expectStatus().isForbidden();
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.transact.comparator.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PrometheusEndpointITest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void prometheus_AfterComparison_ComparisonMetricsExposed() {
+        // Given
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(new byte[0]))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(new byte[0]))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        webTestClient.post().uri("/api/v1/transactions/compare")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                .expectStatus().isOk();
+
+        // When
+        webTestClient.get().uri("/actuator/prometheus")
+                .exchange()
+                // Then
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body)
+                        .contains("comparator_parse_seconds_count{file=\"first\"")
+                        .contains("comparator_exact_matching_seconds_count")
+                        .contains("comparator_candidates_scored_total"));
+    }
+
+}
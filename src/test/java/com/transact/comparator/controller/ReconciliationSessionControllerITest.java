@@ -0,0 +1,95 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ReconciliationSessionDto;
+import com.transact.comparator.dto.SessionUpdateDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReconciliationSessionControllerITest {
+
+    private static final String HEADER = "ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,"
+            + "TransactionDescription,TransactionID,TransactionType,WalletReference\n";
+    private static final String FIRST_ROW = "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF\n";
+    private static final String SECOND_ROW = "Card Campaign,2014-01-11 22:45:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2\n";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void appendFiles_GrowingFiles_ChangesOfEachUploadReturned() {
+        // Given
+        ReconciliationSessionDto session = webTestClient.post().uri("/api/v1/transactions/sessions")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueMatches("Location", ".*/api/v1/transactions/sessions/.+")
+                .expectBody(ReconciliationSessionDto.class)
+                .returnResult().getResponseBody();
+        assertThat(session).isNotNull();
+        String sessionUri = "/api/v1/transactions/sessions/" + session.sessionId();
+
+        append(sessionUri + "/firstFile", HEADER + FIRST_ROW + SECOND_ROW)
+                .value(update -> assertThat(update.unmatched()).hasSize(2));
+
+        // When
+        append(sessionUri + "/secondFile", HEADER + FIRST_ROW)
+                // Then
+                .value(update -> {
+                    assertThat(update.file()).isEqualTo(ComparisonFile.SECOND_FILE);
+                    assertThat(update.appendedRecords()).isEqualTo(1);
+                    assertThat(update.matched()).singleElement()
+                            .satisfies(pair -> assertThat(pair.firstFileTransaction().id()).isEqualTo("TXN001"));
+                });
+
+        // the whole grown file is uploaded again, only its new row is matched
+        append(sessionUri + "/secondFile", HEADER + FIRST_ROW + SECOND_ROW)
+                .value(update -> {
+                    assertThat(update.skippedRecords()).isEqualTo(1);
+                    assertThat(update.matched()).singleElement()
+                            .satisfies(pair -> assertThat(pair.secondFileTransaction().id()).isEqualTo("TXN002"));
+                    assertThat(update.session().secondFileResult().matchedRecords()).isEqualTo(2);
+                });
+
+        webTestClient.get().uri(sessionUri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstFileResult.matchedRecords").isEqualTo(2)
+                .jsonPath("$.firstFileResult.unmatchedRecords").isEqualTo(0);
+
+        webTestClient.delete().uri(sessionUri)
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get().uri(sessionUri)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    private WebTestClient.BodySpec<SessionUpdateDto, ?> append(String uri, String content) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("file", new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        return webTestClient.post().uri(uri)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(builder.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(SessionUpdateDto.class);
+    }
+
+}
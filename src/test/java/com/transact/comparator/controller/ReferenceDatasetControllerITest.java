@@ -0,0 +1,149 @@
+package com.transact.comparator.controller;
+
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ReferenceDatasetDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReferenceDatasetControllerITest {
+
+    private static final String REFERENCE_CONTENT = """
+            ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+            Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+            Card Campaign,2014-01-11 22:45:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2
+            """;
+    private static final String DAILY_CONTENT = """
+            ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+            Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+            Card Campaign,2014-01-11 22:46:44,-10000,*MOLEPS ATM25,DEDUCT,TXN004,1,P_WALLET_REF2
+            """;
+
+    @TempDir
+    private static Path referenceDirectory;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void referencesProperties(DynamicPropertyRegistry registry) {
+        registry.add("comparator.references.directory", () -> referenceDirectory.toString());
+    }
+
+    @Test
+    public void compareWithReferenceDataset_RegisteredDataset_ExpectedResponse() {
+        // Given
+        MultipartBodyBuilder registration = new MultipartBodyBuilder();
+        registration.part("name", "bank");
+        registration.part("file", new ByteArrayResource(REFERENCE_CONTENT.getBytes(StandardCharsets.UTF_8)))
+                .filename("reference.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        webTestClient.post().uri("/api/v1/references")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(registration.build()))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueMatches("Location", ".*/api/v1/references/bank")
+                .expectBody(ReferenceDatasetDto.class)
+                .value(dataset -> assertThat(dataset.totalRecords()).isEqualTo(2));
+
+        MultipartBodyBuilder comparison = new MultipartBodyBuilder();
+        comparison.part("secondFile", new ByteArrayResource(DAILY_CONTENT.getBytes(StandardCharsets.UTF_8)))
+                .filename("daily.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        webTestClient.post().uri("/api/v1/transactions/compare/reference/bank")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(comparison.build()))
+                .exchange()
+                // Then
+                .expectStatus().isOk()
+                .expectBody(ComparisonResultDto.class)
+                .value(result -> {
+                    assertThat(result.firstFileResult().fileName()).isEqualTo("reference.csv");
+                    assertThat(result.firstFileResult().matchedRecords()).isEqualTo(1);
+                    assertThat(result.firstFileResult().unmatchedTransactions())
+                            .extracting(ComparisonResultDto.TransactionDto::potentialMatchId)
+                            .containsExactly("TXN004");
+                    assertThat(result.secondFileResult().fileName()).isEqualTo("daily.csv");
+                });
+
+        webTestClient.get().uri("/api/v1/references")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ReferenceDatasetDto.class)
+                .value(datasets -> assertThat(datasets).extracting(ReferenceDatasetDto::name).contains("bank"));
+
+        webTestClient.get().uri("/api/v1/references/bank")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ReferenceDatasetDto.class)
+                .value(dataset -> assertThat(dataset.fileName()).isEqualTo("reference.csv"));
+
+        webTestClient.delete().uri("/api/v1/references/bank")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    public void streamComparisonWithReferenceDataset_RegisteredDataset_SummaryThenUnmatchedTransactionLines() {
+        // Given
+        MultipartBodyBuilder registration = new MultipartBodyBuilder();
+        registration.part("name", "stream-bank");
+        registration.part("file", new ByteArrayResource(REFERENCE_CONTENT.getBytes(StandardCharsets.UTF_8)))
+                .filename("reference.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        webTestClient.post().uri("/api/v1/references")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(registration.build()))
+                .exchange()
+                .expectStatus().isCreated();
+
+        MultipartBodyBuilder comparison = new MultipartBodyBuilder();
+        comparison.part("secondFile", new ByteArrayResource(DAILY_CONTENT.getBytes(StandardCharsets.UTF_8)))
+                .filename("daily.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        final String body = webTestClient.post().uri("/api/v1/transactions/compare/reference/stream-bank")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromMultipartData(comparison.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        // Then
+        assertThat(body.lines()).hasSize(3);
+    }
+
+    @Test
+    public void deleteReferenceDataset_UnknownDataset_NotFoundStatus() {
+        // When
+        webTestClient.delete().uri("/api/v1/references/unknown")
+                .exchange()
+                // Then
+                .expectStatus().isNotFound();
+
+        webTestClient.get().uri("/api/v1/references/unknown")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.transact.comparator.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"comparator.requests.workers=1", "comparator.requests.queue-capacity=1"})
+public class StreamedComparisonControllerITest {
+
+    private static final int CONCURRENT_REQUESTS = 8;
+    private static final int ROWS = 2_000;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    public void streamTransactionFilesComparison_ConcurrentRequestsWithoutAsync_ShouldNotBeRejected() throws Exception {
+        // Given
+        final WebTestClient client = webTestClient.mutate()
+                .responseTimeout(Duration.ofSeconds(60))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+        final MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        builder.part("firstFile", new ByteArrayResource(fileContent(0).getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions1.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+        builder.part("secondFile", new ByteArrayResource(fileContent(30).getBytes(StandardCharsets.UTF_8)))
+                .filename("transactions2.csv")
+                .contentType(MediaType.TEXT_PLAIN);
+
+        // When
+        final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        final List<Future<HttpStatusCode>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                statuses.add(executor.submit(() -> client.post().uri("/api/v1/transactions/compare")
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .body(BodyInserters.fromMultipartData(builder.build()))
+                        .exchange()
+                        .expectBody(String.class)
+                        .returnResult().getStatus()));
+            }
+
+            // Then
+            for (Future<HttpStatusCode> status : statuses) {
+                assertThat(status.get().value()).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String fileContent(final int secondsOffset) {
+        final StringBuilder content = new StringBuilder("ProfileName,TransactionDate,TransactionAmount,"
+                + "TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference\n");
+        for (int i = 0; i < ROWS; i++) {
+            content.append("Card Campaign,2014-01-11 ")
+                    .append(String.format("%02d:%02d:%02d", i / 3600 % 24, i / 60 % 60, (i + secondsOffset) % 60))
+                    .append(",-").append(1000 + i).append(",*MOLEPS ATM25,DEDUCT,TXN").append(i)
+                    .append(secondsOffset).append(",1,P_WALLET_REF").append(i % 100).append('\n');
+        }
+        return content.toString();
+    }
+}
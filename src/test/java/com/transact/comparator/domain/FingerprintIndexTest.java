@@ -0,0 +1,47 @@
+package com.transact.comparator.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FingerprintIndexTest {
+
+    @Test
+    public void find_CollidingFingerprints_ShouldReturnEveryRow() {
+        // Given
+        FingerprintIndex index = new FingerprintIndex(4);
+        index.put(42L, 0);
+        index.put(7L, 1);
+        index.put(42L, 2);
+
+        // When
+        List<Integer> rows = new ArrayList<>();
+        for (int slot = index.find(42L); slot >= 0; slot = index.findNext(42L, slot)) {
+            rows.add(index.row(slot));
+        }
+
+        // Then
+        assertThat(rows).containsExactly(0, 2);
+        assertThat(index.find(8L)).isEqualTo(-1);
+    }
+
+    @Test
+    public void put_BeyondExpectedSize_ShouldResizeAndKeepEntries() {
+        // Given
+        FingerprintIndex index = new FingerprintIndex(4);
+
+        // When
+        for (int row = 0; row < 1000; row++) {
+            index.put(row * 0x9E3779B97F4A7C15L, row);
+        }
+
+        // Then
+        for (int row = 0; row < 1000; row++) {
+            assertThat(index.row(index.find(row * 0x9E3779B97F4A7C15L))).isEqualTo(row);
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.transact.comparator.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionTableTest {
+
+    @Test
+    public void add_DistinctTransactions_ShouldKeepAllRows() {
+        // Given
+        TransactionTable table = new TransactionTable();
+
+        // When
+        boolean firstAdded = table.add(createTransaction("TXN001", new BigDecimal("10.50")));
+        boolean secondAdded = table.add(createTransaction("TXN002", new BigDecimal("10.50")));
+
+        // Then
+        assertThat(firstAdded).isTrue();
+        assertThat(secondAdded).isTrue();
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void add_EqualTransaction_ShouldBeDeduplicated() {
+        // Given
+        TransactionTable table = new TransactionTable();
+        table.add(createTransaction("TXN001", new BigDecimal("10.50")));
+
+        // When
+        boolean added = table.add(createTransaction("TXN001", new BigDecimal("10.50")));
+
+        // Then
+        assertThat(added).isFalse();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void add_SameAmountWithDifferentScale_ShouldKeepBothLikeTransactionEquals() {
+        // Given
+        TransactionTable table = new TransactionTable();
+        Transaction first = createTransaction("TXN001", new BigDecimal("10.5"));
+        Transaction second = createTransaction("TXN001", new BigDecimal("10.50"));
+
+        // When
+        table.add(first);
+        table.add(second);
+
+        // Then
+        assertThat(first).isNotEqualTo(second);
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void toTransaction_IrregularValues_ShouldRestoreParsedValues() {
+        // Given
+        List<Transaction> transactions = List.of(
+                createTransaction("TXN001", new BigDecimal("-20000")),
+                createTransaction("TXN002", new BigDecimal("0.005")),
+                createTransaction("TXN003", new BigDecimal("1E+3")),
+                createTransaction("TXN004", null),
+                Transaction.builder().id("TXN005").date(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 500)).build());
+
+        // When
+        TransactionTable table = TransactionTable.of(transactions);
+
+        // Then
+        assertThat(table.size()).isEqualTo(5);
+        for (int row = 0; row < table.size(); row++) {
+            Transaction restored = table.toTransaction(row);
+            assertThat(restored).isEqualTo(transactions.get(row));
+            assertThat(restored.getAmount()).isEqualTo(transactions.get(row).getAmount());
+            assertThat(restored.getProfileName()).isEqualTo(transactions.get(row).getProfileName());
+            assertThat(restored.getNarrative()).isEqualTo(transactions.get(row).getNarrative());
+            assertThat(restored.getDescription()).isEqualTo(transactions.get(row).getDescription());
+        }
+    }
+
+    @Test
+    public void readFrom_WrittenTable_ShouldRestoreRowsAndIndex() throws IOException {
+        // Given
+        List<Transaction> transactions = List.of(
+                createTransaction("TXN001", new BigDecimal("-20000")),
+                createTransaction("TXN002", new BigDecimal("0.005")),
+                createTransaction(null, null),
+                Transaction.builder().id("TXN005").date(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 500))
+                        .profileName("Card Campaign").narrative("narrative").walletReference("reference").build());
+        TransactionTable table = TransactionTable.of(transactions);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        table.writeTo(new DataOutputStream(bytes));
+
+        // When
+        TransactionTable restored = TransactionTable.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // Then
+        assertThat(restored.size()).isEqualTo(4);
+        for (int row = 0; row < table.size(); row++) {
+            assertThat(restored.toTransaction(row)).isEqualTo(table.toTransaction(row));
+            assertThat(restored.toTransaction(row).getAmount()).isEqualTo(table.toTransaction(row).getAmount());
+            assertThat(restored.toTransaction(row).getProfileName()).isEqualTo(table.toTransaction(row).getProfileName());
+            assertThat(restored.fingerprint(row)).isEqualTo(table.fingerprint(row));
+            assertThat(restored.indexOf(table, row)).isEqualTo(row);
+        }
+        assertThat(restored.add(transactions.get(0))).isFalse();
+    }
+
+    @Test
+    public void indexOf_RowOfAnotherTable_ShouldFindEqualTransaction() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", BigDecimal.TEN),
+                createTransaction("TXN002", BigDecimal.ONE)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN003", BigDecimal.ONE),
+                createTransaction("TXN002", BigDecimal.ONE)));
+
+        // When
+        int matchOfFirstRow = second.indexOf(first, 0);
+        int matchOfSecondRow = second.indexOf(first, 1);
+
+        // Then
+        assertThat(matchOfFirstRow).isEqualTo(-1);
+        assertThat(matchOfSecondRow).isEqualTo(1);
+    }
+
+    @Test
+    public void sameText_RowsOfTwoTables_ShouldCompareValuesAcrossDictionaries() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", BigDecimal.TEN),
+                Transaction.builder().id("TXN002").walletReference("OTHER_REF").build()));
+        TransactionTable second = TransactionTable.of(List.of(
+                Transaction.builder().id("TXN003").walletReference("OTHER_REF").build(),
+                createTransaction("TXN004", BigDecimal.ONE)));
+
+        // When
+        boolean sameReference = first.sameWalletReference(0, second, 1);
+        boolean otherReference = first.sameWalletReference(0, second, 0);
+        boolean bothWithoutNarrative = first.sameNarrative(1, second, 0);
+        boolean oneWithoutNarrative = first.sameNarrative(0, second, 0);
+
+        // Then
+        assertThat(sameReference).isTrue();
+        assertThat(otherReference).isFalse();
+        assertThat(bothWithoutNarrative).isTrue();
+        assertThat(oneWithoutNarrative).isFalse();
+        assertThat(first.sameWalletReference(1, second, 0)).isTrue();
+    }
+
+    @Test
+    public void addAll_OverlappingTables_ShouldAppendMissingRowsWithTheirValues() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", BigDecimal.TEN),
+                createTransaction("TXN002", BigDecimal.ONE)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", BigDecimal.ONE),
+                createTransaction("TXN003", new BigDecimal("0.005")),
+                Transaction.builder().id("TXN004").date(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 500)).build()));
+
+        // When
+        first.addAll(second);
+
+        // Then
+        assertThat(first.size()).isEqualTo(4);
+        assertThat(first.toTransaction(2)).isEqualTo(second.toTransaction(1));
+        assertThat(first.amount(2)).isEqualTo(new BigDecimal("0.005"));
+        assertThat(first.toTransaction(3)).isEqualTo(second.toTransaction(2));
+        assertThat(first.narrative(2)).isEqualTo("*MOLEPS ATM25");
+        assertThat(first.indexOf(second, 2)).isEqualTo(3);
+    }
+
+    @Test
+    public void add_ManyTransactions_ShouldGrowAndStayIndexed() {
+        // Given
+        TransactionTable table = new TransactionTable();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            table.add(createTransaction("TXN" + i, BigDecimal.valueOf(i, 2)));
+        }
+
+        // Then
+        assertThat(table.size()).isEqualTo(1000);
+        assertThat(table.toTransactions()).hasSize(1000);
+        for (int row = 0; row < table.size(); row++) {
+            assertThat(table.indexOf(table, row)).isEqualTo(row);
+        }
+    }
+
+    private Transaction createTransaction(String id, BigDecimal amount) {
+        return Transaction.builder()
+                .id(id)
+                .profileName("Card Campaign")
+                .date(LocalDateTime.of(2024, 1, 15, 10, 30, 0))
+                .amount(amount)
+                .narrative("*MOLEPS ATM25")
+                .description("DEDUCT")
+                .type(1)
+                .walletReference("P_WALLET_REF")
+                .build();
+    }
+
+}
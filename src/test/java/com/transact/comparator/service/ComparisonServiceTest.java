@@ -1,22 +1,38 @@
 package com.transact.comparator.service;
 
 import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
 import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import com.transact.comparator.service.matching.MatchRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -26,17 +42,27 @@ public class ComparisonServiceTest {
     @Mock
     private CsvParsingService csvParsingService;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
     private ComparisonService comparisonService;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ComparisonMetrics comparisonMetrics = new ComparisonMetrics(meterRegistry);
+        comparisonService = new ComparisonService(csvParsingService, defaultProperties(), Runnable::run,
+                new OutOfCoreComparisonEngine(defaultProperties(), comparisonMetrics), comparisonMetrics,
+                ForkJoinPool.commonPool());
+    }
+
     @Test
     public void compare_BothTransactionsSetsAreEmpty_DefaultEmptyResult() {
         // Given
         MultipartFile firstFile = mock(MultipartFile.class);
         MultipartFile secondFile = mock(MultipartFile.class);
 
-        when(csvParsingService.parseTransactions(firstFile)).thenReturn(Collections.emptySet());
-        when(csvParsingService.parseTransactions(secondFile)).thenReturn(Collections.emptySet());
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(Collections.emptySet()));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(Collections.emptySet()));
 
         when(firstFile.getOriginalFilename()).thenReturn("first.csv");
         when(secondFile.getOriginalFilename()).thenReturn("second.csv");
@@ -73,8 +99,8 @@ public class ComparisonServiceTest {
                         .walletReference("reference").build()
         );
 
-        when(csvParsingService.parseTransactions(firstFile)).thenReturn(new HashSet<>());
-        when(csvParsingService.parseTransactions(secondFile)).thenReturn(new HashSet<>(transactions));
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(new HashSet<>()));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(new HashSet<>(transactions)));
 
         when(firstFile.getOriginalFilename()).thenReturn("first.csv");
         when(secondFile.getOriginalFilename()).thenReturn("second.csv");
@@ -115,8 +141,8 @@ public class ComparisonServiceTest {
                         .walletReference("reference").build()
         );
 
-        when(csvParsingService.parseTransactions(firstFile)).thenReturn(new HashSet<>(transactions));
-        when(csvParsingService.parseTransactions(secondFile)).thenReturn(new HashSet<>(transactions));
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(new HashSet<>(transactions)));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(new HashSet<>(transactions)));
 
         when(firstFile.getOriginalFilename()).thenReturn("first.csv");
         when(secondFile.getOriginalFilename()).thenReturn("second.csv");
@@ -159,8 +185,8 @@ public class ComparisonServiceTest {
                 .date(LocalDateTime.of(2025, 9, 9, 1, 1, 1))
                 .walletReference("reference").build());
 
-        when(csvParsingService.parseTransactions(firstFile)).thenReturn(new HashSet<>(firstFileTransactions));
-        when(csvParsingService.parseTransactions(secondFile)).thenReturn(new HashSet<>(secondFileTransactions));
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(new HashSet<>(firstFileTransactions)));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(new HashSet<>(secondFileTransactions)));
 
         when(firstFile.getOriginalFilename()).thenReturn("first.csv");
         when(secondFile.getOriginalFilename()).thenReturn("second.csv");
@@ -215,8 +241,8 @@ public class ComparisonServiceTest {
                         .date(LocalDateTime.of(2025, 9, 9, 1, 0, 1))
                         .walletReference("reference").build());
 
-        when(csvParsingService.parseTransactions(firstFile)).thenReturn(new HashSet<>(firstFileTransactions));
-        when(csvParsingService.parseTransactions(secondFile)).thenReturn(new HashSet<>(secondFileTransactions));
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(new HashSet<>(firstFileTransactions)));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(new HashSet<>(secondFileTransactions)));
 
         when(firstFile.getOriginalFilename()).thenReturn("first.csv");
         when(secondFile.getOriginalFilename()).thenReturn("second.csv");
@@ -251,4 +277,192 @@ public class ComparisonServiceTest {
         assertThat(secondUnmatchedTransactions.get(0).potentialMatchId()).isEqualTo("TXN004");
     }
 
+    @Test
+    public void compare_ConfiguredWalletReferenceRules_PotentialMatchBySameWalletReference() {
+        // Given
+        ComparisonService walletComparisonService = new ComparisonService(csvParsingService, properties(Map.of(
+                "comparator.matching.rules.threshold", "0.6",
+                "comparator.matching.rules.weights.wallet-reference", "0.6",
+                "comparator.matching.rules.weights.type", "0.4")), Runnable::run,
+                outOfCoreComparisonEngine(), new ComparisonMetrics(new SimpleMeterRegistry()),
+                ForkJoinPool.commonPool());
+        MultipartFile firstFile = mock(MultipartFile.class);
+        MultipartFile secondFile = mock(MultipartFile.class);
+
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(List.of(
+                Transaction.builder().id("TXN001")
+                        .amount(BigDecimal.TEN)
+                        .date(LocalDateTime.of(2025, 9, 9, 15, 1, 1))
+                        .type(1)
+                        .walletReference("P_WALLET_1").build())));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(List.of(
+                Transaction.builder().id("OTHER001")
+                        .amount(BigDecimal.ONE)
+                        .date(LocalDateTime.of(2025, 9, 10, 8, 0, 1))
+                        .type(1)
+                        .walletReference("P_WALLET_1").build())));
+
+        // When
+        final ComparisonResultDto configured = walletComparisonService.compare(firstFile, secondFile);
+        final ComparisonResultDto requested = walletComparisonService.compare(firstFile, secondFile, MatchRules.DEFAULT,
+                new ComparisonProgress());
+
+        // Then
+        assertThat(configured.firstFileResult().unmatchedTransactions())
+                .map(ComparisonResultDto.TransactionDto::potentialMatchId)
+                .containsExactly("OTHER001");
+        assertThat(requested.firstFileResult().unmatchedTransactions())
+                .map(ComparisonResultDto.TransactionDto::potentialMatchId)
+                .containsOnlyNulls();
+    }
+
+    @Test
+    public void compare_ConcurrentIngestionAndSecondFileIsInvalid_InvalidDataExceptionPropagated() {
+        // Given
+        MultipartFile firstFile = mock(MultipartFile.class);
+        MultipartFile secondFile = mock(MultipartFile.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        ComparisonService concurrentComparisonService = new ComparisonService(csvParsingService, defaultProperties(), executor,
+                outOfCoreComparisonEngine(), new ComparisonMetrics(new SimpleMeterRegistry()),
+                ForkJoinPool.commonPool());
+
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(Set.of(
+                Transaction.builder().id("TXN001").amount(BigDecimal.TEN).build())));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenThrow(new InvalidDataException("Invalid data format in CSV file"));
+
+        try {
+            // When & Then
+            assertThatThrownBy(() -> concurrentComparisonService.compare(firstFile, secondFile))
+                    .isInstanceOf(InvalidDataException.class)
+                    .hasMessage("Invalid data format in CSV file");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void compare_SequentialIngestion_ParseTimesReported() {
+        // Given
+        MultipartFile firstFile = mock(MultipartFile.class);
+        MultipartFile secondFile = mock(MultipartFile.class);
+        ComparisonService sequentialComparisonService = new ComparisonService(csvParsingService,
+                properties(Map.of("comparator.ingestion.concurrent", "false")), command -> {
+                    throw new IllegalStateException("The executor must not be used in sequential mode");
+                }, outOfCoreComparisonEngine(), new ComparisonMetrics(new SimpleMeterRegistry()),
+                ForkJoinPool.commonPool());
+
+        final Set<Transaction> transactions = Set.of(
+                Transaction.builder().id("TXN001")
+                        .amount(BigDecimal.TEN)
+                        .date(LocalDateTime.of(2025, 9, 9, 1, 1, 1))
+                        .walletReference("reference").build());
+
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(transactions));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(transactions));
+
+        // When
+        final ComparisonResultDto result = sequentialComparisonService.compare(firstFile, secondFile);
+
+        // Then
+        assertThat(result.firstFileResult().parseTimeMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(result.secondFileResult().parseTimeMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(result.firstFileResult().matchedRecords()).isEqualTo(1);
+    }
+
+    @Test
+    public void compare_ParallelMatching_SameResultAsSequentialMatching() {
+        // Given
+        MultipartFile firstFile = mock(MultipartFile.class);
+        MultipartFile secondFile = mock(MultipartFile.class);
+        ForkJoinPool matchingPool = new ForkJoinPool(4);
+        ComparisonService parallelComparisonService = new ComparisonService(csvParsingService,
+                properties(Map.of("comparator.matching.parallel", "true",
+                        "comparator.matching.parallel-threshold", "0")), Runnable::run,
+                outOfCoreComparisonEngine(), new ComparisonMetrics(new SimpleMeterRegistry()),
+                matchingPool);
+        ComparisonService sequentialComparisonService = new ComparisonService(csvParsingService,
+                defaultProperties(), Runnable::run,
+                outOfCoreComparisonEngine(), new ComparisonMetrics(new SimpleMeterRegistry()),
+                ForkJoinPool.commonPool());
+
+        Random random = new Random(7);
+        List<Transaction> firstTransactions = new ArrayList<>();
+        List<Transaction> secondTransactions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime date = LocalDateTime.of(2025, 9, 1, 0, 0).plusMinutes(random.nextInt(20_000));
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(100), 2);
+            firstTransactions.add(Transaction.builder().id("TXN" + random.nextInt(600))
+                    .amount(amount).date(date).walletReference("reference").build());
+            secondTransactions.add(Transaction.builder().id("TXN" + random.nextInt(600))
+                    .amount(amount).date(date.plusMinutes(random.nextInt(3))).walletReference("reference").build());
+        }
+
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenAnswer(invocation -> TransactionTable.of(firstTransactions));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenAnswer(invocation -> TransactionTable.of(secondTransactions));
+
+        try {
+            // When
+            ComparisonResultDto parallelResult = parallelComparisonService.compare(firstFile, secondFile);
+            ComparisonResultDto sequentialResult = sequentialComparisonService.compare(firstFile, secondFile);
+
+            // Then
+            assertThat(parallelResult.firstFileResult().unmatchedTransactions())
+                    .containsExactlyElementsOf(sequentialResult.firstFileResult().unmatchedTransactions());
+            assertThat(parallelResult.secondFileResult().unmatchedTransactions())
+                    .containsExactlyElementsOf(sequentialResult.secondFileResult().unmatchedTransactions());
+            assertThat(parallelResult.firstFileResult().unmatchedTransactions())
+                    .filteredOn(transaction -> transaction.potentialMatchId() != null)
+                    .hasSizeGreaterThan(100);
+        } finally {
+            matchingPool.shutdown();
+        }
+    }
+
+    @Test
+    public void compare_MatchingAndPotentialMatchingEntries_MetricsRecorded() {
+        // Given
+        MultipartFile firstFile = mock(MultipartFile.class);
+        MultipartFile secondFile = mock(MultipartFile.class);
+
+        final Transaction matchingTransaction = Transaction.builder().id("TXN001")
+                .amount(BigDecimal.TEN)
+                .date(LocalDateTime.of(2025, 9, 9, 15, 1, 1))
+                .walletReference("reference").build();
+
+        when(csvParsingService.parseTable(eq(firstFile), any())).thenReturn(TransactionTable.of(List.of(
+                matchingTransaction,
+                Transaction.builder().id("TXN004")
+                        .amount(BigDecimal.TEN)
+                        .date(LocalDateTime.of(2025, 9, 9, 1, 1, 1))
+                        .walletReference("reference").build())));
+        when(csvParsingService.parseTable(eq(secondFile), any())).thenReturn(TransactionTable.of(List.of(
+                matchingTransaction,
+                Transaction.builder().id("TXN003")
+                        .amount(BigDecimal.TEN)
+                        .date(LocalDateTime.of(2025, 9, 9, 1, 0, 1))
+                        .walletReference("reference").build(),
+                Transaction.builder().id("TXN005")
+                        .amount(BigDecimal.ONE)
+                        .date(LocalDateTime.of(2025, 9, 9, 8, 0, 1))
+                        .walletReference("reference").build())));
+
+        // When
+        comparisonService.compare(firstFile, secondFile);
+
+        // Then
+        assertThat(meterRegistry.get("comparator.parse").tag("file", "first").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.parse.rows").tag("file", "first").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("comparator.parse.rows").tag("file", "second").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("comparator.exact.matching").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.potential.matching").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.candidates.scored").counter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("comparator.potential.matches").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.match.rate").tag("file", "first").summary().totalAmount()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("comparator.response.transactions").summary().totalAmount()).isEqualTo(3);
+    }
+
+    private static OutOfCoreComparisonEngine outOfCoreComparisonEngine() {
+        return new OutOfCoreComparisonEngine(defaultProperties(), new ComparisonMetrics(new SimpleMeterRegistry()));
+    }
+
 }
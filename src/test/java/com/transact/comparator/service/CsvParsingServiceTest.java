@@ -1,25 +1,64 @@
 package com.transact.comparator.service;
 
+import com.transact.comparator.config.ComparatorProperties;
 import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
 import com.transact.comparator.exception.InvalidDataException;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
 
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
 import static com.transact.comparator.utils.FileUtils.createMockFile;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 public class CsvParsingServiceTest {
 
+    private static final String HEADER = "ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,"
+            + "TransactionDescription,TransactionID,TransactionType,WalletReference\n";
+
     private CsvParsingService csvParsingService;
+    private CsvParsingService chunkedCsvParsingService;
 
     @BeforeEach
     void setUp() {
-        csvParsingService = new CsvParsingService();
+        // the parsed file cache would serve files parsed earlier in a test instead of parsing them
+        ComparatorProperties uncachedProperties = properties(Map.of("comparator.cache.enabled", "false"));
+        csvParsingService = new CsvParsingService(uncachedProperties, ForkJoinPool.commonPool(),
+                new ParsedFileCache(uncachedProperties, new SimpleMeterRegistry()));
+        chunkedCsvParsingService = new CsvParsingService(properties(Map.of(
+                "comparator.parsing.parallel-threshold", "1B",
+                "comparator.parsing.chunk-size", "100B")), ForkJoinPool.commonPool(),
+                new ParsedFileCache(uncachedProperties, new SimpleMeterRegistry()));
     }
 
     @Test
@@ -150,4 +189,291 @@ public class CsvParsingServiceTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    public void parseTable_DuplicatedRows_ShouldKeepDistinctTransactions() {
+        // Given
+        String csvContent = """
+                ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_1
+                Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_1
+                Card Campaign,2014-01-11 22:39:11,-10000.50,*MOGODITSHANE2,DEDUCT,TXN002,1,P_WALLET_2
+                """;
+        MultipartFile file = createMockFile(csvContent);
+
+        // When
+        TransactionTable table = csvParsingService.parseTable(file);
+
+        // Then
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.id(1)).isEqualTo("TXN002");
+        assertThat(table.amount(1)).isEqualTo(new BigDecimal("-10000.50"));
+        assertThat(table.date(1)).isEqualTo(LocalDateTime.of(2014, 1, 11, 22, 39, 11));
+        assertThat(table.walletReference(0)).isEqualTo("P_WALLET_1");
+    }
+
+    @Test
+    public void parseTable_ChunkedParsing_ShouldMatchSequentialParse() {
+        // Given
+        StringBuilder csvContent = new StringBuilder(HEADER);
+        for (int i = 0; i < 300; i++) {
+            String narrative = switch (i % 4) {
+                case 0 -> "\"SHOP, \"\"QUOTED\"\"\"";
+                case 1 -> "\"MULTI\nLINE\"";
+                default -> "*MOLEPS ATM25";
+            };
+            csvContent.append("Card Campaign,2014-01-11 22:27:44,-").append(i % 250).append(".50,")
+                    .append(narrative).append(",DEDUCT,TXN").append(i % 250).append(",1,P_WALLET_").append(i % 250).append('\n');
+        }
+        MultipartFile file = createMockFile(csvContent.toString());
+
+        // When
+        TransactionTable sequential = csvParsingService.parseTable(file);
+        TransactionTable chunked = chunkedCsvParsingService.parseTable(file);
+
+        // Then
+        assertThat(chunked.size()).isEqualTo(sequential.size());
+        assertThat(IntStream.range(0, chunked.size()).mapToObj(chunked::toTransaction).toList())
+                .containsExactlyElementsOf(IntStream.range(0, sequential.size()).mapToObj(sequential::toTransaction).toList());
+        assertThat(chunked.narrative(1)).isEqualTo("MULTI\nLINE");
+        assertThat(chunked.narrative(0)).isEqualTo("SHOP, \"QUOTED\"");
+    }
+
+    @Test
+    public void parseTable_ChunkedParsingWithInvalidRow_ShouldReportSequentialErrorLine() {
+        // Given
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add("Card Campaign,2014-01-11 22:27:44," + (i == 70 || i == 90 ? "invalid-amount" : "-20000")
+                    + ",*MOLEPS ATM25,DEDUCT,TXN" + i + ",1,P_WALLET_REF");
+        }
+        MultipartFile file = createMockFile(HEADER + String.join("\n", rows) + "\n");
+
+        // When
+        Throwable sequentialError = catchThrowable(() -> csvParsingService.parseTable(file));
+        Throwable chunkedError = catchThrowable(() -> chunkedCsvParsingService.parseTable(file));
+
+        // Then
+        assertThat(sequentialError).isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Invalid data format in CSV file: ")
+                .hasMessageContaining("\"invalid-amount\"")
+                .hasMessageContaining("line: 72, column: 35");
+        assertThat(chunkedError).isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Invalid data format in CSV file: ")
+                .hasMessageContaining("\"invalid-amount\"")
+                .hasMessageContaining("line: 72, column: 35");
+    }
+
+    @Test
+    public void parseTable_LocalFile_ShouldMatchUploadedFileParse(@TempDir Path directory) throws IOException {
+        // Given
+        StringBuilder csvContent = new StringBuilder(HEADER);
+        for (int i = 0; i < 50; i++) {
+            csvContent.append("Card Campaign,2014-01-11 22:27:44,-").append(i).append(".50,\"MULTI\nLINE\",DEDUCT,TXN")
+                    .append(i).append(",1,P_WALLET_").append(i).append('\n');
+        }
+        Path localFile = Files.writeString(directory.resolve("transactions.csv"), csvContent);
+        MultipartFile uploadedFile = createMockFile(csvContent.toString());
+
+        // When
+        TransactionTable uploaded = csvParsingService.parseTable(uploadedFile);
+        TransactionTable mapped = csvParsingService.parseTable(localFile, new LongAdder());
+        TransactionTable chunked = chunkedCsvParsingService.parseTable(localFile, new LongAdder());
+
+        // Then
+        assertThat(mapped.toTransactions()).hasSize(50).isEqualTo(uploaded.toTransactions());
+        assertThat(chunked.toTransactions()).isEqualTo(uploaded.toTransactions());
+    }
+
+    @Test
+    public void parseTable_EmptyLocalFile_ShouldReturnEmptyTable(@TempDir Path directory) throws IOException {
+        // Given
+        Path localFile = Files.createFile(directory.resolve("transactions.csv"));
+
+        // When
+        TransactionTable table = csvParsingService.parseTable(localFile, new LongAdder());
+
+        // Then
+        assertThat(table.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void parseTable_SameContentTwice_ShouldReuseCachedTable(@TempDir Path directory) throws IOException {
+        // Given
+        String csvContent = HEADER + "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_1\n";
+        Path localFile = Files.writeString(directory.resolve("reference.csv"), csvContent);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CsvParsingService cachedCsvParsingService = new CsvParsingService(defaultProperties(), ForkJoinPool.commonPool(),
+                new ParsedFileCache(defaultProperties(), meterRegistry));
+        LongAdder secondParsedRows = new LongAdder();
+
+        // When
+        TransactionTable first = cachedCsvParsingService.parseTable(createMockFile(csvContent), new LongAdder());
+        TransactionTable second = cachedCsvParsingService.parseTable(createMockFile(csvContent), secondParsedRows);
+        TransactionTable local = cachedCsvParsingService.parseTable(localFile, new LongAdder());
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(local).isSameAs(first);
+        assertThat(secondParsedRows.sum()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.cache.gets").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("comparator.cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void parseTable_CachedChunkedUpload_ShouldReadTheUploadOnceUntilSeenAgain() throws IOException {
+        // Given
+        StringBuilder csvContent = new StringBuilder(HEADER);
+        for (int i = 0; i < 3000; i++) {
+            csvContent.append("Card Campaign,2014-01-11 22:27:44,-").append(i).append(".50,NARRATIVE,DEDUCT,TXN")
+                    .append(i).append(",1,P_WALLET_").append(i).append('\n');
+        }
+        byte[] content = csvContent.toString().getBytes(StandardCharsets.UTF_8);
+        LongAdder bytesRead = new LongAdder();
+        MultipartFile file = new MockMultipartFile("file", "file.csv", "text/csv", content) {
+            @Override
+            public InputStream getInputStream() {
+                return new FilterInputStream(new ByteArrayInputStream(content)) {
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        bytesRead.add(Math.max(0, read));
+                        return read;
+                    }
+                };
+            }
+        };
+        CsvParsingService cachedCsvParsingService = new CsvParsingService(properties(Map.of(
+                "comparator.parsing.parallel-threshold", "1B",
+                "comparator.parsing.chunk-size", "10KB")), ForkJoinPool.commonPool(),
+                new ParsedFileCache(defaultProperties(), new SimpleMeterRegistry()));
+
+        // When
+        TransactionTable first = cachedCsvParsingService.parseTable(file, new LongAdder());
+        long firstBytesRead = bytesRead.sumThenReset();
+        TransactionTable second = cachedCsvParsingService.parseTable(file, new LongAdder());
+
+        // Then
+        assertThat(content.length).isGreaterThan(2 * 64 * 1024);
+        assertThat(first.size()).isEqualTo(3000);
+        assertThat(second).isSameAs(first);
+        // both ends fingerprinted then a single pass parsing and hashing the upload
+        assertThat(firstBytesRead).isEqualTo(content.length + 2 * 64 * 1024);
+        // both ends fingerprinted then a hash of the whole upload
+        assertThat(bytesRead.sum()).isEqualTo(content.length + 2 * 64 * 1024);
+    }
+
+    @Test
+    public void parseTable_CompressedUploads_ShouldMatchPlainParse(@TempDir Path directory) throws IOException {
+        // Given
+        StringBuilder csvContent = new StringBuilder(HEADER);
+        for (int i = 0; i < 50; i++) {
+            csvContent.append("Card Campaign,2014-01-11 22:27:44,-").append(i).append(".50,\"MULTI\nLINE\",DEDUCT,TXN")
+                    .append(i).append(",1,P_WALLET_").append(i).append('\n');
+        }
+        byte[] plain = csvContent.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(gzip)) {
+            output.write(plain);
+        }
+        ByteArrayOutputStream zstd = new ByteArrayOutputStream();
+        try (OutputStream output = new ZstdOutputStream(zstd)) {
+            output.write(plain);
+        }
+        Path localFile = Files.write(directory.resolve("transactions.csv.zst"), zstd.toByteArray());
+
+        // When
+        TransactionTable expected = csvParsingService.parseTable(createMockFile(csvContent.toString()));
+        TransactionTable gzipped = csvParsingService.parseTable(compressedFile(gzip.toByteArray()));
+        TransactionTable zstdCompressed = chunkedCsvParsingService.parseTable(compressedFile(zstd.toByteArray()));
+        TransactionTable local = chunkedCsvParsingService.parseTable(localFile, new LongAdder());
+
+        // Then
+        assertThat(gzipped.toTransactions()).hasSize(50).isEqualTo(expected.toTransactions());
+        assertThat(zstdCompressed.toTransactions()).isEqualTo(expected.toTransactions());
+        assertThat(local.toTransactions()).isEqualTo(expected.toTransactions());
+    }
+
+    @Test
+    public void parseTable_TruncatedGzipUpload_ShouldThrowException() throws IOException {
+        // Given
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(gzip)) {
+            output.write((HEADER + "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_1\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] truncated = Arrays.copyOf(gzip.toByteArray(), gzip.size() / 2);
+
+        // When & Then
+        assertThatThrownBy(() -> csvParsingService.parseTable(compressedFile(truncated)))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessage("Could not parse CSV file: transactions.csv.gz");
+    }
+
+    @Test
+    public void parseTable_FastPath_ShouldReadLikeCsvMapper() {
+        // Given
+        ComparatorProperties mapperProperties = properties(Map.of("comparator.cache.enabled", "false",
+                "comparator.parsing.fast-path", "false"));
+        CsvParsingService mapperCsvParsingService = new CsvParsingService(mapperProperties, ForkJoinPool.commonPool(),
+                new ParsedFileCache(mapperProperties, new SimpleMeterRegistry()));
+        String[] amounts = {"-20000", "0.50", "-0", "-0.00", "7.", ".5", "1e3", " 5", "+5", "", "12345678901234567890.5", "1.2.3"};
+        String[] dates = {"2014-01-11 22:27:44", "2014-02-30 10:00:00", "2014-13-01 10:00:00", " 2014-01-11 22:27:44",
+                "0000-01-01 00:00:00", "2014-01-11T22:27:44", ""};
+        String[] types = {"1", "01", "-3", " 1", "", "x", "1234567890"};
+        String[] texts = {"TXN", "Café", "\"SHOP, \"\"QUOTED\"\"\"", "\"MULTI\nLINE\"", "", "\"\""};
+        String[] lineBreaks = {"\n", "\r\n", "\n\n"};
+        Random random = new Random(42);
+
+        for (int file = 0; file < 300; file++) {
+            StringBuilder content = new StringBuilder(HEADER);
+            int rows = 1 + random.nextInt(6);
+            for (int row = 0; row < rows; row++) {
+                // mostly plain rows, so that the unusual values show up at any position of the file
+                boolean unusual = random.nextInt(4) == 0;
+                content.append(unusual ? pick(random, texts) : "Card Campaign").append(',')
+                        .append(unusual ? pick(random, dates) : dates[0]).append(',')
+                        .append(unusual ? pick(random, amounts) : amounts[random.nextInt(4)]).append(',')
+                        .append(pick(random, texts)).append(",DEDUCT,TXN").append(random.nextInt(4)).append(',')
+                        .append(unusual ? pick(random, types) : types[0]).append(',')
+                        .append(unusual ? pick(random, texts) : "P_WALLET")
+                        .append(random.nextInt(8) == 0 ? ",EXTRA" : "")
+                        .append(unusual ? pick(random, lineBreaks) : "\n");
+            }
+            MultipartFile multipartFile = createMockFile(content.toString());
+
+            // When
+            Throwable mapperError = catchThrowable(() -> mapperCsvParsingService.parseTable(multipartFile));
+            Throwable fastError = catchThrowable(() -> csvParsingService.parseTable(multipartFile));
+
+            // Then
+            if (mapperError != null) {
+                // the source of a location is the class name of the stream read, which is not meaningful
+                assertThat(fastError).as(content.toString()).isInstanceOf(InvalidDataException.class);
+                assertThat(withoutSource(fastError.getMessage())).as(content.toString())
+                        .isEqualTo(withoutSource(mapperError.getMessage()));
+            } else {
+                assertThat(fastError).as(content.toString()).isNull();
+                assertThat(rows(csvParsingService.parseTable(multipartFile))).as(content.toString())
+                        .usingRecursiveFieldByFieldElementComparator()
+                        .containsExactlyElementsOf(rows(mapperCsvParsingService.parseTable(multipartFile)));
+            }
+        }
+    }
+
+    private static String withoutSource(String message) {
+        return message.replaceAll("\\[Source: \\([^)]*\\)", "[Source: ");
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<Transaction> rows(TransactionTable table) {
+        return IntStream.range(0, table.size()).mapToObj(table::toTransaction).toList();
+    }
+
+    private static MultipartFile compressedFile(byte[] content) {
+        return new MockMultipartFile("file", "transactions.csv.gz", "application/octet-stream", content);
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.transact.comparator.service;
+
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.LocalFileAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LocalFileResolverTest {
+
+    @TempDir
+    private Path directory;
+
+    private Path baseDirectory;
+    private LocalFileResolver localFileResolver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        baseDirectory = Files.createDirectory(directory.resolve("settlements"));
+        localFileResolver = new LocalFileResolver(properties(Map.of(
+                "comparator.local-files.base-directories", baseDirectory.toString())));
+    }
+
+    @Test
+    public void resolve_FileInsideBaseDirectory_ShouldReturnRealPath() throws IOException {
+        // Given
+        Path file = Files.createFile(baseDirectory.resolve("transactions.csv"));
+
+        // When
+        Path absolute = localFileResolver.resolve(file.toString());
+        Path relative = localFileResolver.resolve("transactions.csv");
+
+        // Then
+        assertThat(absolute).isEqualTo(file.toRealPath());
+        assertThat(relative).isEqualTo(file.toRealPath());
+    }
+
+    @Test
+    public void resolve_PathEscapingBaseDirectory_ShouldBeForbidden() throws IOException {
+        // Given
+        Files.createFile(directory.resolve("secret.csv"));
+
+        // When / Then
+        assertThatThrownBy(() -> localFileResolver.resolve("../secret.csv"))
+                .isInstanceOf(LocalFileAccessException.class)
+                .hasMessage("Local file is outside of the allowed directories: ../secret.csv");
+    }
+
+    @Test
+    public void resolve_SymbolicLinkToOutsideFile_ShouldBeForbidden() throws IOException {
+        // Given
+        Path secret = Files.createFile(directory.resolve("secret.csv"));
+        Files.createSymbolicLink(baseDirectory.resolve("link.csv"), secret);
+
+        // When / Then
+        assertThatThrownBy(() -> localFileResolver.resolve("link.csv"))
+                .isInstanceOf(LocalFileAccessException.class);
+    }
+
+    @Test
+    public void resolve_MissingFileOrDirectory_ShouldBeInvalidData() {
+        // When / Then
+        assertThatThrownBy(() -> localFileResolver.resolve("missing.csv"))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessage("Local file not found: missing.csv");
+        assertThatThrownBy(() -> localFileResolver.resolve(baseDirectory.toString()))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Local file is not a regular file: ");
+    }
+
+    @Test
+    public void resolve_NoBaseDirectoryConfigured_ShouldBeForbidden() {
+        // Given
+        LocalFileResolver disabledResolver = new LocalFileResolver(defaultProperties());
+
+        // When / Then
+        assertThatThrownBy(() -> disabledResolver.resolve("transactions.csv"))
+                .isInstanceOf(LocalFileAccessException.class);
+    }
+
+}
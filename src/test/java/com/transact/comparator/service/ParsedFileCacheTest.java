@@ -0,0 +1,198 @@
+package com.transact.comparator.service;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParsedFileCacheTest {
+
+    @Test
+    public void get_CacheFull_ShouldEvictLeastRecentlyUsedEntry() {
+        // Given
+        TransactionTable first = table(100);
+        TransactionTable second = table(100);
+        TransactionTable third = table(100);
+        long maxSize = first.estimatedBytes() * 2 + first.estimatedBytes() / 2;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ParsedFileCache cache = new ParsedFileCache(properties(Map.of("comparator.cache.max-size", maxSize + "B")),
+                meterRegistry);
+        get(cache, "first", new LongAdder(), () -> first);
+        get(cache, "second", new LongAdder(), () -> second);
+
+        // When
+        get(cache, "first", new LongAdder(), () -> null);
+        get(cache, "third", new LongAdder(), () -> third);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(maxSize);
+        assertThat(get(cache, "first", new LongAdder(), () -> null)).isSameAs(first);
+        assertThat(get(cache, "third", new LongAdder(), () -> null)).isSameAs(third);
+        assertThat(meterRegistry.get("comparator.cache.evictions").counter().count()).isEqualTo(1);
+        assertThat(get(cache, "second", new LongAdder(), TransactionTable::new)).isNotSameAs(second);
+    }
+
+    @Test
+    public void get_TableLargerThanCache_ShouldNotBeKept() {
+        // Given
+        TransactionTable large = table(1000);
+        ParsedFileCache cache = new ParsedFileCache(properties(Map.of("comparator.cache.max-size", "1KB")),
+                new SimpleMeterRegistry());
+
+        // When
+        TransactionTable result = get(cache, "large", new LongAdder(), () -> large);
+
+        // Then
+        assertThat(result).isSameAs(large);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.bytes()).isZero();
+    }
+
+    @Test
+    public void get_CachedTable_ShouldAddItsRowsToParsedRows() {
+        // Given
+        TransactionTable table = table(10);
+        ParsedFileCache cache = new ParsedFileCache(defaultProperties(), new SimpleMeterRegistry());
+        get(cache, "table", new LongAdder(), () -> table);
+        LongAdder parsedRows = new LongAdder();
+
+        // When
+        TransactionTable result = get(cache, "table", parsedRows, () -> null);
+
+        // Then
+        assertThat(result).isSameAs(table);
+        assertThat(parsedRows.sum()).isEqualTo(10);
+    }
+
+    @Test
+    public void get_ContentBeingParsed_ShouldWaitForTheSameParse() throws Exception {
+        // Given
+        TransactionTable table = table(10);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ParsedFileCache cache = new ParsedFileCache(defaultProperties(), meterRegistry);
+        CountDownLatch parsing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger parses = new AtomicInteger();
+        CompletableFuture<TransactionTable> first = CompletableFuture.supplyAsync(() -> get(cache, "table",
+                new LongAdder(), () -> {
+                    parses.incrementAndGet();
+                    parsing.countDown();
+                    await(release);
+                    return table;
+                }));
+        assertThat(parsing.await(10, TimeUnit.SECONDS)).isTrue();
+        LongAdder parsedRows = new LongAdder();
+
+        // When
+        CompletableFuture<TransactionTable> second = CompletableFuture.supplyAsync(() -> get(cache, "table", parsedRows,
+                () -> {
+                    parses.incrementAndGet();
+                    return table(10);
+                }));
+        release.countDown();
+
+        // Then
+        assertThat(first.get(10, TimeUnit.SECONDS)).isSameAs(table);
+        assertThat(second.get(10, TimeUnit.SECONDS)).isSameAs(table);
+        assertThat(parses).hasValue(1);
+        assertThat(parsedRows.sum()).isEqualTo(10);
+        assertThat(meterRegistry.get("comparator.cache.gets").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_ParseFailing_ShouldNotCacheAnything() {
+        // Given
+        ParsedFileCache cache = new ParsedFileCache(defaultProperties(), new SimpleMeterRegistry());
+        TransactionTable table = table(1);
+
+        // When
+        assertThatThrownBy(() -> get(cache, "table", new LongAdder(), () -> {
+            throw new IllegalStateException("parse failed");
+        })).isInstanceOf(IllegalStateException.class);
+        TransactionTable result = get(cache, "table", new LongAdder(), () -> table);
+
+        // Then
+        assertThat(result).isSameAs(table);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void get_SameFingerprintOtherContent_ShouldParseIt() {
+        // Given
+        TransactionTable first = table(10);
+        TransactionTable second = table(20);
+        ParsedFileCache cache = new ParsedFileCache(defaultProperties(), new SimpleMeterRegistry());
+        cache.get("fingerprint", () -> "first", new LongAdder(),
+                () -> new ParsedFileCache.Parsed("first", first));
+
+        // When
+        TransactionTable result = cache.get("fingerprint", () -> "second", new LongAdder(),
+                () -> new ParsedFileCache.Parsed("second", second));
+
+        // Then
+        assertThat(result).isSameAs(second);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("fingerprint", () -> "first", new LongAdder(), () -> null)).isSameAs(first);
+    }
+
+    @Test
+    public void get_UnknownFingerprint_ShouldNotHashTheContent() {
+        // Given
+        TransactionTable table = table(10);
+        ParsedFileCache cache = new ParsedFileCache(defaultProperties(), new SimpleMeterRegistry());
+        AtomicInteger hashes = new AtomicInteger();
+
+        // When
+        TransactionTable result = cache.get("fingerprint", () -> {
+            hashes.incrementAndGet();
+            return "content";
+        }, new LongAdder(), () -> new ParsedFileCache.Parsed("content", table));
+
+        // Then
+        assertThat(result).isSameAs(table);
+        assertThat(hashes).hasValue(0);
+    }
+
+    private static TransactionTable get(ParsedFileCache cache, String content, LongAdder parsedRows,
+                                        Supplier<TransactionTable> parser) {
+        return cache.get(content, () -> content, parsedRows, () -> new ParsedFileCache.Parsed(content, parser.get()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private TransactionTable table(int rows) {
+        return TransactionTable.of(IntStream.range(0, rows)
+                .mapToObj(row -> Transaction.builder()
+                        .id("TXN" + row)
+                        .date(LocalDateTime.of(2024, 1, 15, 10, 30, 0).plusMinutes(row))
+                        .amount(BigDecimal.valueOf(row, 2))
+                        .walletReference("reference" + row)
+                        .build())
+                .toList());
+    }
+
+}
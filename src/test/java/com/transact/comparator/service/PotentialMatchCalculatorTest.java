@@ -1,12 +1,21 @@
 package com.transact.comparator.service;
 
 import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.matching.MatchField;
+import com.transact.comparator.service.matching.MatchRules;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class PotentialMatchCalculatorTest {
 
@@ -20,7 +29,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction, transaction);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction, transaction);
 
         // Then
         assertThat(result).isTrue();
@@ -42,7 +51,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
@@ -64,7 +73,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
@@ -86,7 +95,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isFalse();
@@ -108,7 +117,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
@@ -130,7 +139,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
@@ -152,7 +161,7 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
@@ -165,7 +174,7 @@ public class PotentialMatchCalculatorTest {
         Transaction transaction2 = createTransactionWithNulls(null, null, null);
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
@@ -183,7 +192,7 @@ public class PotentialMatchCalculatorTest {
         Transaction transaction2 = createTransactionWithNulls(null, null, null);
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isFalse();
@@ -205,12 +214,128 @@ public class PotentialMatchCalculatorTest {
         );
 
         // When
-        boolean result = PotentialMatchCalculator.arePotentialMatch(transaction1, transaction2);
+        boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(transaction1, transaction2);
 
         // Then
         assertThat(result).isTrue();
     }
 
+    @Test
+    public void arePotentialMatch_AllFieldCombinations_ShouldMatchWhenIdOrDateAndAmountAreSimilar() {
+        // Given
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        List<String> ids = Arrays.asList("TXN001", "TXN002", null);
+        List<LocalDateTime> dates = Arrays.asList(date, date.plusSeconds(179), date.plusSeconds(180),
+                date.minusSeconds(179).minusNanos(1), null);
+        List<BigDecimal> amounts = Arrays.asList(new BigDecimal("100.00"), new BigDecimal("100.01"),
+                new BigDecimal("100.011"), new BigDecimal("99.990"), null);
+        Transaction reference = createTransaction("TXN001", date, new BigDecimal("100.00"));
+        TransactionTable referenceTable = TransactionTable.of(List.of(reference));
+
+        for (String id : ids) {
+            for (LocalDateTime candidateDate : dates) {
+                for (BigDecimal amount : amounts) {
+                    Transaction candidate = createTransaction(id, candidateDate, amount);
+                    boolean idSimilar = "TXN001".equals(id);
+                    boolean dateSimilar = candidateDate != null && !candidateDate.equals(date.plusSeconds(180));
+                    boolean amountSimilar = amount != null
+                            && amount.subtract(reference.getAmount()).abs().compareTo(new BigDecimal("0.01")) <= 0;
+                    boolean expected = idSimilar || dateSimilar && amountSimilar;
+
+                    // When
+                    boolean result = PotentialMatchCalculator.DEFAULT.arePotentialMatch(reference, candidate);
+                    boolean rowResult = PotentialMatchCalculator.DEFAULT.arePotentialMatch(referenceTable, 0,
+                            TransactionTable.of(List.of(candidate)), 0);
+
+                    // Then
+                    assertThat(result).as("%s %s %s", id, candidateDate, amount).isEqualTo(expected);
+                    assertThat(rowResult).as("%s %s %s", id, candidateDate, amount).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void arePotentialMatch_WalletReferenceAndTypeRules_ShouldOnlyScoreThoseFields() {
+        // Given
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(new MatchRules(0.6,
+                Map.of(MatchField.WALLET_REFERENCE, 0.6, MatchField.TYPE, 0.4), null, null, null));
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        Transaction reference = createTransaction("TXN001", date, BigDecimal.TEN);
+        Transaction sameWallet = createTransaction("TXN002", date.plusDays(1), BigDecimal.ONE);
+        Transaction sameId = createTransaction("TXN001", date, BigDecimal.TEN);
+        sameId.setWalletReference("Other Wallet");
+        TransactionTable referenceTable = TransactionTable.of(List.of(reference));
+        TransactionTable candidates = TransactionTable.of(List.of(sameWallet, sameId));
+
+        // When Then
+        assertThat(calculator.arePotentialMatch(reference, sameWallet)).isTrue();
+        assertThat(calculator.arePotentialMatch(reference, sameId)).isFalse();
+        assertThat(calculator.arePotentialMatch(referenceTable, 0, candidates, 0)).isTrue();
+        assertThat(calculator.arePotentialMatch(referenceTable, 0, candidates, 1)).isFalse();
+        assertThat(calculator.matchScore(referenceTable, 0, candidates, 0)).isEqualTo(1.0);
+        assertThat(calculator.matchScore(referenceTable, 0, candidates, 1)).isEqualTo(0.4);
+        assertThat(calculator.everyMatchIncludes(EnumSet.of(MatchField.ID),
+                EnumSet.of(MatchField.DATE, MatchField.AMOUNT))).isFalse();
+        assertThat(calculator.everyMatchIncludes(EnumSet.of(MatchField.WALLET_REFERENCE))).isTrue();
+    }
+
+    @Test
+    public void arePotentialMatch_WiderTolerances_ShouldMatchFurtherDatesAndAmounts() {
+        // Given
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(new MatchRules(null, null,
+                Duration.ofMinutes(10), new BigDecimal("1.00"), null));
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        Transaction reference = createTransaction("TXN001", date, new BigDecimal("100.00"));
+        Transaction near = createTransaction("TXN002", date.plusMinutes(10).plusSeconds(59), new BigDecimal("101.00"));
+        Transaction far = createTransaction("TXN003", date.plusMinutes(11), new BigDecimal("101.00"));
+        TransactionTable referenceTable = TransactionTable.of(List.of(reference));
+        TransactionTable candidates = TransactionTable.of(List.of(near, far));
+
+        // When Then
+        assertThat(calculator.arePotentialMatch(reference, near)).isTrue();
+        assertThat(calculator.arePotentialMatch(reference, far)).isFalse();
+        assertThat(calculator.arePotentialMatch(referenceTable, 0, candidates, 0)).isTrue();
+        assertThat(calculator.arePotentialMatch(referenceTable, 0, candidates, 1)).isFalse();
+        assertThat(PotentialMatchCalculator.DEFAULT.arePotentialMatch(reference, near)).isFalse();
+        assertThat(calculator.dateWindowSeconds()).isEqualTo(660);
+        assertThat(calculator.amountWindowMinorUnits()).isEqualTo(100);
+    }
+
+    @Test
+    public void arePotentialMatch_IdTolerance_ShouldMatchTruncatedIds() {
+        // Given
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(new MatchRules(null, null, null, null, 2));
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        Transaction reference = createTransaction("0584011808649511", date, new BigDecimal("100.00"));
+        Transaction truncated = createTransaction("05840118086495", date.plusDays(1), new BigDecimal("5.00"));
+        Transaction other = createTransaction("0584011808640000", date.plusDays(1), new BigDecimal("5.00"));
+        TransactionTable referenceTable = TransactionTable.of(List.of(reference));
+        TransactionTable candidates = TransactionTable.of(List.of(truncated, other));
+
+        // When Then
+        assertThat(calculator.arePotentialMatch(reference, truncated)).isTrue();
+        assertThat(calculator.arePotentialMatch(reference, other)).isFalse();
+        assertThat(calculator.arePotentialMatch(referenceTable, 0, candidates, 0)).isTrue();
+        assertThat(calculator.arePotentialMatch(referenceTable, 0, candidates, 1)).isFalse();
+        assertThat(PotentialMatchCalculator.DEFAULT.arePotentialMatch(reference, truncated)).isFalse();
+        assertThat(calculator.idTolerance()).isEqualTo(2);
+    }
+
+    @Test
+    public void compile_ThresholdAboveTotalWeight_ShouldThrowException() {
+        // When Then
+        assertThatThrownBy(() -> new MatchRules(0.8, Map.of(MatchField.ID, 0.5, MatchField.TYPE, 0.2), null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Match threshold 0.8 is above the total weight 0.7 of the match fields");
+        assertThatThrownBy(() -> new MatchRules(null, Map.of(MatchField.ID, -0.5), null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Weight of match field ID must not be negative, got -0.5");
+        assertThatThrownBy(() -> new MatchRules(null, null, null, null, -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Id tolerance must not be negative, got -1");
+    }
+
     private Transaction createTransaction(String id, LocalDateTime date, BigDecimal amount) {
         Transaction transaction = new Transaction();
         transaction.setId(id);
@@ -0,0 +1,88 @@
+package com.transact.comparator.service.external;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExternalSorterTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void sorted_SeveralRuns_ShouldMergeInStableOrderAndRestoreRecords() throws IOException {
+        // Given
+        TransactionTable table = new TransactionTable();
+        for (int i = 0; i < 20; i++) {
+            table.add(Transaction.builder()
+                    .id("TXN" + (i % 5))
+                    .date(i % 7 == 0 ? null : LocalDateTime.of(2024, 1, 15, 10, 30, i, i % 3 * 500))
+                    .amount(i % 4 == 0 ? null : new BigDecimal("-12345678901234567890.125").add(BigDecimal.valueOf(i)))
+                    .type(i % 2)
+                    .walletReference(i % 6 == 0 ? null : "P_WALLET_é" + i)
+                    .build());
+        }
+        List<SpilledTransaction> records = new ArrayList<>();
+        for (int row = 0; row < table.size(); row++) {
+            records.add(SpilledTransaction.of(table, row, row));
+        }
+        ExternalSorter<SpilledTransaction> sorter = new ExternalSorter<>(directory, SpilledTransaction.BY_ID,
+                SpilledTransaction.CODEC, 3);
+
+        // When
+        records.forEach(sorter::add);
+        List<SpilledTransaction> sorted = new ArrayList<>();
+        try (ExternalSorter.SortedRecords<SpilledTransaction> iterator = sorter.sorted()) {
+            iterator.forEachRemaining(sorted::add);
+        }
+
+        // Then
+        assertThat(sorter.size()).isEqualTo(20);
+        assertThat(sorted).containsExactlyElementsOf(records.stream().sorted(SpilledTransaction.BY_ID).toList());
+        try (Stream<Path> runs = Files.list(directory)) {
+            assertThat(runs).hasSize(7);
+        }
+
+        sorter.close();
+        try (Stream<Path> runs = Files.list(directory)) {
+            assertThat(runs).isEmpty();
+        }
+    }
+
+    @Test
+    public void sorted_SingleRun_ShouldSortInMemoryWithoutFiles() throws IOException {
+        // Given
+        ExternalSorter<SpilledTransaction> sorter = new ExternalSorter<>(directory, SpilledTransaction.BY_ORDINAL,
+                SpilledTransaction.CODEC, 10);
+        TransactionTable table = TransactionTable.of(List.of(
+                Transaction.builder().id("TXN001").build(),
+                Transaction.builder().id("TXN002").build()));
+
+        // When
+        sorter.add(SpilledTransaction.of(table, 1, 5));
+        sorter.add(SpilledTransaction.of(table, 0, 2));
+        List<String> ids = new ArrayList<>();
+        try (ExternalSorter.SortedRecords<SpilledTransaction> iterator = sorter.sorted()) {
+            iterator.forEachRemaining(record -> ids.add(record.id()));
+        }
+
+        // Then
+        assertThat(ids).containsExactly("TXN001", "TXN002");
+        try (Stream<Path> runs = Files.list(directory)) {
+            assertThat(runs).isEmpty();
+        }
+    }
+
+}
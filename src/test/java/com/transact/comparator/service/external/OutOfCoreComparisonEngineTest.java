@@ -0,0 +1,202 @@
+package com.transact.comparator.service.external;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonProgress;
+import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.ParsedFileCache;
+import com.transact.comparator.service.matching.MatchField;
+import com.transact.comparator.service.matching.MatchRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static com.transact.comparator.utils.FileUtils.createMockFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OutOfCoreComparisonEngineTest {
+
+    private static final String HEADER = "ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,"
+            + "TransactionDescription,TransactionID,TransactionType,WalletReference\n";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void compare_FilesSpilledToSeveralRuns_ShouldEqualInMemoryComparison() throws IOException {
+        // Given
+        StringBuilder firstContent = new StringBuilder(HEADER);
+        StringBuilder secondContent = new StringBuilder(HEADER);
+        for (int i = 0; i < 60; i++) {
+            // transactions are 10 minutes apart, so each one has at most one potential match
+            String date = String.format("2014-01-%02d %02d:%02d:00", 1 + i / 144, i / 6 % 24, i % 6 * 10);
+            String shiftedDate = String.format("2014-01-%02d %02d:%02d:45", 1 + i / 144, i / 6 % 24, i % 6 * 10 + 1);
+            firstContent.append(row(date, "-" + i + ".50", "TXN" + i));
+            switch (i % 5) {
+                case 0 -> secondContent.append(row(date, "-" + i + ".50", "TXN" + i));
+                case 1 -> secondContent.append(row(shiftedDate, "-" + i + ".50", "OTHER" + i));
+                case 2 -> secondContent.append(row(shiftedDate, "-" + (i + 100) + ".50", "TXN" + i));
+                case 3 -> secondContent.append(row(date, "-" + (i + 100) + ".50", "OTHER" + i));
+                default -> {
+                    // duplicated transaction, reported once
+                    firstContent.append(row(date, "-" + i + ".50", "TXN" + i));
+                    secondContent.append(row(date, "-" + (i + 100) + ".50", "TXN" + i));
+                }
+            }
+        }
+        MultipartFile firstFile = createMockFile(firstContent.toString());
+        MultipartFile secondFile = createMockFile(secondContent.toString());
+
+        // When
+        ComparisonResultDto inMemory = comparisonService(defaultProperties()).compare(firstFile, secondFile);
+        ComparisonResultDto outOfCore = comparisonService(outOfCoreProperties()).compare(firstFile, secondFile);
+
+        // Then
+        assertThat(outOfCore.firstFileResult().totalRecords()).isEqualTo(60);
+        assertThat(outOfCore.firstFileResult().matchedRecords()).isEqualTo(12);
+        assertThat(outOfCore.firstFileResult().unmatchedTransactions())
+                .filteredOn(transaction -> transaction.potentialMatchId() != null)
+                .hasSize(36);
+        assertThat(withoutParseTimes(outOfCore)).isEqualTo(withoutParseTimes(inMemory));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void compare_FilesSpilled_ShouldRecordParseAndExactMatchingMetrics() {
+        // Given
+        String duplicatedRow = row("2014-01-01 10:00:00", "-1.50", "TXN1");
+        MultipartFile firstFile = createMockFile(HEADER + duplicatedRow + duplicatedRow
+                + row("2014-01-01 11:00:00", "-2.50", "TXN2"));
+        MultipartFile secondFile = createMockFile(HEADER + duplicatedRow);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        // When
+        comparisonService(outOfCoreProperties(), new ComparisonMetrics(meterRegistry)).compare(firstFile, secondFile);
+
+        // Then
+        assertThat(meterRegistry.get("comparator.parse").tag("file", "first").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.parse").tag("file", "second").timer().count()).isEqualTo(1);
+        // spilled rows, duplicates of the same run being dropped as in memory
+        assertThat(meterRegistry.get("comparator.parse.rows").tag("file", "first").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("comparator.parse.rows").tag("file", "second").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.exact.matching").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("comparator.potential.matching").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void compare_InvalidFile_ShouldReportParsingErrorAndDeleteRuns() throws IOException {
+        // Given
+        MultipartFile validFile = createMockFile(HEADER + row("2014-01-11 22:27:44", "-20000", "TXN001"));
+        MultipartFile invalidFile = createMockFile(HEADER + row("2014-01-11 22:27:44", "invalid-amount", "TXN001"));
+
+        // When / Then
+        assertThatThrownBy(() -> comparisonService(outOfCoreProperties()).compare(validFile, invalidFile))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Invalid data format in CSV file: ");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void compare_DateAndAmountRules_ShouldEqualInMemoryComparison() throws IOException {
+        // Given
+        StringBuilder firstContent = new StringBuilder(HEADER);
+        StringBuilder secondContent = new StringBuilder(HEADER);
+        for (int i = 0; i < 40; i++) {
+            String date = String.format("2014-01-01 %02d:%02d:00", i / 6, i % 6 * 10);
+            String shiftedDate = String.format("2014-01-01 %02d:%02d:30", i / 6, i % 6 * 10 + 4);
+            firstContent.append(row(date, "-" + i + ".50", "TXN" + i));
+            secondContent.append(row(i % 2 == 0 ? shiftedDate : date, "-" + i + ".50", "OTHER" + i));
+        }
+        MultipartFile firstFile = createMockFile(firstContent.toString());
+        MultipartFile secondFile = createMockFile(secondContent.toString());
+        MatchRules rules = new MatchRules(1.0, Map.of(MatchField.DATE, 0.5, MatchField.AMOUNT, 0.5),
+                Duration.ofMinutes(5), null, null);
+
+        // When
+        ComparisonResultDto inMemory = comparisonService(defaultProperties())
+                .compare(firstFile, secondFile, rules, new ComparisonProgress());
+        ComparisonResultDto outOfCore = comparisonService(outOfCoreProperties())
+                .compare(firstFile, secondFile, rules, new ComparisonProgress());
+
+        // Then
+        assertThat(outOfCore.firstFileResult().unmatchedTransactions())
+                .filteredOn(transaction -> transaction.potentialMatchId() != null)
+                .hasSize(40);
+        assertThat(withoutParseTimes(outOfCore)).isEqualTo(withoutParseTimes(inMemory));
+    }
+
+    @Test
+    public void compare_RulesWithoutDate_ShouldThrowException() {
+        // Given
+        MultipartFile firstFile = createMockFile(HEADER + row("2014-01-11 22:27:44", "-20000", "TXN001"));
+        MultipartFile secondFile = createMockFile(HEADER + row("2014-01-11 22:27:44", "-20000", "TXN001"));
+        MatchRules rules = new MatchRules(0.5, Map.of(MatchField.ID, 0.5, MatchField.AMOUNT, 0.5), null, null, null);
+        MatchRules idToleranceRules = new MatchRules(null, null, null, null, 1);
+
+        // When / Then
+        assertThatThrownBy(() -> comparisonService(outOfCoreProperties())
+                .compare(firstFile, secondFile, rules, new ComparisonProgress()))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Out of core comparisons only support match rules");
+        assertThatThrownBy(() -> comparisonService(outOfCoreProperties())
+                .compare(firstFile, secondFile, idToleranceRules, new ComparisonProgress()))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Out of core comparisons only support match rules");
+    }
+
+    private ComparatorProperties outOfCoreProperties() {
+        return properties(Map.of(
+                "comparator.out-of-core.enabled", "true",
+                "comparator.out-of-core.threshold", "0B",
+                "comparator.out-of-core.run-size", "7",
+                "comparator.out-of-core.directory", directory.toString()));
+    }
+
+    private ComparisonService comparisonService(ComparatorProperties comparatorProperties) {
+        return comparisonService(comparatorProperties, new ComparisonMetrics(new SimpleMeterRegistry()));
+    }
+
+    private ComparisonService comparisonService(ComparatorProperties comparatorProperties,
+                                                ComparisonMetrics comparisonMetrics) {
+        return new ComparisonService(new CsvParsingService(comparatorProperties, ForkJoinPool.commonPool(),
+                        new ParsedFileCache(comparatorProperties, new SimpleMeterRegistry())),
+                comparatorProperties, Runnable::run, new OutOfCoreComparisonEngine(comparatorProperties, comparisonMetrics),
+                comparisonMetrics, ForkJoinPool.commonPool());
+    }
+
+    private ComparisonResultDto withoutParseTimes(ComparisonResultDto result) {
+        return ComparisonResultDto.builder()
+                .firstFileResult(withoutParseTime(result.firstFileResult()))
+                .secondFileResult(withoutParseTime(result.secondFileResult()))
+                .build();
+    }
+
+    private ComparisonResultDto.FileResult withoutParseTime(ComparisonResultDto.FileResult fileResult) {
+        return new ComparisonResultDto.FileResult(fileResult.fileName(), 0, fileResult.totalRecords(),
+                fileResult.matchedRecords(), fileResult.unmatchedRecords(), fileResult.unmatchedTransactions());
+    }
+
+    private String row(String date, String amount, String id) {
+        return "Card Campaign," + date + "," + amount + ",*MOLEPS ATM25,DEDUCT," + id + ",1,P_WALLET_" + id + "\n";
+    }
+
+}
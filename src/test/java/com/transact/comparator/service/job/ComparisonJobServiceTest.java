@@ -0,0 +1,112 @@
+package com.transact.comparator.service.job;
+
+import com.transact.comparator.dto.ComparisonJobDto;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.JobNotCompletedException;
+import com.transact.comparator.exception.JobNotFoundException;
+import com.transact.comparator.exception.JobRejectedException;
+import com.transact.comparator.service.ComparisonService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static com.transact.comparator.utils.FileUtils.createMockFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ComparisonJobServiceTest {
+
+    @Mock
+    private ComparisonService comparisonService;
+
+    private final MultipartFile firstFile = createMockFile("first");
+    private final MultipartFile secondFile = createMockFile("second");
+
+    @Test
+    public void submit_ComparisonSucceeds_ResultAvailable() {
+        // Given
+        ComparisonResultDto result = ComparisonResultDto.builder().build();
+        when(comparisonService.compare(any(), any(), any())).thenReturn(result);
+        ComparisonJobService jobService = new ComparisonJobService(comparisonService, defaultProperties(), Runnable::run);
+
+        // When
+        ComparisonJobDto job = jobService.submit(firstFile, secondFile);
+
+        // Then
+        assertThat(jobService.getStatus(job.jobId()).status()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(jobService.getStatus(job.jobId()).finishedAt()).isNotNull();
+        assertThat(jobService.getResult(job.jobId())).isSameAs(result);
+    }
+
+    @Test
+    public void submit_ComparisonFails_FailureReportedAndRethrown() {
+        // Given
+        when(comparisonService.compare(any(), any(), any())).thenThrow(new InvalidDataException("Invalid data format in CSV file"));
+        ComparisonJobService jobService = new ComparisonJobService(comparisonService, defaultProperties(), Runnable::run);
+
+        // When
+        ComparisonJobDto job = jobService.submit(firstFile, secondFile);
+
+        // Then
+        assertThat(jobService.getStatus(job.jobId()).status()).isEqualTo(JobStatus.FAILED);
+        assertThat(jobService.getStatus(job.jobId()).error()).isEqualTo("Invalid data format in CSV file");
+        assertThatThrownBy(() -> jobService.getResult(job.jobId()))
+                .isInstanceOf(InvalidDataException.class);
+    }
+
+    @Test
+    public void getResult_JobStillQueued_JobNotCompletedException() {
+        // Given
+        Executor idleExecutor = command -> {
+        };
+        ComparisonJobService jobService = new ComparisonJobService(comparisonService, defaultProperties(), idleExecutor);
+        ComparisonJobDto job = jobService.submit(firstFile, secondFile);
+
+        // When & Then
+        assertThat(job.status()).isEqualTo(JobStatus.QUEUED);
+        assertThatThrownBy(() -> jobService.getResult(job.jobId()))
+                .isInstanceOf(JobNotCompletedException.class);
+    }
+
+    @Test
+    public void submit_QueueIsFull_JobRejectedException() {
+        // Given
+        Executor fullExecutor = command -> {
+            throw new RejectedExecutionException("full");
+        };
+        ComparisonJobService jobService = new ComparisonJobService(comparisonService, defaultProperties(), fullExecutor);
+
+        // When & Then
+        assertThatThrownBy(() -> jobService.submit(firstFile, secondFile))
+                .isInstanceOf(JobRejectedException.class);
+    }
+
+    @Test
+    public void evictExpiredJobs_ResultTtlElapsed_JobRemoved() {
+        // Given
+        when(comparisonService.compare(any(), any(), any())).thenReturn(ComparisonResultDto.builder().build());
+        ComparisonJobService jobService = new ComparisonJobService(comparisonService,
+                properties(Map.of("comparator.jobs.result-ttl", "0s")), Runnable::run);
+        ComparisonJobDto job = jobService.submit(firstFile, secondFile);
+
+        // When
+        jobService.evictExpiredJobs();
+
+        // Then
+        assertThatThrownBy(() -> jobService.getStatus(job.jobId()))
+                .isInstanceOf(JobNotFoundException.class);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.TransactionUtils.createTransaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlockingIndexTest {
+
+    @Test
+    public void claimFirstMatch_DateAndAmountInNeighbourBlocks_ShouldReturnCandidate() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 29, 59), new BigDecimal("100.009"))));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", LocalDateTime.of(2024, 1, 15, 10, 32, 58), new BigDecimal("100.019"))));
+        BlockingIndex index = new BlockingIndex(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = index.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(result).isEqualTo(0);
+    }
+
+    private int[] allRows(TransactionTable table) {
+        return IntStream.range(0, table.size()).toArray();
+    }
+
+}
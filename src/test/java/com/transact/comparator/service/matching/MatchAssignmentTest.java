@@ -0,0 +1,109 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.TransactionUtils.createTransaction;
+import static com.transact.comparator.utils.TransactionUtils.randomTransactions;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MatchAssignmentTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    @Test
+    public void assign_FirstFit_ShouldPickLowestMatchingRow() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(createTransaction("TXN001", DATE, BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", DATE.plusMinutes(1), BigDecimal.TEN),
+                createTransaction("TXN001", DATE, BigDecimal.TEN)));
+        PotentialMatchFinder index = MatchingEngine.BLOCKING.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = MatchAssignment.FIRST_FIT.assign(index, first, allRows(first), 5).applyAsInt(0);
+
+        // Then
+        assertThat(result).isEqualTo(0);
+        assertThat(index.unclaimed()).containsExactly(1);
+    }
+
+    @Test
+    public void assign_BestScore_ShouldPickHighestScoringRow() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(createTransaction("TXN001", DATE, BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", DATE.plusMinutes(1), BigDecimal.TEN),
+                createTransaction("TXN001", DATE, BigDecimal.TEN)));
+        PotentialMatchFinder index = MatchingEngine.BLOCKING.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = MatchAssignment.BEST_SCORE.assign(index, first, allRows(first), 5).applyAsInt(0);
+
+        // Then
+        assertThat(result).isEqualTo(1);
+        assertThat(index.unclaimed()).containsExactly(0);
+    }
+
+    @Test
+    public void assign_BestScoreWithConflict_ShouldGiveRowToBestPairAndFallBackForOthers() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN010", DATE, BigDecimal.TEN),
+                createTransaction("TXN001", DATE, BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN001", DATE, BigDecimal.TEN),
+                createTransaction("TXN020", DATE.plusMinutes(2), BigDecimal.TEN)));
+        PotentialMatchFinder index = MatchingEngine.SWEEP_LINE.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        IntUnaryOperator matches = MatchAssignment.BEST_SCORE.assign(index, first, allRows(first), 1);
+
+        // Then
+        assertThat(matches.applyAsInt(0)).isEqualTo(1);
+        assertThat(matches.applyAsInt(1)).isEqualTo(0);
+        assertThat(index.unclaimed()).isEmpty();
+    }
+
+    @Test
+    public void assign_BestScoreRandomTransactions_ShouldOnlyAssignPotentialMatchesOnce() {
+        // Given
+        Random random = new Random(11);
+        TransactionTable first = TransactionTable.of(randomTransactions(random, 300, 300, false));
+        TransactionTable second = TransactionTable.of(randomTransactions(random, 300, 300, false));
+
+        for (MatchingEngine engine : MatchingEngine.values()) {
+            PotentialMatchFinder index = engine.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+            // When
+            IntUnaryOperator matches = MatchAssignment.BEST_SCORE.assign(index, first, allRows(first), 3);
+            List<Integer> assigned = IntStream.range(0, first.size()).map(matches).boxed().toList();
+
+            // Then
+            Set<Integer> claimed = new HashSet<>();
+            for (int row = 0; row < first.size(); row++) {
+                int match = assigned.get(row);
+                if (match >= 0) {
+                    assertThat(PotentialMatchCalculator.DEFAULT.arePotentialMatch(first, row, second, match)).isTrue();
+                    assertThat(claimed.add(match)).isTrue();
+                }
+            }
+            assertThat(claimed).hasSize(second.size() - index.unclaimed().length);
+        }
+    }
+
+    private int[] allRows(TransactionTable table) {
+        return IntStream.range(0, table.size()).toArray();
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.TransactionUtils.createTransaction;
+import static com.transact.comparator.utils.TransactionUtils.randomTransactions;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OpenRowIndexTest {
+
+    @Test
+    public void claimFirstMatch_RandomTransactions_ShouldBeIdenticalToBlockingIndex() {
+        // Given
+        Random random = new Random(42);
+        TransactionTable first = TransactionTable.of(randomTransactions(random, 400, 3000, false));
+        TransactionTable second = TransactionTable.of(randomTransactions(random, 400, 3000, false));
+        BlockingIndex blockingIndex = new BlockingIndex(second, IntStream.range(0, second.size()).toArray(), PotentialMatchCalculator.DEFAULT);
+        OpenRowIndex openRowIndex = new OpenRowIndex(second, false, PotentialMatchCalculator.DEFAULT);
+        IntStream.range(0, second.size()).forEach(openRowIndex::add);
+
+        for (int row = 0; row < first.size(); row++) {
+            // When
+            int result = openRowIndex.claimFirstMatch(first, row);
+
+            // Then
+            assertThat(result).isEqualTo(blockingIndex.claimFirstMatch(first, row));
+        }
+        assertThat(openRowIndex.size()).isEqualTo(blockingIndex.unclaimed().length);
+    }
+
+    @Test
+    public void claimFirstMatch_IdToleranceRules_ShouldBeIdenticalToBlockingIndex() {
+        // Given
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(new MatchRules(null, null, null, null, 1));
+        Random random = new Random(23);
+        TransactionTable first = TransactionTable.of(randomTransactions(random, 400, 3000, false));
+        TransactionTable second = TransactionTable.of(randomTransactions(random, 400, 3000, false));
+        BlockingIndex blockingIndex = new BlockingIndex(second, IntStream.range(0, second.size()).toArray(), calculator);
+        OpenRowIndex openRowIndex = new OpenRowIndex(second, false, calculator);
+        IntStream.range(0, second.size()).forEach(openRowIndex::add);
+
+        for (int row = 0; row < first.size(); row++) {
+            // When
+            int result = openRowIndex.claimFirstMatch(first, row);
+
+            // Then
+            assertThat(result).isEqualTo(blockingIndex.claimFirstMatch(first, row));
+        }
+        assertThat(openRowIndex.size()).isEqualTo(blockingIndex.unclaimed().length);
+    }
+
+    @Test
+    public void claimFirstMatch_FirstFileIndexed_ShouldScoreQueryAsSecondFile() {
+        // Given
+        Random random = new Random(7);
+        TransactionTable first = TransactionTable.of(randomTransactions(random, 200, 3000, false));
+        TransactionTable second = TransactionTable.of(randomTransactions(random, 200, 3000, false));
+        OpenRowIndex openRowIndex = new OpenRowIndex(first, true, PotentialMatchCalculator.DEFAULT);
+        IntStream.range(0, first.size()).forEach(openRowIndex::add);
+        List<Integer> open = new ArrayList<>(IntStream.range(0, first.size()).boxed().toList());
+
+        for (int row = 0; row < second.size(); row++) {
+            // When
+            int result = openRowIndex.claimFirstMatch(second, row);
+
+            // Then
+            int queryRow = row;
+            int expected = open.stream()
+                    .filter(candidate -> PotentialMatchCalculator.DEFAULT.arePotentialMatch(first, candidate, second, queryRow))
+                    .findFirst()
+                    .orElse(-1);
+            assertThat(result).isEqualTo(expected);
+            open.remove(Integer.valueOf(expected));
+        }
+    }
+
+    @Test
+    public void claimFirstMatch_DateOrAmountRules_ShouldReturnFirstOpenPotentialMatch() {
+        // Given
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(new MatchRules(0.5,
+                Map.of(MatchField.DATE, 0.5, MatchField.AMOUNT, 0.5), null, null, null));
+        Random random = new Random(11);
+        TransactionTable first = TransactionTable.of(randomTransactions(random, 200, 3000, false));
+        TransactionTable second = TransactionTable.of(randomTransactions(random, 200, 3000, false));
+        OpenRowIndex openRowIndex = new OpenRowIndex(second, false, calculator);
+        IntStream.range(0, second.size()).forEach(openRowIndex::add);
+        List<Integer> open = new ArrayList<>(IntStream.range(0, second.size()).boxed().toList());
+
+        for (int row = 0; row < first.size(); row++) {
+            // When
+            int result = openRowIndex.claimFirstMatch(first, row);
+
+            // Then
+            int queryRow = row;
+            int expected = open.stream()
+                    .filter(candidate -> calculator.arePotentialMatch(first, queryRow, second, candidate))
+                    .findFirst()
+                    .orElse(-1);
+            assertThat(result).isEqualTo(expected);
+            open.remove(Integer.valueOf(expected));
+        }
+    }
+
+    @Test
+    public void claimFirstMatch_RemovedAndAddedAgain_ShouldReturnLowestOpenRow() {
+        // Given
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        TransactionTable first = TransactionTable.of(List.of(createTransaction("TXN001", date, BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN001", date, BigDecimal.ONE),
+                createTransaction("TXN002", date, BigDecimal.TEN),
+                createTransaction("TXN003", date, BigDecimal.TEN)));
+        OpenRowIndex openRowIndex = new OpenRowIndex(second, false, PotentialMatchCalculator.DEFAULT);
+        openRowIndex.add(2);
+        openRowIndex.add(1);
+        openRowIndex.add(0);
+        openRowIndex.remove(0);
+
+        // When
+        int firstClaim = openRowIndex.claimFirstMatch(first, 0);
+        openRowIndex.add(0);
+        int secondClaim = openRowIndex.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(firstClaim).isEqualTo(1);
+        assertThat(secondClaim).isEqualTo(0);
+        assertThat(openRowIndex.size()).isEqualTo(1);
+    }
+
+}
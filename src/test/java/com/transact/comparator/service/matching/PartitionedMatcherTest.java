@@ -0,0 +1,114 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.TransactionUtils.createTransaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PartitionedMatcherTest {
+
+    private static final List<MatchRules> RULES = List.of(
+            MatchRules.DEFAULT,
+            new MatchRules(null, null, null, null, 1),
+            new MatchRules(0.8, Map.of(MatchField.DATE, 0.5, MatchField.AMOUNT, 0.5), Duration.ofMinutes(30), null, null),
+            new MatchRules(1.0, Map.of(MatchField.ID, 0.5, MatchField.TYPE, 0.5), null, null, null));
+
+    @Test
+    public void match_RandomTransactions_ShouldBeIdenticalToSequentialMatching() {
+        // Given
+        Random random = new Random(31);
+        TransactionTable first = TransactionTable.of(groupedTransactions(random, 600));
+        TransactionTable second = TransactionTable.of(groupedTransactions(random, 600));
+        int[] firstRows = IntStream.range(0, first.size()).filter(row -> row % 7 != 0).toArray();
+        int[] secondRows = IntStream.range(0, second.size()).filter(row -> row % 5 != 0).toArray();
+
+        for (int threads : new int[]{1, 3}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                for (MatchRules rules : RULES) {
+                    for (MatchingEngine engine : MatchingEngine.values()) {
+                        for (MatchAssignment assignment : MatchAssignment.values()) {
+                            PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(rules);
+
+                            // When
+                            PartitionedMatcher.Result result = new PartitionedMatcher(engine, assignment, 3, pool)
+                                    .match(first, firstRows, second, secondRows, calculator);
+
+                            // Then
+                            PotentialMatchFinder index = engine.index(second, secondRows, calculator);
+                            IntUnaryOperator potentialMatches = assignment.assign(index, first, firstRows, 3);
+                            int[] sequentialMatches = IntStream.of(firstRows).map(potentialMatches).toArray();
+                            String description = threads + " " + rules + " " + engine + " " + assignment;
+                            assertThat(result.potentialMatches()).as(description).containsExactly(sequentialMatches);
+                            assertThat(result.unclaimed()).as(description).containsExactly(index.unclaimed());
+                            assertThat(result.partitions()).as(description).isGreaterThan(threads);
+                            assertThat(IntStream.of(sequentialMatches).filter(match -> match >= 0)).as(description)
+                                    .isNotEmpty();
+                        }
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void match_RulesMatchingWithoutIdOrDate_ShouldMatchOnePartition() {
+        // Given
+        Random random = new Random(37);
+        TransactionTable first = TransactionTable.of(groupedTransactions(random, 200));
+        TransactionTable second = TransactionTable.of(groupedTransactions(random, 200));
+        int[] rows = IntStream.range(0, 200).toArray();
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(
+                new MatchRules(0.5, Map.of(MatchField.AMOUNT, 0.5), null, null, null));
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            // When
+            PartitionedMatcher.Result result = new PartitionedMatcher(MatchingEngine.BLOCKING, MatchAssignment.FIRST_FIT,
+                    1, pool).match(first, rows, second, rows, calculator);
+
+            // Then
+            BlockingIndex index = new BlockingIndex(second, rows, calculator);
+            assertThat(result.partitions()).isEqualTo(1);
+            assertThat(result.potentialMatches())
+                    .containsExactly(IntStream.of(rows).map(row -> index.claimFirstMatch(first, row)).toArray());
+            assertThat(result.unclaimed()).containsExactly(index.unclaimed());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<Transaction> groupedTransactions(Random random, int count) {
+        // dates spread over a month with few ids, so that both dates and ids join rows in groups, and a few dates
+        // of another century, too far apart to be sorted by their seconds packed with the row
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime date = random.nextInt(50) == 0 ? null : start.minusYears(random.nextInt(100) == 0 ? 100 : 0)
+                    .plusMinutes(random.nextInt(30 * 24 * 60));
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(20), 2);
+            Transaction transaction = createTransaction(String.format("TXN%08d", random.nextInt(count) * 7919), date, amount);
+            transaction.setType(1 + random.nextInt(2));
+            transaction.setWalletReference("reference" + i);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.TransactionUtils.createTransaction;
+import static com.transact.comparator.utils.TransactionUtils.randomTransactions;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every {@link MatchingEngine} shares: claiming the first unclaimed potential match in row order, as
+ * a linear scan of the indexed rows would.
+ */
+public class PotentialMatchFinderTest {
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void claimFirstMatch_SameIdOtherDateAndAmount_ShouldReturnCandidate(MatchingEngine engine) {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 30, 0), BigDecimal.valueOf(100))));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 6, 15, 10, 30, 0), BigDecimal.valueOf(5))));
+        PotentialMatchFinder finder = engine.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = finder.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(result).isEqualTo(0);
+        assertThat(finder.unclaimed()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void claimFirstMatch_DateOutsideTolerance_ShouldReturnNoMatch(MatchingEngine engine) {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 30, 0), BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", LocalDateTime.of(2024, 1, 15, 10, 33, 0), BigDecimal.TEN)));
+        PotentialMatchFinder finder = engine.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = finder.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(result).isEqualTo(-1);
+        assertThat(finder.unclaimed()).containsExactly(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void claimFirstMatch_SeveralCandidates_ShouldReturnFirstInRowOrder(MatchingEngine engine) {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 30, 0), BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", LocalDateTime.of(2024, 1, 15, 10, 31, 0), BigDecimal.TEN),
+                createTransaction("TXN001", LocalDateTime.of(2024, 3, 15, 10, 30, 0), BigDecimal.ONE)));
+        PotentialMatchFinder finder = engine.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int firstResult = finder.claimFirstMatch(first, 0);
+        int secondResult = finder.claimFirstMatch(first, 0);
+        int thirdResult = finder.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(firstResult).isEqualTo(0);
+        assertThat(secondResult).isEqualTo(1);
+        assertThat(thirdResult).isEqualTo(-1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void claimFirstMatch_NullDateAndAmount_ShouldReturnCandidate(MatchingEngine engine) {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(createTransaction("TXN001", null, null)));
+        TransactionTable second = TransactionTable.of(List.of(createTransaction("TXN002", null, null)));
+        PotentialMatchFinder finder = engine.index(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = finder.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(result).isEqualTo(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void claimFirstMatch_RandomTransactions_ShouldBeIdenticalToLinearScan(MatchingEngine engine) {
+        assertIdenticalToLinearScan(engine, PotentialMatchCalculator.DEFAULT, new Random(42));
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void claimFirstMatch_IdToleranceRules_ShouldBeIdenticalToLinearScan(MatchingEngine engine) {
+        PotentialMatchCalculator calculator = PotentialMatchCalculator.compile(new MatchRules(null, null, null, null, 1));
+
+        List<Transaction> matches = assertIdenticalToLinearScan(engine, calculator, new Random(23));
+
+        assertThat(matches).filteredOn(match -> match != null).hasSizeGreaterThan(200);
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void forEachMatch_RandomTransactions_ShouldReturnAllUnclaimedPotentialMatches(MatchingEngine engine) {
+        assertAllUnclaimedPotentialMatches(engine, PotentialMatchCalculator.DEFAULT, new Random(13));
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void forEachMatch_DateOrAmountRules_ShouldReturnAllUnclaimedPotentialMatches(MatchingEngine engine) {
+        assertAllUnclaimedPotentialMatches(engine, PotentialMatchCalculator.compile(new MatchRules(0.5,
+                Map.of(MatchField.DATE, 0.5, MatchField.AMOUNT, 0.5), null, null, null)), new Random(17));
+    }
+
+    @ParameterizedTest
+    @EnumSource(MatchingEngine.class)
+    public void forEachMatch_AmountOnlyRules_ShouldReturnAllUnclaimedPotentialMatches(MatchingEngine engine) {
+        assertAllUnclaimedPotentialMatches(engine, PotentialMatchCalculator.compile(new MatchRules(0.5,
+                Map.of(MatchField.AMOUNT, 1.0), null, null, null)), new Random(17));
+    }
+
+    private List<Transaction> assertIdenticalToLinearScan(MatchingEngine engine, PotentialMatchCalculator calculator,
+                                                          Random random) {
+        // Given
+        List<Transaction> firstTransactions = randomTransactions(random, 400);
+        List<Transaction> secondTransactions = randomTransactions(random, 400);
+        TransactionTable first = TransactionTable.of(firstTransactions);
+        TransactionTable second = TransactionTable.of(secondTransactions);
+
+        // When
+        PotentialMatchFinder finder = engine.index(second, allRows(second), calculator);
+        List<Transaction> found = new ArrayList<>();
+        for (int row = 0; row < first.size(); row++) {
+            int match = finder.claimFirstMatch(first, row);
+            found.add(match < 0 ? null : secondTransactions.get(match));
+        }
+
+        Set<Transaction> remaining = new LinkedHashSet<>(secondTransactions);
+        List<Transaction> linear = new ArrayList<>();
+        for (Transaction transaction : firstTransactions) {
+            Transaction match = remaining.stream()
+                    .filter(candidate -> calculator.arePotentialMatch(transaction, candidate))
+                    .findFirst()
+                    .orElse(null);
+            remaining.remove(match);
+            linear.add(match);
+        }
+
+        // Then
+        assertThat(found).containsExactlyElementsOf(linear);
+        assertThat(IntStream.of(finder.unclaimed()).mapToObj(secondTransactions::get).toList())
+                .containsExactlyElementsOf(remaining);
+        return found;
+    }
+
+    private void assertAllUnclaimedPotentialMatches(MatchingEngine engine, PotentialMatchCalculator calculator,
+                                                    Random random) {
+        // Given
+        TransactionTable first = TransactionTable.of(randomTransactions(random, 200));
+        TransactionTable second = TransactionTable.of(randomTransactions(random, 200));
+        PotentialMatchFinder finder = engine.index(second, allRows(second), calculator);
+        for (int row = 0; row < second.size(); row += 3) {
+            finder.claim(row);
+        }
+
+        for (int row = 0; row < first.size(); row++) {
+            // When
+            Set<Integer> matches = new HashSet<>();
+            finder.forEachMatch(first, row, matches::add);
+
+            // Then
+            int queryRow = row;
+            assertThat(matches).containsExactlyInAnyOrderElementsOf(IntStream.range(0, second.size())
+                    .filter(candidate -> candidate % 3 != 0)
+                    .filter(candidate -> calculator.arePotentialMatch(first, queryRow, second, candidate))
+                    .boxed()
+                    .toList());
+        }
+    }
+
+    private int[] allRows(TransactionTable table) {
+        return IntStream.range(0, table.size()).toArray();
+    }
+
+}
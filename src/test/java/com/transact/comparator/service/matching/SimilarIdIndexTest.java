@@ -0,0 +1,81 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.service.similarity.EditDistanceSimilarityCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SimilarIdIndexTest {
+
+    @Test
+    public void similarIds_RandomIds_ShouldReturnEveryIdWithinTolerance() {
+        for (int maxEdits = 1; maxEdits <= 3; maxEdits++) {
+            // Given
+            Random random = new Random(maxEdits);
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                ids.add(randomId(random));
+            }
+            SimilarIdIndex index = new SimilarIdIndex(maxEdits);
+            ids.forEach(index::add);
+
+            for (int i = 0; i < 500; i++) {
+                // When
+                String query = random.nextBoolean() ? randomId(random) : ids.get(random.nextInt(ids.size()));
+                List<String> similarIds = index.similarIds(query);
+
+                // Then
+                int tolerance = maxEdits;
+                assertThat(similarIds).as(query).containsExactlyInAnyOrderElementsOf(ids.stream()
+                        .distinct()
+                        .filter(id -> EditDistanceSimilarityCalculator.distance(query, id, tolerance) <= tolerance)
+                        .toList());
+            }
+        }
+    }
+
+    @Test
+    public void similarIds_NoTolerance_ShouldOnlyReturnQueryId() {
+        // Given
+        SimilarIdIndex index = new SimilarIdIndex(0);
+        index.add("TXN001");
+
+        // When
+        List<String> similarIds = index.similarIds("TXN002");
+
+        // Then
+        assertThat(similarIds).containsExactly("TXN002");
+        assertThat(index.similarIds(null)).containsExactly((String) null);
+    }
+
+    @Test
+    public void similarIds_TruncatedId_ShouldReturnFullId() {
+        // Given
+        SimilarIdIndex index = new SimilarIdIndex(2);
+        index.add("0584011808649511");
+        index.add("0584011808640000");
+        index.add(null);
+
+        // When
+        List<String> similarIds = index.similarIds("05840118086495");
+
+        // Then
+        assertThat(similarIds).containsExactly("0584011808649511");
+        assertThat(index.similarIds(null)).containsExactly((String) null);
+    }
+
+    private String randomId(Random random) {
+        // a shared prefix and few distinct digits, so common segments have long postings
+        StringBuilder id = new StringBuilder(random.nextInt(4) == 0 ? "" : "TXN");
+        int length = random.nextInt(10);
+        for (int i = 0; i < length; i++) {
+            id.append((char) ('0' + random.nextInt(4)));
+        }
+        return id.toString();
+    }
+
+}
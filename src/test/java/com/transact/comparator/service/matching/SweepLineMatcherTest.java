@@ -0,0 +1,76 @@
+package com.transact.comparator.service.matching;
+
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.service.PotentialMatchCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.transact.comparator.utils.TransactionUtils.createTransaction;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SweepLineMatcherTest {
+
+    @Test
+    public void claimFirstMatch_DateJustInsideWindow_ShouldReturnCandidate() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 30, 0), BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", LocalDateTime.of(2024, 1, 15, 10, 32, 59), BigDecimal.TEN)));
+        SweepLineMatcher matcher = new SweepLineMatcher(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = matcher.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(result).isEqualTo(0);
+    }
+
+    @Test
+    public void claimFirstMatch_DateOnWindowEdge_ShouldReturnNoMatch() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 30, 0), BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", LocalDateTime.of(2024, 1, 15, 10, 27, 0), BigDecimal.TEN),
+                createTransaction("TXN003", LocalDateTime.of(2024, 1, 15, 10, 33, 0), BigDecimal.TEN)));
+        SweepLineMatcher matcher = new SweepLineMatcher(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int result = matcher.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(result).isEqualTo(-1);
+        assertThat(matcher.unclaimed()).containsExactly(0, 1);
+    }
+
+    @Test
+    public void claimFirstMatch_ClaimedNeighbours_ShouldBeSkipped() {
+        // Given
+        TransactionTable first = TransactionTable.of(List.of(
+                createTransaction("TXN001", LocalDateTime.of(2024, 1, 15, 10, 30, 0), BigDecimal.TEN)));
+        TransactionTable second = TransactionTable.of(List.of(
+                createTransaction("TXN002", LocalDateTime.of(2024, 1, 15, 10, 31, 0), BigDecimal.TEN),
+                createTransaction("TXN003", LocalDateTime.of(2024, 1, 15, 10, 29, 0), BigDecimal.TEN)));
+        SweepLineMatcher matcher = new SweepLineMatcher(second, allRows(second), PotentialMatchCalculator.DEFAULT);
+
+        // When
+        int firstResult = matcher.claimFirstMatch(first, 0);
+        int secondResult = matcher.claimFirstMatch(first, 0);
+        int thirdResult = matcher.claimFirstMatch(first, 0);
+
+        // Then
+        assertThat(firstResult).isEqualTo(0);
+        assertThat(secondResult).isEqualTo(1);
+        assertThat(thirdResult).isEqualTo(-1);
+    }
+
+    private int[] allRows(TransactionTable table) {
+        return IntStream.range(0, table.size()).toArray();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.transact.comparator.service.parsing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContentHashTest {
+
+    @Test
+    public void hash_PartlyReadAndSkippedInput_ShouldHashTheWholeContent() throws IOException {
+        // Given
+        byte[] content = content(300_000, 1);
+        ContentHash.HashingInputStream input = new ContentHash.HashingInputStream(new ByteArrayInputStream(content));
+        input.readNBytes(1000);
+        input.skipNBytes(100_000);
+        input.read();
+
+        // When
+        String hash = input.hash();
+
+        // Then
+        assertThat(hash).isEqualTo(ContentHash.of(new ByteArrayInputStream(content)));
+        assertThat(hash).isEqualTo(ContentHash.of(ByteBuffer.wrap(content)));
+    }
+
+    @Test
+    public void fingerprint_StreamAndBuffer_ShouldBeTheSame() throws IOException {
+        for (int size : new int[]{0, 100, 100_000, 300_000}) {
+            // Given
+            byte[] content = content(size, 2);
+
+            // When
+            String fingerprint = ContentHash.fingerprint(new ByteArrayInputStream(content), size);
+
+            // Then
+            assertThat(fingerprint).as("size %d", size).isEqualTo(ContentHash.fingerprint(ByteBuffer.wrap(content)));
+        }
+    }
+
+    @Test
+    public void fingerprint_DifferentEndsOrSize_ShouldDiffer() throws IOException {
+        // Given
+        byte[] content = content(300_000, 3);
+        byte[] otherEnd = content.clone();
+        otherEnd[otherEnd.length - 1]++;
+        byte[] otherMiddle = content.clone();
+        otherMiddle[150_000]++;
+
+        // When
+        String fingerprint = ContentHash.fingerprint(ByteBuffer.wrap(content));
+
+        // Then
+        assertThat(ContentHash.fingerprint(ByteBuffer.wrap(otherEnd))).isNotEqualTo(fingerprint);
+        assertThat(ContentHash.fingerprint(ByteBuffer.wrap(content, 0, 299_999))).isNotEqualTo(fingerprint);
+        assertThat(ContentHash.fingerprint(ByteBuffer.wrap(otherMiddle))).isEqualTo(fingerprint);
+    }
+
+    private static byte[] content(int size, long seed) {
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+}
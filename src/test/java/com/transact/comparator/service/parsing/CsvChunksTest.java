@@ -0,0 +1,65 @@
+package com.transact.comparator.service.parsing;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvChunksTest {
+
+    @Test
+    public void headerEnd_HeaderLine_ShouldReturnOffsetAfterLineFeed() {
+        // Given
+        ByteBuffer buffer = buffer("Id,Name\n1,first\n");
+
+        // When
+        int headerEnd = CsvChunks.headerEnd(buffer);
+
+        // Then
+        assertThat(headerEnd).isEqualTo(8);
+    }
+
+    @Test
+    public void split_QuotedLineFeeds_ShouldOnlySplitOnRecordBoundaries() {
+        // Given
+        String content = "Id,Name\n1,\"a\nb\"\n2,\"c\"\"\nd\"\n3,e\n";
+        ByteBuffer buffer = buffer(content);
+
+        // When
+        int[] boundaries = CsvChunks.split(buffer, 8, 3);
+
+        // Then
+        assertThat(boundaries).containsExactly(8, 16, 26, 30);
+    }
+
+    @Test
+    public void split_ChunkLargerThanContent_ShouldReturnSingleChunk() {
+        // Given
+        ByteBuffer buffer = buffer("Id,Name\n1,first\n2,second\n");
+
+        // When
+        int[] boundaries = CsvChunks.split(buffer, 8, 1024);
+
+        // Then
+        assertThat(boundaries).containsExactly(8, 25);
+    }
+
+    @Test
+    public void countLines_MixedLineBreaks_ShouldCountEachBreakOnce() {
+        // Given
+        ByteBuffer buffer = buffer("a\r\nb\rc\nd");
+
+        // When
+        int lines = CsvChunks.countLines(buffer, 0, buffer.limit());
+
+        // Then
+        assertThat(lines).isEqualTo(3);
+    }
+
+    private ByteBuffer buffer(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
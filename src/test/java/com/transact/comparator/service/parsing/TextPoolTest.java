@@ -0,0 +1,52 @@
+package com.transact.comparator.service.parsing;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextPoolTest {
+
+    private final TextPool textPool = new TextPool();
+
+    @Test
+    public void get_RepeatedBytes_ShouldReturnSameString() {
+        // Given
+        byte[] buffer = "P_WALLET_1,P_WALLET_2,P_WALLET_1".getBytes(StandardCharsets.US_ASCII);
+
+        // When
+        String first = textPool.get(buffer, 0, 10);
+        String second = textPool.get(buffer, 11, 10);
+        String third = textPool.get(buffer, 22, 10);
+
+        // Then
+        assertThat(first).isEqualTo("P_WALLET_1");
+        assertThat(second).isEqualTo("P_WALLET_2");
+        assertThat(third).isSameAs(first);
+    }
+
+    @Test
+    public void get_ManyDistinctValues_ShouldGrowAndKeepEntries() {
+        // Given
+        byte[][] values = new byte[TextPool.MAX_ENTRIES * 2][];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = ("REF" + index).getBytes(StandardCharsets.US_ASCII);
+        }
+        String[] first = new String[values.length];
+
+        // When
+        for (int index = 0; index < values.length; index++) {
+            first[index] = textPool.get(values[index], 0, values[index].length);
+        }
+
+        // Then
+        for (int index = 0; index < values.length; index++) {
+            String value = textPool.get(values[index], 0, values[index].length);
+            assertThat(value).isEqualTo("REF" + index);
+            // values beyond the bound of the pool are decoded again
+            assertThat(value == first[index]).isEqualTo(index < TextPool.MAX_ENTRIES);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.transact.comparator.service.parsing;
+
+import com.transact.comparator.domain.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionCsvReaderTest {
+
+    private static final String HEADER = "ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,"
+            + "TransactionDescription,TransactionID,TransactionType,WalletReference\n";
+
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final List<String> handedOver = new ArrayList<>();
+    private final List<Integer> lineOffsets = new ArrayList<>();
+    private final LongAdder parsedRows = new LongAdder();
+
+    @Test
+    public void read_KnownHeader_ShouldReadRowsWithoutFallback() throws IOException {
+        // Given
+        String content = HEADER
+                + "Card Campaign,2014-01-11 22:27:44,-20000.50,\"SHOP, \"\"QUOTED\"\"\",DEDUCT,TXN001,1,P_WALLET_1\r\n"
+                + "Café,2014-01-12 08:00:01,0.005,\"MULTI\nLINE\",DEDUCT,,-2,P_WALLET_2\n"
+                + "Card Campaign,2014-01-13 23:59:59,7,NARRATIVE,DEDUCT,TXN003,0,";
+
+        // When
+        read(content);
+
+        // Then
+        assertThat(handedOver).isEmpty();
+        assertThat(parsedRows.sum()).isEqualTo(3);
+        assertThat(transactions).hasSize(2);
+        Transaction first = transactions.get(0);
+        assertThat(first.getId()).isEqualTo("TXN001");
+        assertThat(first.getProfileName()).isEqualTo("Card Campaign");
+        assertThat(first.getDate()).isEqualTo(LocalDateTime.of(2014, 1, 11, 22, 27, 44));
+        assertThat(first.getAmount()).isEqualTo(new BigDecimal("-20000.50"));
+        assertThat(first.getNarrative()).isEqualTo("SHOP, \"QUOTED\"");
+        assertThat(first.getType()).isEqualTo(1);
+        assertThat(first.getWalletReference()).isEqualTo("P_WALLET_1");
+        Transaction last = transactions.get(1);
+        assertThat(last.getAmount()).isEqualTo(new BigDecimal("7"));
+        assertThat(last.getWalletReference()).isEmpty();
+    }
+
+    @Test
+    public void read_UnusualValue_ShouldHandOverFromItsRecord() throws IOException {
+        // Given
+        String content = HEADER
+                + "Card Campaign,2014-01-11 22:27:44,-20000,\"MULTI\nLINE\",DEDUCT,TXN001,1,P_WALLET_1\n"
+                + "Card Campaign,2014-01-11 22:27:44,1e3,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_2\n"
+                + "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN003,1,P_WALLET_3\n";
+
+        // When
+        read(content);
+
+        // Then
+        assertThat(transactions).extracting(Transaction::getId).containsExactly("TXN001");
+        assertThat(handedOver).containsExactly(HEADER
+                + "Card Campaign,2014-01-11 22:27:44,1e3,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_2\n"
+                + "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN003,1,P_WALLET_3\n");
+        // the record is on line 4 of the file and on line 2 of what is handed over
+        assertThat(lineOffsets).containsExactly(2);
+    }
+
+    @Test
+    public void read_RepeatedValues_ShouldShareTheirStrings() throws IOException {
+        // Given
+        String content = HEADER
+                + "Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_1\n"
+                + "Card Campaign,2014-01-12 22:27:44,-10000,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_1\n";
+
+        // When
+        read(content);
+
+        // Then
+        Transaction first = transactions.get(0);
+        Transaction second = transactions.get(1);
+        assertThat(second.getProfileName()).isSameAs(first.getProfileName());
+        assertThat(second.getNarrative()).isSameAs(first.getNarrative());
+        assertThat(second.getDescription()).isSameAs(first.getDescription());
+        // wallet references are mostly distinct, they would only fill the pool
+        assertThat(second.getWalletReference()).isEqualTo(first.getWalletReference())
+                .isNotSameAs(first.getWalletReference());
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+    }
+
+    @Test
+    public void read_UnknownHeader_ShouldHandOverWholeFile() throws IOException {
+        // Given
+        String content = "Id,Name\n1,first\n";
+
+        // When
+        read(content);
+
+        // Then
+        assertThat(transactions).isEmpty();
+        assertThat(handedOver).containsExactly(content);
+        assertThat(lineOffsets).containsExactly(0);
+    }
+
+    @Test
+    public void read_RecordsLargerThanBuffer_ShouldReadAllRows() throws IOException {
+        // Given
+        StringBuilder content = new StringBuilder(HEADER);
+        String narrative = "N".repeat(100_000);
+        for (int i = 0; i < 20; i++) {
+            content.append("Card Campaign,2014-01-11 22:27:44,-").append(i).append(',').append(narrative)
+                    .append(",DEDUCT,TXN").append(i).append(",1,P_WALLET\n");
+        }
+
+        // When
+        read(content.toString());
+
+        // Then
+        assertThat(handedOver).isEmpty();
+        assertThat(transactions).hasSize(20)
+                .allSatisfy(transaction -> assertThat(transaction.getNarrative()).isEqualTo(narrative));
+    }
+
+    private void read(String content) throws IOException {
+        TransactionCsvReader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), transactions::add,
+                parsedRows, this::handOver);
+    }
+
+    private void handOver(InputStream remaining, int lineOffset) throws IOException {
+        handedOver.add(new String(remaining.readAllBytes(), StandardCharsets.UTF_8));
+        lineOffsets.add(lineOffset);
+    }
+
+}
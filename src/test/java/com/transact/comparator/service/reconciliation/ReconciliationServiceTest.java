@@ -0,0 +1,213 @@
+package com.transact.comparator.service.reconciliation;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ReconciliationResultDto;
+import com.transact.comparator.dto.ReconciliationResultDto.MatchDto;
+import com.transact.comparator.dto.ReconciliationResultDto.MatchType;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReconciliationServiceTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 9, 9, 1, 1, 1);
+
+    @Mock
+    private CsvParsingService csvParsingService;
+
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        reconciliationService = new ReconciliationService(csvParsingService, defaultProperties(), Runnable::run,
+                ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void reconcile_ThreeFiles_ShouldReportMatchesInEveryOtherFile() {
+        // Given
+        Transaction everywhere = transaction("TXN001", DATE, "10");
+        Transaction ledgerAndBank = transaction("TXN002", DATE, "20");
+        Transaction processorOnly = transaction("ZZZ999", DATE.plusYears(1), "99999");
+        MultipartFile ledger = file("ledger.csv", everywhere, ledgerAndBank);
+        MultipartFile bank = file("bank.csv", everywhere, ledgerAndBank);
+        MultipartFile processor = file("processor.csv", everywhere, transaction("TXN002", DATE, "21"), processorOnly);
+
+        // When
+        ReconciliationResultDto result = reconciliationService.reconcile(List.of(ledger, bank, processor));
+
+        // Then
+        assertThat(result.fileResults()).extracting(ReconciliationResultDto.FileResult::fileName)
+                .containsExactly("ledger.csv", "bank.csv", "processor.csv");
+
+        ReconciliationResultDto.FileResult ledgerResult = result.fileResults().get(0);
+        assertThat(ledgerResult.totalRecords()).isEqualTo(2);
+        assertThat(ledgerResult.reconciledRecords()).isEqualTo(1);
+        assertThat(ledgerResult.unreconciledRecords()).isEqualTo(1);
+        assertThat(ledgerResult.unreconciledTransactions()).singleElement().satisfies(transaction -> {
+            assertThat(transaction.id()).isEqualTo("TXN002");
+            assertThat(transaction.matches()).containsExactly(
+                    new MatchDto(1, "bank.csv", MatchType.EXACT, "TXN002"),
+                    new MatchDto(2, "processor.csv", MatchType.POTENTIAL, "TXN002"));
+        });
+
+        ReconciliationResultDto.FileResult bankResult = result.fileResults().get(1);
+        assertThat(bankResult.unreconciledTransactions()).singleElement().satisfies(transaction ->
+                assertThat(transaction.matches()).containsExactly(
+                        new MatchDto(0, "ledger.csv", MatchType.EXACT, "TXN002"),
+                        new MatchDto(2, "processor.csv", MatchType.POTENTIAL, "TXN002")));
+
+        ReconciliationResultDto.FileResult processorResult = result.fileResults().get(2);
+        assertThat(processorResult.totalRecords()).isEqualTo(3);
+        assertThat(processorResult.reconciledRecords()).isEqualTo(1);
+        assertThat(processorResult.unreconciledTransactions()).hasSize(2);
+        assertThat(processorResult.unreconciledTransactions().get(0).amount()).isEqualTo(new BigDecimal("21"));
+        assertThat(processorResult.unreconciledTransactions().get(0).matches()).containsExactly(
+                new MatchDto(0, "ledger.csv", MatchType.POTENTIAL, "TXN002"),
+                new MatchDto(1, "bank.csv", MatchType.POTENTIAL, "TXN002"));
+        assertThat(processorResult.unreconciledTransactions().get(1).id()).isEqualTo("ZZZ999");
+        assertThat(processorResult.unreconciledTransactions().get(1).matches()).isEmpty();
+    }
+
+    @Test
+    public void reconcile_TwoFiles_ShouldMatchLikeComparison() {
+        // Given
+        Random random = new Random(42);
+        List<Transaction> firstTransactions = new ArrayList<>();
+        List<Transaction> secondTransactions = new ArrayList<>();
+        for (int index = 0; index < 500; index++) {
+            String id = "TXN" + random.nextInt(1000);
+            LocalDateTime date = DATE.plusMinutes(random.nextInt(5000));
+            int amount = random.nextInt(100);
+            Transaction transaction = transaction(id, date, String.valueOf(amount));
+            switch (random.nextInt(4)) {
+                case 0 -> firstTransactions.add(transaction);
+                case 1 -> secondTransactions.add(transaction);
+                case 2 -> {
+                    firstTransactions.add(transaction);
+                    secondTransactions.add(transaction);
+                }
+                default -> {
+                    firstTransactions.add(transaction);
+                    secondTransactions.add(transaction(id, date, String.valueOf(amount + 1)));
+                }
+            }
+        }
+        MultipartFile firstFile = file("first.csv", firstTransactions.toArray(Transaction[]::new));
+        MultipartFile secondFile = file("second.csv", secondTransactions.toArray(Transaction[]::new));
+        ComparisonMetrics comparisonMetrics = new ComparisonMetrics(new SimpleMeterRegistry());
+        ComparisonService comparisonService = new ComparisonService(csvParsingService, defaultProperties(), Runnable::run,
+                new OutOfCoreComparisonEngine(defaultProperties(), comparisonMetrics), comparisonMetrics,
+                ForkJoinPool.commonPool());
+
+        // When
+        ReconciliationResultDto result = reconciliationService.reconcile(List.of(firstFile, secondFile));
+        ComparisonResultDto comparison = comparisonService.compare(firstFile, secondFile);
+
+        // Then
+        assertThat(potentialMatches(result.fileResults().get(0)))
+                .isEqualTo(potentialMatches(comparison.firstFileResult()));
+        assertThat(potentialMatches(result.fileResults().get(1)))
+                .isEqualTo(potentialMatches(comparison.secondFileResult()));
+        assertThat(result.fileResults().get(0).reconciledRecords()).isEqualTo(comparison.firstFileResult().matchedRecords());
+    }
+
+    @Test
+    public void reconcile_SingleFile_ShouldThrowException() {
+        // Given
+        MultipartFile file = mock(MultipartFile.class);
+
+        // When Then
+        assertThatThrownBy(() -> reconciliationService.reconcile(List.of(file)))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessage("At least two files are required to reconcile");
+    }
+
+    @Test
+    public void reconcile_MoreFilesThanAllowed_ShouldThrowException() {
+        // Given
+        reconciliationService = new ReconciliationService(csvParsingService,
+                properties(Map.of("comparator.reconciliation.max-files", "2")), Runnable::run, Runnable::run);
+        List<MultipartFile> files = List.of(mock(MultipartFile.class), mock(MultipartFile.class), mock(MultipartFile.class));
+
+        // When Then
+        assertThatThrownBy(() -> reconciliationService.reconcile(files))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessage("At most 2 files can be reconciled at once");
+    }
+
+    @Test
+    public void reconcile_OneFileIsInvalid_InvalidDataExceptionPropagated() {
+        // Given
+        MultipartFile validFile = file("valid.csv", transaction("TXN001", DATE, "10"));
+        MultipartFile invalidFile = mock(MultipartFile.class);
+        when(csvParsingService.parseTable(eq(invalidFile), any())).thenThrow(new InvalidDataException("Invalid file"));
+
+        // When Then
+        assertThatThrownBy(() -> reconciliationService.reconcile(List.of(validFile, invalidFile)))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessage("Invalid file");
+    }
+
+    private MultipartFile file(String fileName, Transaction... transactions) {
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getOriginalFilename()).thenReturn(fileName);
+        when(csvParsingService.parseTable(eq(file), any())).thenReturn(TransactionTable.of(List.of(transactions)));
+        return file;
+    }
+
+    private static Transaction transaction(String id, LocalDateTime date, String amount) {
+        return Transaction.builder()
+                .id(id)
+                .date(date)
+                .amount(new BigDecimal(amount))
+                .walletReference("P_WALLET_" + id)
+                .build();
+    }
+
+    private static List<String> potentialMatches(ReconciliationResultDto.FileResult fileResult) {
+        return fileResult.unreconciledTransactions().stream()
+                .map(transaction -> transaction.id() + "|" + transaction.date() + "|" + transaction.amount() + "->"
+                        + (transaction.matches().isEmpty() ? null : transaction.matches().get(0).id()))
+                .sorted()
+                .toList();
+    }
+
+    private static List<String> potentialMatches(ComparisonResultDto.FileResult fileResult) {
+        return fileResult.unmatchedTransactions().stream()
+                .map(transaction -> transaction.id() + "|" + transaction.date() + "|" + transaction.amount() + "->"
+                        + transaction.potentialMatchId())
+                .sorted()
+                .toList();
+    }
+
+}
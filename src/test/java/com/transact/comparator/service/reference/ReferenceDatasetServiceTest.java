@@ -0,0 +1,167 @@
+package com.transact.comparator.service.reference;
+
+import com.transact.comparator.config.ComparatorProperties;
+import com.transact.comparator.dto.ReferenceDatasetDto;
+import com.transact.comparator.exception.ComparatorServiceException;
+import com.transact.comparator.exception.InvalidDataException;
+import com.transact.comparator.exception.ReferenceDatasetNotFoundException;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.ParsedFileCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static com.transact.comparator.utils.FileUtils.createMockFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReferenceDatasetServiceTest {
+
+    private static final String CONTENT = """
+            ProfileName,TransactionDate,TransactionAmount,TransactionNarrative,TransactionDescription,TransactionID,TransactionType,WalletReference
+            Card Campaign,2014-01-11 22:27:44,-20000,*MOLEPS ATM25,DEDUCT,TXN001,1,P_WALLET_REF
+            Card Campaign,2014-01-11 22:45:44,-10000.005,*MOLEPS ATM25,DEDUCT,TXN002,1,P_WALLET_REF2
+            """;
+
+    @TempDir
+    private Path directory;
+
+    private ComparatorProperties comparatorProperties;
+
+    @BeforeEach
+    void setUp() {
+        comparatorProperties = properties(Map.of("comparator.references.directory", directory.toString()));
+    }
+
+    @Test
+    public void get_AfterRestart_ShouldReadRegisteredDatasetFromDisk() {
+        // Given
+        ReferenceDatasetService service = createService();
+        ReferenceDatasetDto registered = service.register("bank-2024", createMockFile(CONTENT));
+
+        // When
+        ReferenceDatasetService restartedService = createService();
+        List<ReferenceDatasetDto> listed = restartedService.list();
+        ReferenceDataset dataset = restartedService.get("bank-2024");
+
+        // Then
+        assertThat(listed).containsExactly(registered);
+        assertThat(dataset.toDto()).isEqualTo(registered);
+        assertThat(dataset.transactions().toTransactions())
+                .isEqualTo(service.get("bank-2024").transactions().toTransactions());
+    }
+
+    @Test
+    public void delete_RegisteredDataset_ShouldNoLongerBeFound() {
+        // Given
+        ReferenceDatasetService service = createService();
+        service.register("bank-2024", createMockFile(CONTENT));
+
+        // When
+        service.delete("bank-2024");
+
+        // Then
+        assertThat(service.list()).isEmpty();
+        assertThatThrownBy(() -> service.get("bank-2024"))
+                .isInstanceOf(ReferenceDatasetNotFoundException.class)
+                .hasMessage("Reference dataset not found: bank-2024");
+        assertThatThrownBy(() -> service.delete("bank-2024"))
+                .isInstanceOf(ReferenceDatasetNotFoundException.class);
+    }
+
+    @Test
+    public void delete_ConcurrentGets_ShouldNotServeDeletedDataset() throws Exception {
+        // Given
+        ReferenceDatasetService service = createService();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int attempt = 0; attempt < 100; attempt++) {
+                service.register("bank-2024", createMockFile(CONTENT));
+                AtomicBoolean deleted = new AtomicBoolean();
+                List<Future<?>> lookups = new ArrayList<>();
+                for (int thread = 0; thread < 2; thread++) {
+                    lookups.add(executor.submit(() -> {
+                        while (!deleted.get()) {
+                            try {
+                                service.get("bank-2024");
+                            } catch (ReferenceDatasetNotFoundException exception) {
+                                // the lookup ran after the deletion
+                            }
+                        }
+                        return null;
+                    }));
+                }
+
+                // When
+                service.delete("bank-2024");
+                deleted.set(true);
+                for (Future<?> lookup : lookups) {
+                    lookup.get();
+                }
+
+                // Then
+                assertThat(directory.resolve("bank-2024.reference")).doesNotExist();
+                assertThatThrownBy(() -> service.get("bank-2024"))
+                        .as("attempt %d", attempt)
+                        .isInstanceOf(ReferenceDatasetNotFoundException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void register_NameWithPathSeparator_ShouldBeRejected() {
+        // Given
+        ReferenceDatasetService service = createService();
+
+        // When & Then
+        assertThatThrownBy(() -> service.register("../bank", createMockFile(CONTENT)))
+                .isInstanceOf(InvalidDataException.class)
+                .hasMessageStartingWith("Invalid reference dataset name: ../bank");
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    public void list_MissingDirectory_ShouldReturnNoDataset() {
+        // Given
+        comparatorProperties = properties(Map.of("comparator.references.directory",
+                directory.resolve("missing").toString()));
+
+        // When & Then
+        assertThat(createService().list()).isEmpty();
+    }
+
+    @Test
+    public void get_FileInUnknownFormat_ShouldThrowException() throws IOException {
+        // Given
+        Files.writeString(directory.resolve("bank.reference"), "not a reference dataset");
+        ReferenceDatasetService service = createService();
+
+        // When & Then
+        assertThatThrownBy(() -> service.get("bank"))
+                .isInstanceOf(ComparatorServiceException.class)
+                .hasMessage("Unsupported reference dataset format: bank");
+    }
+
+    private ReferenceDatasetService createService() {
+        return new ReferenceDatasetService(new CsvParsingService(comparatorProperties, ForkJoinPool.commonPool(),
+                new ParsedFileCache(comparatorProperties, new SimpleMeterRegistry())), comparatorProperties);
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.transact.comparator.service.session;
+
+import com.transact.comparator.domain.Transaction;
+import com.transact.comparator.domain.TransactionTable;
+import com.transact.comparator.dto.ComparisonFile;
+import com.transact.comparator.dto.ComparisonResultDto;
+import com.transact.comparator.dto.ReconciliationSessionDto;
+import com.transact.comparator.dto.SessionUpdateDto;
+import com.transact.comparator.dto.UnmatchedTransactionDto;
+import com.transact.comparator.exception.ReconciliationSessionNotFoundException;
+import com.transact.comparator.service.ComparisonMetrics;
+import com.transact.comparator.service.ComparisonService;
+import com.transact.comparator.service.CsvParsingService;
+import com.transact.comparator.service.external.OutOfCoreComparisonEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.defaultProperties;
+import static com.transact.comparator.utils.ComparatorPropertiesUtils.properties;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReconciliationSessionServiceTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 9, 9, 1, 1, 1);
+
+    @Mock
+    private CsvParsingService csvParsingService;
+
+    private ReconciliationSessionService reconciliationSessionService;
+
+    @BeforeEach
+    void setUp() {
+        reconciliationSessionService = new ReconciliationSessionService(csvParsingService, defaultProperties());
+    }
+
+    @Test
+    public void append_DeltaUploads_ShouldReturnChangesOfEachUpload() {
+        // Given
+        String sessionId = reconciliationSessionService.create().sessionId();
+        MultipartFile firstUpload = file("ledger.csv", transaction("TXN001", DATE, "10"), transaction("TXN002", DATE, "20"));
+        MultipartFile secondUpload = file("bank.csv", transaction("TXN001", DATE, "10"), transaction("TXN002", DATE, "21"),
+                transaction("ZZZ999", DATE.plusYears(1), "99999"));
+
+        // When
+        SessionUpdateDto firstUpdate = reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE, firstUpload);
+        SessionUpdateDto secondUpdate = reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE, secondUpload);
+
+        // Then
+        assertThat(firstUpdate.appendedRecords()).isEqualTo(2);
+        assertThat(firstUpdate.matched()).isEmpty();
+        assertThat(firstUpdate.unmatched()).extracting(unmatched -> unmatched.transaction().id())
+                .containsExactly("TXN001", "TXN002");
+
+        assertThat(secondUpdate.fileName()).isEqualTo("bank.csv");
+        assertThat(secondUpdate.appendedRecords()).isEqualTo(3);
+        assertThat(secondUpdate.matched()).singleElement().satisfies(pair -> {
+            assertThat(pair.firstFileTransaction().id()).isEqualTo("TXN001");
+            assertThat(pair.secondFileTransaction().id()).isEqualTo("TXN001");
+        });
+        assertThat(secondUpdate.potentialMatched()).singleElement().satisfies(pair -> {
+            assertThat(pair.firstFileTransaction().amount()).isEqualTo(new BigDecimal("20"));
+            assertThat(pair.firstFileTransaction().potentialMatchId()).isEqualTo("TXN002");
+            assertThat(pair.secondFileTransaction().amount()).isEqualTo(new BigDecimal("21"));
+        });
+        assertThat(secondUpdate.unmatched()).singleElement().satisfies(unmatched -> {
+            assertThat(unmatched.file()).isEqualTo(ComparisonFile.SECOND_FILE);
+            assertThat(unmatched.transaction().id()).isEqualTo("ZZZ999");
+        });
+        assertThat(secondUpdate.session().firstFileResult())
+                .isEqualTo(new ReconciliationSessionDto.FileSummary(2, 1, 1, 0));
+        assertThat(secondUpdate.session().secondFileResult())
+                .isEqualTo(new ReconciliationSessionDto.FileSummary(3, 1, 1, 1));
+    }
+
+    @Test
+    public void append_ExactMatchOfPotentiallyMatchedRow_ShouldReleaseThePotentialMatch() {
+        // Given
+        String sessionId = reconciliationSessionService.create().sessionId();
+        reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE,
+                file("ledger.csv", transaction("TXN002", DATE, "20")));
+        reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE,
+                file("bank.csv", transaction("TXN002", DATE, "21")));
+
+        // When
+        SessionUpdateDto update = reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE,
+                file("bank.csv", transaction("TXN002", DATE, "21"), transaction("TXN002", DATE, "20")));
+
+        // Then
+        assertThat(update.appendedRecords()).isEqualTo(1);
+        assertThat(update.skippedRecords()).isEqualTo(1);
+        assertThat(update.releasedPotentialMatches()).singleElement().satisfies(pair ->
+                assertThat(pair.secondFileTransaction().amount()).isEqualTo(new BigDecimal("21")));
+        assertThat(update.matched()).singleElement().satisfies(pair ->
+                assertThat(pair.secondFileTransaction().amount()).isEqualTo(new BigDecimal("20")));
+        assertThat(update.unmatched()).extracting(UnmatchedTransactionDto::file, unmatched -> unmatched.transaction().amount())
+                .containsExactly(tuple(ComparisonFile.SECOND_FILE, new BigDecimal("21")));
+        assertThat(update.session().firstFileResult()).isEqualTo(new ReconciliationSessionDto.FileSummary(1, 1, 0, 0));
+        assertThat(update.session().secondFileResult()).isEqualTo(new ReconciliationSessionDto.FileSummary(2, 1, 0, 1));
+    }
+
+    @Test
+    public void append_RandomDeltas_ShouldExactMatchLikeComparison() {
+        // Given
+        Random random = new Random(42);
+        List<Transaction> firstTransactions = new ArrayList<>();
+        List<Transaction> secondTransactions = new ArrayList<>();
+        for (int index = 0; index < 600; index++) {
+            Transaction transaction = transaction("TXN" + random.nextInt(1000), DATE.plusMinutes(random.nextInt(5000)),
+                    String.valueOf(random.nextInt(100)));
+            if (random.nextInt(3) > 0) {
+                firstTransactions.add(transaction);
+            }
+            if (random.nextInt(3) > 0) {
+                secondTransactions.add(transaction);
+            }
+        }
+        String sessionId = reconciliationSessionService.create().sessionId();
+
+        // When
+        for (int delta = 0; delta < 6; delta++) {
+            reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE, file("first.csv",
+                    firstTransactions.subList(delta * firstTransactions.size() / 6, (delta + 1) * firstTransactions.size() / 6)));
+            reconciliationSessionService.append(sessionId, ComparisonFile.SECOND_FILE, file("second.csv",
+                    secondTransactions.subList(0, (delta + 1) * secondTransactions.size() / 6)));
+        }
+        ReconciliationSessionDto session = reconciliationSessionService.get(sessionId);
+
+        // Then
+        ComparisonMetrics comparisonMetrics = new ComparisonMetrics(new SimpleMeterRegistry());
+        ComparisonResultDto comparison = new ComparisonService(csvParsingService, defaultProperties(), Runnable::run,
+                new OutOfCoreComparisonEngine(defaultProperties(), comparisonMetrics), comparisonMetrics,
+                ForkJoinPool.commonPool())
+                .compare(file("first.csv", firstTransactions), file("second.csv", secondTransactions));
+        assertThat(session.firstFileResult().totalRecords()).isEqualTo(comparison.firstFileResult().totalRecords());
+        assertThat(session.firstFileResult().matchedRecords()).isEqualTo(comparison.firstFileResult().matchedRecords());
+        assertThat(session.secondFileResult().totalRecords()).isEqualTo(comparison.secondFileResult().totalRecords());
+        assertThat(session.secondFileResult().matchedRecords()).isEqualTo(comparison.secondFileResult().matchedRecords());
+        assertThat(session.firstFileResult().potentialMatchedRecords())
+                .isEqualTo(session.secondFileResult().potentialMatchedRecords());
+        assertThat(session.firstFileResult().matchedRecords() + session.firstFileResult().potentialMatchedRecords()
+                + session.firstFileResult().unmatchedRecords()).isEqualTo(session.firstFileResult().totalRecords());
+    }
+
+    @Test
+    public void delete_OpenSession_ShouldNotBeFoundAnymore() {
+        // Given
+        String sessionId = reconciliationSessionService.create().sessionId();
+
+        // When
+        reconciliationSessionService.delete(sessionId);
+
+        // Then
+        assertThatThrownBy(() -> reconciliationSessionService.get(sessionId))
+                .isInstanceOf(ReconciliationSessionNotFoundException.class)
+                .hasMessage("Reconciliation session " + sessionId + " does not exist or has expired");
+        assertThatThrownBy(() -> reconciliationSessionService.delete(sessionId))
+                .isInstanceOf(ReconciliationSessionNotFoundException.class);
+    }
+
+    @Test
+    public void evictIdleSessions_IdleTtlElapsed_ShouldRemoveSession() {
+        // Given
+        reconciliationSessionService = new ReconciliationSessionService(csvParsingService,
+                properties(Map.of("comparator.sessions.idle-ttl", "0s")));
+        String sessionId = reconciliationSessionService.create().sessionId();
+        MultipartFile upload = mock(MultipartFile.class);
+
+        // When
+        reconciliationSessionService.evictIdleSessions();
+
+        // Then
+        assertThatThrownBy(() -> reconciliationSessionService.append(sessionId, ComparisonFile.FIRST_FILE, upload))
+                .isInstanceOf(ReconciliationSessionNotFoundException.class);
+    }
+
+    private MultipartFile file(String fileName, Transaction... transactions) {
+        return file(fileName, List.of(transactions));
+    }
+
+    private MultipartFile file(String fileName, List<Transaction> transactions) {
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getOriginalFilename()).thenReturn(fileName);
+        when(csvParsingService.parseTable(eq(file), any())).thenReturn(TransactionTable.of(transactions));
+        return file;
+    }
+
+    private static Transaction transaction(String id, LocalDateTime date, String amount) {
+        return Transaction.builder()
+                .id(id)
+                .date(date)
+                .amount(new BigDecimal(amount))
+                .walletReference("P_WALLET_" + id)
+                .build();
+    }
+
+}
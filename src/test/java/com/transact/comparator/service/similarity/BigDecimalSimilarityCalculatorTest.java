@@ -133,4 +133,22 @@ public class BigDecimalSimilarityCalculatorTest {
         assertThat(similarity).isEqualTo(1.0);
     }
 
+    @Test
+    public void calculateSimilarity_MinorUnitsWithinTolerance_ShouldReturnOne() {
+        // When
+        double similarity = calculator.calculateSimilarity(10000L, 10001L);
+
+        // Then
+        assertThat(similarity).isEqualTo(1.0);
+    }
+
+    @Test
+    public void calculateSimilarity_MinorUnitsOutsideTolerance_ShouldReturnZero() {
+        // When
+        double similarity = calculator.calculateSimilarity(-10000L, -10002L);
+
+        // Then
+        assertThat(similarity).isEqualTo(0.0);
+    }
+
 }
@@ -0,0 +1,136 @@
+package com.transact.comparator.service.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EditDistanceSimilarityCalculatorTest {
+
+    private final EditDistanceSimilarityCalculator calculator = new EditDistanceSimilarityCalculator(2);
+
+    @Test
+    public void calculateSimilarity_BothValuesAreNull_ShouldReturnOne() {
+        // When
+        double similarity = calculator.calculateSimilarity(null, null);
+
+        // Then
+        assertThat(similarity).isEqualTo(1.0);
+    }
+
+    @Test
+    public void calculateSimilarity_OneIsNullAndOneEmpty_ShouldReturnZero() {
+        // When
+        double similarity = calculator.calculateSimilarity(null, "");
+
+        // Then
+        assertThat(similarity).isEqualTo(0);
+    }
+
+    @Test
+    public void calculateSimilarity_TruncatedValue_ShouldReturnOne() {
+        // When
+        double similarity = calculator.calculateSimilarity("0584011808649511", "05840118086495");
+
+        // Then
+        assertThat(similarity).isEqualTo(1.0);
+    }
+
+    @Test
+    public void calculateSimilarity_ReformattedValue_ShouldReturnOne() {
+        // When
+        double similarity = calculator.calculateSimilarity("TXN-001234", "TXN_001234");
+
+        // Then
+        assertThat(similarity).isEqualTo(1.0);
+    }
+
+    @Test
+    public void calculateSimilarity_MoreEditsThanTolerance_ShouldReturnZero() {
+        // When
+        double similarity = calculator.calculateSimilarity("TXN-001234", "TXN_001243");
+
+        // Then
+        assertThat(similarity).isEqualTo(0);
+    }
+
+    @Test
+    public void calculateSimilarity_NoTolerance_ShouldOnlyMatchEqualValues() {
+        // Given
+        EditDistanceSimilarityCalculator exactCalculator = new EditDistanceSimilarityCalculator(0);
+
+        // When
+        double similarity = exactCalculator.calculateSimilarity("TXN001", "TXN002");
+
+        // Then
+        assertThat(similarity).isEqualTo(0);
+        assertThat(exactCalculator.calculateSimilarity("TXN001", "TXN001")).isEqualTo(1.0);
+    }
+
+    @Test
+    public void distance_RandomValues_ShouldEqualFullDistanceUpToTheBound() {
+        // Given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String first = randomValue(random);
+            String second = random.nextBoolean() ? randomValue(random) : mutate(random, first);
+            int maxEdits = random.nextInt(4);
+
+            // When
+            int distance = EditDistanceSimilarityCalculator.distance(first, second, maxEdits);
+
+            // Then
+            assertThat(distance).as("%s %s %d", first, second, maxEdits)
+                    .isEqualTo(Math.min(fullDistance(first, second), maxEdits + 1));
+        }
+    }
+
+    private String randomValue(Random random) {
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            value.append((char) ('a' + random.nextInt(3)));
+        }
+        return value.toString();
+    }
+
+    private String mutate(Random random, String value) {
+        StringBuilder mutated = new StringBuilder(value);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(mutated.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> mutated.insert(position, (char) ('a' + random.nextInt(3)));
+                case 1 -> {
+                    if (position < mutated.length()) {
+                        mutated.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < mutated.length()) {
+                        mutated.setCharAt(position, (char) ('a' + random.nextInt(3)));
+                    }
+                }
+            }
+        }
+        return mutated.toString();
+    }
+
+    private int fullDistance(String first, String second) {
+        int[][] distances = new int[first.length() + 1][second.length() + 1];
+        for (int i = 0; i <= first.length(); i++) {
+            for (int j = 0; j <= second.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                } else {
+                    distances[i][j] = Math.min(Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1),
+                            distances[i - 1][j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1));
+                }
+            }
+        }
+        return distances[first.length()][second.length()];
+    }
+
+}
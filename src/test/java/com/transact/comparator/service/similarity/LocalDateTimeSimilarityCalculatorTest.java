@@ -3,6 +3,7 @@ package com.transact.comparator.service.similarity;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -133,4 +134,32 @@ public class LocalDateTimeSimilarityCalculatorTest {
         assertThat(similarity).isEqualTo(1.0);
     }
 
+    @Test
+    public void calculateSimilarity_EpochSecondsJustBelowThreeMinutes_ShouldReturnOne() {
+        // Given
+        long firstValue = LocalDateTime.of(2024, 1, 15, 10, 30, 0).toEpochSecond(ZoneOffset.UTC);
+        long secondValue = LocalDateTime.of(2024, 1, 15, 10, 32, 59).toEpochSecond(ZoneOffset.UTC);
+
+        // When
+        double similarity = calculator.calculateSimilarity(firstValue, secondValue);
+
+        // Then
+        assertThat(similarity).isEqualTo(calculator.calculateSimilarity(
+                LocalDateTime.of(2024, 1, 15, 10, 30, 0), LocalDateTime.of(2024, 1, 15, 10, 32, 59)));
+        assertThat(similarity).isEqualTo(1.0);
+    }
+
+    @Test
+    public void calculateSimilarity_EpochSecondsThreeMinutesApart_ShouldReturnZero() {
+        // Given
+        long firstValue = LocalDateTime.of(2024, 1, 15, 10, 33, 0).toEpochSecond(ZoneOffset.UTC);
+        long secondValue = LocalDateTime.of(2024, 1, 15, 10, 30, 0).toEpochSecond(ZoneOffset.UTC);
+
+        // When
+        double similarity = calculator.calculateSimilarity(firstValue, secondValue);
+
+        // Then
+        assertThat(similarity).isEqualTo(0.0);
+    }
+
 }
@@ -0,0 +1,20 @@
+package com.transact.comparator.utils;
+
+import com.transact.comparator.config.ComparatorProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+public class ComparatorPropertiesUtils {
+
+    public static ComparatorProperties defaultProperties() {
+        return properties(Map.of());
+    }
+
+    public static ComparatorProperties properties(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("comparator", ComparatorProperties.class);
+    }
+
+}
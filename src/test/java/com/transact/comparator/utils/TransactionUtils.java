@@ -0,0 +1,51 @@
+package com.transact.comparator.utils;
+
+import com.transact.comparator.domain.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TransactionUtils {
+
+    public static Transaction createTransaction(String id, LocalDateTime date, BigDecimal amount) {
+        return Transaction.builder()
+                .id(id)
+                .date(date)
+                .amount(amount)
+                .type(1)
+                .walletReference("reference")
+                .build();
+    }
+
+    /**
+     * Transactions within one hour, amounts below 30 with a few sub-second dates and sub-minor-unit amounts,
+     * ids drawn from twice as many values as transactions and one in fifty dates or amounts missing.
+     */
+    public static List<Transaction> randomTransactions(Random random, int count) {
+        return randomTransactions(random, count, 3000, true);
+    }
+
+    /**
+     * Transactions within one hour with amounts below {@code maxMinorUnits} hundredths, a tenth of them with
+     * sub-second dates and sub-minor-unit amounts when {@code irregularValues} is set.
+     */
+    public static List<Transaction> randomTransactions(Random random, int count, int maxMinorUnits,
+                                                       boolean irregularValues) {
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 10, 0, 0);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime date = random.nextInt(50) == 0 ? null : start.plusSeconds(random.nextInt(3600))
+                    .plusNanos(irregularValues && random.nextInt(10) == 0 ? random.nextInt(1_000_000_000) : 0);
+            BigDecimal amount = random.nextInt(50) == 0 ? null : BigDecimal.valueOf(random.nextInt(maxMinorUnits),
+                    irregularValues && random.nextInt(10) == 0 ? 3 : 2);
+            Transaction transaction = createTransaction("TXN" + random.nextInt(count * 2), date, amount);
+            transaction.setWalletReference("reference" + i);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+}